@@ -0,0 +1,29 @@
+package ai;
+
+import core.Board;
+import core.Cell;
+
+/**
+ * 次の手を非同期に決定するプレイヤーを表すインターフェースです.<br>
+ * {@link GamePlayer#think(Cell, Board)}と異なり、呼び出したスレッドを待たせずにすぐに戻ります.
+ * 決定した手は、戻り値の{@link MoveFuture}に設定します.<br>
+ * {@link MoveFuture}が取り消された場合は、思考を打ち切ってください.
+ * @author tanabe
+ *
+ */
+public interface AsyncGamePlayer {
+
+    /**
+     * 次の手を考え始めます.<br>
+     * 決定した手は戻り値に設定します.
+     * パスの場合は<code>null</code>を設定します.
+     * 座標が負の場合はゲームを中断します.<br>
+     * 盤面は次の手が決まるまで変更されませんが、
+     * 取り消された後も思考を続ける場合は、盤面を複製して使用してください.
+     * @param cell 置く石
+     * @param board リバーシの盤面
+     * @return 次の手を受け取る{@link MoveFuture}
+     */
+    MoveFuture thinkAsync(Cell cell, Board board);
+
+}
@@ -0,0 +1,101 @@
+package ai;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link GamePlayer}を{@link AsyncGamePlayer}として使用するためのアダプタです.<br>
+ * 思考は指定した{@link ExecutorService}で行います.
+ * {@link MoveFuture}が取り消された場合は、思考中のスレッドに割り込みます.
+ * 割り込みに応じるかはプレイヤーの実装によります.<br>
+ * 思考中に取り消されても盤面が変わらないように、複製した盤面を渡します.<br>
+ * 思考中に発生した例外は、{@link Error}も含めて{@link MoveFuture}に設定します.
+ * @author tanabe
+ *
+ */
+public class AsyncPlayerAdapter implements AsyncGamePlayer {
+
+    /**
+     * 次の手を決定するプレイヤーです.
+     */
+    private final GamePlayer player;
+
+    /**
+     * 思考を行う{@link ExecutorService}です.
+     */
+    private final ExecutorService executor;
+
+
+    /**
+     * アダプタを生成します.
+     * @param player 次の手を決定するプレイヤー
+     * @param executor 思考を行う{@link ExecutorService}
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public AsyncPlayerAdapter(GamePlayer player, ExecutorService executor) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(player);
+        ArgumentCheckUtil.checkNotNull(executor);
+
+        this.player = player;
+        this.executor = executor;
+
+    }
+
+
+    /**
+     * 次の手を考え始めます.
+     * @param cell 置く石
+     * @param board リバーシの盤面
+     * @return 次の手を受け取る{@link MoveFuture}
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     * @throws java.util.concurrent.RejectedExecutionException
+     *  {@link ExecutorService}が実行を受け付けなかった場合に発生
+     */
+    @Override
+    public MoveFuture thinkAsync(final Cell cell, Board board) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNull(board);
+
+        final MoveFuture result = new MoveFuture();
+        final Board copy = new Board(board);
+
+        final Future<?> task = this.executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                if(result.isDone()) {
+                    // 開始前に取り消された
+                    return;
+                }
+                try {
+                    NextMove move = player.think(cell, copy);
+                    result.complete(move);
+                } catch (Throwable t) {
+                    // Errorも結果に設定しないと、待っている側が終わらない
+                    result.fail(t);
+                }
+            }
+        });
+
+        result.addListener(new MoveListener() {
+            @Override
+            public void moveCompleted(MoveFuture future) {
+                if(future.isCancelled()) {
+                    task.cancel(true);
+                }
+            }
+        });
+
+        return result;
+
+    }
+
+}
@@ -42,23 +42,8 @@ public class Human implements GamePlayer {
         // 置く場所があるかをチェック
         ////////////////////////////////////
 
-        // 置き場所チェック用の盤面
-        Board checkBoard = new Board(board);
-        // パスをするかの判定用
-        boolean passFlag = true;
-
         // 置く場所があるかをチェック
-        for(int y = 0; y < board.getHeight(); y++) {
-            for(int x = 0; x < board.getWidth(); x++) {
-
-                if(checkBoard.putStone(x, y, cell)) {
-                    passFlag = false;
-                }
-
-            }
-        }
-
-        if(passFlag) {
+        if(board.getPuttablePlaces(cell) == 0) {
             // パスする
             if(cell == Cell.WHITE) {
                 this.selector.dispImportantMessage("You cannot put the white stone.");
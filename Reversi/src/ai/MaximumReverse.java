@@ -59,17 +59,15 @@ public class MaximumReverse implements GamePlayer {
         // 置ける場所
         ArrayList<int[]> points = new ArrayList<int[]>();
 
-        Board copyBoard = new Board(board);
+        long places = board.getPuttablePlaces(cell);
 
-        for(int y = 0; y < board.getHeight(); y++) {
-            for(int x = 0; x < board.getWidth(); x++) {
+        while(places != 0) {
 
-                if(copyBoard.putStone(x, y, cell)) {
-                    points.add(new int[]{x, y});
-                    copyBoard = new Board(board);
-                }
+            int index = Long.numberOfTrailingZeros(places);
+            places &= places - 1;
+
+            points.add(new int[]{Board.toX(index), Board.toY(index)});
 
-            }
         }
 
         if(points.size() == 0) {
@@ -85,6 +83,7 @@ public class MaximumReverse implements GamePlayer {
         results.add(p);
 
         // 試しに置く
+        Board copyBoard = new Board(board);
         copyBoard.putStone(p[0], p[1], cell);
 
         // 評価値の最大値
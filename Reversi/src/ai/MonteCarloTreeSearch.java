@@ -0,0 +1,144 @@
+package ai;
+
+import util.ArgumentCheckUtil;
+import ai.mcts.UctSearch;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * モンテカルロ木探索(UCT)で石を置く場所を決める戦略をとるプレイヤーです.<br>
+ * 評価関数を使わず、ランダムに最後まで打った結果の勝率が高い場所に石を置きます.
+ * 待ち時間はプレイアウトに使用し、指定の回数以上、待ち時間いっぱいまでプレイアウトを行います.
+ * プレイアウトは複数のスレッドで並列に行うため、CPUのコア数が多いほど強くなります.
+ * @author tanabe
+ *
+ */
+public class MonteCarloTreeSearch implements GamePlayer {
+
+    /**
+     * プレイアウトの回数の下限の規定値です.
+     */
+    public static final int DEFAULT_MIN_PLAYOUTS = 10000;
+
+    /**
+     * 待ち時間のデフォルト値.
+     */
+    private static final int DEFAULT_DELAY_TIME = 500;
+
+    /**
+     * 石を置くまでの待ち時間(ms)です.
+     */
+    private final int delayTime;
+
+    /**
+     * プレイアウトの回数の下限です.
+     */
+    private final int minPlayouts;
+
+    /**
+     * 探索に使用するインスタンスです.
+     */
+    private final UctSearch search;
+
+    /**
+     * プレイヤーを生成します.
+     * @param delayTime 石を置くまでの待ち時間(ms).
+     * @param minPlayouts 一手あたりのプレイアウトの回数の下限.待ち時間に関わらずこの回数は行います
+     * @param exploration 探索の係数.大きいほど勝率が低い手も多く調べる
+     * @param threadCount プレイアウトに使用するスレッドの数
+     * @throws IllegalArgumentException 待ち時間が負の値の場合、プレイアウトの回数またはスレッドの数が0以下の場合、
+     *  または探索の係数が負の値の場合に発生
+     */
+    public MonteCarloTreeSearch(int delayTime, int minPlayouts, double exploration, int threadCount) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNegativeValue(delayTime);
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(minPlayouts);
+
+        this.delayTime = delayTime;
+        this.minPlayouts = minPlayouts;
+        this.search = new UctSearch(exploration, threadCount);
+
+    }
+
+    /**
+     * プレイアウトの回数の下限が規定値で、実行環境のプロセッサ数と同じ数のスレッドを使用するプレイヤーを生成します.
+     * @param delayTime 石を置くまでの待ち時間(ms).
+     * @param exploration 探索の係数.大きいほど勝率が低い手も多く調べる
+     * @throws IllegalArgumentException 待ち時間が負の値の場合、または探索の係数が負の値の場合に発生
+     */
+    public MonteCarloTreeSearch(int delayTime, double exploration) {
+        this(delayTime, DEFAULT_MIN_PLAYOUTS, exploration, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 規定の探索の係数で、実行環境のプロセッサ数と同じ数のスレッドを使用するプレイヤーを生成します.
+     * @param delayTime 石を置くまでの待ち時間(ms).
+     * @throws IllegalArgumentException 待ち時間が負の値の場合に発生
+     */
+    public MonteCarloTreeSearch(int delayTime) {
+        this(delayTime, UctSearch.DEFAULT_EXPLORATION);
+    }
+
+    /**
+     * プレイヤーを生成します.
+     * 石を置くまでの待ち時間は500msです.
+     */
+    public MonteCarloTreeSearch() {
+        this(DEFAULT_DELAY_TIME);
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * プレイアウトの勝率が最も高くなる場所に石を置きます.
+     * @param cell {@inheritDoc}
+     * @param board {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合、または対応する石がない場合に発生
+     */
+    @Override
+    public NextMove think(Cell cell, Board board) {
+
+        long start = System.currentTimeMillis();
+
+        NextMove result = this.search.search(board, cell, this.minPlayouts, this.delayTime);
+
+        // パスや置ける場所が一か所だけで、探索しなかった場合のみ待つ
+        long waitTime = this.delayTime - (System.currentTimeMillis() - start);
+
+        if(waitTime > 0) {
+            try {
+                Thread.sleep(waitTime);
+            } catch (InterruptedException e) {  // CHECKSTYLE IGNORE THIS LINE
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 直前の手番で行ったプレイアウトの回数を取得します.
+     * @return プレイアウトの回数
+     */
+    public long getPlayoutCount() {
+        return this.search.getPlayoutCount();
+    }
+
+    /**
+     * 直前の手番での一秒あたりのプレイアウトの回数を取得します.
+     * @return 一秒あたりのプレイアウトの回数.探索しなかった場合は0
+     */
+    public double getPlayoutsPerSecond() {
+        return this.search.getPlayoutsPerSecond();
+    }
+
+    /**
+     * 直前の手番で選んだ手の、プレイアウトでの勝率を取得します.
+     * @return 勝率.探索しなかった場合は0
+     */
+    public double getWinRate() {
+        return this.search.getWinRate();
+    }
+
+}
@@ -0,0 +1,239 @@
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import util.ArgumentCheckUtil;
+import core.NextMove;
+
+/**
+ * 非同期に決定される次の手です.<br>
+ * プレイヤーは{@link #complete(NextMove)}または{@link #fail(Throwable)}で結果を設定し、
+ * ゲーム側は{@link #addListener(MoveListener)}で完了を受け取るか、{@link #get()}で待ちます.<br>
+ * {@link #cancel(boolean)}で取り消された場合、以降に設定された結果は無視されます.
+ * 結果を設定する処理とリスナーの呼び出しは、一度だけ行われます.
+ * @author tanabe
+ *
+ */
+public class MoveFuture implements Future<NextMove> {
+
+    /**
+     * 結果が未設定の状態です.
+     */
+    private static final int PENDING = 0;
+
+    /**
+     * 次の手が決定した状態です.
+     */
+    private static final int COMPLETED = 1;
+
+    /**
+     * 思考中に例外が発生した状態です.
+     */
+    private static final int FAILED = 2;
+
+    /**
+     * 取り消された状態です.
+     */
+    private static final int CANCELLED = 3;
+
+    /**
+     * 現在の状態です.
+     */
+    private int state;
+
+    /**
+     * 決定した次の手です.
+     */
+    private NextMove move;
+
+    /**
+     * 思考中に発生した例外です.
+     */
+    private Throwable cause;
+
+    /**
+     * 完了を待っているリスナーです.完了後は<code>null</code>になります.
+     */
+    private List<MoveListener> listeners;
+
+
+    /**
+     * 結果が未設定の{@link MoveFuture}を生成します.
+     */
+    public MoveFuture() {
+
+        this.state = PENDING;
+        this.listeners = new ArrayList<MoveListener>();
+
+    }
+
+
+    /**
+     * 決定した次の手を設定します.
+     * @param nextMove 次の手.パスの場合は<code>null</code>
+     * @return 設定した場合は<code>true</code>、既に完了していた場合は<code>false</code>
+     */
+    public boolean complete(NextMove nextMove) {
+        return this.finish(COMPLETED, nextMove, null);
+    }
+
+
+    /**
+     * 思考中に発生した例外を設定します.
+     * @param throwable 発生した例外
+     * @return 設定した場合は<code>true</code>、既に完了していた場合は<code>false</code>
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public boolean fail(Throwable throwable) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(throwable);
+
+        return this.finish(FAILED, null, throwable);
+
+    }
+
+
+    /**
+     * 取り消します.<br>
+     * 思考中のスレッドへの割り込みは、{@link MoveListener}で取り消しを受け取ったプレイヤーが行います.
+     * @param mayInterruptIfRunning 使用しません
+     * @return 取り消した場合は<code>true</code>、既に完了していた場合は<code>false</code>
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return this.finish(CANCELLED, null, null);
+    }
+
+
+    /**
+     * 完了を受け取るリスナーを登録します.<br>
+     * 既に完了している場合は、呼び出したスレッドですぐにリスナーを呼び出します.
+     * @param listener リスナー
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public void addListener(MoveListener listener) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(listener);
+
+        synchronized(this) {
+            if(this.state == PENDING) {
+                this.listeners.add(listener);
+                return;
+            }
+        }
+
+        listener.moveCompleted(this);
+
+    }
+
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return (this.state == CANCELLED);
+    }
+
+
+    @Override
+    public synchronized boolean isDone() {
+        return (this.state != PENDING);
+    }
+
+
+    @Override
+    public synchronized NextMove get() throws InterruptedException, ExecutionException {
+
+        while(this.state == PENDING) {
+            this.wait();
+        }
+
+        return this.report();
+
+    }
+
+
+    @Override
+    public synchronized NextMove get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(unit);
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while(this.state == PENDING) {
+            long remaining = deadline - System.nanoTime();
+            if(remaining <= 0) {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+
+        return this.report();
+
+    }
+
+
+    /**
+     * 完了した結果を返します.
+     * @return 次の手
+     * @throws ExecutionException 思考中に例外が発生していた場合に発生
+     * @throws CancellationException 取り消されていた場合に発生
+     */
+    private NextMove report() throws ExecutionException {
+
+        if(this.state == CANCELLED) {
+            throw new CancellationException();
+        }
+        if(this.state == FAILED) {
+            throw new ExecutionException(this.cause);
+        }
+
+        return this.move;
+
+    }
+
+
+    /**
+     * 結果を設定して完了させ、リスナーを呼び出します.
+     * @param newState 完了後の状態
+     * @param nextMove 次の手
+     * @param throwable 発生した例外
+     * @return 完了させた場合は<code>true</code>、既に完了していた場合は<code>false</code>
+     */
+    private boolean finish(int newState, NextMove nextMove, Throwable throwable) {
+
+        List<MoveListener> completed;
+
+        synchronized(this) {
+
+            if(this.state != PENDING) {
+                return false;
+            }
+
+            this.state = newState;
+            this.move = nextMove;
+            this.cause = throwable;
+            completed = this.listeners;
+            this.listeners = null;
+            this.notifyAll();
+
+        }
+
+        // ロックの外で呼び出す
+        for(MoveListener listener : completed) {
+            listener.moveCompleted(this);
+        }
+
+        return true;
+
+    }
+
+}
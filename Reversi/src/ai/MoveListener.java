@@ -0,0 +1,18 @@
+package ai;
+
+/**
+ * {@link MoveFuture}の完了を受け取るためのインターフェースです.<br>
+ * {@link MoveFuture#addListener(MoveListener)}で登録します.
+ * @author tanabe
+ *
+ */
+public interface MoveListener {
+
+    /**
+     * 次の手が決定した時、失敗した時、または取り消された時に呼び出されます.<br>
+     * 完了させたスレッドから呼び出されるため、時間のかかる処理は行わないでください.
+     * @param future 完了した{@link MoveFuture}
+     */
+    void moveCompleted(MoveFuture future);
+
+}
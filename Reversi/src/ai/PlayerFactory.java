@@ -1,6 +1,10 @@
 package ai;
 
 import util.ArgumentCheckUtil;
+import ai.book.OpeningBook;
+import ai.mcts.UctSearch;
+import ai.minimax.PatternWeights;
+import ai.minimax.ProbCut;
 import input.NextMoveSelector;
 
 /**
@@ -30,6 +34,37 @@ public class PlayerFactory {
      */
     public static final int MAXIMUM = 3;
 
+    /**
+     * モンテカルロ木探索で置く場所を決定するプレイヤーを表す番号です.
+     */
+    public static final int MCTS = 4;
+
+    /**
+     * {@link #TABLE}のプレイヤーが使用する評価関数を指定するシステムプロパティの名前です.<br>
+     * {@value #PATTERN_EVALUATOR}を指定するとパターンによる評価関数を、
+     * {@value #TABLE_EVALUATOR}を指定するとマス目ごとの評価値のテーブルを使用します.
+     * 指定がない場合は、評価値のファイル({@link PatternWeights#loadDefault()})があれば
+     * パターンによる評価関数を、なければテーブルを使用します.
+     */
+    public static final String EVALUATOR_PROPERTY = "reversi.evaluator";
+
+    /**
+     * パターンによる評価関数を表す、{@link #EVALUATOR_PROPERTY}の値です.
+     * 評価値のファイルがない場合は、既定の評価値({@link PatternWeights#createDefault()})を使用します.
+     */
+    public static final String PATTERN_EVALUATOR = "pattern";
+
+    /**
+     * マス目ごとの評価値のテーブルを表す、{@link #EVALUATOR_PROPERTY}の値です.
+     */
+    public static final String TABLE_EVALUATOR = "table";
+
+    /**
+     * {@link #MCTS}のプレイヤーの探索の係数を指定するシステムプロパティの名前です.
+     * 指定がない場合は{@link ai.mcts.UctSearch#DEFAULT_EXPLORATION}を使用します.
+     */
+    public static final String EXPLORATION_PROPERTY = "reversi.exploration";
+
     /**
      * 入力に使用するインスタンスです.
      */
@@ -72,6 +107,22 @@ public class PlayerFactory {
      */
     public GamePlayer create(int playerType, int delayTime) {
 
+        return this.create(playerType, delayTime, false);
+
+    }
+
+
+    /**
+     * プレイヤーを生成します.
+     * @param playerType プレイヤーを表す番号
+     * @param delayTime プレイヤーが石を置くまでの待ち時間(ms).playerTypeに{@link PlayerFactory#HUMAN}を指定した場合は無視されます.
+     * @param pondering 相手の手番で先読みを行う場合は<code>true</code>.
+     *  先読みに対応していないプレイヤーの場合は無視されます
+     * @return 生成したプレイヤー
+     * @throws IllegalArgumentException 対応するプレイヤーがない番号を指定した場合に発生
+     */
+    public GamePlayer create(int playerType, int delayTime, boolean pondering) {
+
         switch(playerType) {
 
             case HUMAN :
@@ -81,11 +132,15 @@ public class PlayerFactory {
                 return new RandomSelect(delayTime);
     
             case TABLE :
-                return new TableReference(delayTime);
+                return new TableReference(delayTime, TableReference.DEFAULT_ENDGAME_EMPTIES,
+                        pondering, BookHolder.BOOK, WeightsHolder.WEIGHTS, ProbCutHolder.PROBCUT);
     
             case MAXIMUM :
                 return new MaximumReverse(delayTime);
     
+            case MCTS :
+                return new MonteCarloTreeSearch(delayTime, getExploration());
+    
             default :
                 throw new IllegalArgumentException("対応するプレイヤーがありません.");
 
@@ -93,4 +148,124 @@ public class PlayerFactory {
 
     }
 
+
+    /**
+     * システムプロパティの指定に従って、モンテカルロ木探索の探索の係数を取得します.
+     * @return 探索の係数
+     * @throws IllegalArgumentException 指定された値が数ではない場合、または負の値の場合に発生
+     */
+    private static double getExploration() {
+
+        String exploration;
+        try {
+            exploration = System.getProperty(EXPLORATION_PROPERTY);
+        } catch (SecurityException e) {
+            // アプレットなど、システムプロパティを参照できない環境では規定値を使用する
+            return UctSearch.DEFAULT_EXPLORATION;
+        }
+
+        if(exploration == null) {
+            return UctSearch.DEFAULT_EXPLORATION;
+        }
+
+        try {
+            return Double.parseDouble(exploration);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("探索の係数が数ではありません.exploration = " + exploration, e);
+        }
+
+    }
+
+
+    /**
+     * 定石ファイルを、最初に使用するまで読み込まないためのクラスです.
+     * @author tanabe
+     *
+     */
+    private static final class BookHolder {
+
+        /**
+         * 全てのプレイヤーで共有する定石です.定石ファイルがない場合は<code>null</code>.
+         */
+        private static final OpeningBook BOOK = OpeningBook.loadDefault();
+
+        /**
+         * コンストラクタ.
+         * ユーティリティクラスのため、使用不可.
+         */
+        private BookHolder() { }
+
+    }
+
+
+    /**
+     * {@link ProbCut}の値のファイルを、最初に使用するまで読み込まないためのクラスです.
+     * @author tanabe
+     *
+     */
+    private static final class ProbCutHolder {
+
+        /**
+         * 全てのプレイヤーで共有する、探索を省略するための値です.
+         * 値のファイルがない場合、または値を求めた評価関数が使用する評価関数と異なる場合は<code>null</code>.
+         * 評価関数を変えた場合は{@link main.ProbCutMain}で求め直す必要があります.
+         */
+        private static final ProbCut PROBCUT = ProbCut.loadDefault(WeightsHolder.WEIGHTS);
+
+        /**
+         * コンストラクタ.
+         * ユーティリティクラスのため、使用不可.
+         */
+        private ProbCutHolder() { }
+
+    }
+
+
+    /**
+     * パターンの評価値を、最初に使用するまで生成しないためのクラスです.
+     * @author tanabe
+     *
+     */
+    private static final class WeightsHolder {
+
+        /**
+         * 全てのプレイヤーで共有するパターンの評価値です.テーブルで評価する場合は<code>null</code>.
+         */
+        private static final PatternWeights WEIGHTS = createWeights();
+
+        /**
+         * コンストラクタ.
+         * ユーティリティクラスのため、使用不可.
+         */
+        private WeightsHolder() { }
+
+        /**
+         * システムプロパティの指定に従って、パターンの評価値を生成します.
+         * @return パターンの評価値.テーブルで評価する場合は<code>null</code>
+         */
+        private static PatternWeights createWeights() {
+
+            String evaluator;
+            try {
+                evaluator = System.getProperty(EVALUATOR_PROPERTY);
+            } catch (SecurityException e) {
+                // アプレットなど、システムプロパティを参照できない環境ではテーブルで評価する
+                return null;
+            }
+
+            if(TABLE_EVALUATOR.equals(evaluator)) {
+                return null;
+            }
+
+            PatternWeights weights = PatternWeights.loadDefault();
+            if((weights == null) && PATTERN_EVALUATOR.equals(evaluator)) {
+                weights = PatternWeights.createDefault();
+            }
+
+            return weights;
+
+        }
+
+    }
+
 }
@@ -63,17 +63,15 @@ public class RandomSelect implements GamePlayer {
         // 置ける場所
         ArrayList<int[]> points = new ArrayList<int[]>();
 
-        Board copyBoard = new Board(board);
+        long places = board.getPuttablePlaces(cell);
 
-        for(int y = 0; y < board.getHeight(); y++) {
-            for(int x = 0; x < board.getWidth(); x++) {
+        while(places != 0) {
 
-                if(copyBoard.putStone(x, y, cell)) {
-                    points.add(new int[]{x, y});
-                    copyBoard = new Board(board);
-                }
+            int index = Long.numberOfTrailingZeros(places);
+            places &= places - 1;
+
+            points.add(new int[]{Board.toX(index), Board.toY(index)});
 
-            }
         }
 
         if(points.size() == 0) {
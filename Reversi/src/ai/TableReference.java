@@ -1,7 +1,19 @@
 package ai;
 
+import java.util.Random;
+
 import util.ArgumentCheckUtil;
-import ai.minimax.MiniMax;
+import ai.book.OpeningBook;
+import ai.minimax.AlphaBeta;
+import ai.minimax.EndgameSolver;
+import ai.minimax.Evaluator;
+import ai.minimax.HeuristicMoveOrdering;
+import ai.minimax.PatternEvaluator;
+import ai.minimax.PatternWeights;
+import ai.minimax.ProbCut;
+import ai.minimax.SearchMode;
+import ai.minimax.TableEvaluator;
+import ai.minimax.TranspositionTable;
 import core.Board;
 import core.NextMove;
 import core.Cell;
@@ -10,7 +22,14 @@ import core.Cell;
  * 石を置くことで全体の評価値が最も高くなる場所に石を置く戦略をとるプレイヤーです.<br>
  * 盤面の場所ごとの評価値をテーブルで管理しています.<br>
  * 自分の石が置いてある場合は評価値を加算、相手の石が置いていある場合は評価値を減算し、
- * 全体の評価値を計算します.
+ * 全体の評価値を計算します.<br>
+ * 空きマスの数が指定した数以下になったら、評価値を使わずに最後まで読み切ります.<br>
+ * 定石を指定した場合は、定石に記録された局面では探索せずに定石の手を打ちます.<br>
+ * パターンの評価値を指定した場合は、テーブルの代わりにパターンによる評価関数で先読みします.<br>
+ * {@link ProbCut}を指定した場合は、浅い探索で結果を予想できる枝の探索を省略し、同じ時間でより深く先読みします.<br>
+ * 先読み(ポンダリング)を有効にした場合は、相手の手番の間に相手の手を予想し、
+ * その手を打たれた後の局面を別スレッドで探索しておきます.
+ * 予想が当たった場合は、その探索結果と置換表を次の手番で再利用します.
  * @author tanabe
  *
  */
@@ -26,17 +45,176 @@ public class TableReference implements GamePlayer {
      */
     private static final int DEFAULT_DELAY_TIME = 500;
 
+    /**
+     * 待ち時間に関わらず、最低限先読みをする手数です.
+     */
+    private static final int MIN_LEVEL = 4;
+
+    /**
+     * 最後まで読み切る空きマスの数の規定値.
+     */
+    public static final int DEFAULT_ENDGAME_EMPTIES = 14;
+
+    /**
+     * 置換表の大きさ(2のべき乗の指数)です.
+     */
+    private static final int TABLE_SIZE_BITS = 18;
+
+    /**
+     * 置換表から相手の手を予想できなかった場合に、相手の手を予想するための先読みの手数です.
+     */
+    private static final int PREDICT_LEVEL = 2;
+
+    /**
+     * 相手の手番で先読みを続ける時間の上限(ms)です.
+     * ゲームが終了した後も探索を続けないようにするためのものです.
+     */
+    private static final long MAX_PONDER_TIME = 60000;
+
+    /**
+     * 先読みで使用する置換表です.
+     * 前回の手番で探索した局面も再利用するため、プレイヤーごとに保持します.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * 終盤の読み切りを行うクラスです.
+     */
+    private final EndgameSolver solver;
+
+    /**
+     * 相手の手番で先読みを行うかを示すフラグです.
+     */
+    private final boolean pondering;
+
+    /**
+     * 定石です.使用しない場合は<code>null</code>.
+     */
+    private final OpeningBook book;
+
+    /**
+     * 定石の手を選ぶための乱数です.
+     */
+    private final Random random;
+
+    /**
+     * パターンによる評価関数の評価値です.テーブルで評価する場合は<code>null</code>.
+     */
+    private final PatternWeights weights;
+
+    /**
+     * 探索を省略するための値です.省略しない場合は<code>null</code>.
+     */
+    private final ProbCut probCut;
+
+    /**
+     * 相手の手番で行っている先読みです.行っていない場合は<code>null</code>.
+     */
+    private Ponder ponder;
+
+    /**
+     * 直前の手番で最後まで探索できた先読みの手数です.
+     */
+    private int completedLevel;
+
+    /**
+     * 相手の手の予想が当たった回数です.
+     */
+    private int ponderHitCount;
+
     /**
      * プレイヤーを生成します.
+     * 待ち時間は先読みに使用し、時間内でできるだけ深く先読みします.
      * @param delayTime 石を置くまでの待ち時間(ms).
+     * @param endgameEmpties 最後まで読み切る空きマスの数.
+     *  読み切りには待ち時間に関わらず必要なだけ時間をかけます
+     * @param pondering 相手の手番で先読みを行う場合は<code>true</code>.
+     *  相手が人間の場合など、相手の手番でCPUが空いている場合に使用します
+     * @param book 定石.使用しない場合は<code>null</code>
+     * @param weights パターンによる評価関数の評価値.テーブルで評価する場合は<code>null</code>
+     * @param probCut 探索を省略するための値.省略しない場合は<code>null</code>
      */
-    public TableReference(int delayTime) {
+    public TableReference(int delayTime, int endgameEmpties, boolean pondering, OpeningBook book,
+            PatternWeights weights, ProbCut probCut) {
 
         // 引数チェック
         ArgumentCheckUtil.checkNotNegativeValue(delayTime);
+        ArgumentCheckUtil.checkNotNegativeValue(endgameEmpties);
 
         this.delayTime = delayTime;
+        this.table = new TranspositionTable(TABLE_SIZE_BITS);
+        this.solver = new EndgameSolver(endgameEmpties);
+        this.pondering = pondering;
+        this.book = book;
+        this.random = new Random();
+        this.weights = weights;
+        this.probCut = probCut;
+
+    }
+
+    /**
+     * 探索を省略しないプレイヤーを生成します.
+     * 待ち時間は先読みに使用し、時間内でできるだけ深く先読みします.
+     * @param delayTime 石を置くまでの待ち時間(ms).
+     * @param endgameEmpties 最後まで読み切る空きマスの数.
+     *  読み切りには待ち時間に関わらず必要なだけ時間をかけます
+     * @param pondering 相手の手番で先読みを行う場合は<code>true</code>.
+     *  相手が人間の場合など、相手の手番でCPUが空いている場合に使用します
+     * @param book 定石.使用しない場合は<code>null</code>
+     * @param weights パターンによる評価関数の評価値.テーブルで評価する場合は<code>null</code>
+     */
+    public TableReference(int delayTime, int endgameEmpties, boolean pondering, OpeningBook book,
+            PatternWeights weights) {
+        this(delayTime, endgameEmpties, pondering, book, weights, null);
+    }
 
+    /**
+     * テーブルで評価するプレイヤーを生成します.
+     * 待ち時間は先読みに使用し、時間内でできるだけ深く先読みします.
+     * @param delayTime 石を置くまでの待ち時間(ms).
+     * @param endgameEmpties 最後まで読み切る空きマスの数.
+     *  読み切りには待ち時間に関わらず必要なだけ時間をかけます
+     * @param pondering 相手の手番で先読みを行う場合は<code>true</code>.
+     *  相手が人間の場合など、相手の手番でCPUが空いている場合に使用します
+     * @param book 定石.使用しない場合は<code>null</code>
+     */
+    public TableReference(int delayTime, int endgameEmpties, boolean pondering, OpeningBook book) {
+        this(delayTime, endgameEmpties, pondering, book, null);
+    }
+
+    /**
+     * 定石を使用しないプレイヤーを生成します.
+     * 待ち時間は先読みに使用し、時間内でできるだけ深く先読みします.
+     * @param delayTime 石を置くまでの待ち時間(ms).
+     * @param endgameEmpties 最後まで読み切る空きマスの数.
+     *  読み切りには待ち時間に関わらず必要なだけ時間をかけます
+     * @param pondering 相手の手番で先読みを行う場合は<code>true</code>.
+     *  相手が人間の場合など、相手の手番でCPUが空いている場合に使用します
+     */
+    public TableReference(int delayTime, int endgameEmpties, boolean pondering) {
+        this(delayTime, endgameEmpties, pondering, null);
+    }
+
+    /**
+     * プレイヤーを生成します.
+     * 待ち時間は先読みに使用し、時間内でできるだけ深く先読みします.
+     * 相手の手番では先読みを行いません.
+     * @param delayTime 石を置くまでの待ち時間(ms).
+     * @param endgameEmpties 最後まで読み切る空きマスの数.
+     *  読み切りには待ち時間に関わらず必要なだけ時間をかけます
+     */
+    public TableReference(int delayTime, int endgameEmpties) {
+        this(delayTime, endgameEmpties, false);
+    }
+
+    /**
+     * プレイヤーを生成します.
+     * 待ち時間は先読みに使用し、時間内でできるだけ深く先読みします.
+     * 空きマスが14以下になったら最後まで読み切ります.
+     * @param delayTime 石を置くまでの待ち時間(ms).
+     */
+    public TableReference(int delayTime) {
+        this(delayTime, DEFAULT_ENDGAME_EMPTIES);
     }
 
     /**
@@ -59,9 +237,44 @@ public class TableReference implements GamePlayer {
 
         long start = System.currentTimeMillis();
 
-        int level = 4;  // CHECKSTYLE IGNORE THIS LINE
-        NextMove result = MiniMax.getNextMove(level, board, cell);
+        // 相手の手番での先読みを止めてから置換表を使う
+        Ponder finished = this.joinPondering();
+
+        NextMove result = null;
+        if(this.book != null) {
+            result = this.book.getMove(board, cell, this.random);
+        }
+
+        if(result != null) {
+            // 定石の手を打つ
+            this.completedLevel = 0;
+        } else if(this.solver.canSolve(board)) {
+            // 終盤は石の数の差が最大になる手を読み切る
+            result = this.solver.solve(board, cell, true);
+            this.completedLevel = board.getStoneCount(Cell.NOTHING);
+        } else {
+            // 待ち時間いっぱいまで先読みの手数を増やす
+            // 予想が当たっていれば、先読みで記録した置換表により浅い手数の探索はすぐに終わる
+            AlphaBeta search = this.createSearch();
+            result = search.search(board, cell, MIN_LEVEL, this.delayTime);
+            this.completedLevel = search.getCompletedLevel();
+
+            if((finished != null) && finished.isHit(board, cell)) {
+                this.ponderHitCount++;
+                if(finished.completedLevel > this.completedLevel) {
+                    // 相手の手番の間により深く読めていた
+                    result = finished.move;
+                    this.completedLevel = finished.completedLevel;
+                }
+            }
+        }
+
+        // 時間切れや投了で中断された場合は、終わった対局を先読みしない
+        if(this.pondering && !Thread.currentThread().isInterrupted()) {
+            this.startPondering(board, cell, result);
+        }
 
+        // 最後まで読み切って時間が余った場合のみ待つ
         long waitTime = this.delayTime - (System.currentTimeMillis() - start);
 
         if(waitTime < 0) {
@@ -70,10 +283,238 @@ public class TableReference implements GamePlayer {
 
         try {
             Thread.sleep(waitTime);
-        } catch (InterruptedException e) {  // CHECKSTYLE IGNORE THIS LINE
+        } catch (InterruptedException e) {
+            // 中断を呼び出し元に伝え、待たずに返す
+            Thread.currentThread().interrupt();
+            return result;
         }
 
         return result;
     }
 
+    /**
+     * 直前の手番で最後まで探索できた先読みの手数を取得します.
+     * 読み切った場合は空きマスの数になります.
+     * @return 先読みの手数
+     */
+    public int getCompletedLevel() {
+        return this.completedLevel;
+    }
+
+    /**
+     * 相手の手の予想が当たった回数を取得します.
+     * @return 予想が当たった回数
+     */
+    public int getPonderHitCount() {
+        return this.ponderHitCount;
+    }
+
+    /**
+     * 相手の手番での先読みを止めます.<br>
+     * 先読みのスレッドが終了するまで待ちます.
+     * ゲームを終えた場合や途中で終える場合に呼び出すと、先読みのスレッドをすぐに終了できます.
+     * ゲームを進めるスレッドとは別のスレッドから呼び出すこともできます.
+     */
+    public void stopPondering() {
+        this.joinPondering();
+    }
+
+    /**
+     * 先読みに使用する評価関数を生成します.
+     * パターンによる評価関数は探索中の値を保持するため、探索ごとに生成します.
+     * @return 評価関数
+     */
+    private Evaluator createEvaluator() {
+
+        if(this.weights == null) {
+            return new TableEvaluator();
+        }
+        return new PatternEvaluator(this.weights);
+
+    }
+
+    /**
+     * 置換表を使って先読みする探索を生成します.
+     * 置換表は探索を省略した結果も記録するため、全ての探索で同じ値を使って省略します.
+     * @return 探索
+     */
+    private AlphaBeta createSearch() {
+
+        if(this.probCut == null) {
+            return new AlphaBeta(this.table, this.createEvaluator());
+        }
+        return new AlphaBeta(this.table, this.createEvaluator(), new HeuristicMoveOrdering(),
+                SearchMode.ASPIRATION, this.probCut);
+
+    }
+
+    /**
+     * 相手の手番での先読みを止めて、先読みのスレッドが終了するまで待ちます.
+     * @return 止めた先読み.行っていなかった場合は<code>null</code>
+     */
+    private synchronized Ponder joinPondering() {
+
+        Ponder stopped = this.ponder;
+        if(stopped == null) {
+            return null;
+        }
+
+        this.ponder = null;
+        stopped.thread.interrupt();
+
+        boolean interrupted = false;
+        while(true) {
+            try {
+                stopped.thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if(interrupted) {
+            // 呼び出し元の割り込み状態を戻す
+            Thread.currentThread().interrupt();
+        }
+
+        return stopped;
+
+    }
+
+    /**
+     * 自分の手を打った後の局面から、相手の手番での先読みを開始します.
+     * @param board 自分の手を打つ前の盤面
+     * @param cell 自分の石
+     * @param move 自分の手.パスの場合は<code>null</code>
+     */
+    private synchronized void startPondering(Board board, Cell cell, NextMove move) {
+
+        Board next = new Board(board);
+        if(move != null) {
+            next.putStone(move.getX(), move.getY(), cell);
+        }
+
+        Ponder started = new Ponder(next, cell);
+        started.thread.start();
+        this.ponder = started;
+
+    }
+
+    /**
+     * 相手の手番で行う先読みです.<br>
+     * 相手の手を予想し、その手を打たれた後の局面を制限時間なしで探索します.
+     * 止められた時点で最後まで探索できた手数での最善手を保持します.
+     * 探索結果は、スレッドの終了を待ってから参照してください.
+     * @author tanabe
+     *
+     */
+    private final class Ponder implements Runnable {
+
+        /**
+         * 先読みを行うスレッドです.
+         */
+        private final Thread thread;
+
+        /**
+         * 相手の手を打たれる前の盤面です.先読み中に予想した相手の手を打ちます.
+         */
+        private final Board board;
+
+        /**
+         * 自分の石です.
+         */
+        private final Cell cell;
+
+        /**
+         * 予想した相手の手を打たれた後の盤面です.予想していない場合は<code>null</code>.
+         */
+        private Board predicted;
+
+        /**
+         * 予想した局面での最善手です.
+         */
+        private NextMove move;
+
+        /**
+         * 予想した局面で最後まで探索できた先読みの手数です.
+         */
+        private int completedLevel;
+
+        /**
+         * 先読みを生成します.
+         * @param board 相手の手を打たれる前の盤面
+         * @param cell 自分の石
+         */
+        private Ponder(Board board, Cell cell) {
+
+            this.board = board;
+            this.cell = cell;
+            this.thread = new Thread(this, "TableReference-ponder");
+            this.thread.setDaemon(true);
+
+        }
+
+        /**
+         * 相手の手を予想して、その後の局面を探索します.
+         */
+        @Override
+        public void run() {
+
+            Cell opponent = (this.cell == Cell.BLACK) ? Cell.WHITE : Cell.BLACK;
+            if(this.board.getPuttablePlaces(opponent) == 0) {
+                // 相手はパスするので、予想するまでもない
+                return;
+            }
+
+            Board next = new Board(this.board);
+            next.putStone(this.predictReply(opponent), opponent);
+            this.predicted = next;
+
+            if(solver.canSolve(next) || (next.getPuttablePlaces(this.cell) == 0)) {
+                // 読み切りは十分に速く、置けない局面は探索するまでもない
+                return;
+            }
+
+            // 止められるまで探索する
+            AlphaBeta search = createSearch();
+            this.move = search.search(next, this.cell, 1, MAX_PONDER_TIME);
+            this.completedLevel = search.getCompletedLevel();
+
+        }
+
+        /**
+         * 相手の手を予想します.<br>
+         * 自分の手番の探索で置換表に記録した最善手を優先し、
+         * 記録がない場合は浅く探索して決めます.
+         * @param opponent 相手の石
+         * @return 相手の手のマス目の番号
+         */
+        private int predictReply(Cell opponent) {
+
+            long places = this.board.getPuttablePlaces(opponent);
+
+            long entry = table.probe(TranspositionTable.getKey(this.board, opponent));
+            if(entry != TranspositionTable.NOT_FOUND) {
+                int hashMove = TranspositionTable.getMove(entry);
+                if((hashMove != TranspositionTable.NO_MOVE) && ((places & (1L << hashMove)) != 0)) {
+                    return hashMove;
+                }
+            }
+
+            NextMove reply = createSearch().search(PREDICT_LEVEL, this.board, opponent);
+            return Board.toIndex(reply.getX(), reply.getY());
+
+        }
+
+        /**
+         * 予想が当たったかを判定します.
+         * @param current 現在の盤面
+         * @param currentCell 自分の石
+         * @return 予想した局面と同じ場合は<code>true</code>
+         */
+        private boolean isHit(Board current, Cell currentCell) {
+            return (this.predicted != null) && (this.cell == currentCell) && this.predicted.equals(current);
+        }
+
+    }
+
 }
@@ -0,0 +1,313 @@
+package ai.book;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import util.ArgumentCheckUtil;
+import ai.minimax.TranspositionTable;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * 定石ファイル(オープニングブック)です.<br>
+ * 局面ごとに、定石とする手と選ぶ重みを記録しています.
+ * 対称な局面は正規化して一つの局面として記録するため、回転や反転した局面でも参照できます.<br>
+ * ファイルはメモリにマップして読み込み、参照のたびに二分探索します.
+ * 読み込み後は変更しないため、複数のスレッドから同時に参照できます.<br>
+ * ファイルの形式は次のとおりです.数値はビッグエンディアンです.
+ * <ul>
+ * <li>ヘッダー: 識別子(int)、バージョン(int)、レコード数(int)</li>
+ * <li>レコード: 局面のキー(long)、手のマス目の番号(byte)、重み(符号なしshort)</li>
+ * </ul>
+ * レコードは局面のキーの昇順に並び、同じ局面の手は連続して記録します.
+ * 局面のキーと手のマス目の番号は、正規化した盤面でのものです.
+ * @author tanabe
+ *
+ */
+public final class OpeningBook {
+
+    /**
+     * 定石ファイルのパスを指定するシステムプロパティの名前です.
+     */
+    public static final String FILE_PROPERTY = "reversi.book";
+
+    /**
+     * 定石ファイルのパスの規定値です.
+     */
+    public static final String DEFAULT_FILE = "reversi.book";
+
+    /**
+     * 定石ファイルを表す識別子です.
+     */
+    static final int MAGIC = 0x52564B31;
+
+    /**
+     * ファイル形式のバージョンです.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * ヘッダーの大きさ(byte)です.
+     */
+    static final int HEADER_SIZE = 12;
+
+    /**
+     * レコードの大きさ(byte)です.
+     */
+    static final int RECORD_SIZE = 11;
+
+    /**
+     * 重みの最大値です.
+     */
+    static final int MAX_WEIGHT = 0xFFFF;
+
+    /**
+     * 手のマス目の番号の位置(レコードの先頭から)です.
+     */
+    private static final int MOVE_OFFSET = 8;
+
+    /**
+     * 重みの位置(レコードの先頭から)です.
+     */
+    private static final int WEIGHT_OFFSET = 9;
+
+    /**
+     * バージョンの位置です.
+     */
+    private static final int VERSION_OFFSET = 4;
+
+    /**
+     * レコード数の位置です.
+     */
+    private static final int COUNT_OFFSET = 8;
+
+    /**
+     * ファイルの内容です.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * レコードの数です.
+     */
+    private final int count;
+
+
+    /**
+     * 定石ファイルの内容から定石を生成します.
+     * @param buffer ファイルの内容
+     * @throws IOException 定石ファイルの形式ではない場合に発生
+     */
+    OpeningBook(ByteBuffer buffer) throws IOException {
+
+        if((buffer.capacity() < HEADER_SIZE) || (buffer.getInt(0) != MAGIC)) {
+            throw new IOException("定石ファイルではありません.");
+        }
+        if(buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("対応していないバージョンです.version = " + buffer.getInt(VERSION_OFFSET));
+        }
+
+        int records = buffer.getInt(COUNT_OFFSET);
+        if((records < 0) || ((long)HEADER_SIZE + (long)records * RECORD_SIZE != buffer.capacity())) {
+            throw new IOException("定石ファイルの大きさが正しくありません.");
+        }
+
+        this.buffer = buffer;
+        this.count = records;
+
+    }
+
+
+    /**
+     * 定石ファイルを読み込みます.<br>
+     * ファイルはメモリにマップするため、読み込み後にファイルを変更しないでください.
+     * @param file 定石ファイル
+     * @return 定石
+     * @throws IOException ファイルを読み込めない場合、または定石ファイルの形式ではない場合に発生
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public static OpeningBook load(File file) throws IOException {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(file);
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            // マップした内容はファイルを閉じても参照できる
+            raf.close();
+        }
+
+    }
+
+
+    /**
+     * 規定の定石ファイルを読み込みます.<br>
+     * ファイルのパスはシステムプロパティ{@value #FILE_PROPERTY}で指定します.
+     * 指定がない場合は、作業ディレクトリの{@value #DEFAULT_FILE}を読み込みます.
+     * @return 定石.ファイルがない場合、または読み込めない場合は<code>null</code>
+     */
+    public static OpeningBook loadDefault() {
+
+        try {
+
+            File file = new File(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+            if(!file.isFile()) {
+                return null;
+            }
+
+            return load(file);
+
+        } catch (IOException e) {
+            // 定石がなくても探索で打てる
+            System.err.println(e);
+            return null;
+        } catch (SecurityException e) {
+            // アプレットなど、ファイルを参照できない環境では定石を使わない
+            return null;
+        }
+
+    }
+
+
+    /**
+     * 局面のキーを求めます.
+     * @param board 正規化した盤面
+     * @param cell 次に置く石
+     * @return 局面のキー
+     */
+    static long getKey(Board board, Cell cell) {
+        return TranspositionTable.getKey(board, cell);
+    }
+
+
+    /**
+     * 記録しているレコード(局面と手の組)の数を取得します.
+     * @return レコードの数
+     */
+    public int size() {
+        return this.count;
+    }
+
+
+    /**
+     * 定石の手を選びます.<br>
+     * 局面に記録された手の中から、重みに比例した確率で選びます.
+     * @param board 現在の盤面
+     * @param cell 次に置く石
+     * @param random 手を選ぶための乱数
+     * @return 定石の手.局面が記録されていない場合は<code>null</code>
+     * @throws IllegalArgumentException
+     *  引数が<code>null</code>の場合、または第二引数が黒石でも白石でもない場合に発生
+     */
+    public NextMove getMove(Board board, Cell cell, Random random) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(board);
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
+        ArgumentCheckUtil.checkNotNull(random);
+
+        int symmetry = board.getCanonicalSymmetry();
+        long key = getKey(board.getTransformed(symmetry), cell);
+        int inverse = Board.getInverseSymmetry(symmetry);
+
+        int first = this.findFirst(key);
+        if(first < 0) {
+            return null;
+        }
+
+        // 置ける手の重みを合計する
+        long places = board.getPuttablePlaces(cell);
+        int total = 0;
+        for(int i = first; (i < this.count) && (this.getRecordKey(i) == key); i++) {
+            if((places & (1L << Board.transformIndex(this.getRecordMove(i), inverse))) != 0) {
+                total += this.getRecordWeight(i);
+            }
+        }
+
+        if(total <= 0) {
+            return null;
+        }
+
+        int target = random.nextInt(total);
+        for(int i = first; (i < this.count) && (this.getRecordKey(i) == key); i++) {
+            int index = Board.transformIndex(this.getRecordMove(i), inverse);
+            if((places & (1L << index)) != 0) {
+                target -= this.getRecordWeight(i);
+                if(target < 0) {
+                    return new NextMove(Board.toX(index), Board.toY(index), cell);
+                }
+            }
+        }
+
+        // 重みの合計より小さい値を選んでいるため、ここには来ない
+        return null;
+
+    }
+
+
+    /**
+     * 指定したキーの最初のレコードを二分探索します.
+     * @param key 局面のキー
+     * @return レコードの番号.見つからない場合は-1
+     */
+    private int findFirst(long key) {
+
+        int low = 0;
+        int high = this.count;
+
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(this.getRecordKey(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        if((low < this.count) && (this.getRecordKey(low) == key)) {
+            return low;
+        }
+
+        return -1;
+
+    }
+
+
+    /**
+     * レコードの局面のキーを取得します.
+     * @param record レコードの番号
+     * @return 局面のキー
+     */
+    private long getRecordKey(int record) {
+        return this.buffer.getLong(HEADER_SIZE + record * RECORD_SIZE);
+    }
+
+
+    /**
+     * レコードの手のマス目の番号を取得します.
+     * @param record レコードの番号
+     * @return 正規化した盤面でのマス目の番号
+     */
+    private int getRecordMove(int record) {
+        return this.buffer.get(HEADER_SIZE + record * RECORD_SIZE + MOVE_OFFSET);
+    }
+
+
+    /**
+     * レコードの重みを取得します.
+     * @param record レコードの番号
+     * @return 重み
+     */
+    private int getRecordWeight(int record) {
+        return this.buffer.getShort(HEADER_SIZE + record * RECORD_SIZE + WEIGHT_OFFSET) & MAX_WEIGHT;
+    }
+
+}
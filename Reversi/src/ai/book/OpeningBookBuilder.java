@@ -0,0 +1,207 @@
+package ai.book;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * 対局の記録から定石ファイルを作成するクラスです.<br>
+ * 各対局の序盤の局面で打たれた手ごとに、打った側から見た勝ち点
+ * (勝ちを2、引き分けを1、負けを0)を集計し、その合計を手の重みとします.
+ * よく打たれ、よく勝っている手ほど選ばれやすくなります.<br>
+ * 対称な局面は正規化してまとめて集計します.
+ * @author tanabe
+ *
+ */
+public class OpeningBookBuilder {
+
+    /**
+     * 集計する手数です.
+     */
+    private final int maxPlies;
+
+    /**
+     * 局面のキーごと、正規化した手ごとの集計です.
+     */
+    private final Map<Long, Map<Integer, int[]>> statistics;
+
+    /**
+     * 集計した対局の数です.
+     */
+    private int gameCount;
+
+
+    /**
+     * 定石ファイルを作成するインスタンスを生成します.
+     * @param maxPlies 初手から何手目までを集計するか
+     * @throws IllegalArgumentException 引数が0以下の場合に発生
+     */
+    public OpeningBookBuilder(int maxPlies) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(maxPlies);
+
+        this.maxPlies = maxPlies;
+        this.statistics = new HashMap<Long, Map<Integer, int[]>>();
+
+    }
+
+
+    /**
+     * 対局の記録を追加します.<br>
+     * 初期配置から記録の手を順に打ち、終局時の石の数で勝敗を判定します.
+     * 置いた石の色が手番と異なる場合は、その前にパスがあったものとします.
+     * @param record 対局で打たれた手(パスを含まない)
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合、または置けない手を含む場合に発生
+     */
+    public void addGame(List<NextMove> record) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(record);
+
+        Board board = createInitialBoard();
+        List<long[]> played = new ArrayList<long[]>();
+
+        for(NextMove move : record) {
+
+            Cell cell = move.getStone();
+            if(!board.canPut(move.getX(), move.getY(), cell)) {
+                throw new IllegalArgumentException("置けない手が含まれています.move = " + move);
+            }
+
+            if(played.size() < this.maxPlies) {
+                int symmetry = board.getCanonicalSymmetry();
+                long key = OpeningBook.getKey(board.getTransformed(symmetry), cell);
+                int canonicalMove = Board.transformIndex(Board.toIndex(move.getX(), move.getY()), symmetry);
+                played.add(new long[] {key, canonicalMove, (cell == Cell.BLACK) ? 1 : -1});
+            }
+
+            board.putStone(move.getX(), move.getY(), cell);
+
+        }
+
+        int difference = Integer.signum(board.getStoneCount(Cell.BLACK) - board.getStoneCount(Cell.WHITE));
+
+        for(long[] entry : played) {
+
+            Map<Integer, int[]> moves = this.statistics.get(entry[0]);
+            if(moves == null) {
+                moves = new HashMap<Integer, int[]>();
+                this.statistics.put(entry[0], moves);
+            }
+
+            int[] stats = moves.get((int)entry[1]);
+            if(stats == null) {
+                stats = new int[1];
+                moves.put((int)entry[1], stats);
+            }
+
+            // 打った側から見た勝ち点を加える
+            stats[0] += (difference * entry[2]) + 1;
+
+        }
+
+        this.gameCount++;
+
+    }
+
+
+    /**
+     * 集計した対局の数を取得します.
+     * @return 対局の数
+     */
+    public int getGameCount() {
+        return this.gameCount;
+    }
+
+
+    /**
+     * 集計した局面の数を取得します.
+     * @return 局面の数
+     */
+    public int getPositionCount() {
+        return this.statistics.size();
+    }
+
+
+    /**
+     * 定石ファイルを書き出します.<br>
+     * 重みが指定した値より小さい手は書き出しません.
+     * 重みが{@link OpeningBook}で記録できる最大値を超える場合は、最大値にします.
+     * @param file 書き出すファイル
+     * @param minWeight 書き出す手の重みの下限(1以上)
+     * @return 書き出したレコードの数
+     * @throws IOException ファイルに書き込めない場合に発生
+     * @throws IllegalArgumentException 第一引数が<code>null</code>、または第二引数が0以下の場合に発生
+     */
+    public int write(File file, int minWeight) throws IOException {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(file);
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(minWeight);
+
+        // キーの昇順、手の昇順に並べる
+        Map<Long, Map<Integer, int[]>> sorted = new TreeMap<Long, Map<Integer, int[]>>();
+        for(Map.Entry<Long, Map<Integer, int[]>> entry : this.statistics.entrySet()) {
+            sorted.put(entry.getKey(), new TreeMap<Integer, int[]>(entry.getValue()));
+        }
+
+        List<long[]> records = new ArrayList<long[]>();
+        for(Map.Entry<Long, Map<Integer, int[]>> entry : sorted.entrySet()) {
+            for(Map.Entry<Integer, int[]> move : entry.getValue().entrySet()) {
+                int weight = move.getValue()[0];
+                if(weight >= minWeight) {
+                    records.add(new long[] {entry.getKey(), move.getKey(), Math.min(weight, OpeningBook.MAX_WEIGHT)});
+                }
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(records.size());
+            for(long[] record : records) {
+                out.writeLong(record[0]);
+                out.writeByte((int)record[1]);
+                out.writeShort((int)record[2]);
+            }
+        } finally {
+            out.close();
+        }
+
+        return records.size();
+
+    }
+
+
+    /**
+     * 初期配置の盤面を生成します.
+     * @return 盤面
+     */
+    private static Board createInitialBoard() {
+
+        Board board = new Board();
+        // CHECKSTYLE:OFF
+        board.initStone(3, 3, Cell.WHITE);
+        board.initStone(4, 4, Cell.WHITE);
+        board.initStone(3, 4, Cell.BLACK);
+        board.initStone(4, 3, Cell.BLACK);
+        // CHECKSTYLE:ON
+        return board;
+
+    }
+
+}
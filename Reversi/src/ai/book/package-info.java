@@ -0,0 +1,4 @@
+/**
+ * 序盤の定石を記録した定石ファイル(オープニングブック)を扱うクラス用のパッケージです.
+ */
+package ai.book;
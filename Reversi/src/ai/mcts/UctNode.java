@@ -0,0 +1,206 @@
+package ai.mcts;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import core.Board;
+
+/**
+ * {@link UctSearch}の探索木のノードです.<br>
+ * 親のノードの手番が打った手と、その手を選んだ回数(訪問回数)、その手を打った側の勝ち点の合計を持ちます.
+ * 勝ち点は勝ちを{@value #WIN_POINTS}、引き分けを{@value #DRAW_POINTS}、負けを0として数えます.<br>
+ * 複数のスレッドが同時に探索するため、訪問回数と勝ち点は不可分に更新し、子のノードは一度だけ生成します.
+ * 訪問回数はプレイアウトの前に加え、勝ち点はプレイアウトの後に加えるため、
+ * プレイアウト中のノードは負けが一回増えたように見えます(バーチャルロス).
+ * これにより、他のスレッドは別の手を選びやすくなります.
+ * @author tanabe
+ *
+ */
+final class UctNode {
+
+    /**
+     * パスを表す手です.
+     */
+    static final int PASS = -1;
+
+    /**
+     * 勝った場合の勝ち点です.
+     */
+    static final int WIN_POINTS = 2;
+
+    /**
+     * 引き分けの場合の勝ち点です.
+     */
+    static final int DRAW_POINTS = 1;
+
+    /**
+     * 子のノードがないことを表す値です.終局した局面のノードで使用します.
+     */
+    private static final UctNode[] NO_CHILDREN = new UctNode[0];
+
+    /**
+     * 訪問回数を不可分に更新するためのインスタンスです.
+     */
+    private static final AtomicIntegerFieldUpdater<UctNode> VISITS =
+            AtomicIntegerFieldUpdater.newUpdater(UctNode.class, "visits");
+
+    /**
+     * 勝ち点を不可分に更新するためのインスタンスです.
+     */
+    private static final AtomicIntegerFieldUpdater<UctNode> POINTS =
+            AtomicIntegerFieldUpdater.newUpdater(UctNode.class, "points");
+
+    /**
+     * 親のノードの手番が打った手のマス目の番号です.パスの場合は{@link #PASS}.
+     */
+    private final int move;
+
+    /**
+     * 訪問回数です.
+     */
+    private volatile int visits;
+
+    /**
+     * 手を打った側の勝ち点の合計です.
+     */
+    private volatile int points;
+
+    /**
+     * 子のノードです.まだ生成していない場合は<code>null</code>.
+     */
+    private volatile UctNode[] children;
+
+
+    /**
+     * ノードを生成します.
+     * @param move 親のノードの手番が打った手のマス目の番号.パスの場合は{@link #PASS}
+     */
+    UctNode(int move) {
+        this.move = move;
+    }
+
+
+    /**
+     * 子のノードを生成します.既に生成されている場合は何もしません.<br>
+     * 置ける場所がない場合は、相手が置ける場合はパスのノードを一つ、
+     * 両者とも置けない場合(終局)は空の配列を子とします.
+     * 生成した子は{@link #getChildren()}で取得して下さい.
+     * @param own このノードの手番の石の位置
+     * @param opponent 相手の石の位置
+     * @return 生成したノードの数.他のスレッドが既に生成していた場合は0
+     */
+    synchronized int expand(long own, long opponent) {
+
+        if(this.children != null) {
+            return 0;
+        }
+
+        long places = Board.getPuttablePlaces(own, opponent);
+        UctNode[] nodes;
+
+        if(places != 0) {
+            nodes = new UctNode[Long.bitCount(places)];
+            for(int i = 0; i < nodes.length; i++) {
+                nodes[i] = new UctNode(Long.numberOfTrailingZeros(places));
+                places &= places - 1;
+            }
+        } else if(Board.getPuttablePlaces(opponent, own) != 0) {
+            nodes = new UctNode[] {new UctNode(PASS)};
+        } else {
+            nodes = NO_CHILDREN;
+        }
+
+        this.children = nodes;
+        return nodes.length;
+
+    }
+
+
+    /**
+     * 子のノードからUCB1の値が最も大きいノードを選びます.<br>
+     * UCB1の値は、勝率 + 探索の係数 * sqrt(ln(このノードの訪問回数) / 子の訪問回数) です.
+     * 訪問回数が0の子がある場合は、最初に見つけた子を選びます.
+     * @param exploration 探索の係数
+     * @return 選んだ子のノード.子がない場合は<code>null</code>
+     */
+    UctNode select(double exploration) {
+
+        UctNode[] nodes = this.children;
+        double logTotal = Math.log(Math.max(this.visits, 1));
+
+        UctNode best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        for(UctNode node : nodes) {
+
+            int count = node.visits;
+            if(count == 0) {
+                return node;
+            }
+
+            double value = (double)node.points / (WIN_POINTS * count)
+                    + exploration * Math.sqrt(logTotal / count);
+            if(value > bestValue) {
+                bestValue = value;
+                best = node;
+            }
+
+        }
+
+        return best;
+
+    }
+
+
+    /**
+     * 訪問回数を1増やします.プレイアウトの前に呼び出します.
+     */
+    void addVisit() {
+        VISITS.incrementAndGet(this);
+    }
+
+
+    /**
+     * 勝ち点を加えます.プレイアウトの後に呼び出します.
+     * @param value 勝ち点
+     */
+    void addPoints(int value) {
+        POINTS.addAndGet(this, value);
+    }
+
+
+    /**
+     * 親のノードの手番が打った手を取得します.
+     * @return マス目の番号.パスの場合は{@link #PASS}
+     */
+    int getMove() {
+        return this.move;
+    }
+
+
+    /**
+     * 訪問回数を取得します.
+     * @return 訪問回数
+     */
+    int getVisits() {
+        return this.visits;
+    }
+
+
+    /**
+     * 手を打った側の勝ち点の合計を取得します.
+     * @return 勝ち点
+     */
+    int getPoints() {
+        return this.points;
+    }
+
+
+    /**
+     * 子のノードを取得します.
+     * @return 子のノード.まだ生成していない場合は<code>null</code>
+     */
+    UctNode[] getChildren() {
+        return this.children;
+    }
+
+}
@@ -0,0 +1,581 @@
+package ai.mcts;
+
+import static core.GameConstants.RuleConstants.BOARD_HEIGHT;
+import static core.GameConstants.RuleConstants.BOARD_WIDTH;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * UCT(Upper Confidence bounds applied to Trees)によるモンテカルロ木探索のクラスです.<br>
+ * 評価関数は使わず、ランダムに最後まで打つ(プレイアウト)結果の勝率だけで手を選びます.
+ * 探索は次の手順を繰り返します.
+ * <ul>
+ * <li>ルートから、UCB1の値が最も大きい子のノードを順に選ぶ</li>
+ * <li>{@value #EXPAND_VISITS}回訪問した末端のノードは、子のノードを生成して選び続ける</li>
+ * <li>末端のノードの局面からプレイアウトを行う</li>
+ * <li>選んだノードの訪問回数と勝ち点を更新する</li>
+ * </ul>
+ * プレイアウトは盤面を生成せず、石の位置(ビットボード)だけで着手可能な場所と裏返る石を求めます.<br>
+ * 複数のスレッドで一つの探索木を共有して探索します(木の並列化).
+ * スレッドが同じ手ばかり選ばないよう、訪問回数をプレイアウトの前に加えます(バーチャルロス).<br>
+ * 最後に、ルートの子で訪問回数が最も多い手を選びます.
+ * 一回の探索ごとに探索木を生成し、探索が終わったらスレッドも終了します.
+ * 複数のスレッドから同時に{@link #search(Board, Cell, int, long)}を呼び出さないで下さい.
+ * @author tanabe
+ *
+ */
+public class UctSearch {
+
+    /**
+     * 探索の係数の規定値です.
+     */
+    public static final double DEFAULT_EXPLORATION = 1.4;
+
+    /**
+     * 子のノードを生成する訪問回数です.一度しか訪問しないノードを生成しないために2以上にします.
+     */
+    static final int EXPAND_VISITS = 2;
+
+    /**
+     * 探索木のノードの数の上限です.超えた場合は子のノードを生成せずにプレイアウトを続けます.
+     */
+    static final int MAX_NODES = 1 << 21;
+
+    /**
+     * マス目の数です.
+     */
+    private static final int BOARD_SIZE = BOARD_WIDTH * BOARD_HEIGHT;
+
+    /**
+     * 探索木の深さの上限です.パスを含めても全てのマス目が埋まるまでに収まる値です.
+     */
+    private static final int MAX_DEPTH = BOARD_SIZE * 2;
+
+    /**
+     * ナノ秒をミリ秒に変換する値です.
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * ナノ秒を秒に変換する値です.
+     */
+    private static final double NANOS_PER_SECOND = 1000000000.0;
+
+    /**
+     * 乱数の種を変える値です.
+     */
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    /**
+     * 探索の係数です.
+     */
+    private final double exploration;
+
+    /**
+     * 探索に使用するスレッドの数です.
+     */
+    private final int threadCount;
+
+    /**
+     * 乱数の種です.
+     */
+    private final AtomicLong seed;
+
+    /**
+     * 直前の探索で行ったプレイアウトの回数です.
+     */
+    private long playoutCount;
+
+    /**
+     * 直前の探索にかかった時間(ns)です.
+     */
+    private long elapsedTime;
+
+    /**
+     * 直前の探索で生成したノードの数です.
+     */
+    private int nodeCount;
+
+    /**
+     * 直前の探索で選んだ手の勝率です.
+     */
+    private double winRate;
+
+
+    /**
+     * 探索の係数とスレッドの数を指定してインスタンスを生成します.
+     * @param exploration 探索の係数.大きいほど訪問回数が少ない手を多く調べる
+     * @param threadCount 探索に使用するスレッドの数
+     * @throws IllegalArgumentException 探索の係数が負の値か数ではない場合、またはスレッドの数が0以下の場合に発生
+     */
+    public UctSearch(double exploration, int threadCount) {
+
+        // 引数チェック
+        if(!(exploration >= 0.0) || Double.isInfinite(exploration)) {
+            throw new IllegalArgumentException("探索の係数は0以上の値を指定してください.exploration = " + exploration);
+        }
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(threadCount);
+
+        this.exploration = exploration;
+        this.threadCount = threadCount;
+        this.seed = new AtomicLong(System.nanoTime());
+
+    }
+
+
+    /**
+     * 規定の探索の係数で、実行環境のプロセッサ数と同じ数のスレッドで探索するインスタンスを生成します.
+     */
+    public UctSearch() {
+        this(DEFAULT_EXPLORATION, Runtime.getRuntime().availableProcessors());
+    }
+
+
+    /**
+     * 最善手を探索します.<br>
+     * 指定の回数以上プレイアウトを行い、さらに制限時間までプレイアウトを続けます.
+     * 置ける場所が一か所だけの場合は探索しません.
+     * @param board 現在の盤面.探索中に変更することはありません
+     * @param cell 次に置く石
+     * @param minPlayouts プレイアウトの回数の下限
+     * @param timeLimit 制限時間(ms).0の場合は下限の回数だけ行う
+     * @return 最善手.置ける場所がない場合は<code>null</code>
+     * @throws IllegalArgumentException 盤面が<code>null</code>、石が黒石でも白石でもない場合、
+     *  プレイアウトの回数が0以下の場合、または制限時間が負の値の場合に発生
+     * @throws IllegalStateException 探索中に例外が発生した場合に発生
+     */
+    public NextMove search(Board board, Cell cell, int minPlayouts, long timeLimit) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(board);
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(minPlayouts);
+        if(timeLimit < 0) {
+            throw new IllegalArgumentException("制限時間は0以上の値を指定してください.timeLimit = " + timeLimit);
+        }
+
+        long start = System.nanoTime();
+        long own = board.getBitBoard(cell);
+        long opponent = board.getBitBoard(cell == Cell.BLACK ? Cell.WHITE : Cell.BLACK);
+        long places = Board.getPuttablePlaces(own, opponent);
+
+        this.playoutCount = 0;
+        this.elapsedTime = 0;
+        this.nodeCount = 1;
+        this.winRate = 0.0;
+
+        if(places == 0) {
+            // 置ける場所がないのでパス
+            return null;
+        }
+
+        if(Long.bitCount(places) == 1) {
+            // 選ぶまでもない
+            int index = Long.numberOfTrailingZeros(places);
+            return new NextMove(Board.toX(index), Board.toY(index), cell);
+        }
+
+        UctNode root = new UctNode(UctNode.PASS);
+        AtomicInteger nodes = new AtomicInteger(1 + root.expand(own, opponent));
+        AtomicLong playouts = new AtomicLong();
+
+        Worker[] workers = new Worker[this.threadCount];
+        Thread[] threads = new Thread[this.threadCount];
+        long deadline = start + timeLimit * NANOS_PER_MILLI;
+        for(int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(root, own, opponent, nodes, playouts, minPlayouts, deadline,
+                    this.seed.addAndGet(SEED_INCREMENT));
+            threads[i] = new Thread(workers[i], "UctSearch");
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        join(workers, threads);
+
+        for(Worker worker : workers) {
+            if(worker.error != null) {
+                throw new IllegalStateException("探索中に例外が発生しました.", worker.error);
+            }
+        }
+
+        // 訪問回数が最も多い手を選ぶ.同じ場合は勝ち点が多い手
+        UctNode best = null;
+        for(UctNode node : root.getChildren()) {
+            if((best == null) || (node.getVisits() > best.getVisits())
+                    || ((node.getVisits() == best.getVisits()) && (node.getPoints() > best.getPoints()))) {
+                best = node;
+            }
+        }
+
+        this.playoutCount = playouts.get();
+        this.elapsedTime = System.nanoTime() - start;
+        this.nodeCount = nodes.get();
+        this.winRate = (double)best.getPoints() / (UctNode.WIN_POINTS * Math.max(best.getVisits(), 1));
+
+        return new NextMove(Board.toX(best.getMove()), Board.toY(best.getMove()), cell);
+
+    }
+
+
+    /**
+     * 全てのスレッドが終了するまで待ちます.<br>
+     * 割り込まれた場合はスレッドを止めてから終了を待ち、割り込まれた状態に戻します.
+     * @param workers 探索
+     * @param threads 探索を実行するスレッド
+     */
+    private static void join(Worker[] workers, Thread[] threads) {
+
+        boolean interrupted = false;
+
+        for(int i = 0; i < threads.length; i++) {
+            while(threads[i].isAlive()) {
+                try {
+                    threads[i].join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    for(Worker worker : workers) {
+                        worker.stopped = true;
+                    }
+                }
+            }
+        }
+
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+    }
+
+
+    /**
+     * ランダムに最後まで打ち、結果を求めます.
+     * @param own 手番の石の位置
+     * @param opponent 相手の石の位置
+     * @param random 乱数
+     * @return 手番側から見た勝ち点
+     */
+    static int playout(long own, long opponent, XorShift random) {
+
+        long player = own;
+        long other = opponent;
+        boolean turn = true;
+        boolean passed = false;
+
+        while(true) {
+
+            long places = Board.getPuttablePlaces(player, other);
+
+            if(places == 0) {
+                if(passed) {
+                    // 両者とも置けないので終局
+                    break;
+                }
+                passed = true;
+            } else {
+                passed = false;
+                for(int skip = random.nextInt(Long.bitCount(places)); skip > 0; skip--) {
+                    places &= places - 1;
+                }
+                int index = Long.numberOfTrailingZeros(places);
+                long reversed = Board.getReversedStones(index, player, other);
+                player |= (1L << index) | reversed;
+                other &= ~reversed;
+            }
+
+            long temp = player;
+            player = other;
+            other = temp;
+            turn = !turn;
+
+        }
+
+        int diff = Long.bitCount(player) - Long.bitCount(other);
+        if(!turn) {
+            diff = -diff;
+        }
+
+        if(diff > 0) {
+            return UctNode.WIN_POINTS;
+        } else if(diff == 0) {
+            return UctNode.DRAW_POINTS;
+        }
+        return 0;
+
+    }
+
+
+    /**
+     * 探索の係数を取得します.
+     * @return 探索の係数
+     */
+    public double getExploration() {
+        return this.exploration;
+    }
+
+
+    /**
+     * 探索に使用するスレッドの数を取得します.
+     * @return スレッドの数
+     */
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+
+    /**
+     * 直前の探索で行ったプレイアウトの回数を取得します.
+     * @return プレイアウトの回数
+     */
+    public long getPlayoutCount() {
+        return this.playoutCount;
+    }
+
+
+    /**
+     * 直前の探索での一秒あたりのプレイアウトの回数を取得します.
+     * @return 一秒あたりのプレイアウトの回数.探索しなかった場合は0
+     */
+    public double getPlayoutsPerSecond() {
+
+        if(this.elapsedTime <= 0) {
+            return 0.0;
+        }
+        return this.playoutCount * NANOS_PER_SECOND / this.elapsedTime;
+
+    }
+
+
+    /**
+     * 直前の探索で生成したノードの数を取得します.
+     * @return ノードの数
+     */
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
+
+    /**
+     * 直前の探索で選んだ手の、プレイアウトでの勝率を取得します.引き分けは0.5勝として数えます.
+     * @return 勝率.探索しなかった場合は0
+     */
+    public double getWinRate() {
+        return this.winRate;
+    }
+
+
+    /**
+     * 一つのスレッドで探索を繰り返すクラスです.
+     * @author tanabe
+     *
+     */
+    private final class Worker implements Runnable {
+
+        /**
+         * 探索木のルートです.
+         */
+        private final UctNode root;
+
+        /**
+         * ルートの手番の石の位置です.
+         */
+        private final long own;
+
+        /**
+         * ルートの相手の石の位置です.
+         */
+        private final long opponent;
+
+        /**
+         * 全てのスレッドで共有する、生成したノードの数です.
+         */
+        private final AtomicInteger nodes;
+
+        /**
+         * 全てのスレッドで共有する、プレイアウトの回数です.
+         */
+        private final AtomicLong playouts;
+
+        /**
+         * プレイアウトの回数の下限です.
+         */
+        private final int minPlayouts;
+
+        /**
+         * 探索を終える時刻(ns)です.
+         */
+        private final long deadline;
+
+        /**
+         * このスレッドで使用する乱数です.
+         */
+        private final XorShift random;
+
+        /**
+         * 選んだノードの作業領域です.
+         */
+        private final UctNode[] path;
+
+        /**
+         * 探索を止める場合は<code>true</code>.
+         */
+        private volatile boolean stopped;
+
+        /**
+         * 探索中に発生した例外です.発生していない場合は<code>null</code>.
+         */
+        private volatile Throwable error;
+
+        /**
+         * 探索を生成します.
+         * @param root 探索木のルート
+         * @param own ルートの手番の石の位置
+         * @param opponent ルートの相手の石の位置
+         * @param nodes 生成したノードの数
+         * @param playouts プレイアウトの回数
+         * @param minPlayouts プレイアウトの回数の下限
+         * @param deadline 探索を終える時刻(ns)
+         * @param seed 乱数の種
+         */
+        private Worker(UctNode root, long own, long opponent, AtomicInteger nodes, AtomicLong playouts,
+                int minPlayouts, long deadline, long seed) {
+            this.root = root;
+            this.own = own;
+            this.opponent = opponent;
+            this.nodes = nodes;
+            this.playouts = playouts;
+            this.minPlayouts = minPlayouts;
+            this.deadline = deadline;
+            this.random = new XorShift(seed);
+            this.path = new UctNode[MAX_DEPTH + 1];
+        }
+
+        /**
+         * 止められるか、プレイアウトの回数の下限と制限時間の両方に達するまで探索を繰り返します.
+         */
+        @Override
+        public void run() {
+
+            try {
+
+                while(!this.stopped) {
+
+                    this.iterate();
+
+                    // 時刻の取得はプレイアウトに比べて十分に速い
+                    long count = this.playouts.incrementAndGet();
+                    if((count >= this.minPlayouts) && (System.nanoTime() >= this.deadline)) {
+                        break;
+                    }
+
+                }
+
+            } catch (RuntimeException e) {
+                this.error = e;
+            } catch (Error e) {
+                this.error = e;
+            }
+
+        }
+
+        /**
+         * ノードを選んでプレイアウトを一回行い、結果を反映します.
+         */
+        private void iterate() {
+
+            long player = this.own;
+            long other = this.opponent;
+            UctNode node = this.root;
+            int depth = 0;
+
+            this.path[0] = node;
+            node.addVisit();
+
+            while(true) {
+
+                UctNode[] children = node.getChildren();
+                if(children == null) {
+                    if((node.getVisits() < EXPAND_VISITS) || (this.nodes.get() >= MAX_NODES)) {
+                        break;
+                    }
+                    // 他のスレッドが同時に生成した場合は数えない
+                    this.nodes.addAndGet(node.expand(player, other));
+                    children = node.getChildren();
+                }
+                if(children.length == 0) {
+                    // 終局
+                    break;
+                }
+
+                node = node.select(exploration);
+                node.addVisit();
+                this.path[++depth] = node;
+
+                int move = node.getMove();
+                if(move != UctNode.PASS) {
+                    long reversed = Board.getReversedStones(move, player, other);
+                    player |= (1L << move) | reversed;
+                    other &= ~reversed;
+                }
+                long temp = player;
+                player = other;
+                other = temp;
+
+            }
+
+            // 末端のノードの手番から見た勝ち点.ノードには手を打った側(手番の相手)の勝ち点を加える
+            int points = playout(player, other, this.random);
+            for(int i = depth; i >= 0; i--) {
+                points = UctNode.WIN_POINTS - points;
+                this.path[i].addPoints(points);
+            }
+
+        }
+
+    }
+
+
+    /**
+     * プレイアウトで使用する軽量な乱数(xorshift)です.<br>
+     * スレッドごとに生成し、共有しないで下さい.
+     * @author tanabe
+     *
+     */
+    static final class XorShift {
+
+        /**
+         * 乱数の状態です.0以外の値です.
+         */
+        private long state;
+
+        /**
+         * 乱数を生成します.
+         * @param seed 乱数の種
+         */
+        XorShift(long seed) {
+            this.state = (seed == 0) ? SEED_INCREMENT : seed;
+        }
+
+        /**
+         * 0以上指定の値未満の乱数を取得します.
+         * @param bound 上限.正の値
+         * @return 乱数
+         */
+        int nextInt(int bound) {
+
+            this.state ^= this.state << 13;     // CHECKSTYLE IGNORE THIS LINE
+            this.state ^= this.state >>> 7;     // CHECKSTYLE IGNORE THIS LINE
+            this.state ^= this.state << 17;     // CHECKSTYLE IGNORE THIS LINE
+            return (int)(((this.state >>> 32) * bound) >>> 32);   // CHECKSTYLE IGNORE THIS LINE
+
+        }
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * モンテカルロ木探索での探索に必要なクラス用のパッケージです.
+ */
+package ai.mcts;
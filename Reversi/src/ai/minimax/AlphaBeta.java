@@ -0,0 +1,1009 @@
+package ai.minimax;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * アルファベータ法(ネガマックス法)を利用して、次の手を取得するクラスです.<br>
+ * 評価関数とパスの扱いは{@link MiniMax}と同じで、同じ盤面からは同じ最善手を返します.
+ * 枝刈りを行うため、同じ時間でより深く先読みすることができます.<br>
+ * 探索は一つの盤面上で手を進めたり戻したりしながら行い、ゲーム木は生成しません.<br>
+ * 制限時間を指定した場合は、時間内で先読みの手数を一手ずつ増やしながら探索します(反復深化).<br>
+ * 置換表を指定した場合は、探索済みの局面の評価値と最善手を再利用します.<br>
+ * 評価関数を指定しない場合は、{@link Leaf}と同じテーブルによる評価関数({@link TableEvaluator})を使用します.<br>
+ * 各ノードでは{@link MoveOrdering}で並べた順に手を調べます.
+ * 指定しない場合は{@link HeuristicMoveOrdering}を使用します.
+ * ルートの手も並べ替えますが、最善手と同じ評価値の手はY座標、X座標の順に走査して最初に見つかる手を選ぶため、
+ * 並べ替えに関わらず同じ最善手を返します.<br>
+ * 手の並べ替えの効果を確認できるよう、枝刈りが起きたノードの数と、
+ * そのうち最初に調べた手で枝刈りが起きたノードの数を数えます.<br>
+ * 探索方法は{@link SearchMode}で指定します.指定しない場合は、置換表を使用するなら{@link SearchMode#ASPIRATION}、
+ * 使用しないなら{@link SearchMode#FULL_WINDOW}で探索します.
+ * 置換表がないと、探索し直す手間や浅い手数から順に探索する手間が、狭い幅で探索して減るノードより大きくなるためです.<br>
+ * {@link ProbCut}を指定した場合は、浅い探索で深い探索の結果を予想して探索を省略します(選択的探索).
+ * この場合は探索が速くなる代わりに、最善手と評価値が省略しない探索と異なることがあります.<br>
+ * 複数のスレッドで探索する場合は、一つの置換表を共有する{@link LazySmpAlphaBeta}を使用して下さい.
+ * @author tanabe
+ *
+ */
+public class AlphaBeta {
+
+    /**
+     * 評価値の上限を表す値です.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * 制限時間を確認する間隔(ノード数)です.2のべき乗であること.
+     */
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    /**
+     * 制限時間がないことを表す時刻です.
+     */
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * ルートからの手数の上限です.
+     */
+    private static final int MAX_PLY = 64;
+
+    /**
+     * {@link SearchMode#ASPIRATION}で、予想した評価値の前後に最初に設ける幅です.
+     */
+    private static final int ASPIRATION_WINDOW = 2;
+
+    /**
+     * {@link SearchMode#ASPIRATION}で、評価値を予想するために使う探索の手数の差です.
+     * 先読みの手数が奇数か偶数かで評価値が大きく変わるため、二つ前の手数の評価値を使います.
+     */
+    private static final int ASPIRATION_DISTANCE = 2;
+
+    /**
+     * {@link ProbCut}で探索を省略しなかったことを表す値です.
+     */
+    private static final int NO_CUT = Integer.MIN_VALUE;
+
+    /**
+     * {@link ProbCut}で予想に使う評価値の範囲です.範囲外の下限や上限では探索を省略しません.
+     */
+    private static final int PROBCUT_SCORE_LIMIT = INFINITY / 2;
+
+    /**
+     * 探索中の盤面です.
+     */
+    private Board board;
+
+    /**
+     * 直前の探索で得られた、黒から見た評価値です.
+     */
+    private int value;
+
+    /**
+     * 直前の探索で評価したノードの数です.
+     */
+    private long nodeCount;
+
+    /**
+     * 直前の探索で枝刈りが起きたノードの数です.
+     */
+    private long cutoffCount;
+
+    /**
+     * 直前の探索で、最初に調べた手で枝刈りが起きたノードの数です.
+     */
+    private long firstCutoffCount;
+
+    /**
+     * 直前の探索で{@link ProbCut}により探索を省略したノードの数です.
+     */
+    private long probCutCount;
+
+    /**
+     * {@link ProbCut}の浅い探索中かを表す値です.
+     * 浅い探索では、先読みの手数が異なる置換表の評価値を使いません.
+     */
+    private boolean probCutSearching;
+
+    /**
+     * 直前の探索で最後まで探索できた先読みの手数です.
+     */
+    private int completedLevel;
+
+    /**
+     * 探索を打ち切る時刻(ms)です.
+     */
+    private long deadline;
+
+    /**
+     * 制限時間を過ぎて探索を打ち切ったことを示すフラグです.
+     */
+    private boolean timeoutFlag;
+
+    /**
+     * 別のスレッドから探索の中止を求められたことを示すフラグです.
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * 置換表です.使用しない場合は<code>null</code>.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * 評価関数です.
+     */
+    private final Evaluator evaluator;
+
+    /**
+     * 手の並べ替えです.
+     */
+    private final MoveOrdering ordering;
+
+    /**
+     * 探索方法です.
+     */
+    private final SearchMode mode;
+
+    /**
+     * 探索を省略するための値です.省略しない場合は<code>null</code>.
+     */
+    private final ProbCut probCut;
+
+    /**
+     * ルートからの手数ごとの、並べた手の作業領域です.
+     */
+    private final int[][] moveBuffers;
+
+    /**
+     * 探索中の盤面での、先読みの手数ごとの手番側から見た評価値です.
+     */
+    private final int[] rootScores;
+
+
+    /**
+     * 置換表を使用せずに探索を行うインスタンスを生成します.
+     */
+    public AlphaBeta() {
+
+        this(null);
+
+    }
+
+
+    /**
+     * 置換表を使用して探索を行うインスタンスを生成します.<br>
+     * 置換表は探索をまたいで使い続けるため、同じ置換表を複数のインスタンスで
+     * 同時に使用しないで下さい.
+     * @param table 置換表.<code>null</code>の場合は使用しない
+     */
+    public AlphaBeta(TranspositionTable table) {
+
+        this(table, new TableEvaluator());
+
+    }
+
+
+    /**
+     * 置換表と評価関数を指定してインスタンスを生成します.<br>
+     * 置換表と評価関数は探索をまたいで使い続けるため、同じ置換表や評価関数を複数のインスタンスで
+     * 同時に使用しないで下さい.
+     * @param table 置換表.<code>null</code>の場合は使用しない
+     * @param evaluator 評価関数
+     * @throws IllegalArgumentException 評価関数が<code>null</code>の場合に発生
+     */
+    public AlphaBeta(TranspositionTable table, Evaluator evaluator) {
+
+        this(table, evaluator, new HeuristicMoveOrdering());
+
+    }
+
+
+    /**
+     * 置換表と評価関数、手の並べ替えを指定してインスタンスを生成します.<br>
+     * 置換表と評価関数、手の並べ替えは探索をまたいで使い続けるため、
+     * 複数のインスタンスで同時に使用しないで下さい.
+     * @param table 置換表.<code>null</code>の場合は使用しない
+     * @param evaluator 評価関数
+     * @param ordering 手の並べ替え
+     * @throws IllegalArgumentException 評価関数、または手の並べ替えが<code>null</code>の場合に発生
+     */
+    public AlphaBeta(TranspositionTable table, Evaluator evaluator, MoveOrdering ordering) {
+
+        this(table, evaluator, ordering, (table != null) ? SearchMode.ASPIRATION : SearchMode.FULL_WINDOW);
+
+    }
+
+
+    /**
+     * 置換表と評価関数、手の並べ替え、探索方法を指定してインスタンスを生成します.<br>
+     * 置換表と評価関数、手の並べ替えは探索をまたいで使い続けるため、
+     * 複数のインスタンスで同時に使用しないで下さい.
+     * @param table 置換表.<code>null</code>の場合は使用しない
+     * @param evaluator 評価関数
+     * @param ordering 手の並べ替え
+     * @param mode 探索方法
+     * @throws IllegalArgumentException 評価関数、手の並べ替え、または探索方法が<code>null</code>の場合に発生
+     */
+    public AlphaBeta(TranspositionTable table, Evaluator evaluator, MoveOrdering ordering, SearchMode mode) {
+
+        this(table, evaluator, ordering, mode, null);
+
+    }
+
+
+    /**
+     * 置換表と評価関数、手の並べ替え、探索方法、探索を省略するための値を指定してインスタンスを生成します.<br>
+     * 置換表と評価関数、手の並べ替えは探索をまたいで使い続けるため、
+     * 複数のインスタンスで同時に使用しないで下さい.
+     * 探索を省略する場合は、置換表も省略した探索の結果を記録するため、省略しない探索と共有しないで下さい.
+     * @param table 置換表.<code>null</code>の場合は使用しない
+     * @param evaluator 評価関数
+     * @param ordering 手の並べ替え
+     * @param mode 探索方法
+     * @param probCut 探索を省略するための値.<code>null</code>の場合は省略しない
+     * @throws IllegalArgumentException 評価関数、手の並べ替え、または探索方法が<code>null</code>の場合に発生
+     */
+    public AlphaBeta(TranspositionTable table, Evaluator evaluator, MoveOrdering ordering, SearchMode mode,
+            ProbCut probCut) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(evaluator);
+        ArgumentCheckUtil.checkNotNull(ordering);
+        ArgumentCheckUtil.checkNotNull(mode);
+
+        this.table = table;
+        this.evaluator = evaluator;
+        this.ordering = ordering;
+        this.mode = mode;
+        this.probCut = probCut;
+        this.moveBuffers = new int[MAX_PLY + 1][MAX_PLY];
+        this.rootScores = new int[MAX_PLY + 1];
+        this.board = null;
+        this.value = 0;
+        this.nodeCount = 0;
+        this.cutoffCount = 0;
+        this.firstCutoffCount = 0;
+        this.probCutCount = 0;
+        this.completedLevel = 0;
+        this.deadline = NO_DEADLINE;
+        this.timeoutFlag = false;
+        this.stopRequested = false;
+
+    }
+
+
+    /**
+     * 最善手を取得します.
+     * @param level 何手先まで先読みをするかを表す値
+     * @param board 現在の盤面
+     * @param cell 次に置く石
+     * @return 最善手.置ける場所がない場合は<code>null</code>
+     * @throws IllegalArgumentException
+     *  第一引数が0以下の値、第二引数が<code>null</code>、または第三引数が黒石でも白石でもない場合に発生
+     */
+    public static NextMove getNextMove(int level, Board board, Cell cell) {
+
+        return new AlphaBeta().search(level, board, cell);
+
+    }
+
+
+    /**
+     * 最善手を探索します.
+     * @param level 何手先まで先読みをするかを表す値
+     * @param board 現在の盤面.探索中に変更することはありません
+     * @param cell 次に置く石
+     * @return 最善手.置ける場所がない場合は<code>null</code>
+     * @throws IllegalArgumentException
+     *  第一引数が0以下の値、第二引数が<code>null</code>、または第三引数が黒石でも白石でもない場合に発生
+     */
+    public NextMove search(int level, Board board, Cell cell) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(level);
+        ArgumentCheckUtil.checkNotNull(board);
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
+
+        // 探索中は盤面を変更するため、呼び出し元の盤面とは別に用意する
+        this.board = new Board(board);
+        this.evaluator.reset(this.board);
+        this.ordering.newSearch();
+        this.nodeCount = 0;
+        this.cutoffCount = 0;
+        this.firstCutoffCount = 0;
+        this.probCutCount = 0;
+        this.deadline = NO_DEADLINE;
+        this.timeoutFlag = false;
+        if(this.table != null) {
+            this.table.newSearch();
+        }
+
+        NextMove move;
+        if(this.mode == SearchMode.ASPIRATION) {
+            // 前の手数の評価値を使うため、一手から順に探索する
+            move = null;
+            for(int current = 1; current <= level; current++) {
+                move = this.searchAspiration(current, cell);
+                if(move == null) {
+                    break;
+                }
+            }
+        } else {
+            move = this.searchRoot(level, cell, -INFINITY, INFINITY);
+        }
+        this.completedLevel = level;
+
+        return move;
+
+    }
+
+
+    /**
+     * 制限時間内で、先読みの手数を増やしながら最善手を探索します.<br>
+     * 指定した最低限の手数までは制限時間に関わらず探索します.
+     * それより深い探索が制限時間内に終わらなかった場合は、
+     * 最後まで探索できた手数での最善手を返します.<br>
+     * 探索中のスレッドが割り込まれた場合も、制限時間を過ぎた場合と同じように打ち切ります.
+     * @param board 現在の盤面.探索中に変更することはありません
+     * @param cell 次に置く石
+     * @param minLevel 最低限先読みをする手数
+     * @param timeLimit 制限時間(ms)
+     * @return 最善手.置ける場所がない場合は<code>null</code>
+     * @throws IllegalArgumentException
+     *  第一引数が<code>null</code>、第二引数が黒石でも白石でもない、
+     *  第三引数が0以下、または第四引数が負の値の場合に発生
+     */
+    public NextMove search(Board board, Cell cell, int minLevel, long timeLimit) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(board);
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(minLevel);
+        if(timeLimit < 0) {
+            throw new IllegalArgumentException("制限時間に負の値は指定できません.");
+        }
+
+        long limit = System.currentTimeMillis() + timeLimit;
+
+        // 最低限の手数は最後まで探索する
+        NextMove best = this.search(minLevel, board, cell);
+        int bestValue = this.value;
+        long totalNodeCount = this.nodeCount;
+        long totalCutoffCount = this.cutoffCount;
+        long totalFirstCutoffCount = this.firstCutoffCount;
+        long totalProbCutCount = this.probCutCount;
+
+        // 空きマスの数より深く読んでも結果は変わらない
+        int maxLevel = board.getStoneCount(Cell.NOTHING);
+
+        for(int level = minLevel + 1; level <= maxLevel; level++) {
+
+            if((best == null) || (System.currentTimeMillis() >= limit)
+                    || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+
+            this.nodeCount = 0;
+            this.cutoffCount = 0;
+            this.firstCutoffCount = 0;
+            this.probCutCount = 0;
+            this.deadline = limit;
+
+            NextMove move;
+            if(this.mode == SearchMode.ASPIRATION) {
+                move = this.searchAspiration(level, cell);
+            } else {
+                move = this.searchRoot(level, cell, -INFINITY, INFINITY);
+            }
+            totalNodeCount += this.nodeCount;
+            totalCutoffCount += this.cutoffCount;
+            totalFirstCutoffCount += this.firstCutoffCount;
+            totalProbCutCount += this.probCutCount;
+
+            if(this.timeoutFlag) {
+                // 途中で打ち切った探索の結果は使わない
+                break;
+            }
+
+            best = move;
+            bestValue = this.value;
+            this.completedLevel = level;
+
+        }
+
+        this.value = bestValue;
+        this.nodeCount = totalNodeCount;
+        this.cutoffCount = totalCutoffCount;
+        this.firstCutoffCount = totalFirstCutoffCount;
+        this.probCutCount = totalProbCutCount;
+        this.deadline = NO_DEADLINE;
+        this.timeoutFlag = false;
+
+        return best;
+
+    }
+
+
+    /**
+     * 置換表を共有する複数のスレッドでの探索({@link LazySmpAlphaBeta})のため、探索用の盤面を用意します.<br>
+     * {@link #search(int, Board, Cell)}と異なり置換表の世代は進めず、
+     * ノード数などは{@link #searchLevel(int, Cell)}で探索するたびに加算します.
+     * @param board 現在の盤面.探索中に変更することはありません
+     */
+    void prepare(Board board) {
+
+        this.board = new Board(board);
+        this.evaluator.reset(this.board);
+        this.ordering.newSearch();
+        this.nodeCount = 0;
+        this.cutoffCount = 0;
+        this.firstCutoffCount = 0;
+        this.probCutCount = 0;
+        this.completedLevel = 0;
+        this.deadline = NO_DEADLINE;
+        this.timeoutFlag = false;
+        this.stopRequested = false;
+
+    }
+
+
+    /**
+     * {@link #prepare(Board)}で用意した盤面から、指定の手数で最善手を探索します.<br>
+     * {@link SearchMode#ASPIRATION}の場合は、二つ前の手数まで探索済みであれば、その評価値の前後の幅で探索します.
+     * @param level 何手先まで先読みをするかを表す値
+     * @param cell 次に置く石
+     * @return 最善手.置ける場所がない場合、または{@link #requestStop()}で中止した場合は<code>null</code>
+     */
+    NextMove searchLevel(int level, Cell cell) {
+
+        NextMove move;
+        if(this.mode == SearchMode.ASPIRATION) {
+            move = this.searchAspiration(level, cell);
+        } else {
+            move = this.searchRoot(level, cell, -INFINITY, INFINITY);
+        }
+
+        if(move != null) {
+            this.completedLevel = level;
+        }
+
+        return move;
+
+    }
+
+
+    /**
+     * 別のスレッドから、実行中の探索を中止します.<br>
+     * 中止した探索は{@link #searchLevel(int, Cell)}で<code>null</code>を返し、
+     * 次に{@link #prepare(Board)}を呼び出すまで探索できません.
+     */
+    void requestStop() {
+        this.stopRequested = true;
+    }
+
+
+    /**
+     * 探索を打ち切るかを調べます.
+     * @return 制限時間を過ぎた場合、割り込まれた場合、または中止を求められた場合は<code>true</code>
+     */
+    private boolean isTimeout() {
+
+        if(this.stopRequested) {
+            return true;
+        }
+
+        return (this.deadline != NO_DEADLINE)
+                && ((System.currentTimeMillis() >= this.deadline) || Thread.currentThread().isInterrupted());
+
+    }
+
+
+    /**
+     * 前の手数の探索から予想した評価値の前後の狭い幅で、探索用の盤面から最善手を探索します.<br>
+     * 評価値が幅の外になった場合は、外れた側に幅を倍に広げて探索し直します.
+     * 前の手数までの探索が終わっていること.
+     * @param level 何手先まで先読みをするかを表す値
+     * @param cell 次に置く石
+     * @return 最善手.置ける場所がない場合、または制限時間を過ぎた場合は<code>null</code>
+     */
+    private NextMove searchAspiration(int level, Cell cell) {
+
+        int lower = -INFINITY;
+        int upper = INFINITY;
+        if(level > ASPIRATION_DISTANCE) {
+            int guess = this.rootScores[level - ASPIRATION_DISTANCE];
+            lower = guess - ASPIRATION_WINDOW;
+            upper = guess + ASPIRATION_WINDOW;
+        }
+
+        NextMove move = this.searchRoot(level, cell, lower, upper);
+        int window = ASPIRATION_WINDOW;
+        boolean failLow = false;
+        boolean failHigh = false;
+
+        while(move != null) {
+
+            // 置換表や探索の省略により両側に外れた場合は、繰り返さないように外れた側の反対も広げる
+            int score = getSign(cell) * this.value;
+            window *= 2;
+            if(score <= lower) {
+                failLow = true;
+                upper = failHigh ? INFINITY : score + 1;
+                lower = Math.max(score - window, -INFINITY);
+            } else if(score >= upper) {
+                failHigh = true;
+                lower = failLow ? -INFINITY : score - 1;
+                upper = Math.min(score + window, INFINITY);
+            } else {
+                break;
+            }
+
+            move = this.searchRoot(level, cell, lower, upper);
+
+        }
+
+        if(move != null) {
+            this.rootScores[level] = getSign(cell) * this.value;
+        }
+
+        return move;
+
+    }
+
+
+    /**
+     * 探索用の盤面から最善手を探索します.<br>
+     * 最善手の評価値が<code>lower</code>以下、または<code>upper</code>以上となる場合は、
+     * 最善手と評価値は正確ではありません.
+     * @param level 何手先まで先読みをするかを表す値
+     * @param cell 次に置く石
+     * @param lower 評価値の下限
+     * @param upper 評価値の上限
+     * @return 最善手.置ける場所がない場合、または制限時間を過ぎた場合は<code>null</code>
+     */
+    private NextMove searchRoot(int level, Cell cell, int lower, int upper) {
+
+        this.nodeCount++;
+
+        long places = this.board.getPuttablePlaces(cell);
+
+        if(places == 0) {
+            // 置ける場所がないのでパス
+            this.value = this.evaluator.evaluate(this.board, cell);
+            return null;
+        }
+
+        Cell nextCell = getOpponent(cell);
+
+        // 前の手数の探索で記録した最善手を最初に調べる
+        long key = 0L;
+        int hashMove = TranspositionTable.NO_MOVE;
+        if(this.table != null) {
+            key = TranspositionTable.getKey(this.board, cell);
+            long entry = this.table.probe(key);
+            if(entry != TranspositionTable.NOT_FOUND) {
+                hashMove = TranspositionTable.getMove(entry);
+            }
+        }
+
+        int[] moves = this.moveBuffers[0];
+        int count = this.ordering.order(this.board, cell, places, hashMove, 0, level, moves);
+
+        int bestIndex = -1;
+        int bestScore = -INFINITY;
+
+        for(int i = 0; i < count; i++) {
+
+            int index = moves[i];
+
+            // 最善手と同じ評価値の手は、走査順で前にある手だけ正確な評価値が必要になる
+            int alpha = lower;
+            if(bestIndex >= 0) {
+                alpha = Math.max(lower, (index < bestIndex) ? bestScore - 1 : bestScore);
+            }
+
+            long reversed = this.board.putStone(index, cell);
+            this.evaluator.update(index, cell, reversed);
+            int score = this.searchChild(level - 1, 1, nextCell, alpha, upper, bestIndex >= 0);
+            this.board.removeStone(index, cell, reversed);
+            this.evaluator.restore(index, cell, reversed);
+
+            if(this.timeoutFlag) {
+                return null;
+            }
+
+            if((bestIndex < 0) || (score > bestScore)
+                    || ((score == bestScore) && (index < bestIndex))) {
+                bestIndex = index;
+                bestScore = score;
+                if(bestScore >= upper) {
+                    // 上限を超えたので、探索し直す
+                    break;
+                }
+            }
+
+        }
+
+        if(this.table != null) {
+            int bound;
+            if(bestScore <= lower) {
+                bound = TranspositionTable.UPPER;
+            } else if(bestScore >= upper) {
+                bound = TranspositionTable.LOWER;
+            } else {
+                bound = TranspositionTable.EXACT;
+            }
+            this.table.store(key, level, bound, bestScore, bestIndex);
+        }
+
+        this.value = getSign(cell) * bestScore;
+
+        return new NextMove(Board.toX(bestIndex), Board.toY(bestIndex), cell);
+
+    }
+
+
+    /**
+     * 指定した盤面に一手置いた場合の評価値を探索します.<br>
+     * 評価値が<code>alpha</code>以下となる場合は<code>alpha</code>以下の値を返します.
+     * 盤面は探索中に変更し、探索後に元に戻します.<br>
+     * 評価したノードの数は{@link #getNodeCount()}に加算します.
+     * @param board 探索する盤面.このインスタンスだけが使用すること
+     * @param index 石を置くマス目の番号.置ける場所であること
+     * @param level 何手先まで先読みをするかを表す値
+     * @param cell 次に置く石
+     * @param alpha 評価値の下限
+     * @return 石を置いた側から見た評価値
+     */
+    int searchMove(Board board, int index, int level, Cell cell, int alpha) {
+
+        this.board = board;
+        this.evaluator.reset(board);
+
+        long reversed = this.board.putStone(index, cell);
+        this.evaluator.update(index, cell, reversed);
+        int score = -this.negaMax(level - 1, 1, getOpponent(cell), -INFINITY, -alpha);
+        this.board.removeStone(index, cell, reversed);
+        this.evaluator.restore(index, cell, reversed);
+
+        return score;
+
+    }
+
+
+    /**
+     * 手番側から見た評価値を、ネガマックス法で探索します.<br>
+     * 評価値が<code>alpha</code>以下となる場合は<code>alpha</code>以下の値を、
+     * <code>beta</code>以上となる場合は<code>beta</code>以上の値を返します.
+     * @param level 残りの先読みの手数
+     * @param ply ルートからの手数
+     * @param cell 次に置く石
+     * @param alpha 評価値の下限
+     * @param beta 評価値の上限
+     * @return 手番側から見た評価値
+     */
+    private int negaMax(int level, int ply, Cell cell, int alpha, int beta) {
+
+        this.nodeCount++;
+
+        if(((this.nodeCount & (TIME_CHECK_INTERVAL - 1)) == 0) && this.isTimeout()) {
+            this.timeoutFlag = true;
+        }
+
+        if(this.timeoutFlag) {
+            // 制限時間を過ぎたので、評価値は使われない
+            return 0;
+        }
+
+        if(level <= 0) {
+            // 先読みの終端
+            return getSign(cell) * this.evaluator.evaluate(this.board, cell);
+        }
+
+        long places = this.board.getPuttablePlaces(cell);
+
+        if(places == 0) {
+            // 置ける場所がない場合は、その時点の盤面で評価する
+            return getSign(cell) * this.evaluator.evaluate(this.board, cell);
+        }
+
+        long key = 0L;
+        int hashMove = TranspositionTable.NO_MOVE;
+
+        if(this.table != null) {
+            key = TranspositionTable.getKey(this.board, cell);
+            long entry = this.table.probe(key);
+            if(entry != TranspositionTable.NOT_FOUND) {
+                int depth = TranspositionTable.getDepth(entry);
+                if((depth == level) || ((depth > level) && !this.probCutSearching)) {
+                    int score = TranspositionTable.getScore(entry);
+                    int bound = TranspositionTable.getBound(entry);
+                    if((bound == TranspositionTable.EXACT)
+                            || ((bound == TranspositionTable.LOWER) && (score >= beta))
+                            || ((bound == TranspositionTable.UPPER) && (score <= alpha))) {
+                        return score;
+                    }
+                }
+                hashMove = TranspositionTable.getMove(entry);
+            }
+        }
+
+        if(this.probCut != null) {
+            int cut = this.tryProbCut(level, ply, cell, alpha, beta);
+            if(cut != NO_CUT) {
+                return cut;
+            }
+        }
+
+        Cell nextCell = getOpponent(cell);
+
+        int best = -INFINITY;
+        int bestIndex = TranspositionTable.NO_MOVE;
+        int currentAlpha = alpha;
+
+        int[] moves = this.moveBuffers[ply];
+        int count = this.ordering.order(this.board, cell, places, hashMove, ply, level, moves);
+
+        for(int i = 0; i < count; i++) {
+
+            int index = moves[i];
+
+            long reversed = this.board.putStone(index, cell);
+            this.evaluator.update(index, cell, reversed);
+            int score = this.searchChild(level - 1, ply + 1, nextCell, currentAlpha, beta, i > 0);
+            this.board.removeStone(index, cell, reversed);
+            this.evaluator.restore(index, cell, reversed);
+
+            if(this.timeoutFlag) {
+                return 0;
+            }
+
+            if(score > best) {
+                best = score;
+                bestIndex = index;
+                if(score > currentAlpha) {
+                    currentAlpha = score;
+                    if(currentAlpha >= beta) {
+                        // 相手がこの局面を選ぶことはないので打ち切り
+                        this.cutoffCount++;
+                        if(i == 0) {
+                            this.firstCutoffCount++;
+                        }
+                        this.ordering.cutoff(index, cell, ply, level);
+                        break;
+                    }
+                }
+            }
+
+        }
+
+        if(this.table != null) {
+            int bound;
+            if(best <= alpha) {
+                bound = TranspositionTable.UPPER;
+            } else if(best >= beta) {
+                bound = TranspositionTable.LOWER;
+            } else {
+                bound = TranspositionTable.EXACT;
+            }
+            this.table.store(key, level, bound, best, bestIndex);
+        }
+
+        return best;
+
+    }
+
+
+    /**
+     * 浅い探索で深い探索の評価値を予想し、探索を省略できるかを調べます.<br>
+     * 予想した評価値が上限以上なら上限を、下限以下なら下限を返します.
+     * 浅い探索は同じノードから行うため、置換表や手の並べ替えの情報は深い探索でも使えます.
+     * @param level 残りの先読みの手数
+     * @param ply ルートからの手数
+     * @param cell 次に置く石
+     * @param alpha 評価値の下限
+     * @param beta 評価値の上限
+     * @return 手番側から見た評価値.省略できない場合は{@link #NO_CUT}
+     */
+    private int tryProbCut(int level, int ply, Cell cell, int alpha, int beta) {
+
+        int empties = this.board.getStoneCount(Cell.NOTHING);
+        int shallow = this.probCut.getShallowDepth(empties, level);
+        if(shallow <= 0) {
+            return NO_CUT;
+        }
+
+        // 先読みの手数が奇数か偶数かで評価値が大きく変わるため、
+        // 前の反復深化で記録した深い手数の評価値を使うと予想が大きく外れる
+        boolean searching = this.probCutSearching;
+        this.probCutSearching = true;
+        int result = NO_CUT;
+
+        if(beta < PROBCUT_SCORE_LIMIT) {
+            int bound = this.probCut.getShallowBeta(empties, level, beta);
+            if(this.negaMax(shallow, ply, cell, bound - 1, bound) >= bound) {
+                result = beta;
+            }
+        }
+
+        if((result == NO_CUT) && (alpha > -PROBCUT_SCORE_LIMIT)) {
+            int bound = this.probCut.getShallowAlpha(empties, level, alpha);
+            if(this.negaMax(shallow, ply, cell, bound, bound + 1) <= bound) {
+                result = alpha;
+            }
+        }
+
+        this.probCutSearching = searching;
+
+        if((result != NO_CUT) && !this.timeoutFlag) {
+            this.probCutCount++;
+            return result;
+        }
+        return NO_CUT;
+
+    }
+
+
+    /**
+     * 石を置いた後の局面を探索します.<br>
+     * {@link SearchMode#FULL_WINDOW}以外で最初の手ではない場合は、まず幅0の窓で探索し、
+     * 評価値が<code>alpha</code>と<code>beta</code>の間になった場合だけ探索し直します.
+     * @param level 残りの先読みの手数
+     * @param ply ルートからの手数
+     * @param cell 石を置いた後に次に置く石
+     * @param alpha 石を置いた側から見た評価値の下限
+     * @param beta 石を置いた側から見た評価値の上限
+     * @param scout 最初の手ではない場合は<code>true</code>
+     * @return 石を置いた側から見た評価値
+     */
+    private int searchChild(int level, int ply, Cell cell, int alpha, int beta, boolean scout) {
+
+        if(scout && (this.mode != SearchMode.FULL_WINDOW) && (beta > alpha + 1)) {
+            int score = -this.negaMax(level, ply, cell, -alpha - 1, -alpha);
+            if((score <= alpha) || (score >= beta) || this.timeoutFlag) {
+                return score;
+            }
+        }
+
+        return -this.negaMax(level, ply, cell, -beta, -alpha);
+
+    }
+
+
+    /**
+     * 直前の探索で得られた、最善手を選んだ場合の評価値を取得します.
+     * @return 黒から見た評価値
+     */
+    public int getValue() {
+        return this.value;
+    }
+
+
+    /**
+     * 直前の探索で評価したノードの数を取得します.
+     * @return ノードの数
+     */
+    public long getNodeCount() {
+        return this.nodeCount;
+    }
+
+
+    /**
+     * 直前の探索で枝刈りが起きたノードの数を取得します.
+     * @return ノードの数
+     */
+    public long getCutoffCount() {
+        return this.cutoffCount;
+    }
+
+
+    /**
+     * 直前の探索で、最初に調べた手で枝刈りが起きたノードの数を取得します.<br>
+     * {@link #getCutoffCount()}に対する割合が1に近いほど、手の並べ替えが理想に近いことを表します.
+     * @return ノードの数
+     */
+    public long getFirstCutoffCount() {
+        return this.firstCutoffCount;
+    }
+
+
+    /**
+     * 探索を省略するための値を取得します.
+     * @return 探索を省略するための値.省略しない場合は<code>null</code>
+     */
+    public ProbCut getProbCut() {
+        return this.probCut;
+    }
+
+
+    /**
+     * 直前の探索で{@link ProbCut}により探索を省略したノードの数を取得します.
+     * @return ノードの数
+     */
+    public long getProbCutCount() {
+        return this.probCutCount;
+    }
+
+
+    /**
+     * 置換表を取得します.
+     * @return 置換表.使用していない場合は<code>null</code>
+     */
+    public TranspositionTable getTable() {
+        return this.table;
+    }
+
+
+    /**
+     * 評価関数を取得します.
+     * @return 評価関数
+     */
+    public Evaluator getEvaluator() {
+        return this.evaluator;
+    }
+
+
+    /**
+     * 手の並べ替えを取得します.
+     * @return 手の並べ替え
+     */
+    public MoveOrdering getOrdering() {
+        return this.ordering;
+    }
+
+
+    /**
+     * 探索方法を取得します.
+     * @return 探索方法
+     */
+    public SearchMode getMode() {
+        return this.mode;
+    }
+
+
+    /**
+     * 直前の探索で最後まで探索できた先読みの手数を取得します.
+     * @return 先読みの手数
+     */
+    public int getCompletedLevel() {
+        return this.completedLevel;
+    }
+
+
+    /**
+     * 相手の石を取得します.
+     * @param cell 石
+     * @return 相手の石
+     */
+    static Cell getOpponent(Cell cell) {
+
+        if(cell == Cell.BLACK) {
+            return Cell.WHITE;
+        } else {
+            return Cell.BLACK;
+        }
+
+    }
+
+
+    /**
+     * 黒から見た評価値を手番側から見た評価値に変換するための符号を取得します.
+     * @param cell 手番側の石
+     * @return 黒なら1、白なら-1
+     */
+    static int getSign(Cell cell) {
+
+        if(cell == Cell.BLACK) {
+            return 1;
+        } else {
+            return -1;
+        }
+
+    }
+
+}
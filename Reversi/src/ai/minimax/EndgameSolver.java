@@ -0,0 +1,539 @@
+package ai.minimax;
+
+import static core.GameConstants.RuleConstants.BOARD_HEIGHT;
+import static core.GameConstants.RuleConstants.BOARD_WIDTH;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * 終盤の局面を最後まで読み切り、最善手を求めるクラスです.<br>
+ * 評価関数は使わず、終局時の石の数の差(空きマスは勝った側に加える)で評価します.
+ * パスも正しく扱います.<br>
+ * 手の並べ替えは次のように行います.
+ * <ul>
+ * <li>空きマスが多い間は、相手の着手可能数が少なくなる手から探索します(速さ優先)</li>
+ * <li>相手の着手可能数が同じ場合や空きマスが少ない場合は、
+ *     空きマスが奇数個の領域(盤面を4分割した領域)の手を先に探索します(偶数理論)</li>
+ * <li>残り4マス以下は、着手可能な場所を求めずに空きマスを直接調べる専用の処理で探索します</li>
+ * </ul>
+ * 探索用の作業領域をインスタンスごとに持つため、一つのインスタンスを
+ * 複数のスレッドで同時に使用しないで下さい.
+ * @author tanabe
+ *
+ */
+public class EndgameSolver {
+
+    /**
+     * マス目の数です.
+     */
+    private static final int BOARD_SIZE = BOARD_WIDTH * BOARD_HEIGHT;
+
+    /**
+     * 石の数の差の最大値です.
+     */
+    private static final int MAX_SCORE = BOARD_SIZE;
+
+    /**
+     * 速さ優先で手を並べ替える空きマスの数の下限です.
+     */
+    private static final int FASTEST_FIRST_EMPTIES = 7;
+
+    /**
+     * 専用の処理で探索する空きマスの数の上限です.
+     */
+    private static final int FAST_PATH_EMPTIES = 4;
+
+    /**
+     * 盤面を4分割した領域のビットボードです.
+     */
+    private static final long[] QUADRANTS = {
+        0x000000000F0F0F0FL,
+        0x00000000F0F0F0F0L,
+        0x0F0F0F0F00000000L,
+        0xF0F0F0F000000000L
+    };
+
+    /**
+     * 読み切りを行う空きマスの数の上限です.
+     */
+    private final int maxEmpties;
+
+    /**
+     * 空きマスの数ごとの、並べ替えた手の作業領域です.
+     */
+    private final int[][] moveBuffers;
+
+    /**
+     * 空きマスの数ごとの、手の並べ替えに使用する値の作業領域です.
+     */
+    private final int[][] keyBuffers;
+
+    /**
+     * 空きマスの数ごとの、残りの空きマスの作業領域です.
+     */
+    private final int[][] emptyBuffers;
+
+    /**
+     * 直前の読み切りで得られた、手番側から見た石の数の差です.
+     */
+    private int discDifference;
+
+    /**
+     * 直前の読み切りで探索したノードの数です.
+     */
+    private long nodeCount;
+
+
+    /**
+     * 読み切りを行うインスタンスを生成します.
+     * @param maxEmpties 読み切りを行う空きマスの数の上限.
+     *  {@link #canSolve(Board)}の判定に使用します
+     * @throws IllegalArgumentException 引数が負の値の場合に発生
+     */
+    public EndgameSolver(int maxEmpties) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNegativeValue(maxEmpties);
+
+        this.maxEmpties = maxEmpties;
+        this.moveBuffers = new int[BOARD_SIZE + 1][BOARD_SIZE];
+        this.keyBuffers = new int[BOARD_SIZE + 1][BOARD_SIZE];
+        this.emptyBuffers = new int[FAST_PATH_EMPTIES + 1][FAST_PATH_EMPTIES];
+        this.discDifference = 0;
+        this.nodeCount = 0;
+
+    }
+
+
+    /**
+     * 指定した盤面を読み切りの対象とするかを判定します.
+     * @param board 盤面
+     * @return 空きマスの数が上限以下なら<code>true</code>
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public boolean canSolve(Board board) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(board);
+
+        return board.getStoneCount(Cell.NOTHING) <= this.maxEmpties;
+
+    }
+
+
+    /**
+     * 最後まで読み切り、最善手を取得します.<br>
+     * 石の数の差が同じ手が複数ある場合は、Y座標、X座標の順に走査して最初に見つかる手を返します.<br>
+     * 勝敗だけを求める場合は、石の数の差は最善手のものとは限りませんが、
+     * 符号(勝ち、負け、引き分け)は正しい値になります.
+     * @param board 現在の盤面.探索中に変更することはありません
+     * @param cell 次に置く石
+     * @param exact 石の数の差まで求める場合は<code>true</code>、勝敗だけを求める場合は<code>false</code>
+     * @return 最善手.置ける場所がない場合は<code>null</code>
+     * @throws IllegalArgumentException 第一引数が<code>null</code>、または第二引数が黒石でも白石でもない場合に発生
+     */
+    public NextMove solve(Board board, Cell cell, boolean exact) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(board);
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
+
+        long own = board.getBitBoard(cell);
+        long opponent = board.getBitBoard(AlphaBeta.getOpponent(cell));
+        int empties = board.getStoneCount(Cell.NOTHING);
+
+        int alpha = exact ? -MAX_SCORE - 1 : -1;
+        int beta = exact ? MAX_SCORE + 1 : 1;
+
+        this.nodeCount = 1;
+
+        long places = Board.getPuttablePlaces(own, opponent);
+
+        if(places == 0) {
+            // 置ける場所がないのでパス
+            this.discDifference = this.search(own, opponent, alpha, beta, empties);
+            return null;
+        }
+
+        int bestIndex = -1;
+        int bestScore = alpha;
+
+        while(places != 0) {
+
+            int index = Long.numberOfTrailingZeros(places);
+            places &= places - 1;
+
+            long put = 1L << index;
+            long reversed = Board.getReversedStones(index, own, opponent);
+
+            // 最善手と同じ値の手は選ばないため、現在の最善の値を下限とする
+            int score = -this.search(opponent & ~reversed, own | put | reversed,
+                    -beta, -bestScore, empties - 1);
+
+            if((bestIndex < 0) || (score > bestScore)) {
+                bestIndex = index;
+                bestScore = score;
+                if(bestScore >= beta) {
+                    // 勝ちが見つかった
+                    break;
+                }
+            }
+
+        }
+
+        this.discDifference = bestScore;
+
+        return new NextMove(Board.toX(bestIndex), Board.toY(bestIndex), cell);
+
+    }
+
+
+    /**
+     * 手番側から見た石の数の差を探索します.<br>
+     * 値が<code>alpha</code>以下となる場合は<code>alpha</code>以下の値を、
+     * <code>beta</code>以上となる場合は<code>beta</code>以上の値を返します.
+     * @param own 手番側の石のビットボード
+     * @param opponent 相手の石のビットボード
+     * @param alpha 下限
+     * @param beta 上限
+     * @param empties 空きマスの数
+     * @return 手番側から見た石の数の差
+     */
+    private int search(long own, long opponent, int alpha, int beta, int empties) {
+
+        if(empties <= FAST_PATH_EMPTIES) {
+            return this.searchLast(own, opponent, alpha, beta, empties);
+        }
+
+        this.nodeCount++;
+
+        long places = Board.getPuttablePlaces(own, opponent);
+
+        if(places == 0) {
+            if(Board.getPuttablePlaces(opponent, own) == 0) {
+                // 両者とも置けないので終局
+                return getFinalScore(own, opponent);
+            }
+            // パス
+            return -this.search(opponent, own, -beta, -alpha, empties);
+        }
+
+        long oddRegions = getOddRegions(~(own | opponent));
+        int[] moves = this.moveBuffers[empties];
+        int count = 0;
+
+        if(empties >= FASTEST_FIRST_EMPTIES) {
+            count = this.orderByMobility(own, opponent, places, oddRegions, empties);
+        } else {
+            // 奇数個の領域の手を先に並べる
+            count = addMoves(places & oddRegions, moves, count);
+            count = addMoves(places & ~oddRegions, moves, count);
+        }
+
+        int best = -MAX_SCORE - 1;
+        int currentAlpha = alpha;
+
+        for(int i = 0; i < count; i++) {
+
+            int index = moves[i];
+            long put = 1L << index;
+            long reversed = Board.getReversedStones(index, own, opponent);
+
+            int score = -this.search(opponent & ~reversed, own | put | reversed,
+                    -beta, -currentAlpha, empties - 1);
+
+            if(score > best) {
+                best = score;
+                if(score > currentAlpha) {
+                    currentAlpha = score;
+                    if(currentAlpha >= beta) {
+                        break;
+                    }
+                }
+            }
+
+        }
+
+        return best;
+
+    }
+
+
+    /**
+     * 相手の着手可能数が少ない順に手を並べます.
+     * 同じ場合は奇数個の領域の手、Y座標、X座標の順に並べます.
+     * @param own 手番側の石のビットボード
+     * @param opponent 相手の石のビットボード
+     * @param places 石を置ける場所のビットボード
+     * @param oddRegions 空きマスが奇数個の領域のビットボード
+     * @param empties 空きマスの数.並べた手は{@link #moveBuffers}のこの位置に格納します
+     * @return 手の数
+     */
+    private int orderByMobility(long own, long opponent, long places, long oddRegions, int empties) {
+
+        int[] moves = this.moveBuffers[empties];
+        int[] keys = this.keyBuffers[empties];
+        int count = 0;
+        long rest = places;
+
+        while(rest != 0) {
+
+            int index = Long.numberOfTrailingZeros(rest);
+            rest &= rest - 1;
+
+            long put = 1L << index;
+            long reversed = Board.getReversedStones(index, own, opponent);
+            int mobility = Long.bitCount(Board.getPuttablePlaces(opponent & ~reversed, own | put | reversed));
+            int key = mobility * 2 + (((oddRegions & put) != 0) ? 0 : 1);
+
+            // 挿入ソート(同じ値なら先に見つけた手が前)
+            int position = count;
+            while((position > 0) && (keys[position - 1] > key)) {
+                keys[position] = keys[position - 1];
+                moves[position] = moves[position - 1];
+                position--;
+            }
+            keys[position] = key;
+            moves[position] = index;
+            count++;
+
+        }
+
+        return count;
+
+    }
+
+
+    /**
+     * 残り4マス以下の局面を探索します.<br>
+     * 空きマスを奇数個の領域から順に並べ、着手可能な場所を求めずに直接調べます.
+     * @param own 手番側の石のビットボード
+     * @param opponent 相手の石のビットボード
+     * @param alpha 下限
+     * @param beta 上限
+     * @param empties 空きマスの数
+     * @return 手番側から見た石の数の差
+     */
+    private int searchLast(long own, long opponent, int alpha, int beta, int empties) {
+
+        long emptyBits = ~(own | opponent);
+        long oddRegions = getOddRegions(emptyBits);
+        int[] squares = this.emptyBuffers[empties];
+
+        int count = addMoves(emptyBits & oddRegions, squares, 0);
+        addMoves(emptyBits & ~oddRegions, squares, count);
+
+        return this.solveSmall(own, opponent, alpha, beta, squares, empties, false);
+
+    }
+
+
+    /**
+     * 空きマスの一覧を使って、残り数マスの局面を探索します.
+     * @param own 手番側の石のビットボード
+     * @param opponent 相手の石のビットボード
+     * @param alpha 下限
+     * @param beta 上限
+     * @param squares 空きマスの一覧
+     * @param empties 空きマスの数
+     * @param passed 直前に相手がパスした場合は<code>true</code>
+     * @return 手番側から見た石の数の差
+     */
+    private int solveSmall(long own, long opponent, int alpha, int beta,
+            int[] squares, int empties, boolean passed) {
+
+        if(empties == 1) {
+            return this.solveLastOne(own, opponent, squares[0]);
+        }
+
+        this.nodeCount++;
+
+        if(empties == 0) {
+            return getFinalScore(own, opponent);
+        }
+
+        int[] rest = this.emptyBuffers[empties - 1];
+        int best = -MAX_SCORE - 1;
+        int currentAlpha = alpha;
+        boolean moved = false;
+
+        for(int i = 0; i < empties; i++) {
+
+            int index = squares[i];
+            long reversed = Board.getReversedStones(index, own, opponent);
+
+            if(reversed == 0) {
+                continue;
+            }
+
+            moved = true;
+
+            // 置いたマス目以外の空きマスを順番を変えずに並べる
+            int count = 0;
+            for(int j = 0; j < empties; j++) {
+                if(j != i) {
+                    rest[count++] = squares[j];
+                }
+            }
+
+            long put = 1L << index;
+            int score = -this.solveSmall(opponent & ~reversed, own | put | reversed,
+                    -beta, -currentAlpha, rest, empties - 1, false);
+
+            if(score > best) {
+                best = score;
+                if(score > currentAlpha) {
+                    currentAlpha = score;
+                    if(currentAlpha >= beta) {
+                        break;
+                    }
+                }
+            }
+
+        }
+
+        if(!moved) {
+            if(passed) {
+                // 両者とも置けないので終局
+                return getFinalScore(own, opponent);
+            }
+            // パス
+            return -this.solveSmall(opponent, own, -beta, -alpha, squares, empties, true);
+        }
+
+        return best;
+
+    }
+
+
+    /**
+     * 残り1マスの局面の石の数の差を求めます.
+     * @param own 手番側の石のビットボード
+     * @param opponent 相手の石のビットボード
+     * @param index 空きマス
+     * @return 手番側から見た石の数の差
+     */
+    private int solveLastOne(long own, long opponent, int index) {
+
+        this.nodeCount++;
+
+        int difference = Long.bitCount(own) - Long.bitCount(opponent);
+
+        int reversed = Long.bitCount(Board.getReversedStones(index, own, opponent));
+        if(reversed > 0) {
+            return difference + reversed * 2 + 1;
+        }
+
+        // 手番側が置けないので相手が置く
+        reversed = Long.bitCount(Board.getReversedStones(index, opponent, own));
+        if(reversed > 0) {
+            return difference - reversed * 2 - 1;
+        }
+
+        // 両者とも置けない場合、空きマスは勝った側の石として数える
+        if(difference > 0) {
+            return difference + 1;
+        } else if(difference < 0) {
+            return difference - 1;
+        }
+        return 0;
+
+    }
+
+
+    /**
+     * 終局時の石の数の差を求めます.空きマスは勝った側の石として数えます.
+     * @param own 手番側の石のビットボード
+     * @param opponent 相手の石のビットボード
+     * @return 手番側から見た石の数の差
+     */
+    private static int getFinalScore(long own, long opponent) {
+
+        int ownCount = Long.bitCount(own);
+        int opponentCount = Long.bitCount(opponent);
+        int empties = BOARD_SIZE - ownCount - opponentCount;
+
+        if(ownCount > opponentCount) {
+            return ownCount - opponentCount + empties;
+        } else if(ownCount < opponentCount) {
+            return ownCount - opponentCount - empties;
+        }
+        return 0;
+
+    }
+
+
+    /**
+     * 空きマスが奇数個の領域を取得します.
+     * @param emptyBits 空きマスのビットボード
+     * @return 空きマスが奇数個の領域のビットボード
+     */
+    private static long getOddRegions(long emptyBits) {
+
+        long result = 0L;
+
+        for(long quadrant : QUADRANTS) {
+            if((Long.bitCount(emptyBits & quadrant) & 1) != 0) {
+                result |= quadrant;
+            }
+        }
+
+        return result;
+
+    }
+
+
+    /**
+     * ビットボードの位置を小さい順に配列へ追加します.
+     * @param bits ビットボード
+     * @param moves 追加先の配列
+     * @param start 追加を開始する位置
+     * @return 追加後の要素の数
+     */
+    private static int addMoves(long bits, int[] moves, int start) {
+
+        int count = start;
+        long rest = bits;
+
+        while(rest != 0) {
+            moves[count++] = Long.numberOfTrailingZeros(rest);
+            rest &= rest - 1;
+        }
+
+        return count;
+
+    }
+
+
+    /**
+     * 直前の読み切りで得られた石の数の差を取得します.<br>
+     * 正なら勝ち、0なら引き分け、負なら負けです.
+     * @return 手番側から見た石の数の差
+     */
+    public int getDiscDifference() {
+        return this.discDifference;
+    }
+
+
+    /**
+     * 直前の読み切りで探索したノードの数を取得します.
+     * @return ノードの数
+     */
+    public long getNodeCount() {
+        return this.nodeCount;
+    }
+
+
+    /**
+     * 読み切りを行う空きマスの数の上限を取得します.
+     * @return 空きマスの数
+     */
+    public int getMaxEmpties() {
+        return this.maxEmpties;
+    }
+
+}
@@ -0,0 +1,50 @@
+package ai.minimax;
+
+import core.Board;
+import core.Cell;
+
+/**
+ * 先読みの終端で盤面を評価する評価関数です.<br>
+ * 探索では一つの盤面上で手を進めたり戻したりするため、
+ * 盤面から求めた値を保持して差分で更新する評価関数にも対応できるよう、
+ * 探索を始める盤面と、着手と取り消しの内容を通知します.<br>
+ * 値を保持する評価関数は一つの探索だけで使用し、複数のスレッドで共有しないで下さい.
+ * @author tanabe
+ *
+ */
+public interface Evaluator {
+
+    /**
+     * 探索を始める盤面を設定します.
+     * 以降は{@link #update(int, Cell, long)}と{@link #restore(int, Cell, long)}で
+     * 盤面の変更を通知します.
+     * @param board 探索する盤面
+     */
+    void reset(Board board);
+
+    /**
+     * 探索する盤面に石を置いたことを通知します.
+     * @param index 石を置いたマス目の番号
+     * @param cell 置いた石
+     * @param reversed ひっくり返した石の位置
+     */
+    void update(int index, Cell cell, long reversed);
+
+    /**
+     * 探索する盤面で、石を置く前の状態に戻したことを通知します.
+     * @param index 石を取り除いたマス目の番号
+     * @param cell 取り除いた石
+     * @param reversed 元に戻した石の位置
+     */
+    void restore(int index, Cell cell, long reversed);
+
+    /**
+     * 黒から見た盤面の評価値を計算します.<br>
+     * {@link #reset(Board)}で設定した盤面以外も評価できます.
+     * @param board 評価対象の盤面
+     * @param cell 次に置く石
+     * @return 評価値
+     */
+    int evaluate(Board board, Cell cell);
+
+}
@@ -4,7 +4,9 @@ import util.ArgumentCheckUtil;
 import core.Board;
 
 /**
- * ゲームツリーを表す抽象クラスです.
+ * ゲームツリーを表す抽象クラスです.<br>
+ * 探索中は全てのノードが一つの盤面を共有し、手を進めたり戻したりしながら評価します.
+ * そのため評価値の計算はコンストラクタの中で完了させてください.
  * @author tanabe
  *
  */
@@ -21,7 +23,7 @@ public abstract class GameTree {
     private int value;
 
     /**
-     * 評価対象の盤面です.
+     * 評価対象の盤面です.探索中の他のノードと共有しています.
      */
     private final Board board;
 
@@ -39,7 +41,7 @@ public abstract class GameTree {
         ArgumentCheckUtil.checkNotNull(board);
 
         this.level = level;
-        this.board = new Board(board);
+        this.board = board;
         this.value = 0;
 
     }
@@ -74,10 +76,20 @@ public abstract class GameTree {
 
     /**
      * 評価対象の盤面を取得します.
-     * @return 盤面
+     * @return 盤面のコピー
      */
     public Board getBoard() {
         return new Board(this.board);
     }
 
+
+    /**
+     * 評価対象の盤面を、コピーせずに取得します.
+     * 他のノードと共有しているため、変更した場合は必ず元に戻してください.
+     * @return 盤面
+     */
+    protected Board getSharedBoard() {
+        return this.board;
+    }
+
 }
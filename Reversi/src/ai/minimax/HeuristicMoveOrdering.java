@@ -0,0 +1,216 @@
+package ai.minimax;
+
+import static core.GameConstants.RuleConstants.BOARD_HEIGHT;
+import static core.GameConstants.RuleConstants.BOARD_WIDTH;
+
+import core.Board;
+import core.Cell;
+
+/**
+ * 探索中に得られた情報を使って、枝刈りが起きやすい手から並べる手の並べ替えです.<br>
+ * 手は次の順に並べます.
+ * <ul>
+ * <li>置換表に記録された最善手</li>
+ * <li>同じ手数の別のノードで枝刈りが起きた手(キラー手、手数ごとに2つ)</li>
+ * <li>残りの手.これまでに枝刈りが起きた回数を残りの先読みの手数で重み付けした値(ヒストリー)が大きい順</li>
+ * </ul>
+ * 残りの先読みの手数が{@value #MOBILITY_LEVEL}以上のノード(ルートに近い浅いノード)では、
+ * 残りの手を相手の着手可能数が少ない順に並べ、同じ場合はヒストリーが大きい順に並べます.
+ * 深いノードでは着手可能数を求める手間の方が大きくなるため、ヒストリーだけで並べます.<br>
+ * キラー手は探索ごとに消去し、ヒストリーは探索ごとに半分にして古い情報の影響を減らします.<br>
+ * 値を保持するため、複数のスレッドで共有しないで下さい.
+ * @author tanabe
+ *
+ */
+public class HeuristicMoveOrdering implements MoveOrdering {
+
+    /**
+     * 相手の着手可能数で並べる、残りの先読みの手数の下限です.
+     */
+    public static final int MOBILITY_LEVEL = 3;
+
+    /**
+     * マス目の数です.
+     */
+    private static final int BOARD_SIZE = BOARD_WIDTH * BOARD_HEIGHT;
+
+    /**
+     * 手数ごとに記録するキラー手の数です.
+     */
+    private static final int KILLER_COUNT = 2;
+
+    /**
+     * ヒストリーの上限です.超えた場合はその石の全ての値を半分にします.
+     */
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    /**
+     * ルートからの手数ごとのキラー手です.ない場合は{@link TranspositionTable#NO_MOVE}.
+     */
+    private final int[][] killers;
+
+    /**
+     * 石(黒、白)とマス目ごとのヒストリーです.
+     */
+    private final int[][] history;
+
+    /**
+     * ルートからの手数ごとの、手の並べ替えに使用する値の作業領域です.
+     */
+    private final int[][] keyBuffers;
+
+
+    /**
+     * 手の並べ替えを生成します.
+     */
+    public HeuristicMoveOrdering() {
+
+        this.killers = new int[BOARD_SIZE + 1][KILLER_COUNT];
+        this.history = new int[2][BOARD_SIZE];
+        this.keyBuffers = new int[BOARD_SIZE + 1][BOARD_SIZE];
+        this.clearKillers();
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * キラー手を消去し、ヒストリーを半分にします.
+     */
+    @Override
+    public void newSearch() {
+
+        this.clearKillers();
+        for(int[] values : this.history) {
+            for(int index = 0; index < values.length; index++) {
+                values[index] >>= 1;
+            }
+        }
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * @param board {@inheritDoc}
+     * @param cell {@inheritDoc}
+     * @param places {@inheritDoc}
+     * @param hashMove {@inheritDoc}
+     * @param ply {@inheritDoc}
+     * @param level {@inheritDoc}
+     * @param moves {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int order(Board board, Cell cell, long places, int hashMove, int ply, int level, int[] moves) {
+
+        int count = 0;
+        long rest = places;
+
+        // 置換表の最善手、キラー手の順に先頭に並べる
+        if((hashMove >= 0) && ((rest & (1L << hashMove)) != 0)) {
+            moves[count++] = hashMove;
+            rest &= ~(1L << hashMove);
+        }
+        for(int killer : this.killers[ply]) {
+            if((killer >= 0) && ((rest & (1L << killer)) != 0)) {
+                moves[count++] = killer;
+                rest &= ~(1L << killer);
+            }
+        }
+
+        int[] values = this.history[getColor(cell)];
+        int[] keys = this.keyBuffers[ply];
+        int first = count;
+
+        long own = 0L;
+        long opponent = 0L;
+        boolean useMobility = level >= MOBILITY_LEVEL;
+        if(useMobility) {
+            own = board.getBitBoard(cell);
+            opponent = board.getBitBoard(AlphaBeta.getOpponent(cell));
+        }
+
+        while(rest != 0) {
+
+            int index = Long.numberOfTrailingZeros(rest);
+            rest &= rest - 1;
+
+            int key = values[index];
+            if(useMobility) {
+                long put = 1L << index;
+                long reversed = Board.getReversedStones(index, own, opponent);
+                int mobility = Long.bitCount(Board.getPuttablePlaces(opponent & ~reversed, own | put | reversed));
+                key -= mobility * HISTORY_LIMIT * 2;
+            }
+
+            // 挿入ソート(同じ値なら先に見つけた手が前)
+            int position = count;
+            while((position > first) && (keys[position - 1] < key)) {
+                keys[position] = keys[position - 1];
+                moves[position] = moves[position - 1];
+                position--;
+            }
+            keys[position] = key;
+            moves[position] = index;
+            count++;
+
+        }
+
+        return count;
+
+    }
+
+
+    /**
+     * {@inheritDoc}
+     * キラー手として記録し、ヒストリーに残りの先読みの手数の二乗を加えます.
+     * @param index {@inheritDoc}
+     * @param cell {@inheritDoc}
+     * @param ply {@inheritDoc}
+     * @param level {@inheritDoc}
+     */
+    @Override
+    public void cutoff(int index, Cell cell, int ply, int level) {
+
+        int[] killer = this.killers[ply];
+        if(killer[0] != index) {
+            killer[1] = killer[0];
+            killer[0] = index;
+        }
+
+        int[] values = this.history[getColor(cell)];
+        values[index] += level * level;
+        if(values[index] > HISTORY_LIMIT) {
+            for(int i = 0; i < values.length; i++) {
+                values[i] >>= 1;
+            }
+        }
+
+    }
+
+
+    /**
+     * キラー手を消去します.
+     */
+    private void clearKillers() {
+
+        for(int[] killer : this.killers) {
+            for(int i = 0; i < killer.length; i++) {
+                killer[i] = TranspositionTable.NO_MOVE;
+            }
+        }
+
+    }
+
+
+    /**
+     * ヒストリーの配列の位置を取得します.
+     * @param cell 石
+     * @return 黒なら0、白なら1
+     */
+    private static int getColor(Cell cell) {
+        return (cell == Cell.BLACK) ? 0 : 1;
+    }
+
+}
@@ -23,7 +23,8 @@ public class Inner extends GameTree {
     private NextMove nextMove;
 
     /**
-     * 内部ノードを生成します.
+     * 内部ノードを生成します.<br>
+     * 子ノードの評価中は盤面を一時的に変更しますが、生成が完了した時点で元の状態に戻ります.
      * @param level 何手先を読むかを表す値
      * @param board 評価対象の盤面
      * @param cell 次に置く石
@@ -41,20 +42,20 @@ public class Inner extends GameTree {
         ArrayList<int[]> moves = new ArrayList<int[]>();
         ArrayList<GameTree> nodes = new ArrayList<GameTree>();
 
-        for(int y = 0; y < board.getHeight(); y++) {
-            for(int x = 0; x < board.getWidth(); x++) {
+        long places = board.getPuttablePlaces(cell);
 
-                // 一手先の盤面
-                Board nextBoard = new Board(board);
+        while(places != 0) {
 
-                if(nextBoard.putStone(x, y, cell)) {
+            int index = Long.numberOfTrailingZeros(places);
+            places &= places - 1;
 
-                    nodes.add(makeNextNode(level, cell, nextBoard));
-                    moves.add(new int[]{x, y});
+            // 一手進めて評価し、元に戻す
+            long reversed = board.putStone(index, cell);
+            nodes.add(makeNextNode(level, cell, board));
+            board.removeStone(index, cell, reversed);
 
-                }
+            moves.add(new int[]{Board.toX(index), Board.toY(index)});
 
-            }
         }
 
         if(nodes.size() <= 0) {
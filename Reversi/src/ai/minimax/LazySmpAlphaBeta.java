@@ -0,0 +1,330 @@
+package ai.minimax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * 一つの置換表を共有する複数のスレッドで同じ局面を探索する、アルファベータ法の探索クラスです(Lazy SMP).<br>
+ * ゲーム木を分割せず、全てのスレッドが同じ局面から反復深化で探索し、置換表だけを通じて結果を共有します.
+ * 他のスレッドが記録した評価値と最善手により、各スレッドは探索済みの枝を省略できます.<br>
+ * 呼び出し元のスレッド(メインスレッド)は一手から指定の手数まで順に探索し、その最善手と評価値を返します.
+ * 補助のスレッドは、同じ手数を同時に探索しないよう、スレッドごとに決まった手数を飛ばしながら
+ * 指定の手数まで探索し、メインスレッドの探索が終わった時点で中止します.
+ * 先読みの手数が奇数か偶数かで評価値が大きく変わるため、指定の手数より深くは探索しません.<br>
+ * 置換表の内容はスレッドの実行順序で変わるため、最善手と評価値は{@link AlphaBeta}と異なることがあります.
+ * スレッドが一つで{@link SearchMode#ASPIRATION}の場合は、同じ置換表を使った{@link AlphaBeta}と同じ結果になります.<br>
+ * 使い終わったら{@link #shutdown()}でスレッドを終了して下さい.
+ * @author tanabe
+ *
+ */
+public class LazySmpAlphaBeta {
+
+    /**
+     * 置換表の大きさ(2のべき乗の指数)の規定値です.
+     */
+    private static final int DEFAULT_TABLE_SIZE_BITS = 20;
+
+    /**
+     * 補助のスレッドごとの、手数を飛ばす間隔です.
+     * 間隔の数だけ続けて探索し、同じ数だけ飛ばします.
+     */
+    private static final int[] SKIP_SIZE = {
+        1, 1, 2, 2, 2, 2,   // CHECKSTYLE IGNORE THIS LINE
+        3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4,   // CHECKSTYLE IGNORE THIS LINE
+    };
+
+    /**
+     * 補助のスレッドごとの、手数を飛ばし始める位置です.
+     */
+    private static final int[] SKIP_PHASE = {
+        0, 1, 0, 1, 2, 3,   // CHECKSTYLE IGNORE THIS LINE
+        0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7,   // CHECKSTYLE IGNORE THIS LINE
+    };
+
+    /**
+     * 補助のスレッドを実行するスレッドプールです.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 探索に使用するスレッドの数です.
+     */
+    private final int threadCount;
+
+    /**
+     * 全てのスレッドで共有する置換表です.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * スレッドごとの探索です.先頭はメインスレッドで使用します.
+     */
+    private final AlphaBeta[] searches;
+
+    /**
+     * 直前の探索で得られた、黒から見た評価値です.
+     */
+    private int value;
+
+    /**
+     * 直前の探索で全てのスレッドが評価したノードの数です.
+     */
+    private long nodeCount;
+
+
+    /**
+     * 置換表と評価関数、探索方法を指定してインスタンスを生成します.<br>
+     * 置換表は{@link TranspositionTable#TranspositionTable(int, boolean)}で
+     * 複数のスレッドで共有するものとして生成して下さい.
+     * 評価関数と手の並べ替えはスレッドごとに生成します.
+     * @param threadCount 探索に使用するスレッドの数
+     * @param table 置換表
+     * @param weights パターンによる評価関数の評価値.テーブルで評価する場合は<code>null</code>
+     * @param mode 探索方法
+     * @throws IllegalArgumentException スレッドの数が0以下の場合、または置換表か探索方法が<code>null</code>の場合に発生
+     */
+    public LazySmpAlphaBeta(int threadCount, TranspositionTable table, PatternWeights weights, SearchMode mode) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(threadCount);
+        ArgumentCheckUtil.checkNotNull(table);
+        ArgumentCheckUtil.checkNotNull(mode);
+
+        this.threadCount = threadCount;
+        this.table = table;
+        this.searches = new AlphaBeta[threadCount];
+        for(int i = 0; i < threadCount; i++) {
+            Evaluator evaluator = (weights == null) ? new TableEvaluator() : new PatternEvaluator(weights);
+            this.searches[i] = new AlphaBeta(table, evaluator, new HeuristicMoveOrdering(), mode);
+        }
+
+        // スレッドは補助のスレッドを初めて実行する時に生成される
+        this.executor = Executors.newFixedThreadPool(Math.max(threadCount - 1, 1), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                // 終了し忘れてもアプリケーションの終了を妨げない
+                Thread thread = new Thread(r, "LazySmpAlphaBeta");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.value = 0;
+        this.nodeCount = 0;
+
+    }
+
+
+    /**
+     * テーブルによる評価関数と{@link SearchMode#ASPIRATION}で探索するインスタンスを生成します.
+     * @param threadCount 探索に使用するスレッドの数
+     * @param table 置換表
+     * @throws IllegalArgumentException スレッドの数が0以下の場合、または置換表が<code>null</code>の場合に発生
+     */
+    public LazySmpAlphaBeta(int threadCount, TranspositionTable table) {
+
+        this(threadCount, table, null, SearchMode.ASPIRATION);
+
+    }
+
+
+    /**
+     * 指定した数のスレッドで探索を行うインスタンスを生成します.
+     * 置換表は記録できる局面の数が2の{@value #DEFAULT_TABLE_SIZE_BITS}乗のものを生成します.
+     * @param threadCount 探索に使用するスレッドの数
+     * @throws IllegalArgumentException 引数が0以下の場合に発生
+     */
+    public LazySmpAlphaBeta(int threadCount) {
+
+        this(threadCount, new TranspositionTable(DEFAULT_TABLE_SIZE_BITS, true));
+
+    }
+
+
+    /**
+     * 実行環境のプロセッサ数と同じ数のスレッドで探索を行うインスタンスを生成します.
+     */
+    public LazySmpAlphaBeta() {
+
+        this(Runtime.getRuntime().availableProcessors());
+
+    }
+
+
+    /**
+     * 最善手を探索します.
+     * @param level 何手先まで先読みをするかを表す値
+     * @param board 現在の盤面.探索中に変更することはありません
+     * @param cell 次に置く石
+     * @return 最善手.置ける場所がない場合は<code>null</code>
+     * @throws IllegalArgumentException
+     *  第一引数が0以下の値、第二引数が<code>null</code>、または第三引数が黒石でも白石でもない場合に発生
+     * @throws IllegalStateException 探索中に割り込まれた場合、または探索中に例外が発生した場合に発生
+     */
+    public NextMove search(final int level, Board board, final Cell cell) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(level);
+        ArgumentCheckUtil.checkNotNull(board);
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
+
+        this.table.newSearch();
+
+        // 補助のスレッドの開始前に用意し、開始前に中止された場合も確実に中止させる
+        for(AlphaBeta search : this.searches) {
+            search.prepare(board);
+        }
+
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        if(board.getPuttablePlaces(cell) != 0) {
+            for(int i = 1; i < this.threadCount; i++) {
+                final AlphaBeta search = this.searches[i];
+                final int helper = i - 1;
+                futures.add(this.executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        searchHelper(search, helper, level, cell);
+                    }
+                }));
+            }
+        }
+
+        AlphaBeta main = this.searches[0];
+        NextMove move = null;
+
+        try {
+
+            for(int current = 1; current <= level; current++) {
+                move = main.searchLevel(current, cell);
+                if(move == null) {
+                    break;
+                }
+            }
+
+        } finally {
+
+            for(int i = 1; i < this.threadCount; i++) {
+                this.searches[i].requestStop();
+            }
+            waitHelpers(futures);
+
+        }
+
+        this.value = main.getValue();
+        this.nodeCount = 0;
+        for(AlphaBeta search : this.searches) {
+            this.nodeCount += search.getNodeCount();
+        }
+
+        return move;
+
+    }
+
+
+    /**
+     * 補助のスレッドで、手数を飛ばしながら反復深化で探索します.
+     * @param search 探索.{@link AlphaBeta#prepare(Board)}で盤面を用意していること
+     * @param helper 補助のスレッドの番号
+     * @param maxLevel 最も深い先読みの手数
+     * @param cell 次に置く石
+     */
+    private static void searchHelper(AlphaBeta search, int helper, int maxLevel, Cell cell) {
+
+        int size = SKIP_SIZE[helper % SKIP_SIZE.length];
+        int phase = SKIP_PHASE[helper % SKIP_PHASE.length];
+
+        for(int level = 1; level <= maxLevel; level++) {
+
+            if(((level + phase) / size) % 2 != 0) {
+                // 他のスレッドと同じ手数を探索しないよう飛ばす
+                continue;
+            }
+
+            if(search.searchLevel(level, cell) == null) {
+                break;
+            }
+
+        }
+
+    }
+
+
+    /**
+     * 補助のスレッドの終了を待ちます.
+     * @param futures 補助のスレッドの実行結果
+     * @throws IllegalStateException 待機中に割り込まれた場合、または探索中に例外が発生した場合に発生
+     */
+    private static void waitHelpers(List<Future<?>> futures) {
+
+        try {
+
+            for(Future<?> future : futures) {
+                future.get();
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("探索中に割り込まれました.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("探索中に例外が発生しました.", e.getCause());
+        }
+
+    }
+
+
+    /**
+     * 探索に使用するスレッドを終了します.
+     * 終了後は探索できません.
+     */
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+
+    /**
+     * 探索に使用するスレッドの数を取得します.
+     * @return スレッドの数
+     */
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+
+    /**
+     * 全てのスレッドで共有する置換表を取得します.
+     * @return 置換表
+     */
+    public TranspositionTable getTable() {
+        return this.table;
+    }
+
+
+    /**
+     * 直前の探索で得られた、最善手を選んだ場合の評価値を取得します.
+     * @return 黒から見た評価値
+     */
+    public int getValue() {
+        return this.value;
+    }
+
+
+    /**
+     * 直前の探索で全てのスレッドが評価したノードの数を取得します.
+     * @return ノードの数
+     */
+    public long getNodeCount() {
+        return this.nodeCount;
+    }
+
+}
@@ -123,55 +123,69 @@ public class Leaf extends GameTree {
         // 引数チェック
         ArgumentCheckUtil.checkNotNothing(cell);
 
+        this.setValue(evaluate(this.getSharedBoard(), cell));
+
+    }
+
+
+    /**
+     * 黒から見た盤面の評価値を計算します.<br>
+     * ゲーム木を生成せずに評価値だけが必要な探索から利用します.
+     * @param board 評価対象の盤面
+     * @param cell どちらの側で評価値を計算するかを表す値
+     * @return 評価値
+     */
+    static int evaluate(Board board, Cell cell) {
+
         // 評価値
         int result = 0;
 
-        switch(this.stateJudgment()) {
+        switch(stateJudgment(board)) {
 
             case OP_GAME :
-                result = this.reference(OP_GAME);
+                result = reference(board, OP_GAME);
     
                 if(cell == Cell.BLACK) {
-                    result += this.getPuttablePlaceCount(cell);
+                    result += getPuttablePlaceCount(board, cell);
                 } else {
-                    result -= this.getPuttablePlaceCount(cell);
+                    result -= getPuttablePlaceCount(board, cell);
                 }
     
                 break;
     
             case MIDDLE_GAME :
-                result = this.reference(MIDDLE_GAME);
+                result = reference(board, MIDDLE_GAME);
     
                 if(cell == Cell.BLACK) {
-                    result += this.getPuttablePlaceCount(cell);
+                    result += getPuttablePlaceCount(board, cell);
                 } else {
-                    result -= this.getPuttablePlaceCount(cell);
+                    result -= getPuttablePlaceCount(board, cell);
                 }
     
                 break;
     
             case END_GAME_1 :
-                result = this.reference(END_GAME_1);
+                result = reference(board, END_GAME_1);
     
                 if(cell == Cell.BLACK) {
-                    result += this.getPuttablePlaceCount(cell);
+                    result += getPuttablePlaceCount(board, cell);
                 } else {
-                    result -= this.getPuttablePlaceCount(cell);
+                    result -= getPuttablePlaceCount(board, cell);
                 }
     
                 break;
     
             case END_GAME_2 :
-                result = this.reference(END_GAME_2);
+                result = reference(board, END_GAME_2);
     
                 result += (
-                        this.getBoard().getStoneCount(Cell.BLACK)
-                        - this.getBoard().getStoneCount(Cell.WHITE));
+                        board.getStoneCount(Cell.BLACK)
+                        - board.getStoneCount(Cell.WHITE));
     
                 if(cell == Cell.BLACK) {
-                    result += this.getPuttablePlaceCount(cell);
+                    result += getPuttablePlaceCount(board, cell);
                 } else {
-                    result -= this.getPuttablePlaceCount(cell);
+                    result -= getPuttablePlaceCount(board, cell);
                 }
     
                 break;
@@ -179,20 +193,21 @@ public class Leaf extends GameTree {
                 break;
         }
 
-        this.setValue(result);
+        return result;
 
     }
 
 
     /**
      * 現在のゲームの進行状況を判断します.
+     * @param board 盤面
      * @return ゲームの進行状況
      */
-    private int stateJudgment() {
+    private static int stateJudgment(Board board) {
 
         // 現在の手数
         int moveCount = BOARD_WIDTH * BOARD_HEIGHT
-            - this.getBoard().getStoneCount(Cell.NOTHING)
+            - board.getStoneCount(Cell.NOTHING)
             - 3; // CHECKSTYLE IGNORE THIS LINE
 
         if(moveCount >= 45) {   // CHECKSTYLE IGNORE THIS LINE
@@ -200,12 +215,12 @@ public class Leaf extends GameTree {
             return END_GAME_2;
         }
 
-        if((moveCount >= 30) && (this.isEndGame1())) {  // CHECKSTYLE IGNORE THIS LINE
+        if((moveCount >= 30) && (isEndGame1(board))) {  // CHECKSTYLE IGNORE THIS LINE
             // 30手以降で、条件を満たしていれば終盤1
             return END_GAME_1;
         }
 
-        if(this.isMiddleGame()) {
+        if(isMiddleGame(board)) {
             return MIDDLE_GAME;
         }
 
@@ -216,9 +231,10 @@ public class Leaf extends GameTree {
     /**
      * 現在が中盤かどうかをチェックします.<br>
      * 石が盤面の一番外側に一つでもあれば中盤と判断します.
+     * @param board 盤面
      * @return ゲームの中盤であれば<code>true</code>、それ以外は<code>false</code>
      */
-    private boolean isMiddleGame() {
+    private static boolean isMiddleGame(Board board) {
 
         // 1c～1fをチェック
         // 8c～8fをチェック
@@ -226,11 +242,11 @@ public class Leaf extends GameTree {
             int y1 = 0;
             int y2 = Leaf.BOARD_HEIGHT - 1;
 
-            if(this.getBoard().getStone(x, y1) != Cell.NOTHING) {
+            if(board.getStone(x, y1) != Cell.NOTHING) {
                 return true;
             }
 
-            if(this.getBoard().getStone(x, y2) != Cell.NOTHING) {
+            if(board.getStone(x, y2) != Cell.NOTHING) {
                 return true;
             }
 
@@ -243,11 +259,11 @@ public class Leaf extends GameTree {
             int x1 = 0;
             int x2 = Leaf.BOARD_WIDTH - 1;
 
-            if(this.getBoard().getStone(x1, y) != Cell.NOTHING) {
+            if(board.getStone(x1, y) != Cell.NOTHING) {
                 return true;
             }
 
-            if(this.getBoard().getStone(x2, y) != Cell.NOTHING) {
+            if(board.getStone(x2, y) != Cell.NOTHING) {
                 return true;
             }
 
@@ -261,19 +277,20 @@ public class Leaf extends GameTree {
     /**
      * 現在が終盤1の条件を満たしているかどうかをチェックします.<br>
      * 2つ以上の隅に同じ石が置かれていることが条件です.
+     * @param board 盤面
      * @return 条件を満たしいている場合は<code>true</code>、それ以外は<code>false</code>
      */
-    private boolean isEndGame1() {
+    private static boolean isEndGame1(Board board) {
 
         int white = 0;
         int black = 0;
 
         // CHECKSTYLE:OFF
         Cell[] stones = new Cell[4];
-        stones[0] = this.getBoard().getStone(0, 0);
-        stones[1] = this.getBoard().getStone(0, BOARD_HEIGHT - 1);
-        stones[2] = this.getBoard().getStone(BOARD_WIDTH - 1, 0);
-        stones[3] = this.getBoard().getStone(BOARD_WIDTH - 1, BOARD_HEIGHT - 1);
+        stones[0] = board.getStone(0, 0);
+        stones[1] = board.getStone(0, BOARD_HEIGHT - 1);
+        stones[2] = board.getStone(BOARD_WIDTH - 1, 0);
+        stones[3] = board.getStone(BOARD_WIDTH - 1, BOARD_HEIGHT - 1);
         // CHECKSTYLE:ON
 
         for(Cell cell : stones) {
@@ -290,10 +307,11 @@ public class Leaf extends GameTree {
 
     /**
      * 黒から見た評価値をテーブルを参照して導出します.
+     * @param board 盤面
      * @param state 現在のゲームの進行状況
      * @return 評価値
      */
-    private int reference(int state) {
+    private static int reference(Board board, int state) {
 
         int[][] table;
 
@@ -313,9 +331,9 @@ public class Leaf extends GameTree {
         for(int y = 0; y < Leaf.BOARD_HEIGHT; y++) {
             for(int x = 0; x < Leaf.BOARD_WIDTH; x++) {
 
-                if(this.getBoard().getStone(x, y) == Cell.BLACK) {
+                if(board.getStone(x, y) == Cell.BLACK) {
                     result += table[y][x];
-                } else if(this.getBoard().getStone(x, y) == Cell.WHITE) {
+                } else if(board.getStone(x, y) == Cell.WHITE) {
                     result -= table[y][x];
                 }
 
@@ -327,27 +345,28 @@ public class Leaf extends GameTree {
     }
 
 
+    /**
+     * 中盤用のテーブルから、黒から見たマス目の評価値を取得します.
+     * 他の評価関数の初期値として使用します.
+     * @param x 横方向の位置
+     * @param y 縦方向の位置
+     * @return 評価値
+     */
+    static int getTableValue(int x, int y) {
+        return MIDDLE_GAME_TABLE[y][x];
+    }
+
+
     /**
      * 石を置ける場所の数を取得します.
+     * @param board 盤面
      * @param cell 置く石
      * @return 石を置ける場所の数
      * @throws IllegalArgumentException 引数が白石でも黒石でもない場合に発生
      */
-    private int getPuttablePlaceCount(Cell cell) {
-
-        int result = 0;
-
-        for(int y = 0; y < BOARD_HEIGHT; y++) {
-            for(int x = 0; x < BOARD_WIDTH; x++) {
+    private static int getPuttablePlaceCount(Board board, Cell cell) {
 
-                if(this.getBoard().canPut(x, y, cell)) {
-                    result++;
-                }
-
-            }
-        }
-
-        return result;
+        return Long.bitCount(board.getPuttablePlaces(cell));
 
     }
 }
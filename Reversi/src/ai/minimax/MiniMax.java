@@ -27,7 +27,8 @@ public final class MiniMax {
      */
     public static NextMove getNextMove(int level, Board board, Cell cell) {
 
-        Inner root = new Inner(level, board, cell);
+        // 探索中は盤面を変更するため、呼び出し元の盤面とは別に用意する
+        Inner root = new Inner(level, new Board(board), cell);
 
         return root.getNextMove();
 
@@ -0,0 +1,47 @@
+package ai.minimax;
+
+import core.Board;
+import core.Cell;
+
+/**
+ * 探索で手を調べる順序を決める手の並べ替えです.<br>
+ * アルファベータ法は、良い手から順に調べるほど早く枝刈りできます.
+ * 探索は各ノードで{@link #order(Board, Cell, long, int, int, int, int[])}により手を並べ、
+ * 枝刈りが起きた場合は{@link #cutoff(int, Cell, int, int)}でその手を通知します.
+ * 通知された手を記録し、以降の並べ替えに利用する実装にも対応できます.<br>
+ * 値を保持する実装は一つの探索だけで使用し、複数のスレッドで共有しないで下さい.
+ * @author tanabe
+ *
+ */
+public interface MoveOrdering {
+
+    /**
+     * 新しい探索を始めることを通知します.
+     * 反復深化の各手数の探索ではなく、盤面を指定した探索の開始時に呼び出します.
+     */
+    void newSearch();
+
+    /**
+     * 石を置ける場所を、調べる順に並べます.
+     * @param board 探索中の盤面.変更しないこと
+     * @param cell 次に置く石
+     * @param places 石を置ける場所のビットボード.0以外であること
+     * @param hashMove 置換表に記録された最善手のマス目の番号.
+     *  ない場合は{@link TranspositionTable#NO_MOVE}
+     * @param ply ルートからの手数
+     * @param level 残りの先読みの手数
+     * @param moves 並べたマス目の番号の格納先.64以上の大きさであること
+     * @return 手の数
+     */
+    int order(Board board, Cell cell, long places, int hashMove, int ply, int level, int[] moves);
+
+    /**
+     * 枝刈りが起きた手を通知します.
+     * @param index 枝刈りが起きた手のマス目の番号
+     * @param cell 置いた石
+     * @param ply ルートからの手数
+     * @param level 残りの先読みの手数
+     */
+    void cutoff(int index, Cell cell, int ply, int level);
+
+}
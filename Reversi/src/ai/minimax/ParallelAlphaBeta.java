@@ -0,0 +1,258 @@
+package ai.minimax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * 最初の手以外の手を複数のスレッドで並列に探索する、アルファベータ法の探索クラスです.<br>
+ * 最初の手を一つのスレッドで探索して評価値の下限を求めてから、
+ * 残りの手をスレッドプールで並列に探索します(Young Brothers Wait).
+ * 後から探索を始める手には、それまでに得られた最善の評価値を下限として渡します.<br>
+ * 評価値の下限より1小さい値を下限とするため、最善手と同じ評価値の手は
+ * 全て正確な評価値が得られます.そのため、スレッドの実行順序に関わらず
+ * {@link AlphaBeta}と同じ最善手と評価値を返します.<br>
+ * 使い終わったら{@link #shutdown()}でスレッドを終了して下さい.
+ * @author tanabe
+ *
+ */
+public class ParallelAlphaBeta {
+
+    /**
+     * 評価値の上限を表す値です.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * 探索を実行するスレッドプールです.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * 探索に使用するスレッドの数です.
+     */
+    private final int threadCount;
+
+    /**
+     * 直前の探索で得られた、黒から見た評価値です.
+     */
+    private int value;
+
+    /**
+     * 直前の探索で評価したノードの数です.
+     */
+    private long nodeCount;
+
+
+    /**
+     * 指定した数のスレッドで探索を行うインスタンスを生成します.
+     * @param threadCount 探索に使用するスレッドの数
+     * @throws IllegalArgumentException 引数が0以下の場合に発生
+     */
+    public ParallelAlphaBeta(int threadCount) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(threadCount);
+
+        this.threadCount = threadCount;
+        this.executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                // 終了し忘れてもアプリケーションの終了を妨げない
+                Thread thread = new Thread(r, "ParallelAlphaBeta");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.value = 0;
+        this.nodeCount = 0;
+
+    }
+
+
+    /**
+     * 実行環境のプロセッサ数と同じ数のスレッドで探索を行うインスタンスを生成します.
+     */
+    public ParallelAlphaBeta() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+
+    /**
+     * 最善手を探索します.
+     * @param level 何手先まで先読みをするかを表す値
+     * @param board 現在の盤面.探索中に変更することはありません
+     * @param cell 次に置く石
+     * @return 最善手.置ける場所がない場合は<code>null</code>
+     * @throws IllegalArgumentException
+     *  第一引数が0以下の値、第二引数が<code>null</code>、または第三引数が黒石でも白石でもない場合に発生
+     * @throws IllegalStateException 探索中に割り込まれた場合、または探索中に例外が発生した場合に発生
+     */
+    public NextMove search(final int level, Board board, final Cell cell) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(level);
+        ArgumentCheckUtil.checkNotNull(board);
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
+
+        final Board root = new Board(board);
+        long places = root.getPuttablePlaces(cell);
+
+        this.nodeCount = 1;
+
+        if(places == 0) {
+            // 置ける場所がないのでパス
+            this.value = Leaf.evaluate(root, cell);
+            return null;
+        }
+
+        // 最初の手は、評価値の下限を求めるために単独で探索する
+        int firstIndex = Long.numberOfTrailingZeros(places);
+        places &= places - 1;
+
+        AlphaBeta first = new AlphaBeta();
+        int firstScore = first.searchMove(new Board(root), firstIndex, level, cell, -INFINITY);
+        this.nodeCount += first.getNodeCount();
+
+        final AtomicInteger bound = new AtomicInteger(firstScore);
+
+        // 残りの手は並列に探索する
+        List<Integer> indexes = new ArrayList<Integer>();
+        List<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+
+        while(places != 0) {
+
+            final int index = Long.numberOfTrailingZeros(places);
+            places &= places - 1;
+
+            indexes.add(index);
+            futures.add(this.executor.submit(new Callable<long[]>() {
+                @Override
+                public long[] call() {
+                    return searchMove(root, index, level, cell, bound);
+                }
+            }));
+
+        }
+
+        int bestIndex = firstIndex;
+        int bestScore = firstScore;
+
+        try {
+
+            // 同じ評価値の場合は先に並んでいる手を選ぶ
+            for(int i = 0; i < futures.size(); i++) {
+                long[] result = futures.get(i).get();
+                int score = (int)result[0];   // CHECKSTYLE IGNORE THIS LINE
+                this.nodeCount += result[1];
+                if(score > bestScore) {
+                    bestIndex = indexes.get(i);
+                    bestScore = score;
+                }
+            }
+
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("探索中に割り込まれました.", e);
+        } catch (ExecutionException e) {
+            cancel(futures);
+            throw new IllegalStateException("探索中に例外が発生しました.", e.getCause());
+        }
+
+        this.value = AlphaBeta.getSign(cell) * bestScore;
+
+        return new NextMove(Board.toX(bestIndex), Board.toY(bestIndex), cell);
+
+    }
+
+
+    /**
+     * スレッドプール上で一つの手を探索します.
+     * @param root 探索開始時の盤面.変更しないこと
+     * @param index 石を置くマス目の番号
+     * @param level 何手先まで先読みをするかを表す値
+     * @param cell 次に置く石
+     * @param bound これまでに得られた最善の評価値
+     * @return 評価値と評価したノードの数
+     */
+    private static long[] searchMove(Board root, int index, int level, Cell cell, AtomicInteger bound) {
+
+        int alpha = bound.get();
+
+        AlphaBeta search = new AlphaBeta();
+        // 同じ評価値の手も正確な評価値が得られるよう、下限を1小さくする
+        int score = search.searchMove(new Board(root), index, level, cell, alpha - 1);
+
+        // これまでの最善の評価値を超えた場合のみ更新する
+        int current = bound.get();
+        while((score > current) && !bound.compareAndSet(current, score)) {
+            current = bound.get();
+        }
+
+        return new long[] {score, search.getNodeCount()};
+
+    }
+
+
+    /**
+     * 実行中の探索を中止します.
+     * @param futures 探索の結果
+     */
+    private static void cancel(List<Future<long[]>> futures) {
+
+        for(Future<long[]> future : futures) {
+            future.cancel(true);
+        }
+
+    }
+
+
+    /**
+     * 探索に使用するスレッドを終了します.
+     * 終了後は探索できません.
+     */
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+
+    /**
+     * 探索に使用するスレッドの数を取得します.
+     * @return スレッドの数
+     */
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
+
+    /**
+     * 直前の探索で得られた、最善手を選んだ場合の評価値を取得します.
+     * @return 黒から見た評価値
+     */
+    public int getValue() {
+        return this.value;
+    }
+
+
+    /**
+     * 直前の探索で評価したノードの数を取得します.
+     * @return ノードの数
+     */
+    public long getNodeCount() {
+        return this.nodeCount;
+    }
+
+}
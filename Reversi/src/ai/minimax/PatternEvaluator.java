@@ -0,0 +1,356 @@
+package ai.minimax;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+
+/**
+ * 盤面上の形(パターン)ごとの評価値で盤面を評価する評価関数です.<br>
+ * 辺、隅の3x3と2x5の領域、各行と各列、斜めの列をパターンとし、
+ * パターン内の石の並びを三進数の番号(空きマスは0、黒石は1、白石は2)に変換して、
+ * ゲームの進行状況ごとの評価値の配列({@link PatternWeights})を参照します.
+ * 回転や反転で重なるパターンは同じ種類とし、評価値を共有します.<br>
+ * 探索中はパターンの番号を保持し、着手と取り消しで変わったマス目を含むパターンだけを更新します.
+ * そのため、探索ごとにインスタンスを生成し、複数のスレッドで共有しないで下さい.
+ * @author tanabe
+ *
+ */
+public class PatternEvaluator implements Evaluator {
+
+    /**
+     * パターンの種類ごとの、基準となる向きでのマス目の番号です.
+     * マス目は三進数の下の桁から順に並べます.
+     */
+    private static final int[][] KIND_CELLS = {
+        // 辺と、辺に接するX打ちのマス目
+        {0, 1, 2, 3, 4, 5, 6, 7, 9, 14},
+        // 隅の3x3の領域
+        {0, 1, 2, 8, 9, 10, 16, 17, 18},
+        // 隅の2x5の領域
+        {0, 1, 2, 3, 4, 8, 9, 10, 11, 12},
+        // 二行目
+        {8, 9, 10, 11, 12, 13, 14, 15},
+        // 三行目
+        {16, 17, 18, 19, 20, 21, 22, 23},
+        // 四行目
+        {24, 25, 26, 27, 28, 29, 30, 31},
+        // 長さ8の斜めの列
+        {0, 9, 18, 27, 36, 45, 54, 63},
+        // 長さ7の斜めの列
+        {8, 17, 26, 35, 44, 53, 62},
+        // 長さ6の斜めの列
+        {16, 25, 34, 43, 52, 61},
+        // 長さ5の斜めの列
+        {24, 33, 42, 51, 60},
+        // 長さ4の斜めの列
+        {32, 41, 50, 59}
+    };
+
+    /**
+     * パターンの種類の数です.
+     */
+    static final int KIND_COUNT = KIND_CELLS.length;
+
+    /**
+     * パターンの種類ごとの、石の並びの数(3のマス目の数乗)です.
+     */
+    static final int[] KIND_SIZES = new int[KIND_COUNT];
+
+    /**
+     * 盤面上のパターンの種類です.
+     */
+    static final int[] INSTANCE_KINDS;
+
+    /**
+     * 盤面上のパターンのマス目の番号です.基準となる向きのマス目を対称変換したものです.
+     */
+    static final int[][] INSTANCE_CELLS;
+
+    /**
+     * 盤面上のパターンの数です.
+     */
+    static final int INSTANCE_COUNT;
+
+    /**
+     * マス目ごとの、そのマス目を含むパターンです.
+     */
+    private static final int[][] SQUARE_INSTANCES;
+
+    /**
+     * マス目ごとの、そのマス目を含むパターンでの三進数の桁の重み(3のべき乗)です.
+     */
+    private static final int[][] SQUARE_POWERS;
+
+    /**
+     * 盤面のマス目の数です.
+     */
+    static final int SQUARE_COUNT = 64;
+
+    /**
+     * 三進数の基数です.
+     */
+    private static final int RADIX = 3;
+
+    /**
+     * 黒石を表す三進数の値です.
+     */
+    private static final int BLACK_DIGIT = 1;
+
+    /**
+     * 白石を表す三進数の値です.
+     */
+    private static final int WHITE_DIGIT = 2;
+
+    static {
+
+        // 基準となる向きのパターンを対称変換し、同じマス目の組み合わせになるものは除く
+        List<Integer> kinds = new ArrayList<Integer>();
+        List<int[]> cells = new ArrayList<int[]>();
+
+        for(int kind = 0; kind < KIND_COUNT; kind++) {
+
+            KIND_SIZES[kind] = 1;
+            for(int i = 0; i < KIND_CELLS[kind].length; i++) {
+                KIND_SIZES[kind] *= RADIX;
+            }
+
+            Set<Long> seen = new HashSet<Long>();
+            for(int symmetry = 0; symmetry < Board.SYMMETRY_COUNT; symmetry++) {
+                int[] instance = new int[KIND_CELLS[kind].length];
+                long mask = 0L;
+                for(int i = 0; i < instance.length; i++) {
+                    instance[i] = Board.transformIndex(KIND_CELLS[kind][i], symmetry);
+                    mask |= 1L << instance[i];
+                }
+                if(seen.add(mask)) {
+                    kinds.add(kind);
+                    cells.add(instance);
+                }
+            }
+
+        }
+
+        INSTANCE_COUNT = kinds.size();
+        INSTANCE_KINDS = new int[INSTANCE_COUNT];
+        INSTANCE_CELLS = cells.toArray(new int[INSTANCE_COUNT][]);
+        for(int i = 0; i < INSTANCE_COUNT; i++) {
+            INSTANCE_KINDS[i] = kinds.get(i);
+        }
+
+        // マス目から、そのマス目を含むパターンを引けるようにする
+        int[] counts = new int[SQUARE_COUNT];
+        for(int[] instance : INSTANCE_CELLS) {
+            for(int index : instance) {
+                counts[index]++;
+            }
+        }
+
+        SQUARE_INSTANCES = new int[SQUARE_COUNT][];
+        SQUARE_POWERS = new int[SQUARE_COUNT][];
+        for(int index = 0; index < SQUARE_COUNT; index++) {
+            SQUARE_INSTANCES[index] = new int[counts[index]];
+            SQUARE_POWERS[index] = new int[counts[index]];
+            counts[index] = 0;
+        }
+
+        for(int instance = 0; instance < INSTANCE_COUNT; instance++) {
+            int power = 1;
+            for(int index : INSTANCE_CELLS[instance]) {
+                SQUARE_INSTANCES[index][counts[index]] = instance;
+                SQUARE_POWERS[index][counts[index]] = power;
+                counts[index]++;
+                power *= RADIX;
+            }
+        }
+
+    }
+
+    /**
+     * 評価値の配列です.
+     */
+    private final PatternWeights weights;
+
+    /**
+     * 探索中の盤面での、パターンごとの石の並びの番号です.
+     */
+    private final int[] indexes;
+
+    /**
+     * 探索中の盤面です.設定していない場合は<code>null</code>.
+     */
+    private Board board;
+
+
+    /**
+     * 評価関数を生成します.
+     * @param weights 評価値の配列.複数の評価関数で共有できます
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public PatternEvaluator(PatternWeights weights) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(weights);
+
+        this.weights = weights;
+        this.indexes = new int[INSTANCE_COUNT];
+        this.board = null;
+
+    }
+
+
+    /**
+     * {@inheritDoc}<br>
+     * 盤面の全てのパターンの番号を求めます.
+     * @param board {@inheritDoc}
+     */
+    @Override
+    public void reset(Board board) {
+
+        this.board = board;
+        computeIndexes(board, this.indexes);
+
+    }
+
+
+    /**
+     * {@inheritDoc}<br>
+     * 置いた石とひっくり返した石を含むパターンの番号を更新します.
+     * @param index {@inheritDoc}
+     * @param cell {@inheritDoc}
+     * @param reversed {@inheritDoc}
+     */
+    @Override
+    public void update(int index, Cell cell, long reversed) {
+
+        if(cell == Cell.BLACK) {
+            this.addSquare(index, BLACK_DIGIT);
+            this.addSquares(reversed, BLACK_DIGIT - WHITE_DIGIT);
+        } else {
+            this.addSquare(index, WHITE_DIGIT);
+            this.addSquares(reversed, WHITE_DIGIT - BLACK_DIGIT);
+        }
+
+    }
+
+
+    /**
+     * {@inheritDoc}<br>
+     * 取り除いた石と元に戻した石を含むパターンの番号を、石を置く前の番号に戻します.
+     * @param index {@inheritDoc}
+     * @param cell {@inheritDoc}
+     * @param reversed {@inheritDoc}
+     */
+    @Override
+    public void restore(int index, Cell cell, long reversed) {
+
+        if(cell == Cell.BLACK) {
+            this.addSquare(index, -BLACK_DIGIT);
+            this.addSquares(reversed, WHITE_DIGIT - BLACK_DIGIT);
+        } else {
+            this.addSquare(index, -WHITE_DIGIT);
+            this.addSquares(reversed, BLACK_DIGIT - WHITE_DIGIT);
+        }
+
+    }
+
+
+    /**
+     * {@inheritDoc}<br>
+     * 探索中の盤面であれば保持しているパターンの番号を使い、
+     * それ以外の盤面であれば全てのパターンの番号を求めてから評価します.
+     * @param board {@inheritDoc}
+     * @param cell {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int evaluate(Board board, Cell cell) {
+
+        int[] current = this.indexes;
+        if(board != this.board) {
+            current = new int[INSTANCE_COUNT];
+            computeIndexes(board, current);
+        }
+
+        return this.weights.evaluate(current, board, cell);
+
+    }
+
+
+    /**
+     * 探索中の盤面での、パターンの石の並びの番号を取得します.
+     * @param instance 盤面上のパターンの番号
+     * @return 石の並びの番号
+     */
+    int getIndex(int instance) {
+        return this.indexes[instance];
+    }
+
+
+    /**
+     * 指定のマス目を含むパターンの番号に、石の変化を加えます.
+     * @param index マス目の番号
+     * @param delta 三進数の値の変化
+     */
+    private void addSquare(int index, int delta) {
+
+        int[] instances = SQUARE_INSTANCES[index];
+        int[] powers = SQUARE_POWERS[index];
+
+        for(int i = 0; i < instances.length; i++) {
+            this.indexes[instances[i]] += delta * powers[i];
+        }
+
+    }
+
+
+    /**
+     * 複数のマス目を含むパターンの番号に、石の変化を加えます.
+     * @param bits マス目の位置
+     * @param delta 三進数の値の変化
+     */
+    private void addSquares(long bits, int delta) {
+
+        for(long rest = bits; rest != 0; rest &= rest - 1) {
+            this.addSquare(Long.numberOfTrailingZeros(rest), delta);
+        }
+
+    }
+
+
+    /**
+     * 盤面の全てのパターンの番号を求めます.
+     * @param board 盤面
+     * @param result パターンの番号を格納する配列.大きさは{@link #INSTANCE_COUNT}
+     */
+    static void computeIndexes(Board board, int[] result) {
+
+        long black = board.getBitBoard(Cell.BLACK);
+        long white = board.getBitBoard(Cell.WHITE);
+
+        for(int instance = 0; instance < INSTANCE_COUNT; instance++) {
+
+            int[] cells = INSTANCE_CELLS[instance];
+            int value = 0;
+
+            // 上の桁から順に求める
+            for(int i = cells.length - 1; i >= 0; i--) {
+                value *= RADIX;
+                if((black & (1L << cells[i])) != 0) {
+                    value += BLACK_DIGIT;
+                } else if((white & (1L << cells[i])) != 0) {
+                    value += WHITE_DIGIT;
+                }
+            }
+
+            result[instance] = value;
+
+        }
+
+    }
+
+}
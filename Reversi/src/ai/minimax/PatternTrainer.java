@@ -0,0 +1,204 @@
+package ai.minimax;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+
+/**
+ * 局面と対局結果の組から、{@link PatternWeights}の評価値を学習するクラスです.<br>
+ * 局面を一つずつ受け取り、その場で評価値を更新します(正規化した最小二乗法の勾配降下).
+ * 学習済みの局面は保持しないため、局面の数に関わらず使用するメモリは評価値の配列の分だけです.<br>
+ * 学習する評価値は、黒から見た最終的な石の数の差を予測する値です.
+ * 複数のスレッドで同時に使用しないで下さい.
+ * @author tanabe
+ *
+ */
+public class PatternTrainer {
+
+    /**
+     * 段階、パターンの種類、石の並びの番号ごとの評価値です.
+     */
+    private final double[][][] patterns;
+
+    /**
+     * 段階ごとの、置ける場所の数の重みです.
+     */
+    private final double[] mobility;
+
+    /**
+     * 学習率です.一回の更新で、その局面の誤差をどれだけ減らすかを表します.
+     */
+    private double rate;
+
+    /**
+     * 局面のパターンの番号を求めるための作業領域です.
+     */
+    private final int[] indexes;
+
+
+    /**
+     * 全ての評価値が0の状態から学習するインスタンスを生成します.
+     * @param rate 学習率.0より大きく1以下の値
+     * @throws IllegalArgumentException 学習率が範囲外の場合に発生
+     */
+    public PatternTrainer(double rate) {
+
+        this(new PatternWeights(), rate);
+
+    }
+
+
+    /**
+     * 指定の評価値から学習を続けるインスタンスを生成します.
+     * @param initial 学習を始める評価値
+     * @param rate 学習率.0より大きく1以下の値
+     * @throws IllegalArgumentException 第一引数が<code>null</code>、または学習率が範囲外の場合に発生
+     */
+    public PatternTrainer(PatternWeights initial, double rate) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(initial);
+
+        this.patterns = new double[PatternWeights.PHASE_COUNT][PatternEvaluator.KIND_COUNT][];
+        this.mobility = new double[PatternWeights.PHASE_COUNT];
+        this.indexes = new int[PatternEvaluator.INSTANCE_COUNT];
+        this.setRate(rate);
+
+        for(int phase = 0; phase < PatternWeights.PHASE_COUNT; phase++) {
+            for(int kind = 0; kind < PatternEvaluator.KIND_COUNT; kind++) {
+                double[] weights = new double[PatternEvaluator.KIND_SIZES[kind]];
+                for(int code = 0; code < weights.length; code++) {
+                    weights[code] = (double)initial.getPatternWeight(phase, kind, code) / PatternWeights.WEIGHT_SCALE;
+                }
+                this.patterns[phase][kind] = weights;
+            }
+            this.mobility[phase] = (double)initial.getMobilityWeight(phase) / PatternWeights.WEIGHT_SCALE;
+        }
+
+    }
+
+
+    /**
+     * 学習率を設定します.学習の途中で徐々に小さくする場合に使用します.
+     * @param rate 学習率.0より大きく1以下の値
+     * @throws IllegalArgumentException 学習率が範囲外の場合に発生
+     */
+    public void setRate(double rate) {
+
+        if(!((rate > 0.0) && (rate <= 1.0))) {
+            throw new IllegalArgumentException("学習率は0より大きく1以下の値を指定してください.rate = " + rate);
+        }
+
+        this.rate = rate;
+
+    }
+
+
+    /**
+     * 一つの局面で評価値を更新します.
+     * @param board 局面の盤面
+     * @param cell 次に置く石
+     * @param result 黒から見た最終的な石の数の差
+     * @return 更新前の予測の誤差(結果から予測を引いた値)
+     * @throws IllegalArgumentException
+     *  第一引数が<code>null</code>、または第二引数が黒石でも白石でもない場合に発生
+     */
+    public double train(Board board, Cell cell, int result) {
+
+        double error = result - this.predict(board, cell);
+
+        int phase = PatternWeights.getPhase(board.getStoneCount(Cell.NOTHING));
+        double[][] weights = this.patterns[phase];
+        int mobilityValue = getMobilityValue(board, cell);
+
+        // 各パターンの値は1、置ける場所の数はその値を入力とし、入力の二乗和で正規化する
+        double step = this.rate * error
+                / (PatternEvaluator.INSTANCE_COUNT + mobilityValue * mobilityValue);
+
+        for(int instance = 0; instance < PatternEvaluator.INSTANCE_COUNT; instance++) {
+            weights[PatternEvaluator.INSTANCE_KINDS[instance]][this.indexes[instance]] += step;
+        }
+        this.mobility[phase] += step * mobilityValue;
+
+        return error;
+
+    }
+
+
+    /**
+     * 現在の評価値で、黒から見た最終的な石の数の差を予測します.
+     * @param board 局面の盤面
+     * @param cell 次に置く石
+     * @return 予測した石の数の差
+     * @throws IllegalArgumentException
+     *  第一引数が<code>null</code>、または第二引数が黒石でも白石でもない場合に発生
+     */
+    public double predict(Board board, Cell cell) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(board);
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
+
+        PatternEvaluator.computeIndexes(board, this.indexes);
+
+        int phase = PatternWeights.getPhase(board.getStoneCount(Cell.NOTHING));
+        double[][] weights = this.patterns[phase];
+
+        double result = this.mobility[phase] * getMobilityValue(board, cell);
+        for(int instance = 0; instance < PatternEvaluator.INSTANCE_COUNT; instance++) {
+            result += weights[PatternEvaluator.INSTANCE_KINDS[instance]][this.indexes[instance]];
+        }
+
+        return result;
+
+    }
+
+
+    /**
+     * 学習した評価値を、{@link PatternEvaluator}で使用する評価値の配列に変換します.
+     * @return 評価値の配列
+     */
+    public PatternWeights getWeights() {
+
+        PatternWeights result = new PatternWeights();
+
+        for(int phase = 0; phase < PatternWeights.PHASE_COUNT; phase++) {
+            for(int kind = 0; kind < PatternEvaluator.KIND_COUNT; kind++) {
+                double[] weights = this.patterns[phase][kind];
+                for(int code = 0; code < weights.length; code++) {
+                    result.setPatternWeight(phase, kind, code, toScaled(weights[code]));
+                }
+            }
+            result.setMobilityWeight(phase, toScaled(this.mobility[phase]));
+        }
+
+        return result;
+
+    }
+
+
+    /**
+     * 黒から見た、手番側の置ける場所の数を取得します.
+     * @param board 盤面
+     * @param cell 次に置く石
+     * @return 黒の手番なら置ける場所の数、白の手番なら置ける場所の数に-1を掛けた値
+     */
+    private static int getMobilityValue(Board board, Cell cell) {
+
+        int count = Long.bitCount(board.getPuttablePlaces(cell));
+        return (cell == Cell.BLACK) ? count : -count;
+
+    }
+
+
+    /**
+     * 評価値を{@link PatternWeights#WEIGHT_SCALE}倍した整数に変換します.
+     * @param weight 評価値
+     * @return 変換した評価値
+     */
+    private static int toScaled(double weight) {
+        return (int)Math.round(weight * PatternWeights.WEIGHT_SCALE);
+    }
+
+}
@@ -0,0 +1,409 @@
+package ai.minimax;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+
+/**
+ * {@link PatternEvaluator}で参照する評価値の配列です.<br>
+ * ゲームの進行状況(空きマスの数)を{@value #PHASE_COUNT}段階に分け、段階ごとに
+ * パターンの種類と石の並びの番号に対応する評価値と、置ける場所の数の重みを持ちます.
+ * 評価値は黒から見た値を{@value #WEIGHT_SCALE}倍した整数です.<br>
+ * 評価値はファイルに書き出して読み込むことができます.
+ * ファイルの形式は次のとおりです.数値はビッグエンディアンのintです.
+ * <ul>
+ * <li>ヘッダー: 識別子、バージョン、段階の数、パターンの種類の数、種類ごとの石の並びの数</li>
+ * <li>段階ごと: 置ける場所の数の重み、パターンの種類と石の並びの番号の順の評価値</li>
+ * </ul>
+ * 生成後は変更しないため、複数のスレッドで共有できます.
+ * @author tanabe
+ *
+ */
+public final class PatternWeights {
+
+    /**
+     * ゲームの進行状況の段階の数です.
+     */
+    public static final int PHASE_COUNT = 4;
+
+    /**
+     * 評価値を整数で細かく表すための倍率です.
+     * 既定の評価値で、マス目の評価値をそのマス目を含むパターンの数(4、5、6、8)で割り切れる値です.
+     */
+    public static final int WEIGHT_SCALE = 120;
+
+    /**
+     * 評価値のファイルのパスを指定するシステムプロパティの名前です.
+     */
+    public static final String FILE_PROPERTY = "reversi.weights";
+
+    /**
+     * 評価値のファイルのパスの規定値です.
+     */
+    public static final String DEFAULT_FILE = "reversi.weights";
+
+    /**
+     * 評価値のファイルを表す識別子です.
+     */
+    static final int MAGIC = 0x52565731;
+
+    /**
+     * ファイル形式のバージョンです.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * 一つの段階に含まれる手数です.
+     */
+    private static final int PHASE_MOVES = 15;
+
+    /**
+     * 初期配置での空きマスの数です.
+     */
+    private static final int INITIAL_EMPTIES = 60;
+
+    /**
+     * チェックサムの初期値です(FNV-1a).
+     */
+    private static final long CHECKSUM_BASIS = 0xCBF29CE484222325L;
+
+    /**
+     * チェックサムを求める時に掛ける値です(FNV-1a).
+     */
+    private static final long CHECKSUM_PRIME = 0x100000001B3L;
+
+    /**
+     * 段階、パターンの種類、石の並びの番号ごとの評価値です.
+     */
+    private final int[][][] patterns;
+
+    /**
+     * 段階ごとの、手番側が置ける場所の数の重みです.
+     */
+    private final int[] mobility;
+
+
+    /**
+     * 全ての評価値が0の配列を生成します.
+     */
+    PatternWeights() {
+
+        this.patterns = new int[PHASE_COUNT][PatternEvaluator.KIND_COUNT][];
+        this.mobility = new int[PHASE_COUNT];
+
+        for(int phase = 0; phase < PHASE_COUNT; phase++) {
+            for(int kind = 0; kind < PatternEvaluator.KIND_COUNT; kind++) {
+                this.patterns[phase][kind] = new int[PatternEvaluator.KIND_SIZES[kind]];
+            }
+        }
+
+    }
+
+
+    /**
+     * 既定の評価値の配列を生成します.<br>
+     * マス目ごとの評価値のテーブル({@link TableEvaluator})を、
+     * そのマス目を含むパターンに均等に割り振ったものです.
+     * 置ける場所の数の重みも同じにするため、{@link TableEvaluator}と同じ評価値になります.
+     * ただし、最後の段階では石の数の差も評価に加えるため、その段階の始まる手数だけが異なります.
+     * @return 評価値の配列
+     */
+    public static PatternWeights createDefault() {
+
+        PatternWeights result = new PatternWeights();
+
+        // マス目ごとに、そのマス目を含むパターンの数を数える
+        int[] covers = new int[PatternEvaluator.SQUARE_COUNT];
+        for(int[] cells : PatternEvaluator.INSTANCE_CELLS) {
+            for(int index : cells) {
+                covers[index]++;
+            }
+        }
+
+        for(int phase = 0; phase < PHASE_COUNT; phase++) {
+
+            // 最後の段階は石の数の差も評価する
+            int disc = (phase == PHASE_COUNT - 1) ? 1 : 0;
+
+            for(int instance = 0; instance < PatternEvaluator.INSTANCE_COUNT; instance++) {
+
+                int kind = PatternEvaluator.INSTANCE_KINDS[instance];
+                if((instance > 0) && (PatternEvaluator.INSTANCE_KINDS[instance - 1] == kind)) {
+                    // 同じ種類の最初のパターン(基準となる向き)でのみ求める
+                    continue;
+                }
+
+                int[] cells = PatternEvaluator.INSTANCE_CELLS[instance];
+                int[] values = new int[cells.length];
+                for(int i = 0; i < cells.length; i++) {
+                    int index = cells[i];
+                    int square = Leaf.getTableValue(Board.toX(index), Board.toY(index)) + disc;
+                    values[i] = square * WEIGHT_SCALE / covers[index];
+                }
+
+                int[] weights = result.patterns[phase][kind];
+                for(int code = 0; code < weights.length; code++) {
+                    int rest = code;
+                    for(int i = 0; i < cells.length; i++) {
+                        switch(rest % 3) {  // CHECKSTYLE IGNORE THIS LINE
+                            case 1 :
+                                weights[code] += values[i];
+                                break;
+                            case 2 :
+                                weights[code] -= values[i];
+                                break;
+                            default :
+                                break;
+                        }
+                        rest /= 3;  // CHECKSTYLE IGNORE THIS LINE
+                    }
+                }
+
+            }
+
+            result.mobility[phase] = WEIGHT_SCALE;
+
+        }
+
+        return result;
+
+    }
+
+
+    /**
+     * 評価値のファイルを読み込みます.
+     * @param file 評価値のファイル
+     * @return 評価値の配列
+     * @throws IOException ファイルを読み込めない場合、または評価値のファイルの形式ではない場合に発生
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public static PatternWeights load(File file) throws IOException {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(file);
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+
+            if(in.readInt() != MAGIC) {
+                throw new IOException("評価値のファイルではありません.");
+            }
+            int version = in.readInt();
+            if(version != VERSION) {
+                throw new IOException("対応していないバージョンです.version = " + version);
+            }
+            if((in.readInt() != PHASE_COUNT) || (in.readInt() != PatternEvaluator.KIND_COUNT)) {
+                throw new IOException("パターンの構成が異なります.");
+            }
+            for(int kind = 0; kind < PatternEvaluator.KIND_COUNT; kind++) {
+                if(in.readInt() != PatternEvaluator.KIND_SIZES[kind]) {
+                    throw new IOException("パターンの構成が異なります.");
+                }
+            }
+
+            PatternWeights result = new PatternWeights();
+            for(int phase = 0; phase < PHASE_COUNT; phase++) {
+                result.mobility[phase] = in.readInt();
+                for(int[] weights : result.patterns[phase]) {
+                    for(int code = 0; code < weights.length; code++) {
+                        weights[code] = in.readInt();
+                    }
+                }
+            }
+
+            if(in.read() >= 0) {
+                throw new IOException("評価値のファイルの大きさが正しくありません.");
+            }
+
+            return result;
+
+        } catch (EOFException e) {
+            throw new IOException("評価値のファイルの大きさが正しくありません.", e);
+        } finally {
+            in.close();
+        }
+
+    }
+
+
+    /**
+     * 規定の評価値のファイルを読み込みます.<br>
+     * ファイルのパスはシステムプロパティ{@value #FILE_PROPERTY}で指定します.
+     * 指定がない場合は、作業ディレクトリの{@value #DEFAULT_FILE}を読み込みます.
+     * @return 評価値の配列.ファイルがない場合、または読み込めない場合は<code>null</code>
+     */
+    public static PatternWeights loadDefault() {
+
+        try {
+
+            File file = new File(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+            if(!file.isFile()) {
+                return null;
+            }
+
+            return load(file);
+
+        } catch (IOException e) {
+            // 評価値のファイルがなくてもテーブルで評価できる
+            System.err.println(e);
+            return null;
+        } catch (SecurityException e) {
+            // アプレットなど、ファイルを参照できない環境ではテーブルで評価する
+            return null;
+        }
+
+    }
+
+
+    /**
+     * 評価値をファイルに書き出します.
+     * @param file 出力先のファイル
+     * @throws IOException ファイルを書き出せない場合に発生
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public void save(File file) throws IOException {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(file);
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(PHASE_COUNT);
+            out.writeInt(PatternEvaluator.KIND_COUNT);
+            for(int kind = 0; kind < PatternEvaluator.KIND_COUNT; kind++) {
+                out.writeInt(PatternEvaluator.KIND_SIZES[kind]);
+            }
+
+            for(int phase = 0; phase < PHASE_COUNT; phase++) {
+                out.writeInt(this.mobility[phase]);
+                for(int[] weights : this.patterns[phase]) {
+                    for(int weight : weights) {
+                        out.writeInt(weight);
+                    }
+                }
+            }
+
+        } finally {
+            out.close();
+        }
+
+    }
+
+
+    /**
+     * パターンの評価値を取得します.
+     * @param phase ゲームの進行状況の段階
+     * @param kind パターンの種類
+     * @param code 石の並びの番号
+     * @return {@value #WEIGHT_SCALE}倍した評価値
+     */
+    int getPatternWeight(int phase, int kind, int code) {
+        return this.patterns[phase][kind][code];
+    }
+
+
+    /**
+     * パターンの評価値を設定します.生成中の配列にのみ使用します.
+     * @param phase ゲームの進行状況の段階
+     * @param kind パターンの種類
+     * @param code 石の並びの番号
+     * @param weight {@value #WEIGHT_SCALE}倍した評価値
+     */
+    void setPatternWeight(int phase, int kind, int code, int weight) {
+        this.patterns[phase][kind][code] = weight;
+    }
+
+
+    /**
+     * 置ける場所の数の重みを取得します.
+     * @param phase ゲームの進行状況の段階
+     * @return {@value #WEIGHT_SCALE}倍した重み
+     */
+    int getMobilityWeight(int phase) {
+        return this.mobility[phase];
+    }
+
+
+    /**
+     * 置ける場所の数の重みを設定します.生成中の配列にのみ使用します.
+     * @param phase ゲームの進行状況の段階
+     * @param weight {@value #WEIGHT_SCALE}倍した重み
+     */
+    void setMobilityWeight(int phase, int weight) {
+        this.mobility[phase] = weight;
+    }
+
+
+    /**
+     * 全ての評価値と重みから、チェックサムを求めます.<br>
+     * {@link ProbCut}の値を求めた時と同じ評価値を使用しているか確認するために使用します.
+     * @return チェックサム
+     */
+    public long getChecksum() {
+
+        long checksum = CHECKSUM_BASIS;
+        for(int phase = 0; phase < PHASE_COUNT; phase++) {
+            checksum = (checksum ^ this.mobility[phase]) * CHECKSUM_PRIME;
+            for(int[] weights : this.patterns[phase]) {
+                for(int weight : weights) {
+                    checksum = (checksum ^ weight) * CHECKSUM_PRIME;
+                }
+            }
+        }
+        return checksum;
+
+    }
+
+
+    /**
+     * 空きマスの数から、ゲームの進行状況の段階を求めます.
+     * @param empties 空きマスの数
+     * @return 段階.0から{@value #PHASE_COUNT}未満
+     */
+    static int getPhase(int empties) {
+        return Math.min(PHASE_COUNT - 1, Math.max(0, INITIAL_EMPTIES - empties) / PHASE_MOVES);
+    }
+
+
+    /**
+     * 黒から見た盤面の評価値を計算します.
+     * @param indexes パターンごとの石の並びの番号
+     * @param board 盤面
+     * @param cell 次に置く石
+     * @return 評価値
+     */
+    int evaluate(int[] indexes, Board board, Cell cell) {
+
+        int phase = getPhase(board.getStoneCount(Cell.NOTHING));
+        int[][] weights = this.patterns[phase];
+
+        int result = 0;
+        for(int instance = 0; instance < indexes.length; instance++) {
+            result += weights[PatternEvaluator.INSTANCE_KINDS[instance]][indexes[instance]];
+        }
+
+        int mobilityValue = this.mobility[phase] * Long.bitCount(board.getPuttablePlaces(cell));
+        if(cell == Cell.BLACK) {
+            result += mobilityValue;
+        } else {
+            result -= mobilityValue;
+        }
+
+        return result / WEIGHT_SCALE;
+
+    }
+
+}
@@ -0,0 +1,422 @@
+package ai.minimax;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import util.ArgumentCheckUtil;
+
+/**
+ * 浅い探索の評価値から深い探索の評価値を予想し、深い探索を省略するための値(Multi-ProbCut)です.<br>
+ * 深い探索の評価値vは、浅い探索の評価値v'から v = a * v' + b + e (eは標準偏差σの誤差)で予想できるとします.
+ * 深さDのノードでは、対応する浅い深さdで探索し、予想した評価値が
+ * 上限をt * σ以上超える場合は上限以上、下限をt * σ以上下回る場合は下限以下とみなして探索を省略します.
+ * tは省略する基準で、大きいほど誤りが減り、省略できるノードも減ります.<br>
+ * 深さの組とa、b、σは、ゲームの進行状況の段階({@link PatternWeights}と同じ{@value #STAGE_COUNT}段階)と
+ * 深いほうの深さごとに持ちます.値は自己対局の局面から{@link ProbCutFitter}で求めます.<br>
+ * 値は求めた時の評価関数でのみ正しいため、評価関数の種類とパターンの評価値のチェックサムを持ち、
+ * {@link #isFittedFor(PatternWeights)}で使用する評価関数と同じか確認できます.<br>
+ * 値はファイルに書き出して読み込むことができます.ファイルの形式は次のとおりです.数値はビッグエンディアンです.
+ * <ul>
+ * <li>ヘッダー: 識別子(int)、バージョン(int)、評価関数の種類(int、テーブルは0、パターンは1)、
+ * パターンの評価値のチェックサム(long、テーブルは0)、基準t(double)、組の数(int)</li>
+ * <li>組ごと: 段階(int)、深い深さ(int)、浅い深さ(int)、a(double)、b(double)、σ(double)</li>
+ * </ul>
+ * 生成後は変更しないため、複数のスレッドで共有できます.
+ * @author tanabe
+ *
+ */
+public final class ProbCut {
+
+    /**
+     * ゲームの進行状況の段階の数です.
+     */
+    public static final int STAGE_COUNT = PatternWeights.PHASE_COUNT;
+
+    /**
+     * 値を持つことができる深さの上限です.
+     */
+    public static final int MAX_DEPTH = 30;
+
+    /**
+     * 省略する基準の規定値です.
+     */
+    public static final double DEFAULT_THRESHOLD = 1.5;
+
+    /**
+     * 値のファイルのパスを指定するシステムプロパティの名前です.
+     */
+    public static final String FILE_PROPERTY = "reversi.probcut";
+
+    /**
+     * 値のファイルのパスの規定値です.
+     */
+    public static final String DEFAULT_FILE = "reversi.probcut";
+
+    /**
+     * 値のファイルを表す識別子です.
+     */
+    static final int MAGIC = 0x52565043;
+
+    /**
+     * ファイル形式のバージョンです.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * テーブルによる評価関数({@link TableEvaluator})を表す、評価関数の種類です.
+     */
+    private static final int TABLE_EVALUATOR = 0;
+
+    /**
+     * パターンによる評価関数({@link PatternEvaluator})を表す、評価関数の種類です.
+     */
+    private static final int PATTERN_EVALUATOR = 1;
+
+    /**
+     * 値を求めた評価関数の種類です.
+     */
+    private final int evaluator;
+
+    /**
+     * 値を求めたパターンの評価値のチェックサムです.テーブルの場合は0.
+     */
+    private final long checksum;
+
+    /**
+     * 省略する基準(誤差の標準偏差の何倍か)です.
+     */
+    private final double threshold;
+
+    /**
+     * 段階と深い深さごとの浅い深さです.組がない場合は0.
+     */
+    private final int[][] shallowDepths;
+
+    /**
+     * 段階と深い深さごとの傾きaです.
+     */
+    private final double[][] slopes;
+
+    /**
+     * 段階と深い深さごとの切片bです.
+     */
+    private final double[][] intercepts;
+
+    /**
+     * 段階と深い深さごとの誤差の標準偏差σです.
+     */
+    private final double[][] sigmas;
+
+
+    /**
+     * テーブルによる評価関数で求めた、組を持たないインスタンスを生成します.
+     * @param threshold 省略する基準.0以上の値
+     * @throws IllegalArgumentException 基準が負の値、または数ではない場合に発生
+     */
+    ProbCut(double threshold) {
+
+        this(threshold, null);
+
+    }
+
+
+    /**
+     * 指定の評価関数で求めた、組を持たないインスタンスを生成します.
+     * @param threshold 省略する基準.0以上の値
+     * @param weights 値を求めたパターンの評価値.テーブルで評価した場合は<code>null</code>
+     * @throws IllegalArgumentException 基準が負の値、または数ではない場合に発生
+     */
+    ProbCut(double threshold, PatternWeights weights) {
+
+        this(threshold, (weights == null) ? TABLE_EVALUATOR : PATTERN_EVALUATOR,
+                (weights == null) ? 0L : weights.getChecksum());
+
+    }
+
+
+    /**
+     * 評価関数の種類とチェックサムを指定して、組を持たないインスタンスを生成します.
+     * @param threshold 省略する基準.0以上の値
+     * @param evaluator 値を求めた評価関数の種類
+     * @param checksum 値を求めたパターンの評価値のチェックサム
+     * @throws IllegalArgumentException 基準が負の値、または数ではない場合、評価関数の種類が正しくない場合に発生
+     */
+    private ProbCut(double threshold, int evaluator, long checksum) {
+
+        if(!(threshold >= 0.0)) {
+            throw new IllegalArgumentException("基準は0以上の値を指定してください.threshold = " + threshold);
+        }
+        if((evaluator != TABLE_EVALUATOR) && (evaluator != PATTERN_EVALUATOR)) {
+            throw new IllegalArgumentException("評価関数の種類が正しくありません.evaluator = " + evaluator);
+        }
+
+        this.evaluator = evaluator;
+        this.checksum = checksum;
+        this.threshold = threshold;
+        this.shallowDepths = new int[STAGE_COUNT][MAX_DEPTH + 1];
+        this.slopes = new double[STAGE_COUNT][MAX_DEPTH + 1];
+        this.intercepts = new double[STAGE_COUNT][MAX_DEPTH + 1];
+        this.sigmas = new double[STAGE_COUNT][MAX_DEPTH + 1];
+
+    }
+
+
+    /**
+     * 深さの組の値を設定します.生成中のインスタンスにのみ使用します.
+     * @param stage ゲームの進行状況の段階
+     * @param depth 深い深さ
+     * @param shallow 浅い深さ.深い深さより小さい正の値
+     * @param slope 傾きa.正の値
+     * @param intercept 切片b
+     * @param sigma 誤差の標準偏差σ.0以上の値
+     * @throws IllegalArgumentException 値が範囲外の場合に発生
+     */
+    void setPair(int stage, int depth, int shallow, double slope, double intercept, double sigma) {
+
+        if((stage < 0) || (stage >= STAGE_COUNT) || (depth > MAX_DEPTH)
+                || (shallow <= 0) || (shallow >= depth)
+                || !(slope > 0.0) || Double.isInfinite(slope)
+                || Double.isNaN(intercept) || Double.isInfinite(intercept)
+                || !(sigma >= 0.0) || Double.isInfinite(sigma)) {
+            throw new IllegalArgumentException("深さの組の値が正しくありません.stage = " + stage
+                    + ", depth = " + depth + ", shallow = " + shallow);
+        }
+
+        this.shallowDepths[stage][depth] = shallow;
+        this.slopes[stage][depth] = slope;
+        this.intercepts[stage][depth] = intercept;
+        this.sigmas[stage][depth] = sigma;
+
+    }
+
+
+    /**
+     * 値のファイルを読み込みます.
+     * @param file 値のファイル
+     * @return 読み込んだ値
+     * @throws IOException ファイルを読み込めない場合、またはファイルの形式が正しくない場合に発生
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public static ProbCut load(File file) throws IOException {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(file);
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+
+            if(in.readInt() != MAGIC) {
+                throw new IOException("ProbCutの値のファイルではありません.");
+            }
+            int version = in.readInt();
+            if(version != VERSION) {
+                throw new IOException("対応していないバージョンです.version = " + version);
+            }
+
+            int evaluator = in.readInt();
+            long sum = in.readLong();
+            ProbCut result = new ProbCut(in.readDouble(), evaluator, sum);
+            int count = in.readInt();
+            for(int i = 0; i < count; i++) {
+                result.setPair(in.readInt(), in.readInt(), in.readInt(),
+                        in.readDouble(), in.readDouble(), in.readDouble());
+            }
+
+            if(in.read() >= 0) {
+                throw new IOException("ProbCutの値のファイルの大きさが正しくありません.");
+            }
+
+            return result;
+
+        } catch (EOFException e) {
+            throw new IOException("ProbCutの値のファイルの大きさが正しくありません.", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("ProbCutの値が正しくありません.", e);
+        } finally {
+            in.close();
+        }
+
+    }
+
+
+    /**
+     * 規定の値のファイルを読み込みます.<br>
+     * ファイルのパスはシステムプロパティ{@value #FILE_PROPERTY}で指定します.
+     * 指定がない場合は、作業ディレクトリの{@value #DEFAULT_FILE}を読み込みます.
+     * 値を求めた評価関数が使用する評価関数と異なる場合は、使用しません.
+     * @param weights 使用するパターンの評価値.テーブルで評価する場合は<code>null</code>
+     * @return 読み込んだ値.ファイルがない場合、読み込めない場合、または評価関数が異なる場合は<code>null</code>
+     */
+    public static ProbCut loadDefault(PatternWeights weights) {
+
+        try {
+
+            File file = new File(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+            if(!file.isFile()) {
+                return null;
+            }
+
+            ProbCut result = load(file);
+            if(!result.isFittedFor(weights)) {
+                // 別の評価関数で求めた値では、省略の誤りが増えて弱くなる
+                System.err.println("ProbCutの値を求めた評価関数と使用する評価関数が異なるため、使用しません.file = " + file);
+                return null;
+            }
+
+            return result;
+
+        } catch (IOException e) {
+            // 値のファイルがなくても、探索を省略せずに探索できる
+            System.err.println(e);
+            return null;
+        } catch (SecurityException e) {
+            // アプレットなど、ファイルを参照できない環境では探索を省略しない
+            return null;
+        }
+
+    }
+
+
+    /**
+     * 値をファイルに書き出します.
+     * @param file 出力先のファイル
+     * @throws IOException ファイルを書き出せない場合に発生
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public void save(File file) throws IOException {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(file);
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.evaluator);
+            out.writeLong(this.checksum);
+            out.writeDouble(this.threshold);
+            out.writeInt(this.getPairCount());
+
+            for(int stage = 0; stage < STAGE_COUNT; stage++) {
+                for(int depth = 0; depth <= MAX_DEPTH; depth++) {
+                    if(this.shallowDepths[stage][depth] > 0) {
+                        out.writeInt(stage);
+                        out.writeInt(depth);
+                        out.writeInt(this.shallowDepths[stage][depth]);
+                        out.writeDouble(this.slopes[stage][depth]);
+                        out.writeDouble(this.intercepts[stage][depth]);
+                        out.writeDouble(this.sigmas[stage][depth]);
+                    }
+                }
+            }
+
+        } finally {
+            out.close();
+        }
+
+    }
+
+
+    /**
+     * 値を求めた評価関数が、指定の評価関数と同じか判定します.
+     * @param weights 使用するパターンの評価値.テーブルで評価する場合は<code>null</code>
+     * @return 同じ評価関数で求めた値の場合は<code>true</code>
+     */
+    public boolean isFittedFor(PatternWeights weights) {
+
+        if(weights == null) {
+            return this.evaluator == TABLE_EVALUATOR;
+        }
+        return (this.evaluator == PATTERN_EVALUATOR) && (this.checksum == weights.getChecksum());
+
+    }
+
+
+    /**
+     * 省略する基準を取得します.
+     * @return 誤差の標準偏差の何倍か
+     */
+    public double getThreshold() {
+        return this.threshold;
+    }
+
+
+    /**
+     * 深さの組の数を取得します.
+     * @return 組の数
+     */
+    public int getPairCount() {
+
+        int count = 0;
+        for(int[] depths : this.shallowDepths) {
+            for(int shallow : depths) {
+                if(shallow > 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+
+    }
+
+
+    /**
+     * 深いほうの深さに対応する、浅い探索の深さを取得します.
+     * @param empties 空きマスの数
+     * @param depth 深いほうの深さ
+     * @return 浅い探索の深さ.省略に使用する組がない場合は0
+     */
+    int getShallowDepth(int empties, int depth) {
+
+        if(depth > MAX_DEPTH) {
+            return 0;
+        }
+        return this.shallowDepths[PatternWeights.getPhase(empties)][depth];
+
+    }
+
+
+    /**
+     * 深い探索の評価値が上限以上になると予想できる、浅い探索の評価値の下限を求めます.
+     * {@link #getShallowDepth(int, int)}が0以外の場合のみ使用できます.
+     * @param empties 空きマスの数
+     * @param depth 深いほうの深さ
+     * @param beta 深い探索の評価値の上限
+     * @return 浅い探索の評価値がこの値以上なら、深い探索の評価値は上限以上と予想できる
+     */
+    int getShallowBeta(int empties, int depth, int beta) {
+
+        int stage = PatternWeights.getPhase(empties);
+        double bound = (beta + this.threshold * this.sigmas[stage][depth] - this.intercepts[stage][depth])
+                / this.slopes[stage][depth];
+        return (int)Math.ceil(bound);
+
+    }
+
+
+    /**
+     * 深い探索の評価値が下限以下になると予想できる、浅い探索の評価値の上限を求めます.
+     * {@link #getShallowDepth(int, int)}が0以外の場合のみ使用できます.
+     * @param empties 空きマスの数
+     * @param depth 深いほうの深さ
+     * @param alpha 深い探索の評価値の下限
+     * @return 浅い探索の評価値がこの値以下なら、深い探索の評価値は下限以下と予想できる
+     */
+    int getShallowAlpha(int empties, int depth, int alpha) {
+
+        int stage = PatternWeights.getPhase(empties);
+        double bound = (alpha - this.threshold * this.sigmas[stage][depth] - this.intercepts[stage][depth])
+                / this.slopes[stage][depth];
+        return (int)Math.floor(bound);
+
+    }
+
+}
@@ -0,0 +1,206 @@
+package ai.minimax;
+
+import util.ArgumentCheckUtil;
+
+/**
+ * 同じ局面を浅い深さと深い深さで探索した評価値の組から、{@link ProbCut}の値を求めるクラスです.<br>
+ * 評価値の組を一つずつ受け取り、段階と深い深さごとに最小二乗法で傾きと切片を求め、
+ * 予想の誤差の標準偏差を求めます.
+ * 受け取った組は保持せず、和だけを記録します.<br>
+ * 深い深さと浅い深さの組は{@link #getShallowDepth(int)}で決めます.
+ * 求めた値には、評価値の組を求めた評価関数を記録します.
+ * 複数のスレッドで同時に使用しないで下さい.
+ * @author tanabe
+ *
+ */
+public class ProbCutFitter {
+
+    /**
+     * 探索を省略する深さの下限です.これより浅いノードでは、浅い探索の手間の方が大きくなります.
+     */
+    public static final int MIN_DEPTH = 3;
+
+    /**
+     * 段階と深い深さごとの組の数です.
+     */
+    private final long[][] counts;
+
+    /**
+     * 段階と深い深さごとの、浅い探索の評価値の和です.
+     */
+    private final double[][] sumX;
+
+    /**
+     * 段階と深い深さごとの、深い探索の評価値の和です.
+     */
+    private final double[][] sumY;
+
+    /**
+     * 段階と深い深さごとの、浅い探索の評価値の二乗の和です.
+     */
+    private final double[][] sumXX;
+
+    /**
+     * 段階と深い深さごとの、浅い探索と深い探索の評価値の積の和です.
+     */
+    private final double[][] sumXY;
+
+    /**
+     * 段階と深い深さごとの、深い探索の評価値の二乗の和です.
+     */
+    private final double[][] sumYY;
+
+    /**
+     * 評価値の組を求めたパターンの評価値です.テーブルで評価した場合は<code>null</code>.
+     */
+    private final PatternWeights weights;
+
+
+    /**
+     * テーブルによる評価関数で求めた組を受け取る、組を受け取っていない状態のインスタンスを生成します.
+     */
+    public ProbCutFitter() {
+
+        this(null);
+
+    }
+
+
+    /**
+     * 組を受け取っていない状態のインスタンスを生成します.
+     * @param weights 評価値の組を求めるパターンの評価値.テーブルで評価する場合は<code>null</code>
+     */
+    public ProbCutFitter(PatternWeights weights) {
+
+        this.weights = weights;
+        this.counts = new long[ProbCut.STAGE_COUNT][ProbCut.MAX_DEPTH + 1];
+        this.sumX = new double[ProbCut.STAGE_COUNT][ProbCut.MAX_DEPTH + 1];
+        this.sumY = new double[ProbCut.STAGE_COUNT][ProbCut.MAX_DEPTH + 1];
+        this.sumXX = new double[ProbCut.STAGE_COUNT][ProbCut.MAX_DEPTH + 1];
+        this.sumXY = new double[ProbCut.STAGE_COUNT][ProbCut.MAX_DEPTH + 1];
+        this.sumYY = new double[ProbCut.STAGE_COUNT][ProbCut.MAX_DEPTH + 1];
+
+    }
+
+
+    /**
+     * 深いほうの深さに対応する浅い探索の深さを取得します.<br>
+     * 深さのおよそ半分で、深さと奇数か偶数かが同じになる値です.
+     * 先読みの手数が奇数か偶数かで評価値が大きく変わるため、揃えたほうが予想の誤差が小さくなります.
+     * @param depth 深いほうの深さ.{@value #MIN_DEPTH}以上の値
+     * @return 浅い探索の深さ
+     * @throws IllegalArgumentException 深さが{@value #MIN_DEPTH}より小さい場合に発生
+     */
+    public static int getShallowDepth(int depth) {
+
+        if(depth < MIN_DEPTH) {
+            throw new IllegalArgumentException("深さは" + MIN_DEPTH + "以上を指定してください.depth = " + depth);
+        }
+
+        int shallow = depth / 2;
+        if((shallow % 2) != (depth % 2)) {
+            shallow++;
+        }
+        return shallow;
+
+    }
+
+
+    /**
+     * 同じ局面を浅い深さと深い深さで探索した評価値の組を追加します.
+     * @param empties 局面の空きマスの数
+     * @param depth 深いほうの深さ
+     * @param deepScore 深い探索の、手番側から見た評価値
+     * @param shallowScore 浅い探索({@link #getShallowDepth(int)}の深さ)の、手番側から見た評価値
+     * @throws IllegalArgumentException 深さが{@value #MIN_DEPTH}より小さい、または上限より大きい場合に発生
+     */
+    public void add(int empties, int depth, int deepScore, int shallowScore) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNegativeValue(empties);
+        if((depth < MIN_DEPTH) || (depth > ProbCut.MAX_DEPTH)) {
+            throw new IllegalArgumentException("深さが範囲外です.depth = " + depth);
+        }
+
+        int stage = PatternWeights.getPhase(empties);
+        double x = shallowScore;
+        double y = deepScore;
+
+        this.counts[stage][depth]++;
+        this.sumX[stage][depth] += x;
+        this.sumY[stage][depth] += y;
+        this.sumXX[stage][depth] += x * x;
+        this.sumXY[stage][depth] += x * y;
+        this.sumYY[stage][depth] += y * y;
+
+    }
+
+
+    /**
+     * 受け取った組から{@link ProbCut}の値を求めます.<br>
+     * 組の数が指定の数に満たない段階と深さ、傾きが正にならない段階と深さでは探索を省略しません.
+     * @param threshold 省略する基準(誤差の標準偏差の何倍か).0以上の値
+     * @param minSamples 値を求めるのに必要な組の数.3以上の値
+     * @return 求めた値
+     * @throws IllegalArgumentException 基準が負の値、または組の数が3より小さい場合に発生
+     */
+    public ProbCut fit(double threshold, int minSamples) {
+
+        // 引数チェック
+        if(minSamples < 3) {    // CHECKSTYLE IGNORE THIS LINE
+            throw new IllegalArgumentException("組の数は3以上を指定してください.minSamples = " + minSamples);
+        }
+
+        ProbCut result = new ProbCut(threshold, this.weights);
+
+        for(int stage = 0; stage < ProbCut.STAGE_COUNT; stage++) {
+            for(int depth = MIN_DEPTH; depth <= ProbCut.MAX_DEPTH; depth++) {
+
+                double n = this.counts[stage][depth];
+                if(n < minSamples) {
+                    continue;
+                }
+
+                double sx = this.sumX[stage][depth];
+                double sy = this.sumY[stage][depth];
+                double sxx = this.sumXX[stage][depth];
+                double sxy = this.sumXY[stage][depth];
+                double syy = this.sumYY[stage][depth];
+
+                double variance = n * sxx - sx * sx;
+                if(variance <= 0.0) {
+                    continue;
+                }
+
+                double slope = (n * sxy - sx * sy) / variance;
+                double intercept = (sy - slope * sx) / n;
+                if(!(slope > 0.0)) {
+                    continue;
+                }
+
+                // 誤差の二乗和を和から求める
+                double error = syy - 2.0 * slope * sxy - 2.0 * intercept * sy
+                        + slope * slope * sxx + 2.0 * slope * intercept * sx + n * intercept * intercept;
+                double sigma = Math.sqrt(Math.max(0.0, error) / (n - 2.0));
+
+                result.setPair(stage, depth, getShallowDepth(depth), slope, intercept, sigma);
+
+            }
+        }
+
+        return result;
+
+    }
+
+
+    /**
+     * 受け取った組の数を取得します.
+     * @param stage ゲームの進行状況の段階
+     * @param depth 深いほうの深さ
+     * @return 組の数
+     */
+    public long getCount(int stage, int depth) {
+        return this.counts[stage][depth];
+    }
+
+}
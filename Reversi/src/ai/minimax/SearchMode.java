@@ -0,0 +1,34 @@
+package ai.minimax;
+
+/**
+ * {@link AlphaBeta}の探索方法を表す列挙です.<br>
+ * どの探索方法でも、同じ盤面からは同じ最善手と評価値を返します.
+ * 異なるのは探索するノードの数だけです.
+ * @author tanabe
+ *
+ */
+public enum SearchMode {
+
+    /**
+     * 全ての手を、評価値の下限と上限の間の幅で探索します.
+     */
+    FULL_WINDOW,
+
+    /**
+     * 最初の手だけを下限と上限の間の幅で探索し、残りの手は幅0の窓で
+     * 最初の手より良くないことだけを確かめます(Principal Variation Search).
+     * 良い手が見つかった場合は、その手を下限と上限の間の幅で探索し直します.
+     */
+    PRINCIPAL_VARIATION,
+
+    /**
+     * {@link #PRINCIPAL_VARIATION}に加えて、先読みの手数を一手ずつ増やしながら探索し、
+     * ルートを前の手数の評価値の前後の狭い幅(aspiration window)で探索します.
+     * 先読みの手数が奇数か偶数かで評価値が大きく変わるため、二つ前の手数の評価値を使います.
+     * 評価値が幅の外になった場合は、外れた側に幅を倍に広げて探索し直します.
+     * 探索が不安定で両側に外れた場合は、反対側の幅を制限せずに探索し直します.
+     * 先読みの手数を指定した探索でも、一手から順に探索します.
+     */
+    ASPIRATION
+
+}
@@ -0,0 +1,66 @@
+package ai.minimax;
+
+import core.Board;
+import core.Cell;
+
+/**
+ * 置換表の最善手だけを先頭に移し、残りはY座標、X座標の順に並べる手の並べ替えです.<br>
+ * 他の並べ替えの効果を比べるための基準として使用します.
+ * 値を保持しないため、複数のスレッドで共有できます.
+ * @author tanabe
+ *
+ */
+public class SimpleMoveOrdering implements MoveOrdering {
+
+    /**
+     * {@inheritDoc} 値を保持しないため、何もしません.
+     */
+    @Override
+    public void newSearch() {
+        // 何もしない
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param board {@inheritDoc}
+     * @param cell {@inheritDoc}
+     * @param places {@inheritDoc}
+     * @param hashMove {@inheritDoc}
+     * @param ply {@inheritDoc}
+     * @param level {@inheritDoc}
+     * @param moves {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int order(Board board, Cell cell, long places, int hashMove, int ply, int level, int[] moves) {
+
+        int count = 0;
+        long rest = places;
+
+        if((hashMove >= 0) && ((rest & (1L << hashMove)) != 0)) {
+            moves[count++] = hashMove;
+            rest &= ~(1L << hashMove);
+        }
+
+        while(rest != 0) {
+            moves[count++] = Long.numberOfTrailingZeros(rest);
+            rest &= rest - 1;
+        }
+
+        return count;
+
+    }
+
+    /**
+     * {@inheritDoc} 値を保持しないため、何もしません.
+     * @param index {@inheritDoc}
+     * @param cell {@inheritDoc}
+     * @param ply {@inheritDoc}
+     * @param level {@inheritDoc}
+     */
+    @Override
+    public void cutoff(int index, Cell cell, int ply, int level) {
+        // 何もしない
+    }
+
+}
@@ -0,0 +1,56 @@
+package ai.minimax;
+
+import core.Board;
+import core.Cell;
+
+/**
+ * マス目ごとの評価値のテーブルで盤面を評価する評価関数です.<br>
+ * 評価値は{@link Leaf}と同じです.値を保持しないため、複数のスレッドで共有できます.
+ * @author tanabe
+ *
+ */
+public class TableEvaluator implements Evaluator {
+
+    /**
+     * {@inheritDoc} 値を保持しないため、何もしません.
+     * @param board {@inheritDoc}
+     */
+    @Override
+    public void reset(Board board) {
+        // 何もしない
+    }
+
+    /**
+     * {@inheritDoc} 値を保持しないため、何もしません.
+     * @param index {@inheritDoc}
+     * @param cell {@inheritDoc}
+     * @param reversed {@inheritDoc}
+     */
+    @Override
+    public void update(int index, Cell cell, long reversed) {
+        // 何もしない
+    }
+
+    /**
+     * {@inheritDoc} 値を保持しないため、何もしません.
+     * @param index {@inheritDoc}
+     * @param cell {@inheritDoc}
+     * @param reversed {@inheritDoc}
+     */
+    @Override
+    public void restore(int index, Cell cell, long reversed) {
+        // 何もしない
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param board {@inheritDoc}
+     * @param cell {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int evaluate(Board board, Cell cell) {
+        return Leaf.evaluate(board, cell);
+    }
+
+}
@@ -0,0 +1,376 @@
+package ai.minimax;
+
+import util.ArgumentCheckUtil;
+import core.Board;
+import core.Cell;
+
+/**
+ * 探索済みの局面の評価値を記録する置換表です.<br>
+ * 局面は{@link Board#getHash()}と手番から求めたキーで識別します.
+ * 一つの局面について、探索した手数、評価値の種類(確定値、下限、上限)、
+ * 評価値、最善手を記録します.<br>
+ * 大きさは生成時に決まり、探索中にメモリを確保することはありません.
+ * 同じ場所に別の局面を記録する場合は、以前の探索で記録した局面か、
+ * 探索した手数が新しい局面以下の局面を置き換えます.<br>
+ * 複数のスレッドで共有する探索({@link LazySmpAlphaBeta})にも対応するため、ロックを使わずに記録します.
+ * キーの代わりにキーと局面の情報の排他的論理和を記録し、参照時に一致を確認するため、
+ * 別のスレッドの書き込みと重なって組み合わせが崩れた局面は、記録されていないものとして扱います.
+ * @author tanabe
+ *
+ */
+public class TranspositionTable {
+
+    /**
+     * 評価値が下限(実際の評価値はこの値以上)であることを表す値です.
+     */
+    public static final int LOWER = 1;
+
+    /**
+     * 評価値が上限(実際の評価値はこの値以下)であることを表す値です.
+     */
+    public static final int UPPER = 2;
+
+    /**
+     * 評価値が確定値であることを表す値です.
+     */
+    public static final int EXACT = 3;
+
+    /**
+     * 局面が記録されていないことを表す値です.
+     */
+    public static final long NOT_FOUND = 0L;
+
+    /**
+     * 最善手がないことを表す値です.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * 指定できる表の大きさ(2のべき乗の指数)の上限です.
+     */
+    private static final int MAX_SIZE_BITS = 26;
+
+    /**
+     * 白の手番の場合にキーへ排他的論理和をとる値です.
+     */
+    private static final long WHITE_TURN_KEY = 0x9E3779B97F4A7C15L;
+
+    /** 手数を記録する位置. */
+    private static final int DEPTH_SHIFT = 32;
+    /** 評価値の種類を記録する位置. */
+    private static final int BOUND_SHIFT = 40;
+    /** 最善手を記録する位置. */
+    private static final int MOVE_SHIFT = 42;
+    /** 世代を記録する位置. */
+    private static final int GENERATION_SHIFT = 49;
+
+    /** 手数を取り出すマスク. */
+    private static final long DEPTH_MASK = 0xFFL;
+    /** 評価値の種類を取り出すマスク. */
+    private static final long BOUND_MASK = 0x3L;
+    /** 最善手を取り出すマスク. */
+    private static final long MOVE_MASK = 0x7FL;
+    /** 世代を取り出すマスク. */
+    private static final long GENERATION_MASK = 0xFFL;
+
+    /** 最善手がない場合に記録する値. */
+    private static final int MOVE_NONE = 64;
+
+    /**
+     * 局面のキーと局面の情報の排他的論理和です.
+     */
+    private final long[] keys;
+
+    /**
+     * 局面の情報(評価値、手数、評価値の種類、最善手、世代)をまとめた値です.
+     */
+    private final long[] entries;
+
+    /**
+     * キーから表の位置を求めるためのマスクです.
+     */
+    private final int indexMask;
+
+    /**
+     * 参照回数などを数えるかを表す値です.
+     */
+    private final boolean counting;
+
+    /**
+     * 現在の探索の世代です.
+     */
+    private int generation;
+
+    /**
+     * 局面を参照した回数です.
+     */
+    private long probeCount;
+
+    /**
+     * 参照した局面が記録されていた回数です.
+     */
+    private long hitCount;
+
+    /**
+     * 局面を記録した回数です.
+     */
+    private long storeCount;
+
+
+    /**
+     * 一つのスレッドで使用する置換表を生成します.
+     * @param sizeBits 記録できる局面の数を2のべき乗で表した指数
+     * @throws IllegalArgumentException 引数が0以下、または26より大きい場合に発生
+     */
+    public TranspositionTable(int sizeBits) {
+
+        this(sizeBits, false);
+
+    }
+
+
+    /**
+     * 置換表を生成します.<br>
+     * 複数のスレッドで共有する場合は、参照回数などを数えるとスレッド間でキャッシュの奪い合いが起きるため、
+     * 数えません.{@link #getProbeCount()}などは常に0を返します.
+     * @param sizeBits 記録できる局面の数を2のべき乗で表した指数
+     * @param shared 複数のスレッドで共有する場合は<code>true</code>
+     * @throws IllegalArgumentException 第一引数が0以下、または26より大きい場合に発生
+     */
+    public TranspositionTable(int sizeBits, boolean shared) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotZeroAndNegativeValue(sizeBits);
+        if(sizeBits > MAX_SIZE_BITS) {
+            throw new IllegalArgumentException("置換表が大きすぎます.sizeBits = " + sizeBits);
+        }
+
+        int size = 1 << sizeBits;
+        this.keys = new long[size];
+        this.entries = new long[size];
+        this.indexMask = size - 1;
+        this.counting = !shared;
+        this.generation = 0;
+        this.probeCount = 0;
+        this.hitCount = 0;
+        this.storeCount = 0;
+
+    }
+
+
+    /**
+     * 盤面と手番から、置換表のキーを求めます.
+     * @param board 盤面
+     * @param cell 次に置く石
+     * @return キー
+     */
+    public static long getKey(Board board, Cell cell) {
+
+        if(cell == Cell.WHITE) {
+            return board.getHash() ^ WHITE_TURN_KEY;
+        } else {
+            return board.getHash();
+        }
+
+    }
+
+
+    /**
+     * 局面の情報を参照します.<br>
+     * 戻り値の内容は{@link #getScore(long)}などで取り出して下さい.
+     * @param key 局面のキー
+     * @return 局面の情報.記録されていない場合は{@link #NOT_FOUND}
+     */
+    public long probe(long key) {
+
+        if(this.counting) {
+            this.probeCount++;
+        }
+
+        int index = (int)key & this.indexMask;   // CHECKSTYLE IGNORE THIS LINE
+        long entry = this.entries[index];
+
+        // 別のスレッドが書き込み中の場合も、キーと局面の情報の組み合わせが崩れていれば一致しない
+        if((entry == NOT_FOUND) || ((this.keys[index] ^ entry) != key)) {
+            return NOT_FOUND;
+        }
+
+        if(this.counting) {
+            this.hitCount++;
+        }
+        return entry;
+
+    }
+
+
+    /**
+     * 局面の情報を記録します.
+     * @param key 局面のキー
+     * @param depth 探索した手数
+     * @param bound 評価値の種類({@link #LOWER}、{@link #UPPER}、{@link #EXACT})
+     * @param score 手番側から見た評価値
+     * @param move 最善手のマス目の番号.ない場合は{@link #NO_MOVE}
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+
+        int index = (int)key & this.indexMask;   // CHECKSTYLE IGNORE THIS LINE
+        long old = this.entries[index];
+
+        if((old != NOT_FOUND)
+                && ((this.keys[index] ^ old) != key)
+                && (getGeneration(old) == this.generation)
+                && (getDepth(old) > depth)) {
+            // 今回の探索で記録した、より深く探索した局面を残す
+            return;
+        }
+
+        long storedMove = (move < 0) ? MOVE_NONE : move;
+
+        long entry = (score & 0xFFFFFFFFL)
+                | ((depth & DEPTH_MASK) << DEPTH_SHIFT)
+                | ((bound & BOUND_MASK) << BOUND_SHIFT)
+                | ((storedMove & MOVE_MASK) << MOVE_SHIFT)
+                | ((this.generation & GENERATION_MASK) << GENERATION_SHIFT);
+
+        this.keys[index] = key ^ entry;
+        this.entries[index] = entry;
+        if(this.counting) {
+            this.storeCount++;
+        }
+
+    }
+
+
+    /**
+     * 新しい探索を開始します.<br>
+     * 以前の探索で記録した局面は、優先して置き換えられるようになります.
+     * 複数のスレッドで共有する場合は、探索していない間に一度だけ呼び出して下さい.
+     */
+    public void newSearch() {
+        this.generation = (this.generation + 1) & (int)GENERATION_MASK;   // CHECKSTYLE IGNORE THIS LINE
+    }
+
+
+    /**
+     * 記録した局面と参照回数をすべて消去します.
+     * 複数のスレッドで共有する場合は、探索していない間に呼び出して下さい.
+     */
+    public void clear() {
+
+        for(int i = 0; i < this.entries.length; i++) {
+            this.keys[i] = 0L;
+            this.entries[i] = NOT_FOUND;
+        }
+        this.probeCount = 0;
+        this.hitCount = 0;
+        this.storeCount = 0;
+
+    }
+
+
+    /**
+     * 局面の情報から評価値を取り出します.
+     * @param entry {@link #probe(long)}で取得した局面の情報
+     * @return 手番側から見た評価値
+     */
+    public static int getScore(long entry) {
+        return (int)entry;   // CHECKSTYLE IGNORE THIS LINE
+    }
+
+
+    /**
+     * 局面の情報から探索した手数を取り出します.
+     * @param entry {@link #probe(long)}で取得した局面の情報
+     * @return 探索した手数
+     */
+    public static int getDepth(long entry) {
+        return (int)((entry >>> DEPTH_SHIFT) & DEPTH_MASK);   // CHECKSTYLE IGNORE THIS LINE
+    }
+
+
+    /**
+     * 局面の情報から評価値の種類を取り出します.
+     * @param entry {@link #probe(long)}で取得した局面の情報
+     * @return {@link #LOWER}、{@link #UPPER}、{@link #EXACT}のいずれか
+     */
+    public static int getBound(long entry) {
+        return (int)((entry >>> BOUND_SHIFT) & BOUND_MASK);   // CHECKSTYLE IGNORE THIS LINE
+    }
+
+
+    /**
+     * 局面の情報から最善手を取り出します.
+     * @param entry {@link #probe(long)}で取得した局面の情報
+     * @return 最善手のマス目の番号.ない場合は{@link #NO_MOVE}
+     */
+    public static int getMove(long entry) {
+
+        int move = (int)((entry >>> MOVE_SHIFT) & MOVE_MASK);   // CHECKSTYLE IGNORE THIS LINE
+        if(move == MOVE_NONE) {
+            return NO_MOVE;
+        }
+        return move;
+
+    }
+
+
+    /**
+     * 局面の情報から記録した世代を取り出します.
+     * @param entry {@link #probe(long)}で取得した局面の情報
+     * @return 世代
+     */
+    private static int getGeneration(long entry) {
+        return (int)((entry >>> GENERATION_SHIFT) & GENERATION_MASK);   // CHECKSTYLE IGNORE THIS LINE
+    }
+
+
+    /**
+     * 記録できる局面の数を取得します.
+     * @return 局面の数
+     */
+    public int getSize() {
+        return this.entries.length;
+    }
+
+
+    /**
+     * 局面を参照した回数を取得します.
+     * @return 参照した回数
+     */
+    public long getProbeCount() {
+        return this.probeCount;
+    }
+
+
+    /**
+     * 参照した局面が記録されていた回数を取得します.
+     * @return 記録されていた回数
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+
+    /**
+     * 局面を記録した回数を取得します.
+     * @return 記録した回数
+     */
+    public long getStoreCount() {
+        return this.storeCount;
+    }
+
+
+    /**
+     * 参照した局面が記録されていた割合を取得します.
+     * @return 0以上1以下の値.参照していない場合は0
+     */
+    public double getHitRate() {
+
+        if(this.probeCount == 0) {
+            return 0.0;
+        }
+        return (double)this.hitCount / this.probeCount;
+
+    }
+
+}
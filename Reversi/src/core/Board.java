@@ -3,37 +3,136 @@ package core;
 import static core.GameConstants.RuleConstants.BOARD_HEIGHT;
 import static core.GameConstants.RuleConstants.BOARD_WIDTH;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Random;
 
 import util.ArgumentCheckUtil;
 
 /**
- * リバーシの盤面を表すクラスです.
+ * リバーシの盤面を表すクラスです.<br>
+ * 石の配置は白石と黒石それぞれについて、64ビットの値(ビットボード)で保持します.
+ * マス目(x, y)は下位から数えて(y * 横幅 + x)番目のビットに対応します.<br>
+ * 石の配置からZobristハッシュ値を求め、石を置くたびに差分で更新します.
  * @author tanabe
  *
  */
 public class Board {
 
     /**
-     * 石を置く場所です.
+     * 左端の列を表すビットボードです.
      */
-    private final Cell[][] cells;
+    private static final long LEFT_EDGE = 0x0101010101010101L;
 
     /**
-     * 盤面を生成します.
+     * 右端の列を表すビットボードです.
      */
-    public Board() {
+    private static final long RIGHT_EDGE = 0x8080808080808080L;
 
-        this.cells = new Cell[BOARD_HEIGHT][BOARD_WIDTH];
+    /**
+     * 各方向へ1マス進む際のシフト量です.
+     * 上、右上、右、右下、下、左下、左、左上の順に並んでいます.
+     */
+    private static final int[] DIRECTION_SHIFTS = {
+        -BOARD_WIDTH,
+        -BOARD_WIDTH + 1,
+        1,
+        BOARD_WIDTH + 1,
+        BOARD_WIDTH,
+        BOARD_WIDTH - 1,
+        -1,
+        -BOARD_WIDTH - 1
+    };
 
-        for(int y = 0; y < BOARD_HEIGHT; y++) {
-            for(int x = 0; x < BOARD_WIDTH; x++) {
+    /**
+     * 各方向へシフトした後、反対側の端へ回り込んだマス目を除外するためのマスクです.
+     * 並び順は{@link Board#DIRECTION_SHIFTS}と同じです.
+     */
+    private static final long[] DIRECTION_MASKS = {
+        -1L,
+        ~LEFT_EDGE,
+        ~LEFT_EDGE,
+        ~LEFT_EDGE,
+        -1L,
+        ~RIGHT_EDGE,
+        ~RIGHT_EDGE,
+        ~RIGHT_EDGE
+    };
 
-                this.cells[y][x] = Cell.NOTHING;
+    /**
+     * 盤面の対称変換(回転と反転)の数です.
+     * 変換の番号は0から{@value #SYMMETRY_COUNT}未満で、0は無変換です.
+     */
+    public static final int SYMMETRY_COUNT = 8;
 
-            }
+    /**
+     * 各対称変換の逆変換の番号です.
+     */
+    private static final int[] INVERSE_SYMMETRIES = {0, 3, 2, 1, 4, 5, 6, 7};
+
+    /**
+     * 対角線での反転に使用するマスクです.
+     */
+    private static final long[] TRANSPOSE_MASKS = {
+        0x5500550055005500L,
+        0x3333000033330000L,
+        0x0F0F0F0F00000000L
+    };
+
+    /**
+     * 左右反転に使用するマスクです.
+     */
+    private static final long[] MIRROR_MASKS = {
+        0x5555555555555555L,
+        0x3333333333333333L,
+        0x0F0F0F0F0F0F0F0FL
+    };
+
+    /**
+     * Zobristハッシュ用の乱数を生成する際の種です.
+     * 実行のたびに同じハッシュ値となるよう固定しています.
+     */
+    private static final long ZOBRIST_SEED = 0x5245564552534931L;
+
+    /**
+     * 白石が置かれている場合にハッシュ値へ排他的論理和をとる乱数です.
+     */
+    private static final long[] WHITE_KEYS = new long[BOARD_WIDTH * BOARD_HEIGHT];
+
+    /**
+     * 黒石が置かれている場合にハッシュ値へ排他的論理和をとる乱数です.
+     */
+    private static final long[] BLACK_KEYS = new long[BOARD_WIDTH * BOARD_HEIGHT];
+
+    static {
+        Random random = new Random(ZOBRIST_SEED);
+        for(int index = 0; index < WHITE_KEYS.length; index++) {
+            WHITE_KEYS[index] = random.nextLong();
+            BLACK_KEYS[index] = random.nextLong();
         }
+    }
+
+    /**
+     * 白石が置かれているマス目を表すビットボードです.
+     */
+    private long white;
+
+    /**
+     * 黒石が置かれているマス目を表すビットボードです.
+     */
+    private long black;
+
+    /**
+     * 石の配置から求めたZobristハッシュ値です.
+     */
+    private long hash;
+
+    /**
+     * 盤面を生成します.
+     */
+    public Board() {
+
+        this.white = 0L;
+        this.black = 0L;
+        this.hash = 0L;
 
     }
 
@@ -48,15 +147,9 @@ public class Board {
         // 引数チェック
         ArgumentCheckUtil.checkNotNull(board);
 
-        this.cells = new Cell[BOARD_HEIGHT][BOARD_WIDTH];
-
-        for(int y = 0; y < BOARD_HEIGHT; y++) {
-            for(int x = 0; x < BOARD_WIDTH; x++) {
-
-                this.cells[y][x] = board.getStone(x, y);
-
-            }
-        }
+        this.white = board.white;
+        this.black = board.black;
+        this.hash = board.hash;
 
     }
 
@@ -69,7 +162,28 @@ public class Board {
      * @throws ArrayIndexOutOfBoundsException 盤面の範囲外を指定した場合に発生
      */
     public void initStone(int x, int y, Cell cell) {
-        this.cells[y][x] = cell;
+
+        int index = toIndex(x, y);
+        long bit = 1L << index;
+
+        // 一旦石を取り除いてから配置
+        if((this.white & bit) != 0) {
+            this.hash ^= WHITE_KEYS[index];
+        }
+        if((this.black & bit) != 0) {
+            this.hash ^= BLACK_KEYS[index];
+        }
+        this.white &= ~bit;
+        this.black &= ~bit;
+
+        if(cell == Cell.WHITE) {
+            this.white |= bit;
+            this.hash ^= WHITE_KEYS[index];
+        } else if(cell == Cell.BLACK) {
+            this.black |= bit;
+            this.hash ^= BLACK_KEYS[index];
+        }
+
     }
 
 
@@ -81,7 +195,39 @@ public class Board {
      * @throws ArrayIndexOutOfBoundsException 盤面の範囲外を指定した場合に発生
      */
     public Cell getStone(int x, int y) {
-        return this.cells[y][x];
+
+        long bit = 1L << toIndex(x, y);
+
+        if((this.white & bit) != 0) {
+            return Cell.WHITE;
+        }
+        if((this.black & bit) != 0) {
+            return Cell.BLACK;
+        }
+        return Cell.NOTHING;
+
+    }
+
+
+    /**
+     * 指定した石の配置をビットボードで取得します.<br>
+     * マス目(x, y)に石がある場合は{@link Board#toIndex(int, int)}番目のビットが1になります.
+     * @param cell 取得する石
+     * @return 石の配置のビットボード
+     * @throws IllegalArgumentException 引数が{@link Cell#WHITE}でも{@link Cell#BLACK}でもない場合に発生
+     */
+    public long getBitBoard(Cell cell) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
+
+        if(cell == Cell.WHITE) {
+            return this.white;
+        } else {
+            return this.black;
+        }
+
     }
 
 
@@ -92,19 +238,13 @@ public class Board {
      */
     public int getStoneCount(Cell cell) {
 
-        int count = 0;
-
-        for(int y = 0; y < BOARD_HEIGHT; y++) {
-            for(int x = 0; x < BOARD_WIDTH; x++) {
-
-                if(this.cells[y][x] == cell) {
-                    count++;
-                }
-
-            }
+        if(cell == Cell.WHITE) {
+            return Long.bitCount(this.white);
         }
-
-        return count;
+        if(cell == Cell.BLACK) {
+            return Long.bitCount(this.black);
+        }
+        return BOARD_WIDTH * BOARD_HEIGHT - Long.bitCount(this.white | this.black);
 
     }
 
@@ -125,63 +265,120 @@ public class Board {
     public boolean putStone(int x, int y, Cell cell) {
 
         // 引数チェック
+        ArgumentCheckUtil.checkNotNull(cell);
         ArgumentCheckUtil.checkNotNothing(cell);
 
-        // 指定のマス目に石が置かれていないことをチェック
-        if(this.getStone(x, y) != Cell.NOTHING) {
-            return false;
+        return (this.putStone(toIndex(x, y), cell) != 0);
+
+    }
+
+
+    /**
+     * ビットボード上の位置を指定して石を配置し、ひっくり返した石を取得します.<br>
+     * 探索のように一つの盤面上で手を進めたり戻したりする場合に使用します.
+     * 戻り値を{@link Board#removeStone(int, Cell, long)}に渡すと、配置前の状態に戻すことができます.<br>
+     * 石をひっくり返すことができない場所を指定した場合は盤面を変更しません.
+     * @param index 石を置く位置
+     * @param cell 配置する石を表す値
+     * @return ひっくり返した石のビットボード.置けなかった場合は0
+     * @throws IllegalArgumentException
+     *  第一引数が盤面の範囲外の場合、または第二引数が{@link Cell#WHITE}でも{@link Cell#BLACK}でもない場合に発生
+     */
+    public long putStone(int index, Cell cell) {
+
+        // 引数チェック
+        // 範囲外の位置はシフトで盤面内の位置と同じになるため、盤面を変更する前に確認する
+        if((index < 0) || (index >= BOARD_WIDTH * BOARD_HEIGHT)) {
+            throw new IllegalArgumentException("盤面の範囲外です.index = " + index);
         }
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
 
+        long put = 1L << index;
 
-        // ひっくり返す石の座標の集合
-        HashSet<int[]> points = new HashSet<int[]>();
+        // 指定のマス目に石が置かれていないことをチェック
+        if(((this.white | this.black) & put) != 0) {
+            return 0L;
+        }
 
-        // CHECKSTYLE:OFF
-        // 上方向のチェック
-        points.addAll(this.getReversedStones(x, y, cell, 0));
-        // 右上方向のチェック
-        points.addAll(this.getReversedStones(x, y, cell, 1));
-        // 右方向のチェック
-        points.addAll(this.getReversedStones(x, y, cell, 2));
-        // 右下方向のチェック
-        points.addAll(this.getReversedStones(x, y, cell, 3));
-        // 下方向のチェック
-        points.addAll(this.getReversedStones(x, y, cell, 4));
-        // 左下方向のチェック
-        points.addAll(this.getReversedStones(x, y, cell, 5));
-        // 左方向のチェック
-        points.addAll(this.getReversedStones(x, y, cell, 6));
-        // 左上方向のチェック
-        points.addAll(this.getReversedStones(x, y, cell, 7));
-        // CHECKSTYLE:ON
+        // ひっくり返す石
+        long reversed;
 
-        if(points.size() != 0) {
+        if(cell == Cell.WHITE) {
+            reversed = getReversedStones(index, this.white, this.black);
+        } else {
+            reversed = getReversedStones(index, this.black, this.white);
+        }
 
-            this.initStone(x, y, cell);
+        if(reversed == 0) {
+            return 0L;
+        }
 
-            for(Object obj : points.toArray()) {
+        if(cell == Cell.WHITE) {
+            this.white |= put | reversed;
+            this.black &= ~reversed;
+            this.hash ^= WHITE_KEYS[index];
+        } else {
+            this.black |= put | reversed;
+            this.white &= ~reversed;
+            this.hash ^= BLACK_KEYS[index];
+        }
+        this.hash ^= getReversedHash(reversed);
 
-                if(obj instanceof int[]) {
+        return reversed;
 
-                    int[] point = (int[])obj;
-                    this.initStone(point[0], point[1], cell);
+    }
 
-                }
 
-            }
+    /**
+     * {@link Board#putStone(int, Cell)}で配置した石を取り除き、ひっくり返した石を元に戻します.
+     * @param index 石を置いた位置
+     * @param cell 置いた石を表す値.{@link Cell#WHITE}か{@link Cell#BLACK}であること
+     * @param reversed {@link Board#putStone(int, Cell)}の戻り値
+     */
+    public void removeStone(int index, Cell cell, long reversed) {
 
-            return true;
+        long put = 1L << index;
 
+        if(cell == Cell.WHITE) {
+            this.white &= ~(put | reversed);
+            this.black |= reversed;
+            this.hash ^= WHITE_KEYS[index];
         } else {
-            return false;
+            this.black &= ~(put | reversed);
+            this.white |= reversed;
+            this.hash ^= BLACK_KEYS[index];
+        }
+        this.hash ^= getReversedHash(reversed);
+
+    }
+
+
+    /**
+     * 石をひっくり返したときの、ハッシュ値の変化量を取得します.<br>
+     * 白と黒のどちらへひっくり返した場合も同じ値になります.
+     * @param reversed ひっくり返す石のビットボード
+     * @return ハッシュ値へ排他的論理和をとる値
+     */
+    private static long getReversedHash(long reversed) {
+
+        long result = 0L;
+        long stones = reversed;
+
+        while(stones != 0) {
+            int index = Long.numberOfTrailingZeros(stones);
+            stones &= stones - 1;
+            result ^= WHITE_KEYS[index] ^ BLACK_KEYS[index];
         }
 
+        return result;
+
     }
 
 
     /**
      * 指定の場所に石を置くことができるかを判定します.<br>
-     * 石をひっくり返すことができない場合は石を置くことができません.
+     * 既に石が置かれている場合や、石をひっくり返すことができない場合は石を置くことができません.
      * @param x 石を置くマスのX座標
      * @param y 石を置くマスのY座標
      * @param cell 置く石
@@ -193,114 +390,322 @@ public class Board {
     public boolean canPut(int x, int y, Cell cell) {
 
         // 引数チェック
+        ArgumentCheckUtil.checkNotNull(cell);
         ArgumentCheckUtil.checkNotNothing(cell);
 
-        // CHECKSTYLE:OFF
-        // 上方向のチェック
-        if(this.getReversedStones(x, y, cell, 0).size() != 0) {
-            return true;
+        int index = toIndex(x, y);
+
+        // 既に石が置かれているマス目には置けない
+        if(((this.white | this.black) & (1L << index)) != 0) {
+            return false;
         }
-        // 右上方向のチェック
-        if(this.getReversedStones(x, y, cell, 1).size() != 0) {
-            return true;
+
+        if(cell == Cell.WHITE) {
+            return (getReversedStones(index, this.white, this.black) != 0);
+        } else {
+            return (getReversedStones(index, this.black, this.white) != 0);
         }
-        // 右方向のチェック
-        if(this.getReversedStones(x, y, cell, 2).size() != 0) {
-            return true;
+
+    }
+
+
+    /**
+     * 指定の石を置くことができる場所を全て取得します.<br>
+     * 盤面全体を8方向に一度ずつ走査するだけで求めるため、
+     * マス目ごとに{@link Board#canPut(int, int, Cell)}を呼び出すよりも高速です.<br>
+     * 戻り値はビットボードで、マス目(x, y)に置ける場合は
+     * {@link Board#toIndex(int, int)}番目のビットが1になります.
+     * 小さい位置から順に取り出すと、Y座標、X座標の順に走査した場合と同じ順番になります.
+     * @param cell 置く石
+     * @return 石を置くことができる場所のビットボード.置ける場所がない場合は0
+     * @throws IllegalArgumentException 引数が{@link Cell#WHITE}でも{@link Cell#BLACK}でもない場合に発生
+     */
+    public long getPuttablePlaces(Cell cell) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(cell);
+        ArgumentCheckUtil.checkNotNothing(cell);
+
+        if(cell == Cell.WHITE) {
+            return getPuttablePlaces(this.white, this.black);
+        } else {
+            return getPuttablePlaces(this.black, this.white);
         }
-        // 右下方向のチェック
-        if(this.getReversedStones(x, y, cell, 3).size() != 0) {
-            return true;
+
+    }
+
+
+    /**
+     * 石を置くことができる場所を全て取得します.<br>
+     * 盤面のインスタンスを使わずにビットボードだけで先読みする場合に使用します.
+     * @param own 置く側の石のビットボード
+     * @param opponent 相手の石のビットボード
+     * @return 石を置くことができる場所のビットボード
+     */
+    public static long getPuttablePlaces(long own, long opponent) {
+
+        long empty = ~(own | opponent);
+        long result = 0L;
+
+        for(int direction = 0; direction < DIRECTION_SHIFTS.length; direction++) {
+
+            int shift = DIRECTION_SHIFTS[direction];
+            long mask = DIRECTION_MASKS[direction] & opponent;
+
+            // 自分の石から指定の方向に連続する相手の石
+            long stones = shift(own, shift) & mask;
+
+            // 一列に並ぶ相手の石は最大で(横幅 - 2)個
+            for(int count = 0; count < BOARD_WIDTH - 3; count++) {
+                stones |= shift(stones, shift) & mask;
+            }
+
+            // 連続した相手の石の先が空いていれば置ける
+            result |= shift(stones, shift) & DIRECTION_MASKS[direction] & empty;
+
         }
-        // 下方向のチェック
-        if(this.getReversedStones(x, y, cell, 4).size() != 0) {
-            return true;
+
+        return result;
+
+    }
+
+
+    /**
+     * 指定の位置に石を置いたとき、ひっくり返される石を取得します.<br>
+     * 8方向それぞれについてビットボードをシフトしながら走査します.
+     * 途中でオブジェクトを生成しないため、何度呼び出してもヒープを消費しません.
+     * @param index 石を置く位置.空いているマス目であること
+     * @param own 置く側の石のビットボード
+     * @param opponent 相手の石のビットボード
+     * @return ひっくり返す石のビットボード.ひっくり返せない場合は0
+     */
+    public static long getReversedStones(int index, long own, long opponent) {
+
+        long put = 1L << index;
+        long result = 0L;
+
+        for(int direction = 0; direction < DIRECTION_SHIFTS.length; direction++) {
+
+            int shift = DIRECTION_SHIFTS[direction];
+            long mask = DIRECTION_MASKS[direction];
+
+            // ひっくり返せそうな石
+            long stones = 0L;
+            long check = shift(put, shift) & mask;
+
+            while((check & opponent) != 0) {
+                stones |= check;
+                check = shift(check, shift) & mask;
+            }
+
+            // 同じ石で挟んでいれば、それまでに見つけた石をひっくり返せる
+            if((check & own) != 0) {
+                result |= stones;
+            }
+
         }
-        // 左下方向のチェック
-        if(this.getReversedStones(x, y, cell, 5).size() != 0) {
-            return true;
+
+        return result;
+
+    }
+
+
+    /**
+     * ビットボードを指定量だけシフトします.
+     * @param bits ビットボード
+     * @param shift シフト量.正なら上位方向、負なら下位方向へシフトします
+     * @return シフト後のビットボード
+     */
+    private static long shift(long bits, int shift) {
+
+        if(shift > 0) {
+            return bits << shift;
+        } else {
+            return bits >>> -shift;
         }
-        // 左方向のチェック
-        if(this.getReversedStones(x, y, cell, 6).size() != 0) {
-            return true;
+
+    }
+
+
+    /**
+     * 対称変換した盤面を取得します.
+     * @param symmetry 変換の番号.{@link #transformBits(long, int)}を参照
+     * @return 変換した新しい盤面
+     * @throws IllegalArgumentException 対応する変換がない場合に発生
+     */
+    public Board getTransformed(int symmetry) {
+
+        Board result = new Board();
+        result.white = transformBits(this.white, symmetry);
+        result.black = transformBits(this.black, symmetry);
+        result.hash = computeHash(result.white, result.black);
+
+        return result;
+
+    }
+
+
+    /**
+     * 盤面を正規化する対称変換を求めます.<br>
+     * 8通りの変換のうち、変換後の黒石、白石のビットボードの順に比較して最小となる変換です.
+     * 回転や反転で重なる盤面同士は、それぞれの変換を適用すると同じ盤面(正規形)になります.
+     * 置換表や定石など、盤面をキーとするキャッシュで対称な局面をまとめる場合に使用します.
+     * 正規形での手の位置は{@link #transformIndex(int, int)}で、
+     * 元の盤面での位置には{@link #getInverseSymmetry(int)}の変換で戻します.
+     * @return 変換の番号
+     */
+    public int getCanonicalSymmetry() {
+
+        int best = 0;
+        long bestBlack = this.black;
+        long bestWhite = this.white;
+
+        for(int symmetry = 1; symmetry < SYMMETRY_COUNT; symmetry++) {
+
+            long b = transformBits(this.black, symmetry);
+            if(b > bestBlack) {
+                continue;
+            }
+
+            long w = transformBits(this.white, symmetry);
+            if((b < bestBlack) || (w < bestWhite)) {
+                best = symmetry;
+                bestBlack = b;
+                bestWhite = w;
+            }
+
         }
-        // 左上方向のチェック
-        if(this.getReversedStones(x, y, cell, 7).size() != 0) {
-            return true;
+
+        return best;
+
+    }
+
+
+    /**
+     * ビットボードを対称変換します.<br>
+     * 変換の番号と、マス目(x, y)の移動先は次のとおりです.
+     * <ul>
+     * <li>0: 無変換 (x, y)</li>
+     * <li>1: 時計回りに90度回転 (7-y, x)</li>
+     * <li>2: 180度回転 (7-x, 7-y)</li>
+     * <li>3: 時計回りに270度回転 (y, 7-x)</li>
+     * <li>4: 左右反転 (7-x, y)</li>
+     * <li>5: 上下反転 (x, 7-y)</li>
+     * <li>6: 左上から右下への対角線で反転 (y, x)</li>
+     * <li>7: 右上から左下への対角線で反転 (7-y, 7-x)</li>
+     * </ul>
+     * @param bits ビットボード
+     * @param symmetry 変換の番号
+     * @return 変換したビットボード
+     * @throws IllegalArgumentException 対応する変換がない場合に発生
+     */
+    public static long transformBits(long bits, int symmetry) {
+
+        // CHECKSTYLE:OFF
+        switch(symmetry) {
+            case 0 :
+                return bits;
+            case 1 :
+                return mirror(transpose(bits));
+            case 2 :
+                return Long.reverse(bits);
+            case 3 :
+                return Long.reverseBytes(transpose(bits));
+            case 4 :
+                return mirror(bits);
+            case 5 :
+                return Long.reverseBytes(bits);
+            case 6 :
+                return transpose(bits);
+            case 7 :
+                return Long.reverse(transpose(bits));
+            default :
+                throw new IllegalArgumentException("対応する変換がありません.symmetry = " + symmetry);
         }
         // CHECKSTYLE:ON
 
-        return false;
-
     }
 
 
     /**
-     * 指定座標に石を置いたとき、ひっくり返される石の集合を取得します.
-     * 引数で指定した一方向のみをチェックします.
-     * @param x 石を置くX座標
-     * @param y 石を置くY座標
-     * @param cell 石を表す値
-     * @param direction 方向を表す値.上(0)、右上(1)、右(2)、右下(3)、下(4)、左下(5)、左(6)、左上(7)
-     * @return ひっくり返す石の座標を保持した{@link Set}.
-     * 中身はint[2]で、0番がX座標、1番がY座標です.
-     * @throws IllegalArgumentException 石と方向を表す値が不正な場合に発生
+     * ビットボード上の位置を対称変換します.
+     * @param index ビットボード上の位置
+     * @param symmetry 変換の番号.{@link #transformBits(long, int)}を参照
+     * @return 変換後の位置
+     * @throws IllegalArgumentException 対応する変換がない場合に発生
      */
-    private Set<int[]> getReversedStones(int x, int y, Cell cell, int direction) {
+    public static int transformIndex(int index, int symmetry) {
+        return Long.numberOfTrailingZeros(transformBits(1L << index, symmetry));
+    }
 
-        // チェックしていく方向
-        int[][] dir = {
-            {0, -1},    // 上
-            {1, -1},    // 右上
-            {1, 0},    // 右
-            {1, 1},    // 右下
-            {0, 1},    // 下
-            {-1, 1},    // 左下
-            {-1, 0},    // 左
-            {-1, -1}    // 左上
-        };
 
-        // 引数チェック
-        assert (cell != null);
-        assert (direction >= 0);
-        assert (direction < dir.length);
+    /**
+     * 対称変換の逆変換を取得します.
+     * @param symmetry 変換の番号
+     * @return 逆変換の番号
+     * @throws ArrayIndexOutOfBoundsException 対応する変換がない場合に発生
+     */
+    public static int getInverseSymmetry(int symmetry) {
+        return INVERSE_SYMMETRIES[symmetry];
+    }
 
-        // 方向を表す変数です.
-        int dirX = dir[direction][0];
-        int dirY = dir[direction][1];
 
-        // 石の種類をチェックするマス目の座標です.
-        int checkX = x + dirX;
-        int checkY = y + dirY;
+    /**
+     * ビットボードを左上から右下への対角線で反転します.
+     * @param bits ビットボード
+     * @return 反転したビットボード
+     */
+    private static long transpose(long bits) {
 
-        // ひっくり返せそうな石が配置されている座標の集合
-        HashSet<int[]> stones = new HashSet<int[]>();
+        // CHECKSTYLE:OFF
+        long result = bits;
+        long t = TRANSPOSE_MASKS[2] & (result ^ (result << 28));
+        result ^= t ^ (t >>> 28);
+        t = TRANSPOSE_MASKS[1] & (result ^ (result << 14));
+        result ^= t ^ (t >>> 14);
+        t = TRANSPOSE_MASKS[0] & (result ^ (result << 7));
+        result ^= t ^ (t >>> 7);
+        // CHECKSTYLE:ON
 
-        // ひっくり返す石が配置されている座標の集合
-        HashSet<int[]> result = new HashSet<int[]>();
+        return result;
 
-        // 指定の方向を走査します.
-        while(this.isContain(checkX, checkY)) {
+    }
 
-            if(this.getStone(checkX, checkY) == Cell.NOTHING) {
 
-                // 石がないマス目なので、何もひっくり返せない
-                break;
+    /**
+     * ビットボードを左右反転します.
+     * @param bits ビットボード
+     * @return 反転したビットボード
+     */
+    private static long mirror(long bits) {
 
-            } else if(this.getStone(checkX, checkY) == cell) {
+        // CHECKSTYLE:OFF
+        long result = bits;
+        result = ((result >>> 1) & MIRROR_MASKS[0]) | ((result & MIRROR_MASKS[0]) << 1);
+        result = ((result >>> 2) & MIRROR_MASKS[1]) | ((result & MIRROR_MASKS[1]) << 2);
+        result = ((result >>> 4) & MIRROR_MASKS[2]) | ((result & MIRROR_MASKS[2]) << 4);
+        // CHECKSTYLE:ON
 
-                // 同じ石があれば、それまでの見つけた石をひっくり返せる
-                result.addAll(stones);
-                break;
+        return result;
 
-            }
+    }
 
-            // ひっくり返すかもしれないので、候補に追加
-            stones.add(new int[]{checkX, checkY});
 
-            checkX += dirX;
-            checkY += dirY;
+    /**
+     * 石の配置からZobristハッシュ値を求めます.
+     * @param white 白石のビットボード
+     * @param black 黒石のビットボード
+     * @return ハッシュ値
+     */
+    private static long computeHash(long white, long black) {
+
+        long result = 0L;
 
+        for(long bits = white; bits != 0; bits &= bits - 1) {
+            result ^= WHITE_KEYS[Long.numberOfTrailingZeros(bits)];
+        }
+        for(long bits = black; bits != 0; bits &= bits - 1) {
+            result ^= BLACK_KEYS[Long.numberOfTrailingZeros(bits)];
         }
 
         return result;
@@ -309,14 +714,40 @@ public class Board {
 
 
     /**
-     * 指定の座標が盤面上かを判定します.
+     * 指定の座標に対応するビットボード上の位置を取得します.
      * @param x X座標
      * @param y Y座標
-     * @return 盤面上であれば<code>true</code>、そうでないなら<code>false</code>
+     * @return ビットボード上の位置
+     * @throws ArrayIndexOutOfBoundsException 盤面の範囲外を指定した場合に発生
+     */
+    public static int toIndex(int x, int y) {
+
+        if((x < 0) || (x >= BOARD_WIDTH) || (y < 0) || (y >= BOARD_HEIGHT)) {
+            throw new ArrayIndexOutOfBoundsException("(" + x + ", " + y + ")");
+        }
+
+        return y * BOARD_WIDTH + x;
+
+    }
+
+
+    /**
+     * ビットボード上の位置に対応するX座標を取得します.
+     * @param index ビットボード上の位置
+     * @return X座標
+     */
+    public static int toX(int index) {
+        return index % BOARD_WIDTH;
+    }
+
+
+    /**
+     * ビットボード上の位置に対応するY座標を取得します.
+     * @param index ビットボード上の位置
+     * @return Y座標
      */
-    private boolean isContain(int x, int y) {
-        return ((x >= 0) && (x <= this.getWidth() - 1)
-                && (y >= 0) && (y <= this.getHeight() - 1));
+    public static int toY(int index) {
+        return index / BOARD_WIDTH;
     }
 
     /**
@@ -346,17 +777,7 @@ public class Board {
         }
 
         // 配置してある石を比較
-        for(int y = 0; y < this.getHeight(); y++) {
-            for(int x = 0; x < this.getWidth(); x++) {
-
-                if(this.getStone(x, y) != board.getStone(x, y)) {
-                    return false;
-                }
-
-            }
-        }
-
-        return true;
+        return (this.white == board.white) && (this.black == board.black);
 
     }
 
@@ -367,13 +788,24 @@ public class Board {
      * ハッシュ値は同じとならなければなりません.<br>
      * 等価とならないインスタンス同士のハッシュ値は異なっていなくても
      * 構いません.<br>
-     * このクラスでは盤面のマス目の数をハッシュ値として返すことにします.
+     * このクラスでは{@link Board#getHash()}の上位と下位を畳み込んだ値を返します.
      *
      * @return ハッシュ値
      */
     @Override
     public int hashCode() {
-        return this.getWidth() * this.getHeight();
+        return (int)(this.hash ^ (this.hash >>> 32));   // CHECKSTYLE IGNORE THIS LINE
+    }
+
+
+    /**
+     * 石の配置から求めたZobristハッシュ値を取得します.<br>
+     * 石の配置が同じ盤面は、同じハッシュ値になります.
+     * 置換表など、盤面をキーとするキャッシュで使用して下さい.
+     * @return 64ビットのハッシュ値
+     */
+    public long getHash() {
+        return this.hash;
     }
 
     /**
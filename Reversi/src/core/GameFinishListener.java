@@ -0,0 +1,19 @@
+package core;
+
+/**
+ * ゲームの終了を受け取るためのインターフェースです.<br>
+ * {@link GameManager#addGameFinishListener(GameFinishListener)}で登録します.
+ * @author tanabe
+ *
+ */
+public interface GameFinishListener {
+
+    /**
+     * ゲームが終了した時に呼び出されます.<br>
+     * ゲームを進めていたスレッドから呼び出されます.
+     * 呼び出された時点で{@link GameManager#isFinish()}は<code>true</code>を返します.
+     * @param manager 終了したゲーム
+     */
+    void gameFinished(GameManager manager);
+
+}
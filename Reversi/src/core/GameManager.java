@@ -3,15 +3,38 @@ package core;
 import static core.GameConstants.RuleConstants.PLAYER_COUNT;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import output.GameViewer;
 import util.ArgumentCheckUtil;
+import ai.AsyncGamePlayer;
 import ai.GamePlayer;
+import ai.MoveFuture;
+import ai.MoveListener;
 
 /**
  * ゲームを管理するクラスです.<br>
- * 盤面の初期化やゲームの勝敗判定等を行います.
+ * 盤面の初期化やゲームの勝敗判定等を行います.<br>
+ * ゲームの終了は、{@link #awaitFinish()}で待つか、
+ * {@link GameFinishListener}を登録して受け取ることができます.<br>
+ * ゲームループは、ゲームごとに生成するスレッドか、
+ * 呼び出し元が指定した{@link Executor}で実行します.<br>
+ * {@link AsyncGamePlayer}同士のゲームは、{@link #gameStartAsync(Executor)}で
+ * 次の手を待つ間スレッドを占有せずに進めることができます.
+ * 一手ごとの制限時間は{@link #setMoveTimeLimit(long)}で、中断は{@link #stop()}で行います.
  * @author tanabe
  *
  */
@@ -20,7 +43,7 @@ public class GameManager implements Runnable {
     /**
      * ゲームを行うプレイヤーです.
      */
-    private final GamePlayer[] players;
+    private final AsyncGamePlayer[] players;
 
     /**
      * プレイヤーが使用する石です.
@@ -53,9 +76,24 @@ public class GameManager implements Runnable {
     private final List<NextMove> gameRecord;
 
     /**
-     * ゲームループ用のスレッドです.
+     * ゲームごとにスレッドを生成してゲームループを実行する{@link Executor}です.
      */
-    private Thread gameThread;
+    private static final Executor THREAD_PER_GAME = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            new Thread(command).start();
+        }
+    };
+
+    /**
+     * ゲームの終了を待つためのラッチです.ゲーム中以外はカウントが0になります.
+     */
+    private volatile CountDownLatch finishLatch;
+
+    /**
+     * ゲームの終了を受け取るリスナーです.
+     */
+    private final List<GameFinishListener> finishListeners;
 
     /**
      * ゲームの終了を示すフラグです.
@@ -65,7 +103,22 @@ public class GameManager implements Runnable {
     /**
      * ゲームの中断を示すフラグです.
      */
-    private boolean quitFlag;
+    private volatile boolean quitFlag;
+
+    /**
+     * {@link #stop()}で中断が要求されたことを示すフラグです.
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * 一手ごとの制限時間(ms)です.0の場合は制限しません.
+     */
+    private volatile long moveTimeLimit;
+
+    /**
+     * 手番プレイヤーが考えている次の手です.考えていない場合は<code>null</code>になります.
+     */
+    private volatile MoveFuture pendingMove;
 
     /**
      * ゲームを生成します.
@@ -76,13 +129,27 @@ public class GameManager implements Runnable {
      */
     public GameManager(GamePlayer p1, GamePlayer p2, Board board, GameViewer viewer) {
 
+        this(new DirectPlayer(p1), new DirectPlayer(p2), board, viewer);
+
+    }
+
+
+    /**
+     * 次の手を非同期に決定するプレイヤー同士のゲームを生成します.
+     * @param p1 プレイヤー1(先行)
+     * @param p2 プレイヤー2(後攻)
+     * @param board ゲームの盤面
+     * @param viewer ゲーム情報を表示するビューワー
+     */
+    public GameManager(AsyncGamePlayer p1, AsyncGamePlayer p2, Board board, GameViewer viewer) {
+
         // 引数チェック
         ArgumentCheckUtil.checkNotNull(p1);
         ArgumentCheckUtil.checkNotNull(p2);
         ArgumentCheckUtil.checkNotNull(board);
         ArgumentCheckUtil.checkNotNull(viewer);
 
-        this.players = new GamePlayer[PLAYER_COUNT];
+        this.players = new AsyncGamePlayer[PLAYER_COUNT];
         this.players[0] = p1;
         this.players[1] = p2;
 
@@ -94,6 +161,8 @@ public class GameManager implements Runnable {
         this.gameRecord = new ArrayList<NextMove>();
         this.board = board;
         this.viewer = viewer;
+        this.finishLatch = new CountDownLatch(0);
+        this.finishListeners = new CopyOnWriteArrayList<GameFinishListener>();
 
     }
 
@@ -120,6 +189,7 @@ public class GameManager implements Runnable {
         this.board.initStone(4, 3, Cell.BLACK);
         // CHECKSTYLE:ON
         
+        this.gameRecord.clear();
         this.currentPlayerNo = 0;
         this.passCount = 0;
         this.gameoverFlag = false;
@@ -133,35 +203,111 @@ public class GameManager implements Runnable {
      */
     private void update() {
 
-        this.viewer.view(this.board);
+        if(this.stopRequested) {
+            this.quitFlag = true;
+            return;
+        }
 
         // 次の手を取得
+        MoveFuture future = this.requestMove();
+        NextMove move = this.receiveMove(future, this.moveTimeLimit);
+
+        if(!this.quitFlag) {
+            this.applyMove(move);
+        }
+
+    }
+
+
+    /**
+     * 盤面を表示して、手番プレイヤーに次の手を考えさせます.
+     * @return 次の手を受け取る{@link MoveFuture}
+     */
+    private MoveFuture requestMove() {
+
+        this.viewer.view(this.board);
+
         Cell cell = this.cells[this.currentPlayerNo];
-        GamePlayer player = this.players[this.currentPlayerNo];
-        NextMove move = player.think(cell, this.board);
+        MoveFuture future = this.players[this.currentPlayerNo].thinkAsync(cell, this.board);
+        this.pendingMove = future;
 
-        if(move == null) {
+        if(this.stopRequested) {
+            // 次の手を設定する前に中断が要求された
+            future.cancel(true);
+        }
 
-            // パス
+        return future;
 
-            // 置く場所確認用の盤面
-            Board checkBoard = new Board(this.board);
+    }
 
-            // 置く場所がないかをチェック
-            for(int y = 0; y < this.board.getHeight(); y++) {
-                for(int x = 0; x < this.board.getWidth(); x++) {
 
-                    if(checkBoard.putStone(x, y, cell)) {
-                        // 石を置けるのにパスをした場合はルール違反
-                        this.viewer.view("You cannot pass.");
+    /**
+     * 次の手を受け取ります.<br>
+     * 時間切れ、取り消し、割り込みの場合はゲームを中断して<code>null</code>を返します.
+     * @param future 次の手を受け取る{@link MoveFuture}
+     * @param timeout 待つ時間の上限(ms).0の場合は制限しない
+     * @return 次の手
+     */
+    private NextMove receiveMove(MoveFuture future, long timeout) {
 
-                        // ゲーム中断
-                        this.quitFlag = true;
-                        return;
+        try {
 
-                    }
+            if(timeout > 0) {
+                return future.get(timeout, TimeUnit.MILLISECONDS);
+            } else {
+                return future.get();
+            }
 
-                }
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            this.viewer.view("Time is up.");
+        } catch (CancellationException e) {
+            if(!this.stopRequested) {
+                this.viewer.view("Time is up.");
+            }
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // プレイヤーで発生した例外は、同期的に考えた場合と同じように呼び出し元に伝える
+            Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if(cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            this.pendingMove = null;
+        }
+
+        // ゲーム中断
+        this.quitFlag = true;
+        return null;
+
+    }
+
+
+    /**
+     * 次の手を盤面に反映し、手番を進めます.
+     * @param move 次の手
+     */
+    private void applyMove(NextMove move) {
+
+        Cell cell = this.cells[this.currentPlayerNo];
+
+        if(move == null) {
+
+            // パス
+
+            // 置く場所がないかをチェック
+            if(this.board.getPuttablePlaces(cell) != 0) {
+                // 石を置けるのにパスをした場合はルール違反
+                this.viewer.view("You cannot pass.");
+
+                // ゲーム中断
+                this.quitFlag = true;
+                return;
             }
 
             this.passCount++;
@@ -208,7 +354,107 @@ public class GameManager implements Runnable {
      * @return ゲーム終了ならば<code>true</code>、それ以外は<code>false</code>
      */
     public boolean isFinish() {
-        return (this.gameThread == null);
+        return (this.finishLatch.getCount() == 0);
+    }
+
+
+    /**
+     * ゲームが終了するまで待ちます.
+     * ゲームが開始されていない場合はすぐに戻ります.
+     * @throws InterruptedException 待っている間に割り込まれた場合に発生
+     */
+    public void awaitFinish() throws InterruptedException {
+        this.finishLatch.await();
+    }
+
+
+    /**
+     * ゲームが終了するまで、指定した時間を上限として待ちます.
+     * ゲームが開始されていない場合はすぐに戻ります.
+     * @param timeout 待つ時間の上限
+     * @param unit <code>timeout</code>の単位
+     * @return ゲームが終了した場合は<code>true</code>、時間切れの場合は<code>false</code>
+     * @throws InterruptedException 待っている間に割り込まれた場合に発生
+     * @throws IllegalArgumentException 第二引数が<code>null</code>の場合に発生
+     */
+    public boolean awaitFinish(long timeout, TimeUnit unit) throws InterruptedException {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(unit);
+
+        return this.finishLatch.await(timeout, unit);
+
+    }
+
+
+    /**
+     * ゲームの終了を受け取るリスナーを登録します.
+     * @param listener リスナー
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     */
+    public void addGameFinishListener(GameFinishListener listener) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(listener);
+
+        this.finishListeners.add(listener);
+
+    }
+
+
+    /**
+     * 登録したリスナーを削除します.
+     * @param listener リスナー
+     */
+    public void removeGameFinishListener(GameFinishListener listener) {
+        this.finishListeners.remove(listener);
+    }
+
+
+    /**
+     * 一手ごとの制限時間を設定します.<br>
+     * 制限時間内に次の手が決まらない場合は、{@link MoveFuture}を取り消してゲームを中断します.
+     * {@link GamePlayer}の思考は呼び出したスレッドで行うため、制限時間は適用されません.
+     * @param millis 制限時間(ms).0の場合は制限しない
+     * @throws IllegalArgumentException 引数が負の値の場合に発生
+     */
+    public void setMoveTimeLimit(long millis) {
+
+        // 引数チェック
+        if(millis < 0) {
+            throw new IllegalArgumentException("制限時間が負の値です.millis = " + millis);
+        }
+
+        this.moveTimeLimit = millis;
+
+    }
+
+
+    /**
+     * ゲームを中断します.<br>
+     * 手番プレイヤーが考えている次の手は取り消します.
+     * ゲームの終了は{@link #awaitFinish()}などで待ってください.
+     */
+    public void stop() {
+
+        this.stopRequested = true;
+
+        MoveFuture future = this.pendingMove;
+        if(future != null) {
+            future.cancel(true);
+        }
+
+    }
+
+
+    /**
+     * ゲームが中断されたかをチェックします.<br>
+     * 石を置けるのにパスをした場合や、負の座標が指定された場合、
+     * 制限時間を過ぎた場合、{@link #stop()}を呼び出した場合に中断されます.
+     * @return 中断された場合は<code>true</code>、それ以外は<code>false</code>
+     */
+    public boolean isStopped() {
+        return this.quitFlag;
     }
 
 
@@ -238,6 +484,17 @@ public class GameManager implements Runnable {
     }
 
 
+    /**
+     * ゲームの記録を取得します.<br>
+     * 石を置いた手を順に並べたもので、パスは含みません.
+     * ゲームの終了後に呼び出してください.
+     * @return ゲームの記録(変更不可)
+     */
+    public List<NextMove> getGameRecord() {
+        return Collections.unmodifiableList(new ArrayList<NextMove>(this.gameRecord));
+    }
+
+
     /**
      * 現在の手番プレイヤーの石を取得します.
      * @return 手番プレイヤーの石
@@ -249,31 +506,323 @@ public class GameManager implements Runnable {
 
     /**
      * ゲームを開始します.
+     * ゲームループは、このゲーム用に生成したスレッドで実行します.
      */
     public void gameStart() {
 
-        this.gameThread = new Thread(this);
-        this.gameThread.start();
+        this.gameStart(THREAD_PER_GAME);
 
     }
 
 
     /**
-     * ゲームループの処理です.
-     * この処理は独立したスレッドで行われます.
+     * 指定した{@link Executor}でゲームループを実行して、ゲームを開始します.<br>
+     * 多数のゲームを同時に行う場合に、スレッドプールなどでスレッドを共有できます.
+     * ゲームループはゲームが終了するまで実行中のスレッドを占有します.
+     * @param executor ゲームループを実行する{@link Executor}
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     * @throws java.util.concurrent.RejectedExecutionException
+     *  <code>executor</code>が実行を受け付けなかった場合に発生
+     */
+    public void gameStart(Executor executor) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(executor);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        this.finishLatch = latch;
+        this.stopRequested = false;
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    play();
+                }
+            });
+        } catch (RuntimeException e) {
+            // 開始できなかったので、待っている処理を解放する
+            latch.countDown();
+            throw e;
+        }
+
+    }
+
+
+    /**
+     * 指定した{@link Executor}でゲームを進めて、ゲームを開始します.<br>
+     * {@link #gameStart(Executor)}と異なり、次の手を待つ間はスレッドを占有しません.
+     * プレイヤーが次の手を決定するたびに、その手を反映する処理を<code>executor</code>に渡します.
+     * 少数のスレッドで多数のゲームを進める場合に使用します.<br>
+     * {@link GamePlayer}から生成したゲームでは、思考も<code>executor</code>のスレッドで行います.
+     * @param executor ゲームを進める{@link Executor}
+     * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+     * @throws RejectedExecutionException <code>executor</code>が実行を受け付けなかった場合に発生
+     */
+    public void gameStartAsync(final Executor executor) {
+
+        // 引数チェック
+        ArgumentCheckUtil.checkNotNull(executor);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        this.finishLatch = latch;
+        this.stopRequested = false;
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    boolean initialized = false;
+                    try {
+                        initialize();
+                        initialized = true;
+                    } finally {
+                        if(!initialized) {
+                            // Errorの場合も待っている処理を解放する
+                            quitFlag = true;
+                            finish();
+                        }
+                    }
+                    step(executor);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 開始できなかったので、待っている処理を解放する
+            latch.countDown();
+            throw e;
+        }
+
+    }
+
+
+    /**
+     * 呼び出したスレッドでゲームループを実行し、ゲームが終了するまで処理します.
      */
     @Override
     public void run() {
 
-        this.initialize();
+        this.finishLatch = new CountDownLatch(1);
+        this.stopRequested = false;
+        this.play();
+
+    }
+
+
+    /**
+     * ゲームループの処理です.
+     */
+    private void play() {
+
+        try {
+
+            this.initialize();
+
+            while(!(this.gameoverFlag || this.quitFlag)) {
+
+                this.update();
+
+            }
+
+        } finally {
+
+            this.finish();
+
+        }
+
+    }
+
+
+    /**
+     * 非同期にゲームを進める処理です.<br>
+     * 手番プレイヤーに次の手を考えさせ、決定したら<code>executor</code>で
+     * {@link #moveDecided(MoveFuture, Executor)}を実行します.
+     * @param executor ゲームを進める{@link Executor}
+     */
+    private void step(final Executor executor) {
+
+        if(this.stopRequested) {
+            this.quitFlag = true;
+        }
+        if(this.gameoverFlag || this.quitFlag) {
+            this.finish();
+            return;
+        }
+
+        boolean requested = false;
+
+        try {
+
+            final MoveFuture future = this.requestMove();
 
-        while(!(this.gameoverFlag || this.quitFlag)) {
+            // 制限時間を過ぎたら取り消す
+            final ScheduledFuture<?> timer;
+            if(this.moveTimeLimit > 0) {
+                timer = TimerHolder.TIMER.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        future.cancel(true);
+                    }
+                }, this.moveTimeLimit, TimeUnit.MILLISECONDS);
+            } else {
+                timer = null;
+            }
+
+            future.addListener(new MoveListener() {
+                @Override
+                public void moveCompleted(final MoveFuture completed) {
+
+                    if(timer != null) {
+                        timer.cancel(false);
+                    }
+
+                    try {
+                        executor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                moveDecided(completed, executor);
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // ゲームを進められないので中断する
+                        pendingMove = null;
+                        quitFlag = true;
+                        finish();
+                    }
 
-            this.update();
+                }
+            });
+
+            requested = true;
+
+        } finally {
+
+            if(!requested) {
+                // Errorの場合も待っている処理を解放する
+                this.quitFlag = true;
+                this.finish();
+            }
 
         }
 
-        this.gameThread = null;
+    }
+
+
+    /**
+     * 決定した次の手を反映して、ゲームを進めます.
+     * @param future 完了した{@link MoveFuture}
+     * @param executor ゲームを進める{@link Executor}
+     */
+    private void moveDecided(MoveFuture future, Executor executor) {
+
+        boolean applied = false;
+
+        try {
+
+            NextMove move = this.receiveMove(future, 0);
+            if(!this.quitFlag) {
+                this.applyMove(move);
+            }
+            applied = true;
+
+        } finally {
+
+            if(!applied) {
+                // Errorの場合も待っている処理を解放する
+                this.quitFlag = true;
+                this.finish();
+            }
+
+        }
+
+        this.step(executor);
+
+    }
+
+
+    /**
+     * ゲームの終了を通知します.
+     */
+    private void finish() {
+
+        this.finishLatch.countDown();
+
+        for(GameFinishListener listener : this.finishListeners) {
+            listener.gameFinished(this);
+        }
+
+    }
+
+
+    /**
+     * {@link GamePlayer}を、呼び出したスレッドで考える{@link AsyncGamePlayer}として扱うクラスです.
+     * @author tanabe
+     *
+     */
+    private static final class DirectPlayer implements AsyncGamePlayer {
+
+        /**
+         * 次の手を決定するプレイヤーです.
+         */
+        private final GamePlayer player;
+
+        /**
+         * プレイヤーを生成します.
+         * @param player 次の手を決定するプレイヤー
+         * @throws IllegalArgumentException 引数が<code>null</code>の場合に発生
+         */
+        private DirectPlayer(GamePlayer player) {
+
+            // 引数チェック
+            ArgumentCheckUtil.checkNotNull(player);
+
+            this.player = player;
+
+        }
+
+        /**
+         * 呼び出したスレッドで次の手を決定します.
+         * プレイヤーで発生した例外はそのまま呼び出し元に伝えます.
+         * @param cell 置く石
+         * @param board リバーシの盤面
+         * @return 完了した{@link MoveFuture}
+         */
+        @Override
+        public MoveFuture thinkAsync(Cell cell, Board board) {
+
+            MoveFuture future = new MoveFuture();
+            future.complete(this.player.think(cell, board));
+            return future;
+
+        }
+
+    }
+
+
+    /**
+     * 制限時間を計るスレッドを、最初に使用するまで生成しないためのクラスです.
+     * @author tanabe
+     *
+     */
+    private static final class TimerHolder {
+
+        /**
+         * 全てのゲームで共有する、制限時間を計る{@link ScheduledExecutorService}です.
+         */
+        private static final ScheduledExecutorService TIMER =
+                Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "GameManager-timer");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+
+        /**
+         * コンストラクタ.
+         * ユーティリティクラスのため、使用不可.
+         */
+        private TimerHolder() { }
 
     }
 
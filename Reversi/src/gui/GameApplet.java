@@ -1,6 +1,5 @@
 package gui;
 
-import static gui.GuiConstants.INPUT_INTERVAL_MS;
 import static gui.GuiConstants.LayoutConstraints.GAME_AREA_HEIGHT;
 import static gui.GuiConstants.LayoutConstraints.GAME_AREA_WIDTH;
 import static gui.GuiConstants.LayoutConstraints.BACKGROUND_COLOR_R;
@@ -9,18 +8,27 @@ import static gui.GuiConstants.LayoutConstraints.BACKGROUND_COLOR_B;
 import static core.GameConstants.RuleConstants.BOARD_HEIGHT;
 import static core.GameConstants.RuleConstants.BOARD_WIDTH;
 import input.NextMoveSelector;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
 import output.GameViewer;
 import processing.core.PApplet;
 import util.ArgumentCheckUtil;
 import ai.GamePlayer;
 import ai.PlayerFactory;
+import ai.TableReference;
 import core.Board;
+import core.GameFinishListener;
 import core.GameManager;
 import core.NextMove;
 import core.Cell;
 
 /**
- * ゲームを描画するクラスです.
+ * ゲームを描画するクラスです.<br>
+ * 人間のプレイヤーの入力は、マウス操作の処理からゲームのスレッドへ直接受け渡すため、
+ * 入力を待っている間にCPUを消費しません.
  * @author tanabe
  *
  */
@@ -88,13 +96,19 @@ public class GameApplet extends PApplet
 
     /**
      * 次に置く石です.
+     * マウス操作の処理とゲームのスレッドの両方から参照します.
      */
-    private Cell nextStone;
+    private volatile Cell nextStone;
 
     /**
-     * 次の手です.
+     * マウス操作で選んだ次の手を、ゲームのスレッドへ受け渡すキューです.
      */
-    private NextMove nextMove;
+    private BlockingQueue<NextMove> nextMoves;
+
+    /**
+     * パスの確認ボタンが押されたことを、ゲームのスレッドへ知らせるセマフォです.
+     */
+    private Semaphore passConfirmation;
 
     /**
      * ゲームを管理するマネージャーです.
@@ -106,6 +120,11 @@ public class GameApplet extends PApplet
      */
     private PlayerFactory factory;
 
+    /**
+     * 現在のゲームのプレイヤーです.ゲームを開始していない場合は<code>null</code>.
+     */
+    private GamePlayer[] players;
+
 
     @Override
     public void setup() {
@@ -126,10 +145,12 @@ public class GameApplet extends PApplet
         this.changeScene(SCENE.MODE_SELECT);
 
         this.nextStone = Cell.NOTHING;
-        this.nextMove = null;
+        this.nextMoves = new ArrayBlockingQueue<NextMove>(1);
+        this.passConfirmation = new Semaphore(0);
 
         this.manager = null;
         this.factory = new PlayerFactory(this);
+        this.players = null;
 
     }
 
@@ -261,11 +282,25 @@ public class GameApplet extends PApplet
 
         if(no2 >= 0) {
 
+            // 前のゲームの先読みが、新しいゲームの思考と競合しないように止める
+            stopPondering(this.players);
+
             Board b = new Board();
-            GamePlayer p1 = this.factory.create(no1, delayTime);
-            GamePlayer p2 = this.factory.create(no2, delayTime);
+            // 相手が人間の場合は、相手の手番の間も先読みをさせる
+            GamePlayer p1 = this.factory.create(no1, delayTime, no2 == PlayerFactory.HUMAN);
+            GamePlayer p2 = this.factory.create(no2, delayTime, no1 == PlayerFactory.HUMAN);
+            final GamePlayer[] created = new GamePlayer[] {p1, p2};
+            this.players = created;
             this.manager = new GameManager(p1, p2, b, this);
 
+            // 投了した場合も含め、ゲームが終わったら先読みを止める
+            this.manager.addGameFinishListener(new GameFinishListener() {
+                @Override
+                public void gameFinished(GameManager finished) {
+                    stopPondering(created);
+                }
+            });
+
             this.manager.gameStart();
 
             this.changeScene(SCENE.GAME_PLAYING);
@@ -273,6 +308,24 @@ public class GameApplet extends PApplet
         }
     }
     
+    /**
+     * 相手の手番で先読みを行うプレイヤーの先読みを止めます.
+     * @param targets プレイヤー.<code>null</code>の場合は何もしない
+     */
+    private static void stopPondering(GamePlayer[] targets) {
+
+        if(targets == null) {
+            return;
+        }
+
+        for(GamePlayer player : targets) {
+            if(player instanceof TableReference) {
+                ((TableReference)player).stopPondering();
+            }
+        }
+
+    }
+
     /**
      * ゲーム中の処理.
      */
@@ -283,17 +336,21 @@ public class GameApplet extends PApplet
         if((cellX >= 0) && (cellY >= 0)) {
 
             // マウスカーソルが盤面上
-            if((this.nextStone == Cell.BLACK)
-                    || (this.nextStone == Cell.WHITE)) {
-                this.nextMove = new NextMove(cellX, cellY, this.nextStone);
+            Cell stone = this.nextStone;
+            if((stone == Cell.BLACK) || (stone == Cell.WHITE)) {
+                // 受け渡し前の手がある場合は、後の入力を無視する
+                this.nextMoves.offer(new NextMove(cellX, cellY, stone));
             }
 
         } else if(this.buttons[GameApplet.CANCEL_BUTTON]
                     .isContain(this.mouseX, this.mouseY)) {
 
             // ゲーム終了を選択
-            if(!this.buttons[GameApplet.CANCEL_BUTTON].getPressed()) {
-                this.nextMove = new NextMove(-1, -1, this.manager.getCurrentStone());
+            // 手を選んでいない間の入力は、手番になった時に捨てられるため受け付けない
+            Cell stone = this.nextStone;
+            if(((stone == Cell.BLACK) || (stone == Cell.WHITE))
+                    && !this.buttons[GameApplet.CANCEL_BUTTON].getPressed()) {
+                this.nextMoves.offer(new NextMove(-1, -1, stone));
                 this.buttons[GameApplet.CANCEL_BUTTON].setPressed(true);
             }
 
@@ -301,6 +358,7 @@ public class GameApplet extends PApplet
 
             // パス
             this.buttons[GameApplet.OK_BUTTON].setPressed(true);
+            this.passConfirmation.release();
 
         }
     }
@@ -383,35 +441,33 @@ public class GameApplet extends PApplet
 
 
     /**
-     * 次の手を選びます.
+     * 次の手を選びます.<br>
+     * マウスで手が選ばれるまで待機します.
+     * 待機中に割り込まれた場合は、ゲームを中断する手(負の座標)を返します.
      * @param cell 置く石
      * @return 次の手
      */
     @Override
     public NextMove select(Cell cell) {
 
+        // 手番になる前の入力は使わない
+        this.nextMoves.clear();
+        this.buttons[GameApplet.CANCEL_BUTTON].setPressed(false);
         this.nextStone = cell;
 
         this.buttons[GameApplet.CANCEL_BUTTON].setText("GIVE UP");
 
-        while(true) {
-            if(this.nextMove != null) {
-                break;
-            }
-            
-            try {
-                Thread.sleep(INPUT_INTERVAL_MS);
-            } catch(Exception e) {  // CHECKSTYLE IGNORE THIS LINE
-                // 待機するだけなので例外は気にしない.
-            }
+        NextMove result;
+        try {
+            result = this.nextMoves.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = new NextMove(-1, -1, cell);
         }
 
         this.buttons[GameApplet.CANCEL_BUTTON].setText("");
 
-        NextMove result = this.nextMove;
-
         this.nextStone = Cell.NOTHING;
-        this.nextMove = null;
 
         return result;
 
@@ -506,13 +562,14 @@ public class GameApplet extends PApplet
 
         this.view(message);
 
+        // メッセージを表示する前の入力は使わない
+        this.passConfirmation.drainPermits();
+
         this.buttons[GameApplet.OK_BUTTON].setText("PASS");
-        while(!this.buttons[GameApplet.OK_BUTTON].getPressed()) {
-            try {
-                Thread.sleep(INPUT_INTERVAL_MS);
-            } catch(Exception e) {  // CHECKSTYLE IGNORE THIS LINE
-                // 待機するだけなので例外は気にしない.
-            }
+        try {
+            this.passConfirmation.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
         this.buttons[GameApplet.OK_BUTTON].setPressed(false);
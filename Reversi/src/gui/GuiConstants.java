@@ -13,9 +13,6 @@ public final class GuiConstants {
      */
     private GuiConstants() { }
     
-    /**　入力の確認間隔(ms). */
-    public static final int INPUT_INTERVAL_MS = 100;
-    
     /**
      * 並びに関する定数を管理するクラスです.
      * @author tanabe
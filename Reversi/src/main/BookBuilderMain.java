@@ -0,0 +1,223 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import output.NullViewer;
+import ai.GamePlayer;
+import ai.TableReference;
+import ai.book.OpeningBookBuilder;
+import core.Board;
+import core.Cell;
+import core.GameManager;
+import core.NextMove;
+
+/**
+ * 自己対局の結果から定石ファイルを作成するためのメインクラスです.<br>
+ * {@link TableReference}同士を表示なしで対局させ、序盤の手と勝敗を集計します.
+ * 同じ対局ばかりにならないように、最初の数手はランダムに打ちます.
+ * 対局は複数のスレッドで並列に行います.<br>
+ * 使い方: BookBuilderMain 出力ファイル 対局数 [集計する手数] [スレッド数]<br>
+ * 作成したファイルは、作業ディレクトリに{@value ai.book.OpeningBook#DEFAULT_FILE}として置くか、
+ * システムプロパティ{@value ai.book.OpeningBook#FILE_PROPERTY}で指定すると使用されます.
+ * @author tanabe
+ *
+ */
+public final class BookBuilderMain {
+
+    /**
+     * 必須のコマンドライン引数の数です.
+     */
+    private static final int REQUIRED_ARGS = 2;
+
+    /**
+     * 集計する手数の規定値です.
+     */
+    private static final int DEFAULT_PLIES = 12;
+
+    /**
+     * ランダムに打つ手数です.
+     */
+    private static final int RANDOM_PLIES = 4;
+
+    /**
+     * 書き出す手の重みの下限です.
+     */
+    private static final int MIN_WEIGHT = 4;
+
+    /**
+     * 対局の乱数の種です.
+     */
+    private static final long SEED = 20150501L;
+
+    /**
+     * 最後まで読み切る空きマスの数です.
+     */
+    private static final int ENDGAME_EMPTIES = 10;
+
+    /**
+     * ミリ秒を秒に変換する値です.
+     */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /**
+     * コンストラクタ.
+     * ユーティリティクラスのため、使用不可.
+     */
+    private BookBuilderMain() { }
+
+    /**
+     * プログラムのエントリポイントです.
+     * @param args コマンドライン引数(出力ファイル、対局数、集計する手数、スレッド数)
+     * @throws InterruptedException 対局の終了を待っている間に割り込まれた場合に発生
+     * @throws ExecutionException 対局中に例外が発生した場合に発生
+     * @throws IOException 定石ファイルを書き出せない場合に発生
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
+
+        if(args.length < REQUIRED_ARGS) {
+            System.err.println("Usage: BookBuilderMain <output> <games> [plies] [threads]");
+            return;
+        }
+
+        File output = new File(args[0]);
+        int games = Integer.parseInt(args[1]);
+        int plies = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_PLIES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        if(args.length > 3) {   // CHECKSTYLE IGNORE THIS LINE
+            threads = Integer.parseInt(args[3]);    // CHECKSTYLE IGNORE THIS LINE
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<NextMove>>> futures = new ArrayList<Future<List<NextMove>>>();
+
+        long start = System.currentTimeMillis();
+
+        for(int i = 0; i < games; i++) {
+            futures.add(executor.submit(new GameTask(SEED + i)));
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+        try {
+            for(Future<List<NextMove>> future : futures) {
+                List<NextMove> record = future.get();
+                if(record != null) {
+                    builder.addGame(record);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int records = builder.write(output, MIN_WEIGHT);
+
+        long elapsed = System.currentTimeMillis() - start;
+
+        System.out.println(String.format("%d games, %d positions, %d records written to %s (%.1f s)",
+                builder.getGameCount(), builder.getPositionCount(), records, output,
+                elapsed / MILLIS_PER_SECOND));
+
+    }
+
+    /**
+     * 一局分の自己対局を行うタスクです.
+     * @author tanabe
+     *
+     */
+    private static final class GameTask implements Callable<List<NextMove>> {
+
+        /**
+         * 最初の数手を選ぶ乱数の種です.
+         */
+        private final long seed;
+
+        /**
+         * タスクを生成します.
+         * @param seed 最初の数手を選ぶ乱数の種
+         */
+        private GameTask(long seed) {
+            this.seed = seed;
+        }
+
+        /**
+         * 対局を行います.
+         * @return 対局の記録.中断された場合は<code>null</code>
+         */
+        @Override
+        public List<NextMove> call() {
+
+            Random random = new Random(this.seed);
+            GameManager manager = new GameManager(
+                    new RandomOpeningPlayer(random),
+                    new RandomOpeningPlayer(random),
+                    new Board(),
+                    new NullViewer());
+
+            // 対局用のスレッドは作らず、このスレッドで最後まで進める
+            manager.run();
+
+            if(manager.isStopped()) {
+                return null;
+            }
+
+            return manager.getGameRecord();
+
+        }
+
+    }
+
+    /**
+     * 最初の数手をランダムに打ち、その後は{@link TableReference}で打つプレイヤーです.
+     * @author tanabe
+     *
+     */
+    private static final class RandomOpeningPlayer implements GamePlayer {
+
+        /**
+         * 最初の数手を選ぶ乱数です.
+         */
+        private final Random random;
+
+        /**
+         * ランダムに打った後に使用するプレイヤーです.
+         */
+        private final TableReference player;
+
+        /**
+         * プレイヤーを生成します.
+         * @param random 最初の数手を選ぶ乱数
+         */
+        private RandomOpeningPlayer(Random random) {
+            this.random = random;
+            this.player = new TableReference(0, ENDGAME_EMPTIES);
+        }
+
+        @Override
+        public NextMove think(Cell cell, Board board) {
+
+            long places = board.getPuttablePlaces(cell);
+            int played = board.getStoneCount(Cell.BLACK) + board.getStoneCount(Cell.WHITE) - 4; // CHECKSTYLE IGNORE THIS LINE
+
+            if((places == 0) || (played >= RANDOM_PLIES)) {
+                return this.player.think(cell, board);
+            }
+
+            for(int skip = this.random.nextInt(Long.bitCount(places)); skip > 0; skip--) {
+                places &= places - 1;
+            }
+            int index = Long.numberOfTrailingZeros(places);
+            return new NextMove(Board.toX(index), Board.toY(index), cell);
+
+        }
+
+    }
+
+}
@@ -41,10 +41,12 @@ public final class CuiMain {
 
         manager.gameStart();
 
-        while(true) {
-            if(manager.isFinish()) {
-                break;
-            }
+        try {
+            manager.awaitFinish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            viewer.view("Interrupted");
+            return;
         }
 
         manager.viewGameResult();
@@ -0,0 +1,150 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.minimax.LazySmpAlphaBeta;
+import ai.minimax.TranspositionTable;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link LazySmpAlphaBeta}のスレッドの数による探索速度の伸びを計測するためのメインクラスです.<br>
+ * {@link SearchBenchMain}と同じ局面を、スレッドの数を1から倍にしながら指定の手数で探索し、
+ * 全局面の探索時間とノード数、一スレッドに対する速度向上率と並列化効率(速度向上率 / スレッドの数)を表示します.
+ * 置換表は局面ごとに消去します.<br>
+ * 置換表の内容によって最善手が変わることがあるため、一スレッドと最善手が一致した局面の数も表示します.<br>
+ * 第一引数で先読みの手数、第二引数で最大のスレッドの数を指定します.
+ * 省略した場合は{@value #DEFAULT_LEVEL}手、{@value #DEFAULT_MAX_THREADS}スレッドになります.
+ * @author tanabe
+ *
+ */
+public final class LazySmpBenchMain {
+
+    /**
+     * 先読みの手数の規定値です.
+     */
+    private static final int DEFAULT_LEVEL = 9;
+
+    /**
+     * 最大のスレッドの数の規定値です.
+     */
+    private static final int DEFAULT_MAX_THREADS = 16;
+
+    /**
+     * 置換表の大きさ(2のべき乗の指数)です.
+     */
+    private static final int TABLE_SIZE_BITS = 20;
+
+    /**
+     * ナノ秒をミリ秒に変換する値です.
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * 割合を百分率に変換する値です.
+     */
+    private static final double PERCENT = 100.0;
+
+    /**
+     * コンストラクタ.
+     * ユーティリティクラスのため、使用不可.
+     */
+    private LazySmpBenchMain() { }
+
+    /**
+     * プログラムのエントリポイントです.
+     * @param args コマンドライン引数(先読みの手数、最大のスレッドの数)
+     */
+    public static void main(String[] args) {
+
+        int level = DEFAULT_LEVEL;
+        if(args.length > 0) {
+            level = Integer.parseInt(args[0]);
+        }
+        int maxThreads = DEFAULT_MAX_THREADS;
+        if(args.length > 1) {
+            maxThreads = Integer.parseInt(args[1]);
+        }
+
+        List<Board> boards = new ArrayList<Board>();
+        List<Cell> cells = new ArrayList<Cell>();
+        SearchBenchMain.createPositions(boards, cells);
+
+        System.out.println("level = " + level
+                + ", processors = " + Runtime.getRuntime().availableProcessors());
+
+        // 一回目はJITコンパイルのために捨てる
+        measure(1, level, boards, cells, new long[2], new ArrayList<String>());
+
+        List<String> expected = null;
+        long single = 0;
+
+        for(int threads = 1; threads <= maxThreads; threads *= 2) {
+
+            long[] result = new long[2];
+            List<String> moves = new ArrayList<String>();
+            measure(threads, level, boards, cells, result, moves);
+
+            if(threads == 1) {
+                single = result[0];
+                expected = moves;
+            }
+
+            int same = 0;
+            for(int i = 0; i < moves.size(); i++) {
+                if(moves.get(i).equals(expected.get(i))) {
+                    same++;
+                }
+            }
+
+            double speedup = (double)single / result[0];
+            System.out.println(String.format(
+                    "threads %2d: %9.1f ms, %,13d nodes, speedup %5.2f, efficiency %5.1f%%, same move %d/%d",
+                    threads, result[0] / NANOS_PER_MILLI, result[1], speedup,
+                    PERCENT * speedup / threads, same, moves.size()));
+
+        }
+
+    }
+
+    /**
+     * 全ての局面を探索し、探索時間とノード数を求めます.
+     * @param threads スレッドの数
+     * @param level 何手先まで先読みをするかを表す値
+     * @param boards 盤面
+     * @param cells 手番の石
+     * @param result 探索時間(ns)と全てのスレッドの合計のノード数の格納先
+     * @param moves 各局面の最善手の格納先
+     */
+    private static void measure(int threads, int level, List<Board> boards, List<Cell> cells,
+            long[] result, List<String> moves) {
+
+        TranspositionTable table = new TranspositionTable(TABLE_SIZE_BITS, true);
+        LazySmpAlphaBeta search = new LazySmpAlphaBeta(threads, table);
+
+        long elapsed = 0;
+        long nodes = 0;
+
+        for(int i = 0; i < boards.size(); i++) {
+
+            table.clear();
+
+            long start = System.nanoTime();
+            NextMove move = search.search(level, boards.get(i), cells.get(i));
+            elapsed += System.nanoTime() - start;
+
+            nodes += search.getNodeCount();
+            moves.add(String.valueOf(move));
+
+        }
+
+        search.shutdown();
+
+        result[0] = elapsed;
+        result[1] = nodes;
+
+    }
+
+}
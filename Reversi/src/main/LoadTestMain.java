@@ -0,0 +1,446 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import output.NullViewer;
+import ai.AsyncGamePlayer;
+import ai.GamePlayer;
+import ai.MoveFuture;
+import core.Board;
+import core.Cell;
+import core.GameManager;
+import core.NextMove;
+
+/**
+ * 多数のゲームを同時に行った場合の負荷を計測するためのメインクラスです.<br>
+ * 人間の入力を模して、一手ごとに指定時間待つプレイヤー同士のゲームを同時に開始し、
+ * 次の値を表示します.
+ * <ul>
+ * <li>同時に進行できる全てのゲームが最初の手を考えている時点での、
+ *     一ゲームあたりのヒープ使用量とスレッド数</li>
+ * <li>ゲームを開始してから最初の手を考え始めるまでの時間(スケジューリング遅延)</li>
+ * <li>全ゲームが終了するまでの時間</li>
+ * </ul>
+ * 使い方: LoadTestMain [ゲーム数] [一手の待ち時間(ms)] [スレッド数] [async]<br>
+ * スレッド数に0を指定した場合は、ゲームごとにスレッドを生成します({@link GameManager#gameStart()}).
+ * 1以上を指定した場合は、その数のスレッドプールで実行します({@link GameManager#gameStart(java.util.concurrent.Executor)}).<br>
+ * asyncを指定した場合は、待ち時間の間スレッドを占有しない{@link AsyncGamePlayer}同士のゲームを、
+ * その数のスレッドプールで進めます({@link GameManager#gameStartAsync(java.util.concurrent.Executor)}).
+ * @author tanabe
+ *
+ */
+public final class LoadTestMain {
+
+    /**
+     * ゲーム数の規定値です.
+     */
+    private static final int DEFAULT_GAMES = 10000;
+
+    /**
+     * 一手の待ち時間の規定値(ms)です.
+     */
+    private static final int DEFAULT_LATENCY = 20;
+
+    /**
+     * ナノ秒をミリ秒に変換する値です.
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * バイトをキロバイトに変換する値です.
+     */
+    private static final double BYTES_PER_KILOBYTE = 1024.0;
+
+    /**
+     * 全ゲームの開始を待つ時間の上限(秒)です.
+     */
+    private static final int START_TIMEOUT_SECONDS = 60;
+
+    /**
+     * コンストラクタ.
+     * ユーティリティクラスのため、使用不可.
+     */
+    private LoadTestMain() { }
+
+    /**
+     * プログラムのエントリポイントです.
+     * @param args コマンドライン引数(ゲーム数、一手の待ち時間、スレッド数、async)
+     * @throws InterruptedException 計測中に割り込まれた場合に発生
+     */
+    public static void main(String[] args) throws InterruptedException {
+
+        int games = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        int latency = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_LATENCY;
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : 0;
+        boolean async = (args.length > 3) && "async".equalsIgnoreCase(args[3]);   // CHECKSTYLE IGNORE THIS LINE
+
+        ExecutorService executor = null;
+        if(threads > 0) {
+            executor = Executors.newFixedThreadPool(threads);
+        } else if(async) {
+            throw new IllegalArgumentException("asyncを指定する場合はスレッド数を1以上にしてください.");
+        }
+
+        // 待ち時間の経過後に次の手を設定するスレッド
+        ScheduledExecutorService scheduler = null;
+        if(async) {
+            scheduler = Executors.newSingleThreadScheduledExecutor();
+        }
+
+        // 同時に進行できるゲームの数
+        int concurrent = ((threads > 0) && !async) ? Math.min(threads, games) : games;
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long baseMemory = getUsedMemory();
+        int baseThreads = threadBean.getThreadCount();
+
+        Statistics statistics = new Statistics(concurrent);
+        List<GameManager> managers = new ArrayList<GameManager>();
+
+        long start = System.nanoTime();
+
+        for(int i = 0; i < games; i++) {
+
+            long startTime = System.nanoTime();
+            GameManager manager;
+            if(async) {
+                manager = new GameManager(
+                        new AsyncSimulatedPlayer(latency, startTime, statistics, scheduler),
+                        new AsyncSimulatedPlayer(latency, startTime, null, scheduler),
+                        new Board(),
+                        new NullViewer());
+            } else {
+                manager = new GameManager(
+                        new SimulatedPlayer(latency, startTime, statistics),
+                        new SimulatedPlayer(latency, startTime, null),
+                        new Board(),
+                        new NullViewer());
+            }
+            managers.add(manager);
+
+            if(async) {
+                manager.gameStartAsync(executor);
+            } else if(executor == null) {
+                manager.gameStart();
+            } else {
+                manager.gameStart(executor);
+            }
+
+        }
+
+        // 同時に進行できる全てのゲームが始まった時点で計測する
+        boolean allStarted = statistics.awaitStarted(START_TIMEOUT_SECONDS);
+        long usedMemory = getUsedMemory() - baseMemory;
+        int usedThreads = threadBean.getThreadCount() - baseThreads;
+        statistics.release();
+
+        for(GameManager manager : managers) {
+            manager.awaitFinish();
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        if(executor != null) {
+            executor.shutdown();
+        }
+        if(scheduler != null) {
+            scheduler.shutdown();
+        }
+
+        String mode = "thread per game";
+        if(async) {
+            mode = "async on pool of " + threads + " threads";
+        } else if(threads > 0) {
+            mode = "pool of " + threads + " threads";
+        }
+        System.out.println(String.format("games %d, latency %d ms, %s", games, latency, mode));
+        if(!allStarted) {
+            System.out.println("warning: not all games started within " + START_TIMEOUT_SECONDS + " s");
+        }
+        System.out.println(String.format("heap per running game: %.1f KB, threads: %d",
+                usedMemory / BYTES_PER_KILOBYTE / concurrent, usedThreads));
+        statistics.print();
+        System.out.println(String.format("all games finished in %.1f ms", elapsed / NANOS_PER_MILLI));
+
+    }
+
+    /**
+     * ガベージコレクションを行った後のヒープ使用量を取得します.
+     * @return ヒープ使用量(byte)
+     */
+    private static long getUsedMemory() {
+
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++) {    // CHECKSTYLE IGNORE THIS LINE
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+
+    }
+
+    /**
+     * スケジューリング遅延の集計です.
+     * @author tanabe
+     *
+     */
+    private static final class Statistics {
+
+        /** 遅延の合計(ns). */
+        private final AtomicLong total = new AtomicLong();
+        /** 遅延の最大値(ns). */
+        private final AtomicLong max = new AtomicLong();
+        /** 計測したゲームの数. */
+        private final AtomicLong count = new AtomicLong();
+        /** 同時に進行できるゲームの開始を待つラッチ. */
+        private final CountDownLatch started;
+        /** 計測が終わるまでゲームを止めておくラッチ. */
+        private final CountDownLatch measured = new CountDownLatch(1);
+        /** 計測が終わるまで実行を遅らせる処理. */
+        private final List<Runnable> deferred = new ArrayList<Runnable>();
+
+        /**
+         * 集計を生成します.
+         * @param concurrent 同時に進行できるゲームの数
+         */
+        private Statistics(int concurrent) {
+            this.started = new CountDownLatch(concurrent);
+        }
+
+        /**
+         * ゲームの最初の手を考え始めるまでの遅延を追加し、
+         * 同時に進行できるゲームが全て始まって計測が終わるまで待ちます.
+         * @param latency 遅延(ns)
+         */
+        private void add(long latency) {
+
+            this.record(latency);
+
+            try {
+                this.measured.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+        }
+
+        /**
+         * ゲームの最初の手を考え始めるまでの遅延を追加し、
+         * 計測が終わってから指定した処理を実行します.
+         * 呼び出したスレッドは待ちません.
+         * @param latency 遅延(ns)
+         * @param action 計測が終わってから実行する処理
+         */
+        private void add(long latency, Runnable action) {
+
+            this.record(latency);
+
+            synchronized(this.deferred) {
+                if(this.measured.getCount() > 0) {
+                    this.deferred.add(action);
+                    return;
+                }
+            }
+
+            action.run();
+
+        }
+
+        /**
+         * 遅延を記録します.
+         * @param latency 遅延(ns)
+         */
+        private void record(long latency) {
+
+            this.total.addAndGet(latency);
+            this.count.incrementAndGet();
+
+            long current = this.max.get();
+            while((latency > current) && !this.max.compareAndSet(current, latency)) {
+                current = this.max.get();
+            }
+
+            this.started.countDown();
+
+        }
+
+        /**
+         * 計測が終わったので、止めておいたゲームを再開します.
+         */
+        private void release() {
+
+            List<Runnable> actions;
+            synchronized(this.deferred) {
+                this.measured.countDown();
+                actions = new ArrayList<Runnable>(this.deferred);
+                this.deferred.clear();
+            }
+
+            for(Runnable action : actions) {
+                action.run();
+            }
+
+        }
+
+        /**
+         * 同時に進行できるゲームが全て始まるまで待ちます.
+         * @param timeout 待つ時間の上限(秒)
+         * @return 全て始まった場合は<code>true</code>
+         * @throws InterruptedException 待っている間に割り込まれた場合に発生
+         */
+        private boolean awaitStarted(int timeout) throws InterruptedException {
+            return this.started.await(timeout, TimeUnit.SECONDS);
+        }
+
+        /**
+         * 集計結果を表示します.
+         */
+        private void print() {
+
+            long n = Math.max(this.count.get(), 1);
+            System.out.println(String.format("scheduling latency: mean %.2f ms, max %.2f ms",
+                    this.total.get() / NANOS_PER_MILLI / n,
+                    this.max.get() / NANOS_PER_MILLI));
+
+        }
+
+    }
+
+    /**
+     * 一手ごとに指定時間待ってから、最初に見つかった置ける場所に石を置くプレイヤーです.
+     * @author tanabe
+     *
+     */
+    private static final class SimulatedPlayer implements GamePlayer {
+
+        /** 一手の待ち時間(ms). */
+        private final int latency;
+        /** ゲームを開始した時刻(ns). */
+        private final long startTime;
+        /** 遅延を記録する集計.記録しない場合は<code>null</code>. */
+        private Statistics statistics;
+
+        /**
+         * プレイヤーを生成します.
+         * @param latency 一手の待ち時間(ms)
+         * @param startTime ゲームを開始した時刻(ns)
+         * @param statistics 最初の手を考え始めるまでの遅延を記録する集計
+         */
+        private SimulatedPlayer(int latency, long startTime, Statistics statistics) {
+            this.latency = latency;
+            this.startTime = startTime;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public NextMove think(Cell cell, Board board) {
+
+            if(this.statistics != null) {
+                // 最初の手のみ記録する
+                this.statistics.add(System.nanoTime() - this.startTime);
+                this.statistics = null;
+            }
+
+            try {
+                Thread.sleep(this.latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return selectMove(cell, board);
+
+        }
+
+    }
+
+    /**
+     * 一手ごとに指定時間が経過してから、最初に見つかった置ける場所を次の手に設定するプレイヤーです.<br>
+     * 待っている間はスレッドを占有しません.
+     * @author tanabe
+     *
+     */
+    private static final class AsyncSimulatedPlayer implements AsyncGamePlayer {
+
+        /** 一手の待ち時間(ms). */
+        private final int latency;
+        /** ゲームを開始した時刻(ns). */
+        private final long startTime;
+        /** 遅延を記録する集計.記録しない場合は<code>null</code>. */
+        private Statistics statistics;
+        /** 待ち時間の経過後に次の手を設定するスレッド. */
+        private final ScheduledExecutorService scheduler;
+
+        /**
+         * プレイヤーを生成します.
+         * @param latency 一手の待ち時間(ms)
+         * @param startTime ゲームを開始した時刻(ns)
+         * @param statistics 最初の手を考え始めるまでの遅延を記録する集計
+         * @param scheduler 待ち時間の経過後に次の手を設定するスレッド
+         */
+        private AsyncSimulatedPlayer(int latency, long startTime, Statistics statistics,
+                ScheduledExecutorService scheduler) {
+            this.latency = latency;
+            this.startTime = startTime;
+            this.statistics = statistics;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public MoveFuture thinkAsync(Cell cell, Board board) {
+
+            final MoveFuture future = new MoveFuture();
+            final NextMove move = selectMove(cell, board);
+
+            final Runnable schedule = new Runnable() {
+                @Override
+                public void run() {
+                    scheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            future.complete(move);
+                        }
+                    }, latency, TimeUnit.MILLISECONDS);
+                }
+            };
+
+            if(this.statistics != null) {
+                // 最初の手のみ記録する
+                this.statistics.add(System.nanoTime() - this.startTime, schedule);
+                this.statistics = null;
+            } else {
+                schedule.run();
+            }
+
+            return future;
+
+        }
+
+    }
+
+    /**
+     * 最初に見つかった置ける場所を次の手とします.
+     * @param cell 置く石
+     * @param board リバーシの盤面
+     * @return 次の手.置ける場所がない場合は<code>null</code>
+     */
+    private static NextMove selectMove(Cell cell, Board board) {
+
+        long places = board.getPuttablePlaces(cell);
+        if(places == 0) {
+            return null;
+        }
+
+        int index = Long.numberOfTrailingZeros(places);
+        return new NextMove(Board.toX(index), Board.toY(index), cell);
+
+    }
+
+}
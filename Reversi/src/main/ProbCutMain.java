@@ -0,0 +1,400 @@
+package main;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ai.TableReference;
+import ai.minimax.AlphaBeta;
+import ai.minimax.Evaluator;
+import ai.minimax.HeuristicMoveOrdering;
+import ai.minimax.PatternEvaluator;
+import ai.minimax.PatternWeights;
+import ai.minimax.ProbCut;
+import ai.minimax.ProbCutFitter;
+import ai.minimax.SearchMode;
+import ai.minimax.TableEvaluator;
+import ai.minimax.TranspositionTable;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * 教師データの局面から{@link ProbCut}の値を求めるためのメインクラスです.<br>
+ * 教師データのファイル({@link SelfPlayMain}で作成)から、最後まで読み切らない局面を間隔を空けて取り出し、
+ * 一手から指定の手数まで順に探索した評価値の組から、{@link ProbCutFitter}で値を求めます.
+ * 評価関数は{@link SelfPlayMain}と同じく、評価値のファイルがあればパターン、なければテーブルを使用します.
+ * 求めた値には評価関数を記録し、評価関数が異なる場合は使用されないため、
+ * 評価関数を学習し直した場合は、値も求め直して下さい.<br>
+ * {@value #VALIDATION_INTERVAL}局面に一つは値を求めるのに使わず、確認に使用します.
+ * 確認の局面を探索を省略する場合としない場合で探索し、合計のノード数と最善手が一致した割合を表示します.<br>
+ * 局面の探索は複数のスレッドで並列に行います.
+ * 作成したファイルは、作業ディレクトリに{@value ai.minimax.ProbCut#DEFAULT_FILE}として置くか、
+ * システムプロパティ{@value ai.minimax.ProbCut#FILE_PROPERTY}で指定すると使用されます.<br>
+ * 使い方: ProbCutMain 教師データ 出力ファイル [局面数] [最も深い手数] [基準]
+ * @author tanabe
+ *
+ */
+public final class ProbCutMain {
+
+    /**
+     * 必須のコマンドライン引数の数です.
+     */
+    private static final int REQUIRED_ARGS = 2;
+
+    /**
+     * 取り出す局面の数の規定値です.
+     */
+    private static final int DEFAULT_POSITIONS = 2000;
+
+    /**
+     * 最も深い先読みの手数の規定値です.
+     */
+    private static final int DEFAULT_MAX_LEVEL = 8;
+
+    /**
+     * 局面を取り出す間隔です.同じ対局の続いた局面は似ているため、間隔を空けます.
+     */
+    private static final int SAMPLE_INTERVAL = 7;
+
+    /**
+     * 確認に使用する局面の間隔です.
+     */
+    private static final int VALIDATION_INTERVAL = 10;
+
+    /**
+     * 値を求めるのに必要な評価値の組の数です.
+     */
+    private static final int MIN_SAMPLES = 30;
+
+    /**
+     * 値を求める探索で使用する置換表の大きさ(2のべき乗の指数)です.
+     */
+    private static final int FIT_TABLE_SIZE_BITS = 16;
+
+    /**
+     * 確認の探索で使用する置換表の大きさ(2のべき乗の指数)です.
+     */
+    private static final int TABLE_SIZE_BITS = 20;
+
+    /**
+     * ミリ秒を秒に変換する値です.
+     */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /**
+     * コンストラクタ.
+     * ユーティリティクラスのため、使用不可.
+     */
+    private ProbCutMain() { }
+
+    /**
+     * プログラムのエントリポイントです.
+     * @param args コマンドライン引数(教師データ、出力ファイル、局面数、最も深い手数、基準)
+     * @throws InterruptedException 探索の終了を待っている間に割り込まれた場合に発生
+     * @throws ExecutionException 探索中に例外が発生した場合に発生
+     * @throws IOException 教師データを読み込めない場合、または値を書き出せない場合に発生
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
+
+        if(args.length < REQUIRED_ARGS) {
+            System.err.println("Usage: ProbCutMain <data> <output> [positions] [maxDepth] [threshold]");
+            return;
+        }
+
+        File data = new File(args[0]);
+        File output = new File(args[1]);
+        int count = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_POSITIONS;
+        int maxLevel = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_MAX_LEVEL;  // CHECKSTYLE IGNORE THIS LINE
+        double threshold = (args.length > 4)                                               // CHECKSTYLE IGNORE THIS LINE
+                ? Double.parseDouble(args[4]) : ProbCut.DEFAULT_THRESHOLD;                 // CHECKSTYLE IGNORE THIS LINE
+
+        if((maxLevel < ProbCutFitter.MIN_DEPTH) || (maxLevel > ProbCut.MAX_DEPTH)) {
+            System.err.println("maxDepth must be between " + ProbCutFitter.MIN_DEPTH + " and " + ProbCut.MAX_DEPTH);
+            return;
+        }
+
+        List<TrainingData> positions = readPositions(data, count);
+
+        // 評価値のファイルがなければテーブルで評価する
+        PatternWeights weights = PatternWeights.loadDefault();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+
+            long start = System.currentTimeMillis();
+
+            List<TrainingData> validation = new ArrayList<TrainingData>();
+            List<TrainingData> fitting = new ArrayList<TrainingData>();
+            for(int i = 0; i < positions.size(); i++) {
+                if((i % VALIDATION_INTERVAL) == 0) {
+                    validation.add(positions.get(i));
+                } else {
+                    fitting.add(positions.get(i));
+                }
+            }
+
+            List<Future<int[]>> scores = new ArrayList<Future<int[]>>();
+            for(TrainingData position : fitting) {
+                scores.add(executor.submit(new ScoreTask(position, maxLevel, weights)));
+            }
+
+            ProbCutFitter fitter = new ProbCutFitter(weights);
+            for(int i = 0; i < fitting.size(); i++) {
+                int[] values = scores.get(i).get();
+                int empties = fitting.get(i).getBoard().getStoneCount(Cell.NOTHING);
+                for(int level = ProbCutFitter.MIN_DEPTH; level <= maxLevel; level++) {
+                    fitter.add(empties, level, values[level], values[ProbCutFitter.getShallowDepth(level)]);
+                }
+            }
+
+            ProbCut probCut = fitter.fit(threshold, MIN_SAMPLES);
+            probCut.save(output);
+
+            System.out.println(String.format("%d positions, %d depth pairs written to %s (%.1f s)%s",
+                    fitting.size(), probCut.getPairCount(), output,
+                    (System.currentTimeMillis() - start) / MILLIS_PER_SECOND,
+                    (weights != null) ? ", pattern evaluator" : ""));
+
+            validate(executor, validation, maxLevel, weights, probCut);
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+    /**
+     * 教師データから、最後まで読み切らず石を置ける局面を間隔を空けて取り出します.
+     * @param data 教師データのファイル
+     * @param count 取り出す局面の数
+     * @return 取り出した局面
+     * @throws IOException 教師データを読み込めない場合に発生
+     */
+    private static List<TrainingData> readPositions(File data, int count) throws IOException {
+
+        List<TrainingData> positions = new ArrayList<TrainingData>();
+        long index = 0;
+
+        DataInputStream in = TrainingData.open(data);
+        try {
+
+            for(TrainingData position = TrainingData.read(in); (position != null) && (positions.size() < count);
+                    position = TrainingData.read(in)) {
+
+                Board board = position.getBoard();
+                if((board.getStoneCount(Cell.NOTHING) > TableReference.DEFAULT_ENDGAME_EMPTIES)
+                        && (board.getPuttablePlaces(position.getCell()) != 0)
+                        && ((index++ % SAMPLE_INTERVAL) == 0)) {
+                    positions.add(position);
+                }
+
+            }
+
+        } finally {
+            in.close();
+        }
+
+        return positions;
+
+    }
+
+    /**
+     * 確認の局面を、探索を省略する場合としない場合で探索し、結果を表示します.
+     * @param executor 探索を行うスレッド
+     * @param positions 確認の局面
+     * @param maxLevel 先読みの手数
+     * @param weights パターンの評価値.テーブルで評価する場合は<code>null</code>
+     * @param probCut 探索を省略するための値
+     * @throws InterruptedException 探索の終了を待っている間に割り込まれた場合に発生
+     * @throws ExecutionException 探索中に例外が発生した場合に発生
+     */
+    private static void validate(ExecutorService executor, List<TrainingData> positions, int maxLevel,
+            PatternWeights weights, ProbCut probCut) throws InterruptedException, ExecutionException {
+
+        List<Future<String>> fullMoves = new ArrayList<Future<String>>();
+        List<Future<String>> cutMoves = new ArrayList<Future<String>>();
+        long[] fullNodes = new long[1];
+        long[] cutNodes = new long[1];
+
+        long start = System.currentTimeMillis();
+        for(TrainingData position : positions) {
+            fullMoves.add(executor.submit(new SearchTask(position, maxLevel, weights, null, fullNodes)));
+        }
+        for(Future<String> move : fullMoves) {
+            move.get();
+        }
+        long fullTime = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        for(TrainingData position : positions) {
+            cutMoves.add(executor.submit(new SearchTask(position, maxLevel, weights, probCut, cutNodes)));
+        }
+        int same = 0;
+        for(int i = 0; i < positions.size(); i++) {
+            if(cutMoves.get(i).get().equals(fullMoves.get(i).get())) {
+                same++;
+            }
+        }
+        long cutTime = System.currentTimeMillis() - start;
+
+        System.out.println(String.format("validation %d positions, level %d", positions.size(), maxLevel));
+        System.out.println(String.format("  without ProbCut: %,14d nodes, %8.1f s",
+                fullNodes[0], fullTime / MILLIS_PER_SECOND));
+        System.out.println(String.format("  with ProbCut   : %,14d nodes, %8.1f s (%5.1f%% nodes), same move %d/%d",
+                cutNodes[0], cutTime / MILLIS_PER_SECOND,
+                100.0 * cutNodes[0] / Math.max(fullNodes[0], 1),   // CHECKSTYLE IGNORE THIS LINE
+                same, positions.size()));
+
+    }
+
+    /**
+     * 評価関数を生成します.
+     * @param weights パターンの評価値.テーブルで評価する場合は<code>null</code>
+     * @return 評価関数
+     */
+    private static Evaluator createEvaluator(PatternWeights weights) {
+
+        if(weights == null) {
+            return new TableEvaluator();
+        }
+        return new PatternEvaluator(weights);
+
+    }
+
+    /**
+     * 一つの局面を一手から指定の手数まで順に探索し、手数ごとの評価値を求めるタスクです.
+     * @author tanabe
+     *
+     */
+    private static final class ScoreTask implements Callable<int[]> {
+
+        /**
+         * 探索する局面です.
+         */
+        private final TrainingData position;
+
+        /**
+         * 最も深い先読みの手数です.
+         */
+        private final int maxLevel;
+
+        /**
+         * パターンの評価値です.テーブルで評価する場合は<code>null</code>.
+         */
+        private final PatternWeights weights;
+
+        /**
+         * タスクを生成します.
+         * @param position 探索する局面
+         * @param maxLevel 最も深い先読みの手数
+         * @param weights パターンの評価値.テーブルで評価する場合は<code>null</code>
+         */
+        private ScoreTask(TrainingData position, int maxLevel, PatternWeights weights) {
+            this.position = position;
+            this.maxLevel = maxLevel;
+            this.weights = weights;
+        }
+
+        /**
+         * 探索を行います.
+         * @return 手数を添え字とする、手番側から見た評価値
+         */
+        @Override
+        public int[] call() {
+
+            // 省略しない探索で、浅い手数の置換表を深い手数の並べ替えに使う
+            AlphaBeta search = new AlphaBeta(new TranspositionTable(FIT_TABLE_SIZE_BITS),
+                    createEvaluator(this.weights), new HeuristicMoveOrdering(), SearchMode.PRINCIPAL_VARIATION);
+
+            Cell cell = this.position.getCell();
+            int[] values = new int[this.maxLevel + 1];
+            for(int level = 1; level <= this.maxLevel; level++) {
+                search.search(level, this.position.getBoard(), cell);
+                values[level] = (cell == Cell.BLACK) ? search.getValue() : -search.getValue();
+            }
+
+            return values;
+
+        }
+
+    }
+
+    /**
+     * 一つの局面を、{@link ai.TableReference}と同じ探索方法で探索するタスクです.
+     * @author tanabe
+     *
+     */
+    private static final class SearchTask implements Callable<String> {
+
+        /**
+         * 探索する局面です.
+         */
+        private final TrainingData position;
+
+        /**
+         * 先読みの手数です.
+         */
+        private final int level;
+
+        /**
+         * パターンの評価値です.テーブルで評価する場合は<code>null</code>.
+         */
+        private final PatternWeights weights;
+
+        /**
+         * 探索を省略するための値です.省略しない場合は<code>null</code>.
+         */
+        private final ProbCut probCut;
+
+        /**
+         * ノード数の合計の格納先です.
+         */
+        private final long[] nodes;
+
+        /**
+         * タスクを生成します.
+         * @param position 探索する局面
+         * @param level 先読みの手数
+         * @param weights パターンの評価値.テーブルで評価する場合は<code>null</code>
+         * @param probCut 探索を省略するための値.省略しない場合は<code>null</code>
+         * @param nodes ノード数の合計の格納先
+         */
+        private SearchTask(TrainingData position, int level, PatternWeights weights, ProbCut probCut,
+                long[] nodes) {
+            this.position = position;
+            this.level = level;
+            this.weights = weights;
+            this.probCut = probCut;
+            this.nodes = nodes;
+        }
+
+        /**
+         * 探索を行います.
+         * @return 最善手
+         */
+        @Override
+        public String call() {
+
+            AlphaBeta search = new AlphaBeta(new TranspositionTable(TABLE_SIZE_BITS),
+                    createEvaluator(this.weights), new HeuristicMoveOrdering(), SearchMode.ASPIRATION, this.probCut);
+            NextMove move = search.search(this.level, this.position.getBoard(), this.position.getCell());
+
+            synchronized(this.nodes) {
+                this.nodes[0] += search.getNodeCount();
+            }
+
+            return String.valueOf(move);
+
+        }
+
+    }
+
+}
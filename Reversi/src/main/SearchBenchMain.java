@@ -0,0 +1,169 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ai.minimax.AlphaBeta;
+import ai.minimax.ParallelAlphaBeta;
+import core.Board;
+import core.Cell;
+
+/**
+ * 並列探索と単一スレッドの探索の速度を比較するためのメインクラスです.<br>
+ * 乱数で作った中盤の局面を先読みの手数4〜8で探索し、
+ * 一局面あたりの探索時間と速度向上率を表示します.<br>
+ * 第一引数でスレッド数を指定します.省略した場合はプロセッサ数になります.
+ * @author tanabe
+ *
+ */
+public final class SearchBenchMain {
+
+    /**
+     * 計測に使用する局面の数です.
+     */
+    private static final int POSITION_COUNT = 20;
+
+    /**
+     * 局面を生成する乱数の種です.
+     */
+    private static final long SEED = 1L;
+
+    /**
+     * 計測する最も浅い先読みの手数です.
+     */
+    private static final int MIN_LEVEL = 4;
+
+    /**
+     * 計測する最も深い先読みの手数です.
+     */
+    private static final int MAX_LEVEL = 8;
+
+    /**
+     * 局面を作るために進める手数の最小値です.
+     */
+    private static final int MIN_MOVES = 16;
+
+    /**
+     * 局面を作るために進める手数の幅です.
+     */
+    private static final int MOVES_RANGE = 16;
+
+    /**
+     * ナノ秒をミリ秒に変換する値です.
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * コンストラクタ.
+     * ユーティリティクラスのため、使用不可.
+     */
+    private SearchBenchMain() { }
+
+    /**
+     * プログラムのエントリポイントです.
+     * @param args コマンドライン引数(スレッド数)
+     */
+    public static void main(String[] args) {
+
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        if(args.length > 0) {
+            threadCount = Integer.parseInt(args[0]);
+        }
+
+        List<Board> boards = new ArrayList<Board>();
+        List<Cell> cells = new ArrayList<Cell>();
+        createPositions(boards, cells);
+
+        ParallelAlphaBeta parallel = new ParallelAlphaBeta(threadCount);
+
+        System.out.println("threads = " + threadCount
+                + ", processors = " + Runtime.getRuntime().availableProcessors());
+
+        for(int level = MIN_LEVEL; level <= MAX_LEVEL; level++) {
+
+            // 一回目はJITコンパイルのために捨てる
+            measure(level, boards, cells, null);
+            long single = measure(level, boards, cells, null);
+            measure(level, boards, cells, parallel);
+            long multi = measure(level, boards, cells, parallel);
+
+            System.out.println(String.format("level %d: single %.1f ms, parallel %.1f ms, speedup %.2f",
+                    level,
+                    single / NANOS_PER_MILLI / boards.size(),
+                    multi / NANOS_PER_MILLI / boards.size(),
+                    (double)single / multi));
+
+        }
+
+        parallel.shutdown();
+
+    }
+
+    /**
+     * 全ての局面を探索する時間を計測します.
+     * @param level 何手先まで先読みをするかを表す値
+     * @param boards 盤面
+     * @param cells 手番の石
+     * @param parallel 並列探索.<code>null</code>の場合は単一スレッドで探索する
+     * @return 探索時間(ns)
+     */
+    private static long measure(int level, List<Board> boards, List<Cell> cells, ParallelAlphaBeta parallel) {
+
+        long start = System.nanoTime();
+
+        for(int i = 0; i < boards.size(); i++) {
+            if(parallel == null) {
+                new AlphaBeta().search(level, boards.get(i), cells.get(i));
+            } else {
+                parallel.search(level, boards.get(i), cells.get(i));
+            }
+        }
+
+        return System.nanoTime() - start;
+
+    }
+
+    /**
+     * 初期配置から乱数で手を進めた、手番側が石を置ける局面を生成します.<br>
+     * 乱数の種を固定しているため、常に同じ局面になります.他の計測用のクラスからも使用します.
+     * @param boards 生成した盤面を追加するリスト
+     * @param cells 生成した局面の手番を追加するリスト
+     */
+    static void createPositions(List<Board> boards, List<Cell> cells) {
+
+        Random random = new Random(SEED);
+
+        while(boards.size() < POSITION_COUNT) {
+
+            Board board = new Board();
+            board.initStone(3, 3, Cell.WHITE);
+            board.initStone(4, 4, Cell.WHITE);
+            board.initStone(3, 4, Cell.BLACK);
+            board.initStone(4, 3, Cell.BLACK);
+
+            Cell cell = Cell.BLACK;
+            int moves = MIN_MOVES + random.nextInt(MOVES_RANGE);
+
+            for(int i = 0; i < moves; i++) {
+                long places = board.getPuttablePlaces(cell);
+                if(places == 0) {
+                    break;
+                }
+                for(int skip = random.nextInt(Long.bitCount(places)); skip > 0; skip--) {
+                    places &= places - 1;
+                }
+                board.putStone(Long.numberOfTrailingZeros(places), cell);
+                cell = (cell == Cell.BLACK) ? Cell.WHITE : Cell.BLACK;
+            }
+
+            if(board.getPuttablePlaces(cell) != 0) {
+                boards.add(board);
+                cells.add(cell);
+            }
+
+        }
+
+    }
+
+}
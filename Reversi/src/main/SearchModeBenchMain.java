@@ -0,0 +1,138 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.minimax.AlphaBeta;
+import ai.minimax.HeuristicMoveOrdering;
+import ai.minimax.SearchMode;
+import ai.minimax.TableEvaluator;
+import ai.minimax.TranspositionTable;
+import core.Board;
+import core.Cell;
+
+/**
+ * {@link SearchMode}ごとの探索ノード数を比較するためのメインクラスです.<br>
+ * {@link SearchBenchMain}と同じ局面を、置換表を使って一手から指定の手数まで順に探索し(反復深化)、
+ * 全局面の合計のノード数と、{@link SearchMode#FULL_WINDOW}に対する割合、探索時間を表示します.
+ * 置換表は局面ごとに新しく生成します.<br>
+ * どの探索方法でも最善手と評価値は同じになるため、異なる場合はその旨を表示します.<br>
+ * 第一引数で最も深い先読みの手数を指定します.省略した場合は{@value #DEFAULT_MAX_LEVEL}になります.
+ * @author tanabe
+ *
+ */
+public final class SearchModeBenchMain {
+
+    /**
+     * 計測する最も浅い先読みの手数です.
+     */
+    private static final int MIN_LEVEL = 4;
+
+    /**
+     * 計測する最も深い先読みの手数の規定値です.
+     */
+    private static final int DEFAULT_MAX_LEVEL = 10;
+
+    /**
+     * 置換表の大きさ(2のべき乗の指数)です.
+     */
+    private static final int TABLE_SIZE_BITS = 20;
+
+    /**
+     * ナノ秒をミリ秒に変換する値です.
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * コンストラクタ.
+     * ユーティリティクラスのため、使用不可.
+     */
+    private SearchModeBenchMain() { }
+
+    /**
+     * プログラムのエントリポイントです.
+     * @param args コマンドライン引数(最も深い先読みの手数)
+     */
+    public static void main(String[] args) {
+
+        int maxLevel = DEFAULT_MAX_LEVEL;
+        if(args.length > 0) {
+            maxLevel = Integer.parseInt(args[0]);
+        }
+
+        List<Board> boards = new ArrayList<Board>();
+        List<Cell> cells = new ArrayList<Cell>();
+        SearchBenchMain.createPositions(boards, cells);
+
+        // 一回目はJITコンパイルのために捨てる
+        for(SearchMode mode : SearchMode.values()) {
+            measure(MIN_LEVEL, mode, boards, cells, new long[2]);
+        }
+
+        for(int level = MIN_LEVEL; level <= maxLevel; level++) {
+
+            long[] expected = null;
+            long fullNodes = 0;
+
+            for(SearchMode mode : SearchMode.values()) {
+
+                long[] result = new long[2];
+                long start = System.nanoTime();
+                List<String> moves = measure(level, mode, boards, cells, result);
+                long elapsed = System.nanoTime() - start;
+
+                if(mode == SearchMode.FULL_WINDOW) {
+                    fullNodes = result[0];
+                    expected = result;
+                }
+
+                System.out.println(String.format("level %2d %-19s: %,12d nodes (%5.1f%%), %8.1f ms%s",
+                        level, mode, result[0], 100.0 * result[0] / fullNodes,   // CHECKSTYLE IGNORE THIS LINE
+                        elapsed / NANOS_PER_MILLI,
+                        (result[1] == expected[1]) ? "" : ", result differs: " + moves));
+
+            }
+
+        }
+
+    }
+
+    /**
+     * 全ての局面を探索し、ノード数と結果を求めます.
+     * @param level 最も深い先読みの手数
+     * @param mode 探索方法
+     * @param boards 盤面
+     * @param cells 手番の石
+     * @param result 合計のノード数と、最善手と評価値から求めた値の格納先
+     * @return 各局面の最善手と評価値
+     */
+    private static List<String> measure(int level, SearchMode mode, List<Board> boards, List<Cell> cells,
+            long[] result) {
+
+        List<String> moves = new ArrayList<String>();
+        long nodes = 0;
+
+        for(int i = 0; i < boards.size(); i++) {
+
+            AlphaBeta search = new AlphaBeta(new TranspositionTable(TABLE_SIZE_BITS), new TableEvaluator(),
+                    new HeuristicMoveOrdering(), mode);
+
+            // ASPIRATIONは指定の手数の探索でも一手から順に探索するため、他の探索方法も揃える
+            int first = (mode == SearchMode.ASPIRATION) ? level : 1;
+            String move = null;
+            for(int current = first; current <= level; current++) {
+                move = search.search(current, boards.get(i), cells.get(i)) + ":" + search.getValue();
+                nodes += search.getNodeCount();
+            }
+            moves.add(move);
+
+        }
+
+        result[0] = nodes;
+        result[1] = moves.hashCode();
+
+        return moves;
+
+    }
+
+}
@@ -0,0 +1,293 @@
+package main;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import output.NullViewer;
+import ai.GamePlayer;
+import ai.TableReference;
+import ai.minimax.PatternWeights;
+import core.Board;
+import core.Cell;
+import core.GameManager;
+import core.NextMove;
+
+/**
+ * 自己対局から評価値の学習に使用する局面のファイル(教師データ)を作成するためのメインクラスです.<br>
+ * {@link TableReference}同士を表示なしで対局させ、対局中の全ての局面に最終的な石の数の差と対局の番号を付けて書き出します.
+ * 空きマスが{@value #ENDGAME_EMPTIES}以下の局面からは最後まで読み切って打つため、
+ * その局面の石の数の差は正確な値になります.
+ * 同じ対局ばかりにならないように、最初の数手はランダムに打ちます.<br>
+ * 評価値のファイル({@value ai.minimax.PatternWeights#DEFAULT_FILE})があれば、
+ * その評価値で先読みするため、学習と対局を繰り返して評価値を改善できます.
+ * 対局は複数のスレッドで並列に行い、終わった対局から順に書き出します.<br>
+ * 使い方: SelfPlayMain 出力ファイル 対局数 [スレッド数]
+ * @author tanabe
+ *
+ */
+public final class SelfPlayMain {
+
+    /**
+     * 必須のコマンドライン引数の数です.
+     */
+    private static final int REQUIRED_ARGS = 2;
+
+    /**
+     * ランダムに打つ手数です.
+     */
+    private static final int RANDOM_PLIES = 8;
+
+    /**
+     * 対局の乱数の種です.
+     */
+    private static final long SEED = 20150601L;
+
+    /**
+     * 最後まで読み切る空きマスの数です.
+     */
+    private static final int ENDGAME_EMPTIES = TableReference.DEFAULT_ENDGAME_EMPTIES;
+
+    /**
+     * ミリ秒を秒に変換する値です.
+     */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /**
+     * コンストラクタ.
+     * ユーティリティクラスのため、使用不可.
+     */
+    private SelfPlayMain() { }
+
+    /**
+     * プログラムのエントリポイントです.
+     * @param args コマンドライン引数(出力ファイル、対局数、スレッド数)
+     * @throws InterruptedException 対局の終了を待っている間に割り込まれた場合に発生
+     * @throws ExecutionException 対局中に例外が発生した場合に発生
+     * @throws IOException 教師データを書き出せない場合に発生
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
+
+        if(args.length < REQUIRED_ARGS) {
+            System.err.println("Usage: SelfPlayMain <output> <games> [threads]");
+            return;
+        }
+
+        File output = new File(args[0]);
+        int games = Integer.parseInt(args[1]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        if(args.length > REQUIRED_ARGS) {
+            threads = Integer.parseInt(args[REQUIRED_ARGS]);
+        }
+
+        // 評価値のファイルがなければテーブルで評価する
+        PatternWeights weights = PatternWeights.loadDefault();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<NextMove>>> futures = new ArrayList<Future<List<NextMove>>>();
+
+        long start = System.currentTimeMillis();
+
+        for(int i = 0; i < games; i++) {
+            futures.add(executor.submit(new GameTask(SEED + i, weights)));
+        }
+
+        int written = 0;
+        long positions = 0;
+        DataOutputStream out = TrainingData.create(output);
+        try {
+            for(int i = 0; i < futures.size(); i++) {
+                List<NextMove> record = futures.get(i).get();
+                // 書き出した対局の記録は保持しない
+                futures.set(i, null);
+                if(record != null) {
+                    positions += writeGame(out, written, record);
+                    written++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+
+        System.out.println(String.format("%d games, %d positions written to %s (%.1f s)%s",
+                written, positions, output, elapsed / MILLIS_PER_SECOND,
+                (weights != null) ? ", pattern evaluator" : ""));
+
+    }
+
+    /**
+     * 一局分の局面を書き出します.
+     * @param out 書き出し先のストリーム
+     * @param game 対局の番号
+     * @param record 対局の記録
+     * @return 書き出した局面の数
+     * @throws IOException 書き出せない場合に発生
+     */
+    private static int writeGame(DataOutputStream out, int game, List<NextMove> record) throws IOException {
+
+        // 最終的な石の数の差を求めるため、一度最後まで進める
+        Board board = createInitialBoard();
+        for(NextMove move : record) {
+            board.putStone(move.getX(), move.getY(), move.getStone());
+        }
+        int result = getResult(board);
+
+        board = createInitialBoard();
+        for(NextMove move : record) {
+            TrainingData.write(out, game, board, move.getStone(), result);
+            board.putStone(move.getX(), move.getY(), move.getStone());
+        }
+
+        return record.size();
+
+    }
+
+    /**
+     * 終局した盤面から、黒から見た石の数の差を求めます.
+     * 空きマスは勝った側の石として数えます.
+     * @param board 終局した盤面
+     * @return 石の数の差
+     */
+    private static int getResult(Board board) {
+
+        int result = board.getStoneCount(Cell.BLACK) - board.getStoneCount(Cell.WHITE);
+        int empties = board.getStoneCount(Cell.NOTHING);
+
+        if(result > 0) {
+            result += empties;
+        } else if(result < 0) {
+            result -= empties;
+        }
+
+        return result;
+
+    }
+
+    /**
+     * 初期配置の盤面を生成します.
+     * @return 盤面
+     */
+    private static Board createInitialBoard() {
+
+        Board board = new Board();
+        board.initStone(3, 3, Cell.WHITE);  // CHECKSTYLE IGNORE THIS LINE
+        board.initStone(4, 4, Cell.WHITE);  // CHECKSTYLE IGNORE THIS LINE
+        board.initStone(3, 4, Cell.BLACK);  // CHECKSTYLE IGNORE THIS LINE
+        board.initStone(4, 3, Cell.BLACK);  // CHECKSTYLE IGNORE THIS LINE
+        return board;
+
+    }
+
+    /**
+     * 一局分の自己対局を行うタスクです.
+     * @author tanabe
+     *
+     */
+    private static final class GameTask implements Callable<List<NextMove>> {
+
+        /**
+         * 最初の数手を選ぶ乱数の種です.
+         */
+        private final long seed;
+
+        /**
+         * 先読みで使用するパターンの評価値です.テーブルで評価する場合は<code>null</code>.
+         */
+        private final PatternWeights weights;
+
+        /**
+         * タスクを生成します.
+         * @param seed 最初の数手を選ぶ乱数の種
+         * @param weights 先読みで使用するパターンの評価値.テーブルで評価する場合は<code>null</code>
+         */
+        private GameTask(long seed, PatternWeights weights) {
+            this.seed = seed;
+            this.weights = weights;
+        }
+
+        /**
+         * 対局を行います.
+         * @return 対局の記録.中断された場合は<code>null</code>
+         */
+        @Override
+        public List<NextMove> call() {
+
+            Random random = new Random(this.seed);
+            GameManager manager = new GameManager(
+                    new RandomOpeningPlayer(random, this.weights),
+                    new RandomOpeningPlayer(random, this.weights),
+                    new Board(),
+                    new NullViewer());
+
+            // 対局用のスレッドは作らず、このスレッドで最後まで進める
+            manager.run();
+
+            if(manager.isStopped()) {
+                return null;
+            }
+
+            return manager.getGameRecord();
+
+        }
+
+    }
+
+    /**
+     * 最初の数手をランダムに打ち、その後は{@link TableReference}で打つプレイヤーです.
+     * @author tanabe
+     *
+     */
+    private static final class RandomOpeningPlayer implements GamePlayer {
+
+        /**
+         * 最初の数手を選ぶ乱数です.
+         */
+        private final Random random;
+
+        /**
+         * ランダムに打った後に使用するプレイヤーです.
+         */
+        private final TableReference player;
+
+        /**
+         * プレイヤーを生成します.
+         * @param random 最初の数手を選ぶ乱数
+         * @param weights 先読みで使用するパターンの評価値.テーブルで評価する場合は<code>null</code>
+         */
+        private RandomOpeningPlayer(Random random, PatternWeights weights) {
+            this.random = random;
+            this.player = new TableReference(0, ENDGAME_EMPTIES, false, null, weights);
+        }
+
+        @Override
+        public NextMove think(Cell cell, Board board) {
+
+            long places = board.getPuttablePlaces(cell);
+            int played = board.getStoneCount(Cell.BLACK) + board.getStoneCount(Cell.WHITE) - 4; // CHECKSTYLE IGNORE THIS LINE
+
+            if((places == 0) || (played >= RANDOM_PLIES)) {
+                return this.player.think(cell, board);
+            }
+
+            for(int skip = this.random.nextInt(Long.bitCount(places)); skip > 0; skip--) {
+                places &= places - 1;
+            }
+            int index = Long.numberOfTrailingZeros(places);
+            return new NextMove(Board.toX(index), Board.toY(index), cell);
+
+        }
+
+    }
+
+}
@@ -0,0 +1,300 @@
+package main;
+
+import input.ConsoleSelector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import output.NullViewer;
+import ai.GamePlayer;
+import ai.PlayerFactory;
+import core.Board;
+import core.Cell;
+import core.GameManager;
+
+/**
+ * 二種類のプレイヤーを表示なしで繰り返し対局させるためのメインクラスです.<br>
+ * プレイヤーの待ち時間は0msとし、対局は複数のスレッドで並列に行います.
+ * 先手と後手は一局ごとに入れ替えます.<br>
+ * 全ての対局が終わったら、一人目のプレイヤーから見た勝ち、引き分け、負けの数、
+ * 石の数の差の平均と標準偏差、一秒あたりの対局数を表示します.<br>
+ * 使い方: TournamentMain プレイヤー1 プレイヤー2 対局数 [スレッド数]<br>
+ * プレイヤーはRANDOM、TABLE、MAXIMUM、MCTSのいずれか、または{@link PlayerFactory}の番号で指定します.
+ * @author tanabe
+ *
+ */
+public final class TournamentMain {
+
+    /**
+     * プレイヤーの名前です.添字が{@link PlayerFactory}の番号に対応します.
+     */
+    private static final String[] PLAYER_NAMES = {"HUMAN", "RANDOM", "TABLE", "MAXIMUM", "MCTS"};
+
+    /**
+     * 必須のコマンドライン引数の数です.
+     */
+    private static final int REQUIRED_ARGS = 3;
+
+    /**
+     * ミリ秒を秒に変換する値です.
+     */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /**
+     * コンストラクタ.
+     * ユーティリティクラスのため、使用不可.
+     */
+    private TournamentMain() { }
+
+    /**
+     * プログラムのエントリポイントです.
+     * @param args コマンドライン引数(プレイヤー1、プレイヤー2、対局数、スレッド数)
+     * @throws InterruptedException 対局の終了を待っている間に割り込まれた場合に発生
+     * @throws ExecutionException 対局中に例外が発生した場合に発生
+     */
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+
+        if(args.length < REQUIRED_ARGS) {
+            System.err.println("Usage: TournamentMain <player1> <player2> <games> [threads]");
+            System.err.println("  player: RANDOM, TABLE, MAXIMUM, MCTS");
+            return;
+        }
+
+        int player1 = parsePlayerType(args[0]);
+        int player2 = parsePlayerType(args[1]);
+        int games = Integer.parseInt(args[2]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        if(args.length > REQUIRED_ARGS) {
+            threads = Integer.parseInt(args[REQUIRED_ARGS]);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<GameResult>> futures = new ArrayList<Future<GameResult>>();
+
+        long start = System.currentTimeMillis();
+
+        for(int i = 0; i < games; i++) {
+            // 偶数番目はプレイヤー1が先手、奇数番目はプレイヤー2が先手
+            futures.add(executor.submit(new GameTask(player1, player2, (i % 2) == 0)));
+        }
+
+        Statistics statistics = new Statistics();
+        try {
+            for(Future<GameResult> future : futures) {
+                statistics.add(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+
+        System.out.println(PLAYER_NAMES[player1] + " vs " + PLAYER_NAMES[player2]
+                + " (" + games + " games, " + threads + " threads)");
+        statistics.print(elapsed);
+
+    }
+
+    /**
+     * プレイヤーの名前または番号から、{@link PlayerFactory}の番号を求めます.
+     * @param text プレイヤーの名前または番号
+     * @return プレイヤーを表す番号
+     * @throws IllegalArgumentException 対応するプレイヤーがない場合、または人間のプレイヤーを指定した場合に発生
+     */
+    private static int parsePlayerType(String text) {
+
+        int type = -1;
+
+        for(int i = 0; i < PLAYER_NAMES.length; i++) {
+            if(PLAYER_NAMES[i].equalsIgnoreCase(text) || String.valueOf(i).equals(text)) {
+                type = i;
+            }
+        }
+
+        if(type < 0) {
+            throw new IllegalArgumentException("対応するプレイヤーがありません.player = " + text);
+        }
+        if(type == PlayerFactory.HUMAN) {
+            throw new IllegalArgumentException("人間のプレイヤーは対局させられません.");
+        }
+
+        return type;
+
+    }
+
+    /**
+     * 一局分の対局結果です.
+     * @author tanabe
+     *
+     */
+    private static final class GameResult {
+
+        /**
+         * プレイヤー1から見た石の数の差です.
+         */
+        private final int difference;
+
+        /**
+         * 対局が中断されたかを表すフラグです.
+         */
+        private final boolean stopped;
+
+        /**
+         * 対局結果を生成します.
+         * @param difference プレイヤー1から見た石の数の差
+         * @param stopped 対局が中断された場合は<code>true</code>
+         */
+        private GameResult(int difference, boolean stopped) {
+            this.difference = difference;
+            this.stopped = stopped;
+        }
+
+    }
+
+    /**
+     * 一局分の対局を行うタスクです.
+     * プレイヤーは対局ごとに生成し、他の対局と共有しません.
+     * @author tanabe
+     *
+     */
+    private static final class GameTask implements Callable<GameResult> {
+
+        /**
+         * プレイヤー1を表す番号です.
+         */
+        private final int player1;
+
+        /**
+         * プレイヤー2を表す番号です.
+         */
+        private final int player2;
+
+        /**
+         * プレイヤー1が先手かを表すフラグです.
+         */
+        private final boolean player1First;
+
+        /**
+         * タスクを生成します.
+         * @param player1 プレイヤー1を表す番号
+         * @param player2 プレイヤー2を表す番号
+         * @param player1First プレイヤー1が先手なら<code>true</code>
+         */
+        private GameTask(int player1, int player2, boolean player1First) {
+            this.player1 = player1;
+            this.player2 = player2;
+            this.player1First = player1First;
+        }
+
+        /**
+         * 対局を行います.
+         * @return 対局結果
+         */
+        @Override
+        public GameResult call() {
+
+            // 人間のプレイヤーは生成しないため、入力は使用されない
+            PlayerFactory factory = new PlayerFactory(new ConsoleSelector());
+            GamePlayer p1 = factory.create(this.player1);
+            GamePlayer p2 = factory.create(this.player2);
+
+            Board board = new Board();
+            GameManager manager;
+            if(this.player1First) {
+                manager = new GameManager(p1, p2, board, new NullViewer());
+            } else {
+                manager = new GameManager(p2, p1, board, new NullViewer());
+            }
+
+            // 対局用のスレッドは作らず、このスレッドで最後まで進める
+            manager.run();
+
+            // 先手は黒
+            Cell cell = this.player1First ? Cell.BLACK : Cell.WHITE;
+            Cell opponent = this.player1First ? Cell.WHITE : Cell.BLACK;
+            int difference = board.getStoneCount(cell) - board.getStoneCount(opponent);
+
+            return new GameResult(difference, manager.isStopped());
+
+        }
+
+    }
+
+    /**
+     * 対局結果の集計です.
+     * @author tanabe
+     *
+     */
+    private static final class Statistics {
+
+        /** 勝った数. */
+        private int wins;
+        /** 引き分けの数. */
+        private int draws;
+        /** 負けた数. */
+        private int losses;
+        /** 中断された数. */
+        private int stopped;
+        /** 石の数の差の合計. */
+        private long differenceSum;
+        /** 石の数の差の二乗の合計. */
+        private long differenceSquareSum;
+
+        /**
+         * 対局結果を追加します.中断された対局は勝敗に含めません.
+         * @param result 対局結果
+         */
+        private void add(GameResult result) {
+
+            if(result.stopped) {
+                this.stopped++;
+                return;
+            }
+
+            if(result.difference > 0) {
+                this.wins++;
+            } else if(result.difference < 0) {
+                this.losses++;
+            } else {
+                this.draws++;
+            }
+            this.differenceSum += result.difference;
+            this.differenceSquareSum += (long)result.difference * result.difference;
+
+        }
+
+        /**
+         * 集計結果を表示します.
+         * @param elapsed 全ての対局にかかった時間(ms)
+         */
+        private void print(long elapsed) {
+
+            int count = this.wins + this.draws + this.losses;
+            double mean = 0.0;
+            double deviation = 0.0;
+            if(count > 0) {
+                mean = (double)this.differenceSum / count;
+                deviation = Math.sqrt(Math.max(0.0, (double)this.differenceSquareSum / count - mean * mean));
+            }
+            double seconds = Math.max(elapsed, 1) / MILLIS_PER_SECOND;
+
+            System.out.println(String.format("win %d / draw %d / loss %d (win rate %.1f%%)",
+                    this.wins, this.draws, this.losses,
+                    (count > 0) ? (this.wins + this.draws * 0.5) * 100.0 / count : 0.0));   // CHECKSTYLE IGNORE THIS LINE
+            System.out.println(String.format("disc difference: mean %+.2f, stddev %.2f", mean, deviation));
+            if(this.stopped > 0) {
+                System.out.println("stopped: " + this.stopped);
+            }
+            System.out.println(String.format("elapsed %.2f s, %.1f games/s",
+                    seconds, (count + this.stopped) / seconds));
+
+        }
+
+    }
+
+}
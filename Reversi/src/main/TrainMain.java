@@ -0,0 +1,137 @@
+package main;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import ai.minimax.PatternTrainer;
+import ai.minimax.PatternWeights;
+import core.Board;
+
+/**
+ * 教師データから{@link ai.minimax.PatternEvaluator}の評価値を学習するためのメインクラスです.<br>
+ * 教師データのファイル({@link SelfPlayMain}で作成)を先頭から順に読みながら評価値を更新し、
+ * これを指定の回数(エポック数)繰り返します.局面はメモリに保持しないため、局面の数に制限はありません.
+ * 同じ局面からもパターンの向きが偏らないように、局面は読み込むたびに異なる向きに対称変換して学習します.<br>
+ * {@value #VALIDATION_INTERVAL}局に一局は学習に使わず、その対局の局面を予測の誤差の確認に使用します.
+ * 同じ対局の局面は似ているため、対局単位で分けないと確認の誤差が実際より小さくなります.
+ * エポックごとに、学習と確認の局面での誤差(石の数の差の二乗平均平方根)を表示します.<br>
+ * 作成したファイルは、作業ディレクトリに{@value ai.minimax.PatternWeights#DEFAULT_FILE}として置くか、
+ * システムプロパティ{@value ai.minimax.PatternWeights#FILE_PROPERTY}で指定すると使用されます.<br>
+ * 使い方: TrainMain 教師データ 出力ファイル [エポック数] [学習率]
+ * @author tanabe
+ *
+ */
+public final class TrainMain {
+
+    /**
+     * 必須のコマンドライン引数の数です.
+     */
+    private static final int REQUIRED_ARGS = 2;
+
+    /**
+     * エポック数の規定値です.
+     */
+    private static final int DEFAULT_EPOCHS = 8;
+
+    /**
+     * 学習率の規定値です.
+     */
+    private static final double DEFAULT_RATE = 0.05;
+
+    /**
+     * エポックごとに学習率に掛ける値です.
+     */
+    private static final double RATE_DECAY = 0.7;
+
+    /**
+     * 誤差の確認に使用する対局の間隔です.
+     */
+    private static final int VALIDATION_INTERVAL = 10;
+
+    /**
+     * ミリ秒を秒に変換する値です.
+     */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /**
+     * コンストラクタ.
+     * ユーティリティクラスのため、使用不可.
+     */
+    private TrainMain() { }
+
+    /**
+     * プログラムのエントリポイントです.
+     * @param args コマンドライン引数(教師データ、出力ファイル、エポック数、学習率)
+     * @throws IOException 教師データを読み込めない場合、または評価値を書き出せない場合に発生
+     */
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < REQUIRED_ARGS) {
+            System.err.println("Usage: TrainMain <data> <output> [epochs] [rate]");
+            return;
+        }
+
+        File data = new File(args[0]);
+        File output = new File(args[1]);
+        int epochs = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_EPOCHS;
+        double rate = (args.length > 3) ? Double.parseDouble(args[3]) : DEFAULT_RATE;  // CHECKSTYLE IGNORE THIS LINE
+
+        PatternTrainer trainer = new PatternTrainer(rate);
+
+        for(int epoch = 0; epoch < epochs; epoch++) {
+
+            long start = System.currentTimeMillis();
+            trainer.setRate(rate);
+
+            long count = 0;
+            long trainCount = 0;
+            double trainError = 0.0;
+            long testCount = 0;
+            double testError = 0.0;
+
+            DataInputStream in = TrainingData.open(data);
+            try {
+
+                for(TrainingData position = TrainingData.read(in); position != null;
+                        position = TrainingData.read(in)) {
+
+                    if((position.getGame() % VALIDATION_INTERVAL) == 0) {
+                        double error = position.getResult() - trainer.predict(position.getBoard(), position.getCell());
+                        testError += error * error;
+                        testCount++;
+                    } else {
+                        int symmetry = (int)((count + epoch) % Board.SYMMETRY_COUNT);
+                        Board board = position.getBoard().getTransformed(symmetry);
+                        double error = trainer.train(board, position.getCell(), position.getResult());
+                        trainError += error * error;
+                        trainCount++;
+                    }
+                    count++;
+
+                }
+
+            } finally {
+                in.close();
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+
+            System.out.println(String.format("epoch %d: %d positions, rate %.4f, train rmse %.3f, test rmse %.3f (%.1f s)",
+                    epoch + 1, count, rate,
+                    Math.sqrt(trainError / Math.max(trainCount, 1)),
+                    Math.sqrt(testError / Math.max(testCount, 1)),
+                    elapsed / MILLIS_PER_SECOND));
+
+            rate *= RATE_DECAY;
+
+        }
+
+        PatternWeights weights = trainer.getWeights();
+        weights.save(output);
+
+        System.out.println("weights written to " + output);
+
+    }
+
+}
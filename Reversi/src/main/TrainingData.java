@@ -0,0 +1,209 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import core.Board;
+import core.Cell;
+
+/**
+ * 評価値の学習に使用する局面のファイル(教師データ)を読み書きするクラスです.<br>
+ * {@link SelfPlayMain}で書き出し、{@link TrainMain}で先頭から順に読み込みます.
+ * ファイルの形式は次のとおりです.数値はビッグエンディアンです.
+ * <ul>
+ * <li>ヘッダー: 識別子(int)、バージョン(int)</li>
+ * <li>局面: 対局の番号(int)、黒石の位置(long)、白石の位置(long)、手番(byte、黒は0、白は1)、
+ * 黒から見た最終的な石の数の差(byte)</li>
+ * </ul>
+ * 対局の番号はファイルの先頭の対局から0、1、2…と数えた値で、同じ対局の局面は続けて書き出します.
+ * @author tanabe
+ *
+ */
+final class TrainingData {
+
+    /**
+     * 教師データのファイルを表す識別子です.
+     */
+    private static final int MAGIC = 0x52565444;
+
+    /**
+     * ファイル形式のバージョンです.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * 盤面のマス目の数です.
+     */
+    private static final int SQUARE_COUNT = 64;
+
+    /**
+     * 局面を含む対局の番号です.
+     */
+    private final int game;
+
+    /**
+     * 局面の盤面です.
+     */
+    private final Board board;
+
+    /**
+     * 局面の手番です.
+     */
+    private final Cell cell;
+
+    /**
+     * 黒から見た最終的な石の数の差です.
+     */
+    private final int result;
+
+
+    /**
+     * 局面を生成します.
+     * @param game 局面を含む対局の番号
+     * @param board 盤面
+     * @param cell 手番
+     * @param result 黒から見た最終的な石の数の差
+     */
+    private TrainingData(int game, Board board, Cell cell, int result) {
+        this.game = game;
+        this.board = board;
+        this.cell = cell;
+        this.result = result;
+    }
+
+
+    /**
+     * 局面を含む対局の番号を取得します.
+     * @return ファイルの先頭の対局を0とした対局の番号
+     */
+    int getGame() {
+        return this.game;
+    }
+
+
+    /**
+     * 局面の盤面を取得します.
+     * @return 盤面
+     */
+    Board getBoard() {
+        return this.board;
+    }
+
+
+    /**
+     * 局面の手番を取得します.
+     * @return 次に置く石
+     */
+    Cell getCell() {
+        return this.cell;
+    }
+
+
+    /**
+     * 黒から見た最終的な石の数の差を取得します.
+     * @return 石の数の差
+     */
+    int getResult() {
+        return this.result;
+    }
+
+
+    /**
+     * 教師データのファイルを作成し、ヘッダーを書き出します.
+     * @param file 出力先のファイル
+     * @return 局面を書き出すストリーム
+     * @throws IOException ファイルを作成できない場合に発生
+     */
+    static DataOutputStream create(File file) throws IOException {
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        return out;
+
+    }
+
+
+    /**
+     * 局面を書き出します.
+     * @param out 書き出し先のストリーム
+     * @param game 局面を含む対局の番号
+     * @param board 盤面
+     * @param cell 手番
+     * @param result 黒から見た最終的な石の数の差
+     * @throws IOException 書き出せない場合に発生
+     */
+    static void write(DataOutputStream out, int game, Board board, Cell cell, int result) throws IOException {
+
+        out.writeInt(game);
+        out.writeLong(board.getBitBoard(Cell.BLACK));
+        out.writeLong(board.getBitBoard(Cell.WHITE));
+        out.writeByte((cell == Cell.BLACK) ? 0 : 1);
+        out.writeByte(result);
+
+    }
+
+
+    /**
+     * 教師データのファイルを開き、ヘッダーを確認します.
+     * @param file 教師データのファイル
+     * @return 局面を読み込むストリーム
+     * @throws IOException ファイルを読み込めない場合、または教師データのファイルではないか形式が古い場合に発生
+     */
+    static DataInputStream open(File file) throws IOException {
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+                throw new IOException("教師データのファイルではないか、形式が古いため作成し直して下さい.file = " + file);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+
+    }
+
+
+    /**
+     * 次の局面を読み込みます.
+     * @param in 読み込み元のストリーム
+     * @return 局面.ファイルの終わりに達した場合は<code>null</code>
+     * @throws IOException 読み込めない場合、または局面の途中でファイルが終わっている場合に発生
+     */
+    static TrainingData read(DataInputStream in) throws IOException {
+
+        int game;
+        try {
+            game = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+
+        long black = in.readLong();
+        long white = in.readLong();
+        Cell cell = (in.readByte() == 0) ? Cell.BLACK : Cell.WHITE;
+        int result = in.readByte();
+
+        Board board = new Board();
+        for(int index = 0; index < SQUARE_COUNT; index++) {
+            if((black & (1L << index)) != 0) {
+                board.initStone(Board.toX(index), Board.toY(index), Cell.BLACK);
+            } else if((white & (1L << index)) != 0) {
+                board.initStone(Board.toX(index), Board.toY(index), Cell.WHITE);
+            }
+        }
+
+        return new TrainingData(game, board, cell, result);
+
+    }
+
+}
@@ -0,0 +1,31 @@
+package output;
+
+import core.Board;
+
+/**
+ * ゲームの情報を何も表示しないクラスです.<br>
+ * 対局を大量に繰り返す場合など、表示が不要な場合に使用します.
+ * @author tanabe
+ *
+ */
+public class NullViewer implements GameViewer {
+
+    /**
+     * {@inheritDoc} 何も表示しません.
+     * @param board {@inheritDoc}
+     */
+    @Override
+    public void view(Board board) {
+        // 何もしない
+    }
+
+    /**
+     * {@inheritDoc} 何も表示しません.
+     * @param message {@inheritDoc}
+     */
+    @Override
+    public void view(String message) {
+        // 何もしない
+    }
+
+}
@@ -0,0 +1,107 @@
+package ai.mcts;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import bench.PositionCorpus;
+import core.Board;
+import core.Cell;
+
+/**
+ * モンテカルロ木探索のベンチマークです.<br>
+ * プレイアウト単体の速さと、スレッドの数ごとの一定回数のプレイアウトを行う探索の速さを計測します.
+ * 探索の一回あたりの時間から、一秒あたりのプレイアウトの回数とスレッドの数による伸びを求められます.
+ * @author tanabe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UctSearchBenchmark {
+
+    /**
+     * 一局面あたりのプレイアウトの回数です.
+     */
+    private static final int PLAYOUTS = 20000;
+
+    /**
+     * 乱数の種です.
+     */
+    private static final long SEED = 20150701L;
+
+    /**
+     * 探索に使用するスレッドの数です.JMHが値を設定するため、publicにしています.
+     */
+    @Param({"1", "2", "4"})
+    public int threads;     // CHECKSTYLE IGNORE THIS LINE
+
+    /**
+     * 局面の集合です.
+     */
+    private PositionCorpus corpus;
+
+    /**
+     * プレイアウトで使用する乱数です.
+     */
+    private UctSearch.XorShift random;
+
+    /**
+     * 局面の集合を生成します.
+     */
+    @Setup
+    public void setup() {
+        this.corpus = new PositionCorpus();
+        this.random = new UctSearch.XorShift(SEED);
+    }
+
+    /**
+     * 全局面から一回ずつプレイアウトを行います.スレッドの数には関係しません.
+     * @return 勝ち点の合計
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int playout() {
+
+        int points = 0;
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            Board board = this.corpus.getBoard(i);
+            Cell cell = this.corpus.getCell(i);
+            Cell opponent = (cell == Cell.BLACK) ? Cell.WHITE : Cell.BLACK;
+            points += UctSearch.playout(board.getBitBoard(cell), board.getBitBoard(opponent), this.random);
+        }
+
+        return points;
+
+    }
+
+    /**
+     * 全局面を、一局面あたり{@value #PLAYOUTS}回のプレイアウトで探索します.
+     * @param blackhole 結果の破棄先
+     */
+    @Benchmark
+    public void search(Blackhole blackhole) {
+
+        UctSearch search = new UctSearch(UctSearch.DEFAULT_EXPLORATION, this.threads);
+        for(int i = 0; i < this.corpus.size(); i++) {
+            blackhole.consume(search.search(this.corpus.getBoard(i), this.corpus.getCell(i), PLAYOUTS, 0));
+        }
+
+    }
+
+}
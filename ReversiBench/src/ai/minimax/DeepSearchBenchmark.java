@@ -0,0 +1,110 @@
+package ai.minimax;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import bench.PositionCorpus;
+
+/**
+ * アルファベータ法による深い探索のベンチマークです.<br>
+ * {@link PositionCorpus}の全局面で最善手を一回ずつ探索します.
+ * 置換表は局面ごとに消去し、前の局面の結果を持ち越さないようにします.
+ * @author tanabe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DeepSearchBenchmark {
+
+    /**
+     * 置換表の大きさ(2のべき乗の指数)です.
+     */
+    private static final int TABLE_SIZE_BITS = 18;
+
+    /**
+     * 先読みの手数です.JMHが値を設定するため、publicにしています.
+     */
+    @Param({"6", "8"})
+    public int level;   // CHECKSTYLE IGNORE THIS LINE
+
+    /**
+     * 局面の集合です.
+     */
+    private PositionCorpus corpus;
+
+    /**
+     * 置換表です.
+     */
+    private TranspositionTable table;
+
+    /**
+     * 局面の集合と置換表を生成します.
+     */
+    @Setup
+    public void setup() {
+        this.corpus = new PositionCorpus();
+        this.table = new TranspositionTable(TABLE_SIZE_BITS);
+    }
+
+    /**
+     * 置換表を使わずに全局面を探索します.
+     * @param blackhole 結果の破棄先
+     */
+    @Benchmark
+    public void alphaBeta(Blackhole blackhole) {
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            blackhole.consume(AlphaBeta.getNextMove(this.level, this.corpus.getBoard(i), this.corpus.getCell(i)));
+        }
+
+    }
+
+    /**
+     * 置換表を使って全局面を探索します.
+     * @param blackhole 結果の破棄先
+     */
+    @Benchmark
+    public void alphaBetaWithTable(Blackhole blackhole) {
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            this.table.clear();
+            AlphaBeta search = new AlphaBeta(this.table);
+            blackhole.consume(search.search(this.level, this.corpus.getBoard(i), this.corpus.getCell(i)));
+        }
+
+    }
+
+
+    /**
+     * 手の並べ替えを置換表の最善手だけにして、全局面を探索します.
+     * 手の並べ替えの効果の比較に使用します.
+     * @param blackhole 結果の破棄先
+     */
+    @Benchmark
+    public void alphaBetaWithSimpleOrdering(Blackhole blackhole) {
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            this.table.clear();
+            AlphaBeta search = new AlphaBeta(this.table, new TableEvaluator(), new SimpleMoveOrdering());
+            blackhole.consume(search.search(this.level, this.corpus.getBoard(i), this.corpus.getCell(i)));
+        }
+
+    }
+
+}
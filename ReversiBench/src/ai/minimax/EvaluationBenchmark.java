@@ -0,0 +1,62 @@
+package ai.minimax;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.PositionCorpus;
+
+/**
+ * 末端の局面の評価({@link Leaf#evaluate(core.Board, core.Cell)})のベンチマークです.<br>
+ * {@link PositionCorpus}の全局面を一回ずつ評価します.
+ * @author tanabe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    /**
+     * 局面の集合です.
+     */
+    private PositionCorpus corpus;
+
+    /**
+     * 局面の集合を生成します.
+     */
+    @Setup
+    public void setup() {
+        this.corpus = new PositionCorpus();
+    }
+
+    /**
+     * 全局面を評価します.
+     * @return 評価値の合計
+     */
+    @Benchmark
+    public int evaluate() {
+
+        int total = 0;
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            total += Leaf.evaluate(this.corpus.getBoard(i), this.corpus.getCell(i));
+        }
+
+        return total;
+
+    }
+
+}
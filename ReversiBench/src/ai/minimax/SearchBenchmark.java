@@ -0,0 +1,80 @@
+package ai.minimax;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import bench.PositionCorpus;
+
+/**
+ * 先読みの手数を固定した探索のベンチマークです.<br>
+ * {@link PositionCorpus}の全局面で最善手を一回ずつ探索します.
+ * ミニマックス法は手数4を超えると時間がかかりすぎるため、手数4までとします.
+ * @author tanabe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    /**
+     * 先読みの手数です.JMHが値を設定するため、publicにしています.
+     */
+    @Param({"2", "4"})
+    public int level;   // CHECKSTYLE IGNORE THIS LINE
+
+    /**
+     * 局面の集合です.
+     */
+    private PositionCorpus corpus;
+
+    /**
+     * 局面の集合を生成します.
+     */
+    @Setup
+    public void setup() {
+        this.corpus = new PositionCorpus();
+    }
+
+    /**
+     * {@link MiniMax}で全局面を探索します.
+     * @param blackhole 結果の破棄先
+     */
+    @Benchmark
+    public void miniMax(Blackhole blackhole) {
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            blackhole.consume(MiniMax.getNextMove(this.level, this.corpus.getBoard(i), this.corpus.getCell(i)));
+        }
+
+    }
+
+    /**
+     * {@link AlphaBeta}で全局面を探索します.
+     * @param blackhole 結果の破棄先
+     */
+    @Benchmark
+    public void alphaBeta(Blackhole blackhole) {
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            blackhole.consume(AlphaBeta.getNextMove(this.level, this.corpus.getBoard(i), this.corpus.getCell(i)));
+        }
+
+    }
+
+}
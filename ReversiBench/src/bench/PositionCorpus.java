@@ -0,0 +1,155 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import core.Board;
+import core.Cell;
+
+/**
+ * ベンチマークで使用する、固定の局面の集合です.<br>
+ * 初期配置から、種を固定した乱数で手を進めた局面を生成します.
+ * {@link Random}の乱数列は実装に依存しないため、実行環境が変わっても同じ局面になります.<br>
+ * 序盤、中盤、終盤の局面を同じ数ずつ含みます.
+ * @author tanabe
+ *
+ */
+public final class PositionCorpus {
+
+    /**
+     * 局面を生成する乱数の種です.
+     */
+    private static final long SEED = 20150401L;
+
+    /**
+     * 局面の段階ごとの数です.
+     */
+    private static final int COUNT_PER_STAGE = 10;
+
+    /**
+     * 各段階の局面を作るために進める手数です(序盤、中盤、終盤).
+     */
+    private static final int[] STAGE_MOVES = {10, 30, 45};
+
+    /**
+     * 局面の盤面です.
+     */
+    private final Board[] boards;
+
+    /**
+     * 局面の手番です.
+     */
+    private final Cell[] cells;
+
+
+    /**
+     * 局面の集合を生成します.
+     */
+    public PositionCorpus() {
+
+        List<Board> boardList = new ArrayList<Board>();
+        List<Cell> cellList = new ArrayList<Cell>();
+        Random random = new Random(SEED);
+
+        for(int moves : STAGE_MOVES) {
+
+            int count = 0;
+
+            while(count < COUNT_PER_STAGE) {
+
+                Board board = createInitialBoard();
+                Cell cell = Cell.BLACK;
+                boolean finished = false;
+
+                for(int i = 0; i < moves; i++) {
+                    long places = board.getPuttablePlaces(cell);
+                    if(places == 0) {
+                        finished = true;
+                        break;
+                    }
+                    for(int skip = random.nextInt(Long.bitCount(places)); skip > 0; skip--) {
+                        places &= places - 1;
+                    }
+                    board.putStone(Long.numberOfTrailingZeros(places), cell);
+                    cell = getOpponent(cell);
+                }
+
+                if(!finished && (board.getPuttablePlaces(cell) != 0)) {
+                    boardList.add(board);
+                    cellList.add(cell);
+                    count++;
+                }
+
+            }
+
+        }
+
+        this.boards = boardList.toArray(new Board[boardList.size()]);
+        this.cells = cellList.toArray(new Cell[cellList.size()]);
+
+    }
+
+
+    /**
+     * 局面の数を取得します.
+     * @return 局面の数
+     */
+    public int size() {
+        return this.boards.length;
+    }
+
+
+    /**
+     * 局面の盤面を取得します.
+     * 探索などで変更しても元に戻すこと.
+     * @param index 局面の番号
+     * @return 盤面
+     */
+    public Board getBoard(int index) {
+        return this.boards[index];
+    }
+
+
+    /**
+     * 局面の手番を取得します.
+     * @param index 局面の番号
+     * @return 次に置く石
+     */
+    public Cell getCell(int index) {
+        return this.cells[index];
+    }
+
+
+    /**
+     * 初期配置の盤面を生成します.
+     * @return 盤面
+     */
+    private static Board createInitialBoard() {
+
+        Board board = new Board();
+        board.initStone(3, 3, Cell.WHITE);
+        board.initStone(4, 4, Cell.WHITE);
+        board.initStone(3, 4, Cell.BLACK);
+        board.initStone(4, 3, Cell.BLACK);
+        return board;
+
+    }
+
+
+    /**
+     * 相手の石を取得します.
+     * @param cell 石
+     * @return 相手の石
+     */
+    private static Cell getOpponent(Cell cell) {
+
+        if(cell == Cell.BLACK) {
+            return Cell.WHITE;
+        } else {
+            return Cell.BLACK;
+        }
+
+    }
+
+}
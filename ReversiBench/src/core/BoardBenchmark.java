@@ -0,0 +1,157 @@
+package core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import bench.PositionCorpus;
+
+/**
+ * {@link Board}の着手可能判定、着手処理、対称変換のベンチマークです.<br>
+ * 各ベンチマークは{@link PositionCorpus}の全局面を一回ずつ処理します.
+ * @author tanabe
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    /**
+     * 局面の集合です.
+     */
+    private PositionCorpus corpus;
+
+    /**
+     * 局面の集合を生成します.
+     */
+    @Setup
+    public void setup() {
+        this.corpus = new PositionCorpus();
+    }
+
+    /**
+     * {@link Board#getPuttablePlaces(Cell)}で着手可能な場所を一括で求めます.
+     * @return 着手可能な場所の数の合計
+     */
+    @Benchmark
+    public int getPuttablePlaces() {
+
+        int count = 0;
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            count += Long.bitCount(this.corpus.getBoard(i).getPuttablePlaces(this.corpus.getCell(i)));
+        }
+
+        return count;
+
+    }
+
+    /**
+     * {@link Board#canPut(int, int, Cell)}で全てのマス目の着手可否を判定します.
+     * @return 着手可能な場所の数の合計
+     */
+    @Benchmark
+    public int canPut() {
+
+        int count = 0;
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            Board board = this.corpus.getBoard(i);
+            Cell cell = this.corpus.getCell(i);
+            for(int y = 0; y < board.getHeight(); y++) {
+                for(int x = 0; x < board.getWidth(); x++) {
+                    if(board.canPut(x, y, cell)) {
+                        count++;
+                    }
+                }
+            }
+        }
+
+        return count;
+
+    }
+
+    /**
+     * 全ての着手可能な場所について、探索用の着手と取り消しを行います.
+     * @return ひっくり返した石の数の合計
+     */
+    @Benchmark
+    public int putAndRemoveStone() {
+
+        int count = 0;
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            Board board = this.corpus.getBoard(i);
+            Cell cell = this.corpus.getCell(i);
+            long places = board.getPuttablePlaces(cell);
+            while(places != 0) {
+                int index = Long.numberOfTrailingZeros(places);
+                places &= places - 1;
+                long reversed = board.putStone(index, cell);
+                count += Long.bitCount(reversed);
+                board.removeStone(index, cell, reversed);
+            }
+        }
+
+        return count;
+
+    }
+
+    /**
+     * 全ての局面を対称変換で正規化します.
+     * 置換表や定石で対称な局面をまとめる場合の一局面あたりの費用です.
+     * @return 正規化した盤面のハッシュ値の排他的論理和
+     */
+    @Benchmark
+    public long canonicalize() {
+
+        long result = 0L;
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            Board board = this.corpus.getBoard(i);
+            result ^= board.getTransformed(board.getCanonicalSymmetry()).getHash();
+        }
+
+        return result;
+
+    }
+
+
+    /**
+     * 全ての着手可能な場所について、盤面を複製してから座標で石を置きます.
+     * ゲームの進行で使用している方法です.
+     * @param blackhole 結果の破棄先
+     */
+    @Benchmark
+    public void copyAndPutStone(Blackhole blackhole) {
+
+        for(int i = 0; i < this.corpus.size(); i++) {
+            Board board = this.corpus.getBoard(i);
+            Cell cell = this.corpus.getCell(i);
+            long places = board.getPuttablePlaces(cell);
+            while(places != 0) {
+                int index = Long.numberOfTrailingZeros(places);
+                places &= places - 1;
+                Board copy = new Board(board);
+                copy.putStone(Board.toX(index), Board.toY(index), cell);
+                blackhole.consume(copy);
+            }
+        }
+
+    }
+
+}
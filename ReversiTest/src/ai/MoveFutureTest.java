@@ -0,0 +1,247 @@
+// CHECKSTYLE:OFF
+
+package ai;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link MoveFuture}と{@link AsyncPlayerAdapter}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class MoveFutureTest {
+
+    public static class 完了テスト {
+
+        @Test
+        public void 設定した手をgetで受け取れるか() throws Exception {
+            MoveFuture future = new MoveFuture();
+            NextMove move = new NextMove(2, 3, Cell.BLACK);
+
+            assertThat(future.complete(move), is(true));
+
+            assertThat(future.isDone(), is(true));
+            assertThat(future.isCancelled(), is(false));
+            assertThat(future.get(), is(move));
+        }
+
+        @Test
+        public void 一度完了すると以降の設定は無視されるか() throws Exception {
+            MoveFuture future = new MoveFuture();
+            NextMove move = new NextMove(2, 3, Cell.BLACK);
+            future.complete(move);
+
+            assertThat(future.complete(null), is(false));
+            assertThat(future.cancel(true), is(false));
+            assertThat(future.fail(new IllegalStateException()), is(false));
+            assertThat(future.get(), is(move));
+        }
+
+        @Test(expected = CancellationException.class)
+        public void 取り消すとgetで例外発生() throws Exception {
+            MoveFuture future = new MoveFuture();
+            assertThat(future.cancel(true), is(true));
+            assertThat(future.complete(null), is(false));
+            future.get();
+        }
+
+        @Test
+        public void 失敗するとgetで原因の例外を受け取るか() throws Exception {
+            MoveFuture future = new MoveFuture();
+            IllegalStateException cause = new IllegalStateException();
+            future.fail(cause);
+            try {
+                future.get();
+                fail();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), is((Throwable)cause));
+            }
+        }
+
+        @Test(expected = TimeoutException.class)
+        public void 完了しないと時間切れで例外発生() throws Exception {
+            new MoveFuture().get(10, TimeUnit.MILLISECONDS);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void nullの例外を設定すると例外発生() {
+            new MoveFuture().fail(null);
+        }
+    }
+
+    public static class リスナーテスト {
+
+        @Test
+        public void 完了時にリスナーが一度だけ呼び出されるか() {
+            MoveFuture future = new MoveFuture();
+            final AtomicInteger count = new AtomicInteger();
+            future.addListener(new MoveListener() {
+                @Override
+                public void moveCompleted(MoveFuture f) {
+                    count.incrementAndGet();
+                }
+            });
+            assertThat(count.get(), is(0));
+
+            future.complete(null);
+            future.cancel(true);
+
+            assertThat(count.get(), is(1));
+        }
+
+        @Test
+        public void 完了後に登録したリスナーはすぐに呼び出されるか() {
+            MoveFuture future = new MoveFuture();
+            future.cancel(true);
+            final AtomicInteger count = new AtomicInteger();
+            future.addListener(new MoveListener() {
+                @Override
+                public void moveCompleted(MoveFuture f) {
+                    assertThat(f.isCancelled(), is(true));
+                    count.incrementAndGet();
+                }
+            });
+
+            assertThat(count.get(), is(1));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void nullのリスナーを登録すると例外発生() {
+            new MoveFuture().addListener(null);
+        }
+    }
+
+    public static class アダプタテスト {
+
+        @Test
+        public void 同期的なプレイヤーの手を非同期に受け取れるか() throws Exception {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Board board = createInitialBoard();
+                AsyncGamePlayer player = new AsyncPlayerAdapter(new MaximumReverse(0), executor);
+
+                NextMove move = player.thinkAsync(Cell.BLACK, board).get(10, TimeUnit.SECONDS);
+
+                assertThat(board.canPut(move.getX(), move.getY(), Cell.BLACK), is(true));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        public void 取り消すと思考中のスレッドに割り込むか() throws Exception {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                final CountDownLatch started = new CountDownLatch(1);
+                final CountDownLatch interrupted = new CountDownLatch(1);
+                GamePlayer sleeper = new GamePlayer() {
+                    @Override
+                    public NextMove think(Cell cell, Board board) {
+                        started.countDown();
+                        try {
+                            Thread.sleep(10000);
+                        } catch (InterruptedException e) {
+                            interrupted.countDown();
+                        }
+                        return null;
+                    }
+                };
+
+                MoveFuture future = new AsyncPlayerAdapter(sleeper, executor).thinkAsync(Cell.BLACK, createInitialBoard());
+                assertThat(started.await(10, TimeUnit.SECONDS), is(true));
+                future.cancel(true);
+
+                assertThat(interrupted.await(10, TimeUnit.SECONDS), is(true));
+                assertThat(future.isCancelled(), is(true));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        public void プレイヤーで発生した例外を受け取れるか() throws Exception {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                GamePlayer broken = new GamePlayer() {
+                    @Override
+                    public NextMove think(Cell cell, Board board) {
+                        throw new IllegalStateException();
+                    }
+                };
+
+                MoveFuture future = new AsyncPlayerAdapter(broken, executor).thinkAsync(Cell.BLACK, createInitialBoard());
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                    fail();
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause(), is(instanceOf(IllegalStateException.class)));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        public void プレイヤーで発生したErrorを受け取れるか() throws Exception {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                GamePlayer broken = new GamePlayer() {
+                    @Override
+                    public NextMove think(Cell cell, Board board) {
+                        throw new AssertionError();
+                    }
+                };
+
+                MoveFuture future = new AsyncPlayerAdapter(broken, executor).thinkAsync(Cell.BLACK, createInitialBoard());
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                    fail();
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause(), is(instanceOf(AssertionError.class)));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void プレイヤーがnullだと例外発生() {
+            new AsyncPlayerAdapter(null, Executors.newSingleThreadExecutor());
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void Executorがnullだと例外発生() {
+            new AsyncPlayerAdapter(new RandomSelect(0), null);
+        }
+
+        private static Board createInitialBoard() {
+            Board board = new Board();
+            board.initStone(3, 3, Cell.WHITE);
+            board.initStone(4, 4, Cell.WHITE);
+            board.initStone(3, 4, Cell.BLACK);
+            board.initStone(4, 3, Cell.BLACK);
+            return board;
+        }
+    }
+}
+
+//CHECKSTYLE:ON
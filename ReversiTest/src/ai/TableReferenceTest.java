@@ -0,0 +1,179 @@
+// CHECKSTYLE:OFF
+
+package ai;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link TableReference}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class TableReferenceTest {
+
+    public static class 先読みテスト {
+
+        @Test
+        public void 相手の手が一つしかない場合は予想が当たるか() {
+            TableReference player = new TableReference(0, 0, true);
+            Random random = new Random(1L);
+            int found = 0;
+
+            try {
+                while(found < 3) {
+                    Board board = createRandomBoard(random, 48);
+                    Cell cell = Cell.BLACK;
+                    NextMove move = player.think(cell, board);
+                    if(move == null) {
+                        continue;
+                    }
+
+                    // 相手の手が一つだけの局面を探す
+                    Board next = new Board(board);
+                    next.putStone(move.getX(), move.getY(), cell);
+                    long places = next.getPuttablePlaces(Cell.WHITE);
+                    if(Long.bitCount(places) != 1) {
+                        continue;
+                    }
+                    next.putStone(Long.numberOfTrailingZeros(places), Cell.WHITE);
+                    if(next.getPuttablePlaces(cell) == 0) {
+                        continue;
+                    }
+
+                    int hits = player.getPonderHitCount();
+                    NextMove reply = player.think(cell, next);
+
+                    assertThat(player.getPonderHitCount(), is(hits + 1));
+                    assertThat(next.canPut(reply.getX(), reply.getY(), cell), is(true));
+                    found++;
+                }
+            } finally {
+                player.stopPondering();
+            }
+        }
+
+        @Test
+        public void 先読みしない場合は予想しないか() {
+            TableReference player = new TableReference(0, 0);
+            Board board = createRandomBoard(new Random(2L), 10);
+
+            NextMove move = player.think(Cell.BLACK, board);
+            board.putStone(move.getX(), move.getY(), Cell.BLACK);
+            long places = board.getPuttablePlaces(Cell.WHITE);
+            board.putStone(Long.numberOfTrailingZeros(places), Cell.WHITE);
+            player.think(Cell.BLACK, board);
+
+            assertThat(player.getPonderHitCount(), is(0));
+        }
+
+        @Test
+        public void 別のスレッドから先読みのスレッドを止められるか() throws InterruptedException {
+            final TableReference player = new TableReference(0, 0, true);
+            player.think(Cell.BLACK, createRandomBoard(new Random(3L), 10));
+
+            Thread stopper = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    player.stopPondering();
+                }
+            });
+            stopper.start();
+            stopper.join(10000);
+
+            assertThat(stopper.isAlive(), is(false));
+            for(Thread thread : getAllThreads()) {
+                assertThat(thread.getName(), is(not("TableReference-ponder")));
+            }
+        }
+
+        @Test
+        public void 中断された場合は先読みせずにすぐ返すか() {
+            TableReference player = new TableReference(500, 0, true);
+            Board board = createRandomBoard(new Random(4L), 10);
+
+            long start = System.currentTimeMillis();
+            Thread.currentThread().interrupt();
+            NextMove move;
+            boolean interrupted;
+            Thread[] threads;
+            try {
+                move = player.think(Cell.BLACK, board);
+            } finally {
+                interrupted = Thread.interrupted();
+                threads = getAllThreads();
+                player.stopPondering();
+            }
+
+            assertThat(interrupted, is(true));
+            assertThat(System.currentTimeMillis() - start < 500, is(true));
+            assertThat(board.canPut(move.getX(), move.getY(), Cell.BLACK), is(true));
+            for(Thread thread : threads) {
+                assertThat(thread.getName(), is(not("TableReference-ponder")));
+            }
+        }
+
+        @Test
+        public void 先読みしていなくても止められるか() {
+            TableReference player = new TableReference(0, 0, true);
+            player.stopPondering();
+            player.stopPondering();
+        }
+
+        /**
+         * 実行中のスレッドを全て取得します.
+         */
+        private static Thread[] getAllThreads() {
+            Thread[] threads = new Thread[Thread.activeCount() + 16];
+            int count = Thread.enumerate(threads);
+            Thread[] result = new Thread[count];
+            System.arraycopy(threads, 0, result, 0, count);
+            return result;
+        }
+
+        /**
+         * 初期配置からランダムに手を進めた、黒の手番の盤面を生成します.
+         */
+        private static Board createRandomBoard(Random random, int moves) {
+            while(true) {
+                Board board = new Board();
+                board.initStone(3, 3, Cell.WHITE);
+                board.initStone(4, 4, Cell.WHITE);
+                board.initStone(3, 4, Cell.BLACK);
+                board.initStone(4, 3, Cell.BLACK);
+
+                Cell cell = Cell.BLACK;
+                boolean passed = false;
+                for(int i = 0; (i < moves) && !passed; i++) {
+                    long places = board.getPuttablePlaces(cell);
+                    if(places == 0) {
+                        passed = true;
+                        break;
+                    }
+                    for(int skip = random.nextInt(Long.bitCount(places)); skip > 0; skip--) {
+                        places &= places - 1;
+                    }
+                    board.putStone(Long.numberOfTrailingZeros(places), cell);
+                    cell = (cell == Cell.BLACK) ? Cell.WHITE : Cell.BLACK;
+                }
+
+                if(!passed && (cell == Cell.BLACK) && (board.getPuttablePlaces(cell) != 0)) {
+                    return board;
+                }
+            }
+        }
+    }
+}
+
+//CHECKSTYLE:ON
@@ -0,0 +1,152 @@
+// CHECKSTYLE:OFF
+
+package ai.book;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link OpeningBook}と{@link OpeningBookBuilder}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class OpeningBookTest {
+
+    public static class 作成と参照テスト {
+
+        @Test
+        public void 記録した手を参照できるか() throws IOException {
+            OpeningBookBuilder builder = new OpeningBookBuilder(2);
+            builder.addGame(Arrays.asList(new NextMove(2, 3, Cell.BLACK), new NextMove(2, 2, Cell.WHITE)));
+            OpeningBook book = OpeningBook.load(write(builder, 1));
+
+            // 二手目で終えた記録は3対3の引き分けなので、白の手も重み1で記録される
+            Board board = createInitialBoard();
+            board.putStone(2, 3, Cell.BLACK);
+            NextMove move = book.getMove(board, Cell.WHITE, new Random(0L));
+            assertThat(move, is(notNullValue()));
+            assertThat(board.canPut(move.getX(), move.getY(), Cell.WHITE), is(true));
+        }
+
+        @Test
+        public void 対称な局面では対称な手を返すか() throws IOException {
+            OpeningBookBuilder builder = new OpeningBookBuilder(2);
+            builder.addGame(Arrays.asList(new NextMove(2, 3, Cell.BLACK), new NextMove(2, 2, Cell.WHITE)));
+            OpeningBook book = OpeningBook.load(write(builder, 1));
+
+            // 180度回転した局面では、回転した手を返す
+            Board board = createInitialBoard();
+            board.putStone(5, 4, Cell.BLACK);
+            NextMove move = book.getMove(board, Cell.WHITE, new Random(0L));
+            assertThat(move.getX(), is(5));
+            assertThat(move.getY(), is(5));
+        }
+
+        @Test
+        public void 初期配置でも置ける手を返すか() throws IOException {
+            OpeningBookBuilder builder = new OpeningBookBuilder(1);
+            builder.addGame(Arrays.asList(new NextMove(4, 5, Cell.BLACK)));
+            OpeningBook book = OpeningBook.load(write(builder, 1));
+
+            // 初期配置の四通りの手は対称なので、どの手を記録しても参照できる
+            NextMove move = book.getMove(createInitialBoard(), Cell.BLACK, new Random(0L));
+            assertThat(createInitialBoard().canPut(move.getX(), move.getY(), Cell.BLACK), is(true));
+        }
+
+        @Test
+        public void 重みに比例して手を選ぶか() throws IOException {
+            // 二手目で終えた記録はどれも3対3の引き分けなので、打った回数が重みになる
+            OpeningBookBuilder builder = new OpeningBookBuilder(2);
+            for(int i = 0; i < 3; i++) {
+                builder.addGame(Arrays.asList(new NextMove(2, 3, Cell.BLACK), new NextMove(2, 2, Cell.WHITE)));
+            }
+            builder.addGame(Arrays.asList(new NextMove(2, 3, Cell.BLACK), new NextMove(4, 2, Cell.WHITE)));
+            OpeningBook book = OpeningBook.load(write(builder, 1));
+
+            Board board = createInitialBoard();
+            board.putStone(2, 3, Cell.BLACK);
+            int count = 0;
+            Random random = new Random(1L);
+            for(int i = 0; i < 1000; i++) {
+                NextMove move = book.getMove(board, Cell.WHITE, random);
+                if((move.getX() == 2) && (move.getY() == 2)) {
+                    count++;
+                }
+            }
+            assertThat(count > 700, is(true));
+            assertThat(count < 800, is(true));
+        }
+
+        @Test
+        public void 記録されていない局面ではnullを返すか() throws IOException {
+            OpeningBookBuilder builder = new OpeningBookBuilder(1);
+            builder.addGame(Arrays.asList(new NextMove(2, 3, Cell.BLACK)));
+            OpeningBook book = OpeningBook.load(write(builder, 1));
+
+            Board board = createInitialBoard();
+            board.putStone(2, 3, Cell.BLACK);
+            assertThat(book.getMove(board, Cell.WHITE, new Random()), is(nullValue()));
+        }
+
+        @Test
+        public void 重みが下限より小さい手は書き出さないか() throws IOException {
+            OpeningBookBuilder builder = new OpeningBookBuilder(1);
+            builder.addGame(Arrays.asList(new NextMove(2, 3, Cell.BLACK)));
+            assertThat(builder.write(File.createTempFile("book", ".bin"), 100), is(0));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 置けない手を含む記録は例外発生() {
+            new OpeningBookBuilder(1).addGame(Arrays.asList(new NextMove(0, 0, Cell.BLACK)));
+        }
+
+        @Test(expected = IOException.class)
+        public void 定石ファイルでない場合は例外発生() throws IOException {
+            File file = File.createTempFile("book", ".bin");
+            file.deleteOnExit();
+            FileOutputStream out = new FileOutputStream(file);
+            out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+            out.close();
+            OpeningBook.load(file);
+        }
+    }
+
+    /**
+     * 定石を一時ファイルに書き出します.
+     */
+    static File write(OpeningBookBuilder builder, int minWeight) throws IOException {
+        File file = File.createTempFile("book", ".bin");
+        file.deleteOnExit();
+        builder.write(file, minWeight);
+        return file;
+    }
+
+    /**
+     * 初期配置の盤面を生成します.
+     */
+    static Board createInitialBoard() {
+        Board board = new Board();
+        board.initStone(3, 3, Cell.WHITE);
+        board.initStone(4, 4, Cell.WHITE);
+        board.initStone(3, 4, Cell.BLACK);
+        board.initStone(4, 3, Cell.BLACK);
+        return board;
+    }
+}
+
+//CHECKSTYLE:ON
@@ -0,0 +1,323 @@
+// CHECKSTYLE:OFF
+
+package ai.mcts;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import ai.minimax.EndgameSolver;
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link UctSearch}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class UctSearchTest {
+
+    public static class 引数チェックテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 探索の係数が負の値だと例外発生() {
+            new UctSearch(-1.0, 1);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void スレッドの数が0だと例外発生() {
+            new UctSearch(1.0, 0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 盤面がnullだと例外発生() {
+            new UctSearch(1.0, 1).search(null, Cell.BLACK, 100, 0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 石がNOTHINGだと例外発生() {
+            new UctSearch(1.0, 1).search(createInitialBoard(), Cell.NOTHING, 100, 0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void プレイアウトの回数が0だと例外発生() {
+            new UctSearch(1.0, 1).search(createInitialBoard(), Cell.BLACK, 0, 0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 制限時間が負の値だと例外発生() {
+            new UctSearch(1.0, 1).search(createInitialBoard(), Cell.BLACK, 100, -1);
+        }
+    }
+
+    public static class 探索テスト {
+
+        @Test
+        public void 置ける場所に置く手を返すか() {
+
+            Random random = new Random(1L);
+            for(int threads = 1; threads <= 4; threads *= 2) {
+                UctSearch search = new UctSearch(UctSearch.DEFAULT_EXPLORATION, threads);
+                for(int i = 0; i < 10; i++) {
+                    Board board = createRandomBoard(random, 10 + 2 * random.nextInt(20));
+                    if(Long.bitCount(board.getPuttablePlaces(Cell.BLACK)) < 2) {
+                        continue;
+                    }
+
+                    NextMove move = search.search(board, Cell.BLACK, 2000, 0);
+
+                    assertThat(board.canPut(move.getX(), move.getY(), Cell.BLACK), is(true));
+                    assertThat(search.getPlayoutCount() >= 2000, is(true));
+                    assertThat(search.getPlayoutsPerSecond() > 0.0, is(true));
+                    assertThat(search.getNodeCount() > 1, is(true));
+                    assertThat(search.getWinRate() >= 0.0, is(true));
+                    assertThat(search.getWinRate() <= 1.0, is(true));
+                }
+            }
+
+        }
+
+        @Test
+        public void 置ける場所がない場合はnullを返すか() {
+
+            Board board = new Board();
+            board.initStone(0, 0, Cell.BLACK);
+            board.initStone(1, 0, Cell.WHITE);
+
+            UctSearch search = new UctSearch(1.0, 1);
+            assertThat(search.search(board, Cell.WHITE, 100, 0), is(nullValue()));
+            assertThat(search.getPlayoutCount(), is(0L));
+
+        }
+
+        @Test
+        public void 置ける場所が一か所の場合は探索しないか() {
+
+            Board board = new Board();
+            board.initStone(0, 0, Cell.BLACK);
+            board.initStone(1, 0, Cell.WHITE);
+
+            UctSearch search = new UctSearch(1.0, 1);
+            NextMove move = search.search(board, Cell.BLACK, 100, 0);
+            assertThat(move.getX(), is(2));
+            assertThat(move.getY(), is(0));
+            assertThat(search.getPlayoutCount(), is(0L));
+
+        }
+
+        @Test
+        public void 制限時間までプレイアウトを続けるか() {
+
+            UctSearch search = new UctSearch(1.0, 2);
+            long start = System.currentTimeMillis();
+            search.search(createInitialBoard(), Cell.BLACK, 1, 200);
+
+            assertThat(System.currentTimeMillis() - start >= 200, is(true));
+            assertThat(search.getPlayoutCount() > 1, is(true));
+
+        }
+
+        @Test
+        public void 読み切れる局面では勝てる手を選ぶか() {
+
+            Random random = new Random(2L);
+            EndgameSolver solver = new EndgameSolver(10);
+            UctSearch search = new UctSearch(UctSearch.DEFAULT_EXPLORATION, 2);
+
+            int found = 0;
+            int won = 0;
+            while(found < 10) {
+                Board board = createRandomBoard(random, 52);
+                if(Long.bitCount(board.getPuttablePlaces(Cell.BLACK)) < 2) {
+                    continue;
+                }
+                solver.solve(board, Cell.BLACK, false);
+                if(solver.getDiscDifference() <= 0) {
+                    continue;
+                }
+                found++;
+
+                NextMove move = search.search(board, Cell.BLACK, 50000, 0);
+                Board next = new Board(board);
+                next.putStone(move.getX(), move.getY(), Cell.BLACK);
+                if(solve(solver, next, Cell.WHITE) < 0) {
+                    won++;
+                }
+            }
+
+            // プレイアウトの結果は乱数で変わるため、ほとんどの局面で勝てればよい
+            assertThat(won >= 8, is(true));
+
+        }
+    }
+
+    public static class プレイアウトテスト {
+
+        @Test
+        public void 終局した盤面では石の数で勝ち点を求めるか() {
+
+            UctSearch.XorShift random = new UctSearch.XorShift(3L);
+            long full = -1L;
+            long black = 0x00000000FFFFFFFFL;
+            long white = full & ~black;
+
+            assertThat(UctSearch.playout(black, white, random), is(UctNode.DRAW_POINTS));
+            assertThat(UctSearch.playout(black | 1L << 32, white & ~(1L << 32), random), is(UctNode.WIN_POINTS));
+            assertThat(UctSearch.playout(white & ~(1L << 32), black | 1L << 32, random), is(0));
+
+        }
+
+        @Test
+        public void 乱数は範囲内の値を返すか() {
+
+            UctSearch.XorShift random = new UctSearch.XorShift(4L);
+            int[] counts = new int[7];
+            for(int i = 0; i < 7000; i++) {
+                counts[random.nextInt(7)]++;
+            }
+            for(int count : counts) {
+                assertThat(count > 700, is(true));
+            }
+
+        }
+    }
+
+    public static class ノード生成テスト {
+
+        @Test
+        public void 生成したノードの数を返すか() {
+
+            Board board = createInitialBoard();
+            UctNode node = new UctNode(UctNode.PASS);
+
+            assertThat(node.expand(board.getBitBoard(Cell.BLACK), board.getBitBoard(Cell.WHITE)), is(4));
+            assertThat(node.getChildren().length, is(4));
+
+        }
+
+        @Test
+        public void 生成済みの場合は0を返し子を変えないか() {
+
+            Board board = createInitialBoard();
+            long black = board.getBitBoard(Cell.BLACK);
+            long white = board.getBitBoard(Cell.WHITE);
+            UctNode node = new UctNode(UctNode.PASS);
+            node.expand(black, white);
+            UctNode[] children = node.getChildren();
+
+            assertThat(node.expand(black, white), is(0));
+            assertThat(node.getChildren(), is(sameInstance(children)));
+
+        }
+
+        @Test
+        public void 同時に生成しても一度だけ数えるか() throws InterruptedException {
+
+            Board board = createInitialBoard();
+            final long black = board.getBitBoard(Cell.BLACK);
+            final long white = board.getBitBoard(Cell.WHITE);
+
+            for(int trial = 0; trial < 20; trial++) {
+
+                final UctNode node = new UctNode(UctNode.PASS);
+                final AtomicInteger created = new AtomicInteger();
+                Thread[] threads = new Thread[4];
+                for(int i = 0; i < threads.length; i++) {
+                    threads[i] = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            created.addAndGet(node.expand(black, white));
+                        }
+                    });
+                    threads[i].start();
+                }
+                for(Thread thread : threads) {
+                    thread.join();
+                }
+
+                assertThat(created.get(), is(node.getChildren().length));
+
+            }
+
+        }
+    }
+
+    /**
+     * 最後まで読み切り、手番側から見た石の数の差を求めます.パスにも対応します.
+     * @param solver 読み切りに使用するインスタンス
+     * @param board 盤面
+     * @param cell 手番
+     * @return 石の数の差
+     */
+    static int solve(EndgameSolver solver, Board board, Cell cell) {
+
+        Cell opponent = (cell == Cell.BLACK) ? Cell.WHITE : Cell.BLACK;
+        if(board.getPuttablePlaces(cell) != 0) {
+            solver.solve(board, cell, false);
+            return solver.getDiscDifference();
+        }
+        if(board.getPuttablePlaces(opponent) != 0) {
+            solver.solve(board, opponent, false);
+            return -solver.getDiscDifference();
+        }
+        return board.getStoneCount(cell) - board.getStoneCount(opponent);
+
+    }
+
+    /**
+     * 初期配置の盤面を生成します.
+     * @return 盤面
+     */
+    static Board createInitialBoard() {
+
+        Board board = new Board();
+        board.initStone(3, 3, Cell.WHITE);
+        board.initStone(4, 4, Cell.WHITE);
+        board.initStone(3, 4, Cell.BLACK);
+        board.initStone(4, 3, Cell.BLACK);
+        return board;
+
+    }
+
+    /**
+     * 初期配置からランダムに打ち、黒の手番で黒が置ける盤面を生成します.パスがあった場合は生成し直します.
+     * @param random 乱数
+     * @param moves 打つ手数.黒の手番にするため偶数
+     * @return 盤面
+     */
+    static Board createRandomBoard(Random random, int moves) {
+
+        while(true) {
+            Board board = createInitialBoard();
+            Cell cell = Cell.BLACK;
+            boolean passed = false;
+            for(int i = 0; (i < moves) && !passed; i++) {
+                long places = board.getPuttablePlaces(cell);
+                if(places == 0) {
+                    passed = true;
+                    break;
+                }
+                for(int skip = random.nextInt(Long.bitCount(places)); skip > 0; skip--) {
+                    places &= places - 1;
+                }
+                board.putStone(Long.numberOfTrailingZeros(places), cell);
+                cell = (cell == Cell.BLACK) ? Cell.WHITE : Cell.BLACK;
+            }
+
+            if(!passed && (cell == Cell.BLACK) && (board.getPuttablePlaces(cell) != 0)) {
+                return board;
+            }
+        }
+
+    }
+}
+
+//CHECKSTYLE:ON
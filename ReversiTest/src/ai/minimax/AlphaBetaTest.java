@@ -0,0 +1,365 @@
+// CHECKSTYLE:OFF
+
+package ai.minimax;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link AlphaBeta}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class AlphaBetaTest {
+
+    public static class 引数チェックテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 第一引数が0だと例外発生() {
+            AlphaBeta.getNextMove(0, createInitialBoard(), Cell.BLACK);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 第二引数がnullだと例外発生() {
+            AlphaBeta.getNextMove(1, null, Cell.BLACK);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 第三引数がNOTHINGだと例外発生() {
+            AlphaBeta.getNextMove(1, createInitialBoard(), Cell.NOTHING);
+        }
+    }
+
+    public static class 探索結果テスト {
+
+        @Test
+        public void ミニマックス法と同じ最善手と評価値を返すか() {
+
+            for(Position position : createPositions(1L, 30)) {
+                for(int level = 1; level <= 4; level++) {
+
+                    Inner expected = new Inner(level, new Board(position.board), position.cell);
+
+                    AlphaBeta search = new AlphaBeta();
+                    NextMove actual = search.search(level, position.board, position.cell);
+
+                    assertThat(toString(actual), is(toString(expected.getNextMove())));
+                    assertThat(search.getValue(), is(expected.getValue()));
+
+                }
+            }
+
+        }
+
+        @Test
+        public void 探索後も盤面が変わらないか() {
+
+            Position position = createPositions(2L, 1).get(0);
+            Board before = new Board(position.board);
+
+            AlphaBeta.getNextMove(4, position.board, position.cell);
+
+            assertThat(position.board, is(before));
+
+        }
+
+        @Test
+        public void 置ける場所がない場合はnullを返すか() {
+
+            Board board = new Board();
+            board.initStone(0, 0, Cell.BLACK);
+
+            assertThat(AlphaBeta.getNextMove(3, board, Cell.BLACK), is(nullValue()));
+
+        }
+
+        @Test
+        public void 枝刈りによりミニマックス法より少ないノード数で探索できるか() {
+
+            Position position = createPositions(3L, 1).get(0);
+
+            AlphaBeta search = new AlphaBeta();
+            search.search(4, position.board, position.cell);
+
+            assertThat(search.getNodeCount() < countNodes(4, new Board(position.board), position.cell), is(true));
+
+        }
+
+        /**
+         * 手を比較用の文字列に変換します.
+         */
+        private static String toString(NextMove move) {
+            if(move == null) {
+                return "pass";
+            }
+            return move.toString() + move.getStone();
+        }
+
+        /**
+         * ミニマックス法で評価するノードの数を数えます.
+         */
+        private static long countNodes(int level, Board board, Cell cell) {
+            long places = board.getPuttablePlaces(cell);
+            if((level <= 0) || (places == 0)) {
+                return 1;
+            }
+            long count = 1;
+            while(places != 0) {
+                int index = Long.numberOfTrailingZeros(places);
+                places &= places - 1;
+                long reversed = board.putStone(index, cell);
+                count += countNodes(level - 1, board, AlphaBeta.getOpponent(cell));
+                board.removeStone(index, cell, reversed);
+            }
+            return count;
+        }
+    }
+
+    public static class 反復深化テスト {
+
+        @Test
+        public void 制限時間が0なら最低限の手数の探索結果を返すか() {
+
+            for(Position position : createPositions(4L, 10)) {
+
+                AlphaBeta expected = new AlphaBeta();
+                NextMove expectedMove = expected.search(3, position.board, position.cell);
+
+                AlphaBeta search = new AlphaBeta();
+                NextMove move = search.search(position.board, position.cell, 3, 0L);
+
+                assertThat(move.toString(), is(expectedMove.toString()));
+                assertThat(search.getValue(), is(expected.getValue()));
+                assertThat(search.getCompletedLevel(), is(3));
+
+            }
+
+        }
+
+        @Test
+        public void 時間が十分あれば空きマスの数まで読み切るか() {
+
+            Board board = createEndGameBoard();
+            int empty = board.getStoneCount(Cell.NOTHING);
+
+            AlphaBeta expected = new AlphaBeta();
+            NextMove expectedMove = expected.search(empty, board, Cell.BLACK);
+
+            AlphaBeta search = new AlphaBeta();
+            NextMove move = search.search(board, Cell.BLACK, 1, 60000L);
+
+            assertThat(search.getCompletedLevel(), is(empty));
+            assertThat(move.toString(), is(expectedMove.toString()));
+            assertThat(search.getValue(), is(expected.getValue()));
+
+        }
+
+        @Test
+        public void 制限時間を過ぎたら探索を打ち切るか() {
+
+            Position position = createPositions(5L, 1).get(0);
+            Board before = new Board(position.board);
+
+            AlphaBeta search = new AlphaBeta();
+            long start = System.currentTimeMillis();
+            NextMove move = search.search(position.board, position.cell, 1, 50L);
+            long elapsed = System.currentTimeMillis() - start;
+
+            assertThat(move, is(notNullValue()));
+            assertThat(elapsed < 1000L, is(true));
+            assertThat(position.board, is(before));
+
+        }
+
+        /**
+         * 空きマスが8つの終盤の盤面を生成します.
+         */
+        private static Board createEndGameBoard() {
+            String[] rows = {
+                "wwwwwwb-",
+                "wbbbbbb-",
+                "wbwbbwb-",
+                "wbbwbbw-",
+                "wbwbwbb-",
+                "wbbbbwb-",
+                "wwwbbbb-",
+                "wwwwwwb-"
+            };
+            Board board = new Board();
+            for(int y = 0; y < rows.length; y++) {
+                for(int x = 0; x < rows[y].length(); x++) {
+                    if(rows[y].charAt(x) == 'b') {
+                        board.initStone(x, y, Cell.BLACK);
+                    } else if(rows[y].charAt(x) == 'w') {
+                        board.initStone(x, y, Cell.WHITE);
+                    }
+                }
+            }
+            return board;
+        }
+    }
+
+    public static class 探索方法テスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 探索方法がnullだと例外発生() {
+            new AlphaBeta(null, new TableEvaluator(), new HeuristicMoveOrdering(), null);
+        }
+
+        @Test
+        public void 置換表の有無で既定の探索方法が変わるか() {
+            assertThat(new AlphaBeta().getMode(), is(SearchMode.FULL_WINDOW));
+            assertThat(new AlphaBeta(new TranspositionTable(10)).getMode(), is(SearchMode.ASPIRATION));
+        }
+
+        @Test
+        public void 探索方法に関わらず同じ最善手と評価値を返すか() {
+
+            for(Position position : createPositions(6L, 30)) {
+                for(int level = 1; level <= 5; level++) {
+
+                    AlphaBeta expected = new AlphaBeta(null, new TableEvaluator(), new SimpleMoveOrdering(),
+                            SearchMode.FULL_WINDOW);
+                    NextMove expectedMove = expected.search(level, position.board, position.cell);
+
+                    for(SearchMode mode : SearchMode.values()) {
+                        for(TranspositionTable table : new TranspositionTable[] {null, new TranspositionTable(12)}) {
+
+                            AlphaBeta search = new AlphaBeta(table, new TableEvaluator(), new HeuristicMoveOrdering(), mode);
+                            NextMove move = search.search(level, position.board, position.cell);
+
+                            assertThat(move.toString(), is(expectedMove.toString()));
+                            assertThat(search.getValue(), is(expected.getValue()));
+
+                        }
+                    }
+
+                }
+            }
+
+        }
+
+        @Test
+        public void 反復深化でも探索方法に関わらず同じ最善手と評価値を返すか() {
+
+            for(Position position : createPositions(7L, 10)) {
+
+                AlphaBeta expected = new AlphaBeta(null, new TableEvaluator(), new SimpleMoveOrdering(),
+                        SearchMode.FULL_WINDOW);
+                NextMove expectedMove = expected.search(5, position.board, position.cell);
+
+                AlphaBeta search = new AlphaBeta(new TranspositionTable(12), new TableEvaluator(),
+                        new HeuristicMoveOrdering(), SearchMode.ASPIRATION);
+                NextMove move = search.search(position.board, position.cell, 5, 0L);
+
+                assertThat(move.toString(), is(expectedMove.toString()));
+                assertThat(search.getValue(), is(expected.getValue()));
+
+            }
+
+        }
+
+        @Test
+        public void 置換表を使うと幅を狭めた探索の方が少ないノード数で探索できるか() {
+
+            long full = 0;
+            long aspiration = 0;
+
+            for(Position position : createPositions(8L, 10)) {
+
+                AlphaBeta search = new AlphaBeta(new TranspositionTable(16), new TableEvaluator(),
+                        new HeuristicMoveOrdering(), SearchMode.FULL_WINDOW);
+                for(int level = 1; level <= 7; level++) {
+                    search.search(level, position.board, position.cell);
+                    full += search.getNodeCount();
+                }
+
+                search = new AlphaBeta(new TranspositionTable(16), new TableEvaluator(),
+                        new HeuristicMoveOrdering(), SearchMode.ASPIRATION);
+                search.search(7, position.board, position.cell);
+                aspiration += search.getNodeCount();
+
+            }
+
+            assertThat(aspiration < full, is(true));
+
+        }
+    }
+
+    /**
+     * 探索する局面です.
+     * テストクラスとして実行されないように、publicにはしません.
+     */
+    static class Position {
+        /** 盤面. */
+        public final Board board;
+        /** 手番の石. */
+        public final Cell cell;
+
+        Position(Board board, Cell cell) {
+            this.board = board;
+            this.cell = cell;
+        }
+    }
+
+    /**
+     * 初期配置の盤面を生成します.
+     */
+    public static Board createInitialBoard() {
+        Board board = new Board();
+        board.initStone(3, 3, Cell.WHITE);
+        board.initStone(4, 4, Cell.WHITE);
+        board.initStone(3, 4, Cell.BLACK);
+        board.initStone(4, 3, Cell.BLACK);
+        return board;
+    }
+
+    /**
+     * 初期配置からランダムに手を進めた、手番側が石を置ける局面を生成します.
+     * @param seed 乱数の種
+     * @param count 生成する局面の数
+     */
+    static List<Position> createPositions(long seed, int count) {
+        Random random = new Random(seed);
+        List<Position> positions = new ArrayList<Position>();
+
+        while(positions.size() < count) {
+            Board board = createInitialBoard();
+            Cell cell = Cell.BLACK;
+            int moves = 8 + random.nextInt(40);
+
+            for(int i = 0; i < moves; i++) {
+                long places = board.getPuttablePlaces(cell);
+                if(places == 0) {
+                    break;
+                }
+                for(int skip = random.nextInt(Long.bitCount(places)); skip > 0; skip--) {
+                    places &= places - 1;
+                }
+                board.putStone(Long.numberOfTrailingZeros(places), cell);
+                cell = AlphaBeta.getOpponent(cell);
+            }
+
+            if(board.getPuttablePlaces(cell) != 0) {
+                positions.add(new Position(board, cell));
+            }
+        }
+
+        return positions;
+    }
+}
+
+//CHECKSTYLE:ON
@@ -0,0 +1,223 @@
+// CHECKSTYLE:OFF
+
+package ai.minimax;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link EndgameSolver}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class EndgameSolverTest {
+
+    public static class 引数チェックテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 空きマスの数が負の値だと例外発生() {
+            new EndgameSolver(-1);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 盤面がnullだと例外発生() {
+            new EndgameSolver(10).solve(null, Cell.BLACK, true);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 石がNOTHINGだと例外発生() {
+            new EndgameSolver(10).solve(AlphaBetaTest.createInitialBoard(), Cell.NOTHING, true);
+        }
+    }
+
+    public static class 読み切り対象の判定テスト {
+
+        @Test
+        public void 空きマスの数が上限以下なら対象() {
+            Board board = AlphaBetaTest.createInitialBoard();
+            assertThat(new EndgameSolver(60).canSolve(board), is(true));
+            assertThat(new EndgameSolver(59).canSolve(board), is(false));
+        }
+    }
+
+    public static class 読み切り結果テスト {
+
+        @Test
+        public void 全ての手を調べた場合と同じ最善手と石の数の差を返すか() {
+
+            EndgameSolver solver = new EndgameSolver(10);
+
+            for(int empties = 1; empties <= 9; empties++) {
+                for(AlphaBetaTest.Position position : createEndgamePositions(empties, 20L + empties, 20)) {
+
+                    int[] expected = solveByFullSearch(position.board, position.cell);
+                    NextMove move = solver.solve(position.board, position.cell, true);
+
+                    assertThat(solver.getDiscDifference(), is(expected[0]));
+                    if(expected[1] < 0) {
+                        assertThat(move, is(nullValue()));
+                    } else {
+                        assertThat(Board.toIndex(move.getX(), move.getY()), is(expected[1]));
+                    }
+
+                }
+            }
+
+        }
+
+        @Test
+        public void 勝敗だけを求めた場合も勝敗が一致するか() {
+
+            EndgameSolver solver = new EndgameSolver(12);
+
+            for(AlphaBetaTest.Position position : createEndgamePositions(12, 30L, 10)) {
+
+                solver.solve(position.board, position.cell, true);
+                int exact = solver.getDiscDifference();
+
+                NextMove move = solver.solve(position.board, position.cell, false);
+                assertThat(Integer.signum(solver.getDiscDifference()), is(Integer.signum(exact)));
+
+                // 選んだ手を打った後の結果も同じ勝敗になる
+                Board board = new Board(position.board);
+                board.putStone(move.getX(), move.getY(), position.cell);
+                int after = -solveByFullSearchOrSolver(board, AlphaBeta.getOpponent(position.cell));
+                assertThat(Integer.signum(after), is(Integer.signum(exact)));
+
+            }
+
+        }
+
+        @Test
+        public void 読み切り後も盤面が変わらないか() {
+
+            AlphaBetaTest.Position position = createEndgamePositions(10, 40L, 1).get(0);
+            Board before = new Board(position.board);
+
+            new EndgameSolver(10).solve(position.board, position.cell, true);
+
+            assertThat(position.board, is(before));
+
+        }
+
+        @Test
+        public void 両者とも置けない局面は終局時の石の数の差を返すか() {
+
+            Board board = new Board();
+            board.initStone(0, 0, Cell.BLACK);
+            board.initStone(1, 0, Cell.BLACK);
+            board.initStone(7, 7, Cell.WHITE);
+
+            EndgameSolver solver = new EndgameSolver(61);
+            NextMove move = solver.solve(board, Cell.WHITE, true);
+
+            assertThat(move, is(nullValue()));
+            // 空きマスは勝った黒の石として数える
+            assertThat(solver.getDiscDifference(), is(-(2 - 1 + 61)));
+
+        }
+
+        /**
+         * 相手の手番の局面を読み切り、相手から見た石の数の差を求めます.
+         */
+        private static int solveByFullSearchOrSolver(Board board, Cell cell) {
+            EndgameSolver solver = new EndgameSolver(12);
+            solver.solve(board, cell, true);
+            return solver.getDiscDifference();
+        }
+    }
+
+    /**
+     * 初期配置からランダムに手を進め、空きマスが指定の数になった局面を生成します.
+     * 手番側が置けない局面も含みます.
+     * @param empties 空きマスの数
+     * @param seed 乱数の種
+     * @param count 生成する局面の数
+     */
+    static List<AlphaBetaTest.Position> createEndgamePositions(int empties, long seed, int count) {
+        Random random = new Random(seed);
+        List<AlphaBetaTest.Position> positions = new ArrayList<AlphaBetaTest.Position>();
+
+        while(positions.size() < count) {
+            Board board = AlphaBetaTest.createInitialBoard();
+            Cell cell = Cell.BLACK;
+
+            while(board.getStoneCount(Cell.NOTHING) > empties) {
+                long places = board.getPuttablePlaces(cell);
+                if(places == 0) {
+                    cell = AlphaBeta.getOpponent(cell);
+                    places = board.getPuttablePlaces(cell);
+                    if(places == 0) {
+                        break;
+                    }
+                }
+                for(int skip = random.nextInt(Long.bitCount(places)); skip > 0; skip--) {
+                    places &= places - 1;
+                }
+                board.putStone(Long.numberOfTrailingZeros(places), cell);
+                cell = AlphaBeta.getOpponent(cell);
+            }
+
+            if(board.getStoneCount(Cell.NOTHING) == empties) {
+                positions.add(new AlphaBetaTest.Position(board, cell));
+            }
+        }
+
+        return positions;
+    }
+
+    /**
+     * 枝刈りをせずに全ての手を調べ、石の数の差と最善手を求めます.
+     * @return 手番側から見た石の数の差と、最善手の位置(置けない場合は-1)
+     */
+    static int[] solveByFullSearch(Board board, Cell cell) {
+        long places = board.getPuttablePlaces(cell);
+        Cell opponent = AlphaBeta.getOpponent(cell);
+
+        if(places == 0) {
+            if(board.getPuttablePlaces(opponent) == 0) {
+                int own = board.getStoneCount(cell);
+                int other = board.getStoneCount(opponent);
+                int empty = board.getStoneCount(Cell.NOTHING);
+                int score = own - other;
+                if(score > 0) {
+                    score += empty;
+                } else if(score < 0) {
+                    score -= empty;
+                }
+                return new int[] {score, -1};
+            }
+            return new int[] {-solveByFullSearch(board, opponent)[0], -1};
+        }
+
+        int best = Integer.MIN_VALUE;
+        int bestIndex = -1;
+        while(places != 0) {
+            int index = Long.numberOfTrailingZeros(places);
+            places &= places - 1;
+            long reversed = board.putStone(index, cell);
+            int score = -solveByFullSearch(board, opponent)[0];
+            board.removeStone(index, cell, reversed);
+            if(score > best) {
+                best = score;
+                bestIndex = index;
+            }
+        }
+        return new int[] {best, bestIndex};
+    }
+}
+
+//CHECKSTYLE:ON
@@ -0,0 +1,143 @@
+// CHECKSTYLE:OFF
+
+package ai.minimax;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link LazySmpAlphaBeta}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class LazySmpAlphaBetaTest {
+
+    public static class 引数チェックテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void スレッド数が0だと例外発生() {
+            new LazySmpAlphaBeta(0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 置換表がnullだと例外発生() {
+            new LazySmpAlphaBeta(2, null);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 探索方法がnullだと例外発生() {
+            new LazySmpAlphaBeta(2, new TranspositionTable(10, true), null, null);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 先読みの手数が0だと例外発生() {
+            LazySmpAlphaBeta search = new LazySmpAlphaBeta(2, new TranspositionTable(10, true));
+            try {
+                search.search(0, AlphaBetaTest.createInitialBoard(), Cell.BLACK);
+            } finally {
+                search.shutdown();
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 石がNOTHINGだと例外発生() {
+            LazySmpAlphaBeta search = new LazySmpAlphaBeta(2, new TranspositionTable(10, true));
+            try {
+                search.search(1, AlphaBetaTest.createInitialBoard(), Cell.NOTHING);
+            } finally {
+                search.shutdown();
+            }
+        }
+    }
+
+    public static class 探索結果テスト {
+
+        @Test
+        public void 一スレッドでは置換表を使ったAlphaBetaと同じ最善手と評価値を返すか() {
+
+            LazySmpAlphaBeta search = new LazySmpAlphaBeta(1, new TranspositionTable(16, true));
+            // 手の並べ替えは探索をまたいで値を引き継ぐため、同じインスタンスで続けて探索する
+            AlphaBeta expected = new AlphaBeta(new TranspositionTable(16));
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(9L, 20)) {
+                for(int level = 1; level <= 5; level++) {
+
+                    expected.getTable().clear();
+                    NextMove expectedMove = expected.search(level, position.board, position.cell);
+
+                    search.getTable().clear();
+                    NextMove actual = search.search(level, position.board, position.cell);
+
+                    assertThat(actual.toString(), is(expectedMove.toString()));
+                    assertThat(search.getValue(), is(expected.getValue()));
+                    assertThat(search.getNodeCount(), is(expected.getNodeCount()));
+
+                }
+            }
+
+            search.shutdown();
+
+        }
+
+        @Test
+        public void 複数のスレッドでも置ける場所に置く手を返すか() {
+
+            for(int threads = 2; threads <= 8; threads *= 2) {
+
+                LazySmpAlphaBeta search = new LazySmpAlphaBeta(threads, new TranspositionTable(16, true));
+
+                for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(10L, 10)) {
+
+                    NextMove move = search.search(6, position.board, position.cell);
+
+                    assertThat(position.board.canPut(move.getX(), move.getY(), position.cell), is(true));
+                    assertThat(search.getNodeCount() > 0, is(true));
+
+                }
+
+                search.shutdown();
+
+            }
+
+        }
+
+        @Test
+        public void 探索後も盤面が変わらないか() {
+
+            AlphaBetaTest.Position position = AlphaBetaTest.createPositions(12L, 1).get(0);
+            Board before = new Board(position.board);
+
+            LazySmpAlphaBeta search = new LazySmpAlphaBeta(4);
+            search.search(6, position.board, position.cell);
+            search.shutdown();
+
+            assertThat(position.board, is(before));
+
+        }
+
+        @Test
+        public void 置ける場所がない場合はnullを返すか() {
+
+            Board board = new Board();
+            board.initStone(0, 0, Cell.BLACK);
+
+            LazySmpAlphaBeta search = new LazySmpAlphaBeta(2);
+            NextMove move = search.search(3, board, Cell.BLACK);
+            search.shutdown();
+
+            assertThat(move, is(nullValue()));
+
+        }
+    }
+}
+
+//CHECKSTYLE:ON
@@ -0,0 +1,180 @@
+// CHECKSTYLE:OFF
+
+package ai.minimax;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link MoveOrdering}の実装と、手の並べ替えを使用した{@link AlphaBeta}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class MoveOrderingTest {
+
+    public static class 引数チェックテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 手の並べ替えがnullだと例外発生() {
+            new AlphaBeta(null, new TableEvaluator(), null);
+        }
+    }
+
+    public static class 並べ替えテスト {
+
+        @Test
+        public void 全ての手を一回ずつ並べるか() {
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(31L, 20)) {
+                long places = position.board.getPuttablePlaces(position.cell);
+                for(MoveOrdering ordering : new MoveOrdering[] {new SimpleMoveOrdering(), new HeuristicMoveOrdering()}) {
+                    for(int level = 1; level <= HeuristicMoveOrdering.MOBILITY_LEVEL; level++) {
+                        int[] moves = new int[64];
+                        int count = ordering.order(position.board, position.cell, places,
+                                TranspositionTable.NO_MOVE, 0, level, moves);
+
+                        long found = 0L;
+                        for(int i = 0; i < count; i++) {
+                            found |= 1L << moves[i];
+                        }
+                        assertThat(count, is(Long.bitCount(places)));
+                        assertThat(found, is(places));
+                    }
+                }
+            }
+
+        }
+
+        @Test
+        public void 置換表の最善手を最初に並べるか() {
+
+            AlphaBetaTest.Position position = AlphaBetaTest.createPositions(32L, 1).get(0);
+            long places = position.board.getPuttablePlaces(position.cell);
+            int hashMove = 63 - Long.numberOfLeadingZeros(places);
+
+            for(MoveOrdering ordering : new MoveOrdering[] {new SimpleMoveOrdering(), new HeuristicMoveOrdering()}) {
+                int[] moves = new int[64];
+                ordering.order(position.board, position.cell, places, hashMove, 0, 1, moves);
+                assertThat(moves[0], is(hashMove));
+            }
+
+        }
+
+        @Test
+        public void 枝刈りが起きた手を置換表の最善手の次に並べるか() {
+
+            AlphaBetaTest.Position position = AlphaBetaTest.createPositions(33L, 1).get(0);
+            long places = position.board.getPuttablePlaces(position.cell);
+            int hashMove = Long.numberOfTrailingZeros(places);
+            int killer = 63 - Long.numberOfLeadingZeros(places);
+
+            HeuristicMoveOrdering ordering = new HeuristicMoveOrdering();
+            ordering.cutoff(killer, position.cell, 2, 1);
+
+            int[] moves = new int[64];
+            ordering.order(position.board, position.cell, places, hashMove, 2, 1, moves);
+            assertThat(moves[0], is(hashMove));
+            assertThat(moves[1], is(killer));
+
+            // 別の手数のノードでは先に並べない
+            ordering.order(position.board, position.cell, places, TranspositionTable.NO_MOVE, 3, 1, moves);
+            assertThat(moves[0], is(killer));
+
+            // 新しい探索では消去する
+            ordering.newSearch();
+            ordering.order(position.board, position.cell, places, TranspositionTable.NO_MOVE, 2, 1, moves);
+            assertThat(moves[0], is(hashMove));
+
+        }
+
+        @Test
+        public void 浅いノードでは相手の着手可能数が少ない順に並べるか() {
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(34L, 20)) {
+                long places = position.board.getPuttablePlaces(position.cell);
+                int[] moves = new int[64];
+                int count = new HeuristicMoveOrdering().order(position.board, position.cell, places,
+                        TranspositionTable.NO_MOVE, 0, HeuristicMoveOrdering.MOBILITY_LEVEL, moves);
+
+                int previous = -1;
+                for(int i = 0; i < count; i++) {
+                    Board board = new Board(position.board);
+                    board.putStone(moves[i], position.cell);
+                    int mobility = Long.bitCount(board.getPuttablePlaces(AlphaBeta.getOpponent(position.cell)));
+                    assertThat(mobility >= previous, is(true));
+                    previous = mobility;
+                }
+            }
+
+        }
+    }
+
+    public static class 探索結果テスト {
+
+        @Test
+        public void 並べ替えに関わらず同じ最善手と評価値を返すか() {
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(35L, 30)) {
+                for(int level = 1; level <= 5; level++) {
+
+                    AlphaBeta expected = new AlphaBeta(null, new TableEvaluator(), new SimpleMoveOrdering());
+                    NextMove expectedMove = expected.search(level, position.board, position.cell);
+
+                    AlphaBeta actual = new AlphaBeta(new TranspositionTable(12), new TableEvaluator(),
+                            new HeuristicMoveOrdering());
+                    NextMove actualMove = actual.search(position.board, position.cell, level, 0);
+
+                    assertThat(actualMove.toString(), is(expectedMove.toString()));
+                    assertThat(actual.getValue(), is(expected.getValue()));
+
+                }
+            }
+
+        }
+
+        @Test
+        public void 並べ替えにより少ないノード数で探索できるか() {
+
+            long simpleNodes = 0;
+            long simpleFirst = 0;
+            long simpleCutoffs = 0;
+            long heuristicNodes = 0;
+            long heuristicFirst = 0;
+            long heuristicCutoffs = 0;
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(36L, 10)) {
+
+                AlphaBeta simple = new AlphaBeta(null, new TableEvaluator(), new SimpleMoveOrdering());
+                simple.search(5, position.board, position.cell);
+                simpleNodes += simple.getNodeCount();
+                simpleFirst += simple.getFirstCutoffCount();
+                simpleCutoffs += simple.getCutoffCount();
+
+                AlphaBeta heuristic = new AlphaBeta(null, new TableEvaluator(), new HeuristicMoveOrdering());
+                heuristic.search(5, position.board, position.cell);
+                heuristicNodes += heuristic.getNodeCount();
+                heuristicFirst += heuristic.getFirstCutoffCount();
+                heuristicCutoffs += heuristic.getCutoffCount();
+
+                assertThat(heuristic.getFirstCutoffCount() <= heuristic.getCutoffCount(), is(true));
+                assertThat(heuristic.getCutoffCount() <= heuristic.getNodeCount(), is(true));
+
+            }
+
+            assertThat(heuristicNodes < simpleNodes, is(true));
+            assertThat((double)heuristicFirst / heuristicCutoffs > (double)simpleFirst / simpleCutoffs, is(true));
+
+        }
+    }
+}
+
+//CHECKSTYLE:ON
@@ -0,0 +1,111 @@
+// CHECKSTYLE:OFF
+
+package ai.minimax;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link ParallelAlphaBeta}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class ParallelAlphaBetaTest {
+
+    public static class 引数チェックテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void スレッド数が0だと例外発生() {
+            new ParallelAlphaBeta(0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 先読みの手数が0だと例外発生() {
+            ParallelAlphaBeta search = new ParallelAlphaBeta(2);
+            try {
+                search.search(0, AlphaBetaTest.createInitialBoard(), Cell.BLACK);
+            } finally {
+                search.shutdown();
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 石がNOTHINGだと例外発生() {
+            ParallelAlphaBeta search = new ParallelAlphaBeta(2);
+            try {
+                search.search(1, AlphaBetaTest.createInitialBoard(), Cell.NOTHING);
+            } finally {
+                search.shutdown();
+            }
+        }
+    }
+
+    public static class 探索結果テスト {
+
+        @Test
+        public void スレッド数に関わらず単一スレッドと同じ最善手と評価値を返すか() {
+
+            for(int threads = 1; threads <= 4; threads *= 2) {
+
+                ParallelAlphaBeta search = new ParallelAlphaBeta(threads);
+
+                for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(7L, 20)) {
+                    for(int level = 1; level <= 5; level++) {
+
+                        AlphaBeta expected = new AlphaBeta();
+                        NextMove expectedMove = expected.search(level, position.board, position.cell);
+
+                        NextMove actual = search.search(level, position.board, position.cell);
+
+                        assertThat(actual.toString(), is(expectedMove.toString()));
+                        assertThat(search.getValue(), is(expected.getValue()));
+
+                    }
+                }
+
+                search.shutdown();
+
+            }
+
+        }
+
+        @Test
+        public void 探索後も盤面が変わらないか() {
+
+            AlphaBetaTest.Position position = AlphaBetaTest.createPositions(8L, 1).get(0);
+            Board before = new Board(position.board);
+
+            ParallelAlphaBeta search = new ParallelAlphaBeta(2);
+            search.search(5, position.board, position.cell);
+            search.shutdown();
+
+            assertThat(position.board, is(before));
+
+        }
+
+        @Test
+        public void 置ける場所がない場合はnullを返すか() {
+
+            Board board = new Board();
+            board.initStone(0, 0, Cell.BLACK);
+
+            ParallelAlphaBeta search = new ParallelAlphaBeta(2);
+            NextMove move = search.search(3, board, Cell.BLACK);
+            search.shutdown();
+
+            assertThat(move, is(nullValue()));
+
+        }
+    }
+}
+
+//CHECKSTYLE:ON
@@ -0,0 +1,169 @@
+// CHECKSTYLE:OFF
+
+package ai.minimax;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link PatternEvaluator}と{@link PatternWeights}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class PatternEvaluatorTest {
+
+    public static class 引数チェックテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 評価値の配列がnullだと例外発生() {
+            new PatternEvaluator(null);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 探索の評価関数がnullだと例外発生() {
+            new AlphaBeta(null, null);
+        }
+    }
+
+    public static class 差分更新テスト {
+
+        @Test
+        public void 着手後のパターンの番号が盤面から求めた番号と一致するか() {
+
+            PatternWeights weights = PatternWeights.createDefault();
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(10L, 30)) {
+
+                Board board = new Board(position.board);
+                PatternEvaluator evaluator = new PatternEvaluator(weights);
+                evaluator.reset(board);
+                int[] before = computeIndexes(board);
+
+                long places = board.getPuttablePlaces(position.cell);
+                while(places != 0) {
+                    int index = Long.numberOfTrailingZeros(places);
+                    places &= places - 1;
+
+                    long reversed = board.putStone(index, position.cell);
+                    evaluator.update(index, position.cell, reversed);
+                    assertArrayEquals(computeIndexes(board), getIndexes(evaluator));
+
+                    board.removeStone(index, position.cell, reversed);
+                    evaluator.restore(index, position.cell, reversed);
+                    assertArrayEquals(before, getIndexes(evaluator));
+                }
+            }
+
+        }
+
+        @Test
+        public void 差分更新で探索した結果が毎回盤面から評価した結果と一致するか() {
+
+            PatternWeights weights = PatternWeights.createDefault();
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(11L, 10)) {
+
+                AlphaBeta incremental = new AlphaBeta(null, new PatternEvaluator(weights));
+                AlphaBeta full = new AlphaBeta(null, new FullEvaluator(weights));
+
+                NextMove expected = full.search(4, position.board, position.cell);
+                NextMove actual = incremental.search(4, position.board, position.cell);
+
+                assertThat(actual.getX(), is(expected.getX()));
+                assertThat(actual.getY(), is(expected.getY()));
+                assertThat(incremental.getValue(), is(full.getValue()));
+            }
+
+        }
+
+        /**
+         * 盤面から全てのパターンの番号を求めます.
+         */
+        private static int[] computeIndexes(Board board) {
+            int[] result = new int[PatternEvaluator.INSTANCE_COUNT];
+            PatternEvaluator.computeIndexes(board, result);
+            return result;
+        }
+
+        /**
+         * 評価関数が保持しているパターンの番号を取得します.
+         */
+        private static int[] getIndexes(PatternEvaluator evaluator) {
+            int[] result = new int[PatternEvaluator.INSTANCE_COUNT];
+            for(int instance = 0; instance < result.length; instance++) {
+                result[instance] = evaluator.getIndex(instance);
+            }
+            return result;
+        }
+    }
+
+    public static class 評価値テスト {
+
+        @Test
+        public void 既定の評価値は終盤以外でテーブルの評価値と一致するか() {
+
+            PatternEvaluator evaluator = new PatternEvaluator(PatternWeights.createDefault());
+            TableEvaluator table = new TableEvaluator();
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(12L, 50)) {
+                if(position.board.getStoneCount(Cell.NOTHING) <= 16) {
+                    continue;
+                }
+                for(Cell cell : new Cell[] {Cell.BLACK, Cell.WHITE}) {
+                    assertThat(evaluator.evaluate(position.board, cell), is(table.evaluate(position.board, cell)));
+                }
+            }
+
+        }
+
+        @Test
+        public void 対称な盤面は同じ評価値になるか() {
+
+            PatternEvaluator evaluator = new PatternEvaluator(PatternWeights.createDefault());
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(13L, 20)) {
+                int expected = evaluator.evaluate(position.board, position.cell);
+                for(int symmetry = 1; symmetry < Board.SYMMETRY_COUNT; symmetry++) {
+                    Board transformed = position.board.getTransformed(symmetry);
+                    assertThat(evaluator.evaluate(transformed, position.cell), is(expected));
+                }
+            }
+
+        }
+
+        @Test
+        public void 全ての評価値が0なら置ける場所の重みも0で評価値が0になるか() {
+            PatternEvaluator evaluator = new PatternEvaluator(new PatternWeights());
+            assertThat(evaluator.evaluate(AlphaBetaTest.createInitialBoard(), Cell.BLACK), is(0));
+        }
+    }
+
+    /**
+     * 差分更新を使わず、評価のたびに盤面から全てのパターンの番号を求める評価関数です.
+     */
+    private static class FullEvaluator extends TableEvaluator {
+
+        private final PatternWeights weights;
+
+        FullEvaluator(PatternWeights weights) {
+            this.weights = weights;
+        }
+
+        @Override
+        public int evaluate(Board board, Cell cell) {
+            // 複製した盤面は探索中の盤面ではないため、毎回全てのパターンの番号を求める
+            return new PatternEvaluator(this.weights).evaluate(new Board(board), cell);
+        }
+    }
+}
+
+//CHECKSTYLE:ON
@@ -0,0 +1,200 @@
+// CHECKSTYLE:OFF
+
+package ai.minimax;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+
+/**
+ * {@link PatternTrainer}と、{@link PatternWeights}のファイルの読み書きの単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class PatternTrainerTest {
+
+    public static class 引数チェックテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 学習率が0だと例外発生() {
+            new PatternTrainer(0.0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 学習率が1より大きいと例外発生() {
+            new PatternTrainer(1.5);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 初期値がnullだと例外発生() {
+            new PatternTrainer(null, 0.1);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 盤面がnullだと例外発生() {
+            new PatternTrainer(0.1).train(null, Cell.BLACK, 0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 石がNOTHINGだと例外発生() {
+            new PatternTrainer(0.1).train(AlphaBetaTest.createInitialBoard(), Cell.NOTHING, 0);
+        }
+    }
+
+    public static class 学習テスト {
+
+        @Test
+        public void 同じ局面を繰り返し学習すると結果に近づくか() {
+
+            PatternTrainer trainer = new PatternTrainer(0.5);
+            AlphaBetaTest.Position position = AlphaBetaTest.createPositions(20L, 1).get(0);
+
+            for(int i = 0; i < 20; i++) {
+                trainer.train(position.board, position.cell, 10);
+            }
+
+            assertThat(Math.abs(trainer.predict(position.board, position.cell) - 10) < 0.01, is(true));
+
+        }
+
+        @Test
+        public void 学習を続けると誤差が小さくなるか() {
+
+            // 黒の石の数から白の石の数を引いた値は、パターンの評価値の和で表せる
+            List<AlphaBetaTest.Position> positions = AlphaBetaTest.createPositions(21L, 200);
+            PatternTrainer trainer = new PatternTrainer(0.5);
+
+            double first = 0.0;
+            double last = 0.0;
+            for(int epoch = 0; epoch < 10; epoch++) {
+                double sum = 0.0;
+                for(AlphaBetaTest.Position position : positions) {
+                    int result = position.board.getStoneCount(Cell.BLACK) - position.board.getStoneCount(Cell.WHITE);
+                    double error = trainer.train(position.board, position.cell, result);
+                    sum += error * error;
+                }
+                if(epoch == 0) {
+                    first = sum;
+                }
+                last = sum;
+            }
+
+            assertThat(last < first / 10, is(true));
+
+        }
+
+        @Test
+        public void 変換した評価値で学習時の予測とほぼ同じ評価値になるか() {
+
+            PatternTrainer trainer = new PatternTrainer(PatternWeights.createDefault(), 0.3);
+            List<AlphaBetaTest.Position> positions = AlphaBetaTest.createPositions(22L, 50);
+            for(AlphaBetaTest.Position position : positions) {
+                trainer.train(position.board, position.cell, 20);
+            }
+
+            PatternEvaluator evaluator = new PatternEvaluator(trainer.getWeights());
+            for(AlphaBetaTest.Position position : positions) {
+                double expected = trainer.predict(position.board, position.cell);
+                int actual = evaluator.evaluate(position.board, position.cell);
+                // 評価値の丸めと、評価値を整数にする切り捨ての分だけ異なる
+                assertThat(Math.abs(actual - expected) < 2.0, is(true));
+            }
+
+        }
+
+        @Test
+        public void 既定の評価値から始めると既定の評価値と同じ予測になるか() {
+
+            PatternTrainer trainer = new PatternTrainer(PatternWeights.createDefault(), 0.1);
+            PatternEvaluator evaluator = new PatternEvaluator(PatternWeights.createDefault());
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(23L, 20)) {
+                assertThat((int)Math.round(trainer.predict(position.board, position.cell)),
+                        is(evaluator.evaluate(position.board, position.cell)));
+            }
+
+        }
+    }
+
+    public static class ファイルテスト {
+
+        @Test
+        public void 書き出した評価値を読み込むと同じ評価値になるか() throws IOException {
+
+            PatternTrainer trainer = new PatternTrainer(PatternWeights.createDefault(), 0.3);
+            List<AlphaBetaTest.Position> positions = AlphaBetaTest.createPositions(24L, 20);
+            for(AlphaBetaTest.Position position : positions) {
+                trainer.train(position.board, position.cell, -12);
+            }
+            PatternWeights weights = trainer.getWeights();
+
+            File file = File.createTempFile("reversi", ".weights");
+            file.deleteOnExit();
+            weights.save(file);
+            PatternWeights loaded = PatternWeights.load(file);
+
+            PatternEvaluator expected = new PatternEvaluator(weights);
+            PatternEvaluator actual = new PatternEvaluator(loaded);
+            for(AlphaBetaTest.Position position : positions) {
+                for(Cell cell : new Cell[] {Cell.BLACK, Cell.WHITE}) {
+                    Board board = position.board;
+                    assertThat(actual.evaluate(board, cell), is(expected.evaluate(board, cell)));
+                }
+            }
+            for(int phase = 0; phase < PatternWeights.PHASE_COUNT; phase++) {
+                assertThat(loaded.getMobilityWeight(phase), is(weights.getMobilityWeight(phase)));
+            }
+
+        }
+
+        @Test(expected = IOException.class)
+        public void 評価値のファイルでなければ例外発生() throws IOException {
+
+            File file = File.createTempFile("reversi", ".weights");
+            file.deleteOnExit();
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+            } finally {
+                out.close();
+            }
+
+            PatternWeights.load(file);
+
+        }
+
+        @Test(expected = IOException.class)
+        public void 途中で終わっているファイルは例外発生() throws IOException {
+
+            File file = File.createTempFile("reversi", ".weights");
+            file.deleteOnExit();
+            PatternWeights.createDefault().save(file);
+
+            // 末尾を切り詰める
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.setLength(raf.length() - 4);
+            } finally {
+                raf.close();
+            }
+
+            PatternWeights.load(file);
+
+        }
+    }
+}
+
+//CHECKSTYLE:ON
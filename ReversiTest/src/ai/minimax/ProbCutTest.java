@@ -0,0 +1,317 @@
+// CHECKSTYLE:OFF
+
+package ai.minimax;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link ProbCut}と{@link ProbCutFitter}、探索を省略する{@link AlphaBeta}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class ProbCutTest {
+
+    /**
+     * 全ての段階と深さで、浅い探索の評価値をそのまま深い探索の評価値と予想する値を生成します.
+     * @param threshold 省略する基準
+     * @return 生成した値
+     */
+    static ProbCut createProbCut(double threshold) {
+
+        ProbCut probCut = new ProbCut(threshold);
+        for(int stage = 0; stage < ProbCut.STAGE_COUNT; stage++) {
+            for(int depth = ProbCutFitter.MIN_DEPTH; depth <= ProbCut.MAX_DEPTH; depth++) {
+                probCut.setPair(stage, depth, ProbCutFitter.getShallowDepth(depth), 1.0, 0.0, 2.0);
+            }
+        }
+        return probCut;
+
+    }
+
+    public static class 引数チェックテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 基準が負の値だと例外発生() {
+            new ProbCut(-0.5);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 浅い深さが深い深さ以上だと例外発生() {
+            new ProbCut(1.0).setPair(0, 4, 4, 1.0, 0.0, 1.0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 傾きが0だと例外発生() {
+            new ProbCut(1.0).setPair(0, 4, 2, 0.0, 0.0, 1.0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 浅い深さを求める深さが小さすぎると例外発生() {
+            ProbCutFitter.getShallowDepth(ProbCutFitter.MIN_DEPTH - 1);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 組の数が3より小さいと例外発生() {
+            new ProbCutFitter().fit(1.0, 2);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void ファイルがnullだと例外発生() throws IOException {
+            ProbCut.load(null);
+        }
+    }
+
+    public static class 値を求めるテスト {
+
+        @Test
+        public void 浅い深さは深い深さと奇数か偶数かが同じになるか() {
+
+            for(int depth = ProbCutFitter.MIN_DEPTH; depth <= ProbCut.MAX_DEPTH; depth++) {
+                int shallow = ProbCutFitter.getShallowDepth(depth);
+                assertThat(shallow > 0, is(true));
+                assertThat(shallow < depth, is(true));
+                assertThat(shallow % 2, is(depth % 2));
+            }
+            assertThat(ProbCutFitter.getShallowDepth(3), is(1));
+            assertThat(ProbCutFitter.getShallowDepth(8), is(4));
+
+        }
+
+        @Test
+        public void 評価値の組から傾きと切片と誤差を求めるか() {
+
+            // 深い評価値 = 2 * 浅い評価値 + 3 + (±1の誤差)
+            ProbCutFitter fitter = new ProbCutFitter();
+            for(int shallow = -50; shallow < 50; shallow++) {
+                fitter.add(40, 6, 2 * shallow + 3 + 1, shallow);
+                fitter.add(40, 6, 2 * shallow + 3 - 1, shallow);
+            }
+            assertThat(fitter.getCount(PatternWeights.getPhase(40), 6), is(200L));
+
+            ProbCut probCut = fitter.fit(2.0, 10);
+            assertThat(probCut.getPairCount(), is(1));
+            assertThat(probCut.getShallowDepth(40, 6), is(ProbCutFitter.getShallowDepth(6)));
+            assertThat(probCut.getShallowDepth(40, 8), is(0));
+
+            // 誤差の標準偏差は約1なので、上限20以上と予想できるのは浅い評価値が(20 + 2 * 1 - 3) / 2 = 9.5以上の場合
+            assertThat(probCut.getShallowBeta(40, 6, 20), is(10));
+            // 下限-2以下と予想できるのは浅い評価値が(-2 - 2 * 1 - 3) / 2 = -3.5以下の場合
+            assertThat(probCut.getShallowAlpha(40, 6, -2), is(-4));
+
+        }
+
+        @Test
+        public void 組の数が足りない深さは省略しないか() {
+
+            ProbCutFitter fitter = new ProbCutFitter();
+            for(int i = 0; i < 5; i++) {
+                fitter.add(40, 6, i, i);
+            }
+            assertThat(fitter.fit(1.0, 10).getPairCount(), is(0));
+
+        }
+    }
+
+    public static class ファイルテスト {
+
+        @Test
+        public void 書き出した値を読み込むと同じ値になるか() throws IOException {
+
+            ProbCut probCut = new ProbCut(1.25);
+            probCut.setPair(1, 7, 3, 0.8, -1.5, 4.0);
+            probCut.setPair(2, 10, 6, 1.1, 0.5, 2.5);
+
+            File file = File.createTempFile("reversi", ".probcut");
+            file.deleteOnExit();
+            probCut.save(file);
+            ProbCut loaded = ProbCut.load(file);
+
+            assertThat(loaded.getThreshold(), is(1.25));
+            assertThat(loaded.getPairCount(), is(2));
+            for(int empties = 0; empties <= 60; empties++) {
+                for(int depth = ProbCutFitter.MIN_DEPTH; depth <= ProbCut.MAX_DEPTH; depth++) {
+                    int shallow = probCut.getShallowDepth(empties, depth);
+                    assertThat(loaded.getShallowDepth(empties, depth), is(shallow));
+                    if(shallow > 0) {
+                        assertThat(loaded.getShallowBeta(empties, depth, 10), is(probCut.getShallowBeta(empties, depth, 10)));
+                        assertThat(loaded.getShallowAlpha(empties, depth, -10), is(probCut.getShallowAlpha(empties, depth, -10)));
+                    }
+                }
+            }
+
+        }
+
+        @Test
+        public void 値を求めた評価関数を判定できるか() {
+
+            PatternWeights weights = PatternWeights.createDefault();
+            PatternWeights other = PatternWeights.createDefault();
+            other.setMobilityWeight(0, other.getMobilityWeight(0) + 1);
+
+            ProbCut table = new ProbCutFitter().fit(1.0, 10);
+            assertThat(table.isFittedFor(null), is(true));
+            assertThat(table.isFittedFor(weights), is(false));
+
+            ProbCut pattern = new ProbCutFitter(weights).fit(1.0, 10);
+            assertThat(pattern.isFittedFor(PatternWeights.createDefault()), is(true));
+            assertThat(pattern.isFittedFor(other), is(false));
+            assertThat(pattern.isFittedFor(null), is(false));
+
+        }
+
+        @Test
+        public void 値を求めた評価関数を書き出して読み込めるか() throws IOException {
+
+            PatternWeights weights = PatternWeights.createDefault();
+            File file = File.createTempFile("reversi", ".probcut");
+            file.deleteOnExit();
+            new ProbCut(1.0, weights).save(file);
+
+            ProbCut loaded = ProbCut.load(file);
+            assertThat(loaded.isFittedFor(weights), is(true));
+            assertThat(loaded.isFittedFor(null), is(false));
+
+        }
+
+        @Test
+        public void 評価関数が異なる規定のファイルは使用しないか() throws IOException {
+
+            PatternWeights weights = PatternWeights.createDefault();
+            File file = File.createTempFile("reversi", ".probcut");
+            file.deleteOnExit();
+            createProbCut(1.0).save(file);
+
+            String before = System.getProperty(ProbCut.FILE_PROPERTY);
+            System.setProperty(ProbCut.FILE_PROPERTY, file.getPath());
+            try {
+                assertThat(ProbCut.loadDefault(null), is(notNullValue()));
+                assertThat(ProbCut.loadDefault(weights), is(nullValue()));
+            } finally {
+                if(before == null) {
+                    System.clearProperty(ProbCut.FILE_PROPERTY);
+                } else {
+                    System.setProperty(ProbCut.FILE_PROPERTY, before);
+                }
+            }
+
+        }
+
+        @Test(expected = IOException.class)
+        public void 途中で終わっているファイルは例外発生() throws IOException {
+
+            File file = File.createTempFile("reversi", ".probcut");
+            file.deleteOnExit();
+            createProbCut(1.0).save(file);
+
+            // 末尾を切り詰める
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.setLength(raf.length() - 4);
+            } finally {
+                raf.close();
+            }
+
+            ProbCut.load(file);
+
+        }
+
+        @Test(expected = IOException.class)
+        public void 値が正しくないファイルは例外発生() throws IOException {
+
+            File file = File.createTempFile("reversi", ".probcut");
+            file.deleteOnExit();
+            ProbCut probCut = new ProbCut(1.0);
+            probCut.setPair(0, 6, 4, 1.0, 0.0, 1.0);
+            probCut.save(file);
+
+            // 傾きを負の値に書き換える
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.seek(raf.length() - 24);
+                raf.writeDouble(-1.0);
+            } finally {
+                raf.close();
+            }
+
+            ProbCut.load(file);
+
+        }
+    }
+
+    public static class 探索テスト {
+
+        @Test
+        public void 省略しない場合は省略したノードの数が0か() {
+
+            AlphaBetaTest.Position position = AlphaBetaTest.createPositions(41L, 1).get(0);
+            AlphaBeta search = new AlphaBeta(new TranspositionTable(12), new TableEvaluator());
+            search.search(5, position.board, position.cell);
+            assertThat(search.getProbCut(), is(nullValue()));
+            assertThat(search.getProbCutCount(), is(0L));
+
+        }
+
+        @Test
+        public void 探索を省略すると少ないノード数で探索できるか() {
+
+            long fullNodes = 0;
+            long cutNodes = 0;
+            long cutCount = 0;
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(42L, 10)) {
+
+                AlphaBeta full = new AlphaBeta(new TranspositionTable(14), new TableEvaluator(),
+                        new HeuristicMoveOrdering(), SearchMode.PRINCIPAL_VARIATION);
+                assertThat(full.search(6, position.board, position.cell), is(notNullValue()));
+                fullNodes += full.getNodeCount();
+
+                AlphaBeta cut = new AlphaBeta(new TranspositionTable(14), new TableEvaluator(),
+                        new HeuristicMoveOrdering(), SearchMode.PRINCIPAL_VARIATION, createProbCut(0.0));
+                assertThat(cut.search(6, position.board, position.cell), is(notNullValue()));
+                cutNodes += cut.getNodeCount();
+                cutCount += cut.getProbCutCount();
+
+            }
+
+            assertThat(cutCount > 0, is(true));
+            assertThat(cutNodes < fullNodes, is(true));
+
+        }
+
+        @Test
+        public void 基準が大きいほど省略するノードが減るか() {
+
+            long looseCount = 0;
+            long strictCount = 0;
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(43L, 10)) {
+
+                AlphaBeta loose = new AlphaBeta(new TranspositionTable(14), new TableEvaluator(),
+                        new HeuristicMoveOrdering(), SearchMode.PRINCIPAL_VARIATION, createProbCut(0.0));
+                loose.search(6, position.board, position.cell);
+                looseCount += loose.getProbCutCount();
+
+                AlphaBeta strict = new AlphaBeta(new TranspositionTable(14), new TableEvaluator(),
+                        new HeuristicMoveOrdering(), SearchMode.PRINCIPAL_VARIATION, createProbCut(10.0));
+                strict.search(6, position.board, position.cell);
+                strictCount += strict.getProbCutCount();
+
+            }
+
+            assertThat(strictCount < looseCount, is(true));
+
+        }
+    }
+}
+
+//CHECKSTYLE:ON
@@ -0,0 +1,276 @@
+// CHECKSTYLE:OFF
+
+package ai.minimax;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import core.Board;
+import core.Cell;
+import core.NextMove;
+
+/**
+ * {@link TranspositionTable}の単体テストです.
+ * @author tanabe
+ *
+ */
+@RunWith(Enclosed.class)
+public class TranspositionTableTest {
+
+    public static class インスタンス化テスト {
+
+        @Test
+        public void 指定した大きさで生成されるか() {
+            assertThat(new TranspositionTable(4).getSize(), is(16));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 大きさが0だと例外発生() {
+            new TranspositionTable(0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 大きさが上限を超えると例外発生() {
+            new TranspositionTable(27);
+        }
+    }
+
+    public static class 記録と参照テスト {
+
+        @Test
+        public void 記録した内容を取り出せるか() {
+            TranspositionTable table = new TranspositionTable(4);
+            table.store(0x123L, 7, TranspositionTable.LOWER, -12345, 63);
+
+            long entry = table.probe(0x123L);
+
+            assertThat(entry, is(not(TranspositionTable.NOT_FOUND)));
+            assertThat(TranspositionTable.getDepth(entry), is(7));
+            assertThat(TranspositionTable.getBound(entry), is(TranspositionTable.LOWER));
+            assertThat(TranspositionTable.getScore(entry), is(-12345));
+            assertThat(TranspositionTable.getMove(entry), is(63));
+        }
+
+        @Test
+        public void 最善手がない場合はNO_MOVEを取り出せるか() {
+            TranspositionTable table = new TranspositionTable(4);
+            table.store(0x123L, 1, TranspositionTable.EXACT, 0, TranspositionTable.NO_MOVE);
+
+            long entry = table.probe(0x123L);
+
+            assertThat(TranspositionTable.getMove(entry), is(TranspositionTable.NO_MOVE));
+            assertThat(TranspositionTable.getScore(entry), is(0));
+        }
+
+        @Test
+        public void 記録していないキーはNOT_FOUND() {
+            TranspositionTable table = new TranspositionTable(4);
+            table.store(0x01L, 1, TranspositionTable.EXACT, 1, 0);
+
+            // 同じ位置に記録される別のキー
+            assertThat(table.probe(0x11L), is(TranspositionTable.NOT_FOUND));
+            assertThat(table.probe(0x02L), is(TranspositionTable.NOT_FOUND));
+        }
+
+        @Test
+        public void clearで全て消去されるか() {
+            TranspositionTable table = new TranspositionTable(4);
+            table.store(0x01L, 1, TranspositionTable.EXACT, 1, 0);
+            table.clear();
+
+            assertThat(table.probe(0x01L), is(TranspositionTable.NOT_FOUND));
+        }
+
+        @Test
+        public void 手番が違うとキーが異なるか() {
+            Board board = AlphaBetaTest.createInitialBoard();
+            assertThat(TranspositionTable.getKey(board, Cell.BLACK),
+                    is(not(TranspositionTable.getKey(board, Cell.WHITE))));
+        }
+    }
+
+    public static class 置き換えテスト {
+
+        @Test
+        public void 同じ探索ではより深い局面を残すか() {
+            TranspositionTable table = new TranspositionTable(4);
+            table.store(0x01L, 5, TranspositionTable.EXACT, 1, 0);
+            table.store(0x11L, 3, TranspositionTable.EXACT, 2, 0);
+
+            assertThat(table.probe(0x11L), is(TranspositionTable.NOT_FOUND));
+            assertThat(TranspositionTable.getScore(table.probe(0x01L)), is(1));
+        }
+
+        @Test
+        public void 同じ探索でも同じ深さ以上なら置き換えるか() {
+            TranspositionTable table = new TranspositionTable(4);
+            table.store(0x01L, 5, TranspositionTable.EXACT, 1, 0);
+            table.store(0x11L, 5, TranspositionTable.EXACT, 2, 0);
+
+            assertThat(table.probe(0x01L), is(TranspositionTable.NOT_FOUND));
+            assertThat(TranspositionTable.getScore(table.probe(0x11L)), is(2));
+        }
+
+        @Test
+        public void 以前の探索の局面は浅くても置き換えるか() {
+            TranspositionTable table = new TranspositionTable(4);
+            table.store(0x01L, 5, TranspositionTable.EXACT, 1, 0);
+            table.newSearch();
+            table.store(0x11L, 1, TranspositionTable.EXACT, 2, 0);
+
+            assertThat(TranspositionTable.getScore(table.probe(0x11L)), is(2));
+        }
+
+        @Test
+        public void 同じ局面は浅くても置き換えるか() {
+            TranspositionTable table = new TranspositionTable(4);
+            table.store(0x01L, 5, TranspositionTable.LOWER, 1, 0);
+            table.store(0x01L, 2, TranspositionTable.EXACT, 2, 3);
+
+            long entry = table.probe(0x01L);
+            assertThat(TranspositionTable.getDepth(entry), is(2));
+            assertThat(TranspositionTable.getMove(entry), is(3));
+        }
+    }
+
+    public static class ヒット率テスト {
+
+        @Test
+        public void 参照していない場合は0() {
+            assertThat(new TranspositionTable(4).getHitRate(), is(0.0));
+        }
+
+        @Test
+        public void 参照回数と一致回数から求めるか() {
+            TranspositionTable table = new TranspositionTable(4);
+            table.store(0x01L, 1, TranspositionTable.EXACT, 1, 0);
+
+            table.probe(0x01L);
+            table.probe(0x02L);
+            table.probe(0x01L);
+            table.probe(0x03L);
+
+            assertThat(table.getProbeCount(), is(4L));
+            assertThat(table.getHitCount(), is(2L));
+            assertThat(table.getStoreCount(), is(1L));
+            assertThat(table.getHitRate(), is(0.5));
+        }
+    }
+
+    public static class 共有テスト {
+
+        @Test
+        public void 共有する場合は参照回数を数えないか() {
+            TranspositionTable table = new TranspositionTable(4, true);
+            table.store(0x01L, 1, TranspositionTable.EXACT, 1, 0);
+
+            assertThat(TranspositionTable.getScore(table.probe(0x01L)), is(1));
+            assertThat(table.getProbeCount(), is(0L));
+            assertThat(table.getHitCount(), is(0L));
+            assertThat(table.getStoreCount(), is(0L));
+        }
+
+        @Test
+        public void 複数のスレッドで記録しても別の局面の内容を返さないか() throws InterruptedException {
+
+            // 同じ位置に記録されるキーを奪い合うよう、表を小さくする
+            final TranspositionTable table = new TranspositionTable(2, true);
+            final AtomicInteger errors = new AtomicInteger();
+            final AtomicInteger hits = new AtomicInteger();
+
+            Thread[] threads = new Thread[4];
+            for(int i = 0; i < threads.length; i++) {
+                final long seed = i;
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Random random = new Random(seed);
+                        for(int j = 0; j < 200000; j++) {
+                            long key = random.nextInt(64) * 0x9E3779B97F4A7C15L;
+                            int move = (int)(key >>> 58);
+                            table.store(key, move, TranspositionTable.EXACT, (int)(key >>> 32), move);
+
+                            long probeKey = random.nextInt(64) * 0x9E3779B97F4A7C15L;
+                            long entry = table.probe(probeKey);
+                            if(entry == TranspositionTable.NOT_FOUND) {
+                                continue;
+                            }
+                            hits.incrementAndGet();
+                            // キーから求めた内容と一致しない場合は、別の局面の内容が混ざっている
+                            int expected = (int)(probeKey >>> 58);
+                            if((TranspositionTable.getScore(entry) != (int)(probeKey >>> 32))
+                                    || (TranspositionTable.getDepth(entry) != expected)
+                                    || (TranspositionTable.getMove(entry) != expected)) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+            }
+            for(Thread thread : threads) {
+                thread.start();
+            }
+            for(Thread thread : threads) {
+                thread.join();
+            }
+
+            assertThat(hits.get() > 0, is(true));
+            assertThat(errors.get(), is(0));
+
+        }
+    }
+
+    public static class 探索での利用テスト {
+
+        @Test
+        public void 置換表を使ってもミニマックス法と同じ最善手と評価値を返すか() {
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(1L, 30)) {
+                for(int level = 1; level <= 5; level++) {
+
+                    Inner expected = new Inner(level, new Board(position.board), position.cell);
+
+                    AlphaBeta search = new AlphaBeta(new TranspositionTable(16));
+                    NextMove actual = search.search(level, position.board, position.cell);
+
+                    assertThat(actual.toString(), is(expected.getNextMove().toString()));
+                    assertThat(search.getValue(), is(expected.getValue()));
+
+                }
+            }
+
+        }
+
+        @Test
+        public void 置換表を使うと探索するノード数が減るか() {
+
+            long withTable = 0;
+            long withoutTable = 0;
+
+            for(AlphaBetaTest.Position position : AlphaBetaTest.createPositions(6L, 5)) {
+
+                AlphaBeta search = new AlphaBeta(new TranspositionTable(16));
+                search.search(position.board, position.cell, 6, 0L);
+                withTable += search.getNodeCount();
+                assertThat(search.getTable().getHitCount() > 0, is(true));
+
+                AlphaBeta plain = new AlphaBeta();
+                plain.search(position.board, position.cell, 6, 0L);
+                withoutTable += plain.getNodeCount();
+
+            }
+
+            assertThat(withTable < withoutTable, is(true));
+
+        }
+    }
+}
+
+//CHECKSTYLE:ON
@@ -294,7 +294,27 @@ public class BoardTest {
         public void initStoneでY座標としてマイナス1を渡すと例外発生() {
             this.board.initStone(0, -1, Cell.BLACK);
         }
-        
+
+        @Test(expected=ArrayIndexOutOfBoundsException.class)
+        public void initStoneでX座標として横幅を渡すと例外発生() {
+            this.board.initStone(this.board.getWidth(), 0, Cell.BLACK);
+        }
+
+        @Test(expected=ArrayIndexOutOfBoundsException.class)
+        public void getStoneでX座標として横幅を渡すと例外発生() {
+            this.board.getStone(this.board.getWidth(), 0);
+        }
+
+        @Test
+        public void initStoneで白石を黒石に置き換えられるか() {
+            this.board.initStone(2, 5, Cell.WHITE);
+            this.board.initStone(2, 5, Cell.BLACK);
+
+            assertThat(this.board.getStone(2, 5), is(Cell.BLACK));
+            assertThat(this.board.getStoneCount(Cell.WHITE), is(0));
+            assertThat(this.board.getStoneCount(Cell.BLACK), is(1));
+        }
+
     }
     
     public static class 石の反転可否判断テスト {
@@ -359,6 +379,275 @@ public class BoardTest {
             setStoneForLeftUp(this.board, Cell.WHITE, Cell.BLACK);
             assertThat(this.board.canPut(7, 7, Cell.WHITE), is(true));
         }
+
+        @Test
+        public void canPutが石の置かれたマス目にFalseを返すか() {
+            setStoneForUp(this.board, Cell.WHITE, Cell.BLACK);
+            this.board.initStone(0, 7, Cell.BLACK);
+            assertThat(this.board.canPut(0, 7, Cell.WHITE), is(false));
+        }
+
+        @Test
+        public void canPutで盤面の端を回り込んで反転しないか() {
+            // 右端の黒石の次は一段下の左端になるが、隣接していないので挟めない
+            this.board.initStone(6, 0, Cell.BLACK);
+            this.board.initStone(7, 0, Cell.BLACK);
+            this.board.initStone(0, 1, Cell.WHITE);
+            assertThat(this.board.canPut(5, 0, Cell.WHITE), is(false));
+        }
+    }
+
+    public static class 着手可能な場所の一括取得テスト {
+
+        @Test
+        public void getPuttablePlacesで初期配置の黒石の置き場所を取得できるか() {
+            Board board = new Board();
+            board.initStone(3, 3, Cell.WHITE);
+            board.initStone(4, 4, Cell.WHITE);
+            board.initStone(3, 4, Cell.BLACK);
+            board.initStone(4, 3, Cell.BLACK);
+
+            long expected = (1L << Board.toIndex(3, 2))
+                    | (1L << Board.toIndex(2, 3))
+                    | (1L << Board.toIndex(5, 4))
+                    | (1L << Board.toIndex(4, 5));
+
+            assertThat(board.getPuttablePlaces(Cell.BLACK), is(expected));
+        }
+
+        @Test
+        public void getPuttablePlacesの結果がcanPutと一致するか() {
+            Board board = createMiddleGameBoard();
+
+            for(Cell cell : new Cell[]{Cell.BLACK, Cell.WHITE}) {
+                long places = board.getPuttablePlaces(cell);
+                for(int y = 0; y < board.getHeight(); y++) {
+                    for(int x = 0; x < board.getWidth(); x++) {
+                        boolean puttable = ((places >>> Board.toIndex(x, y)) & 1L) != 0;
+                        assertThat(puttable, is(board.canPut(x, y, cell)));
+                    }
+                }
+            }
+        }
+
+        @Test
+        public void toXとtoYでtoIndexの逆変換ができるか() {
+            int index = Board.toIndex(5, 2);
+            assertThat(Board.toX(index), is(5));
+            assertThat(Board.toY(index), is(2));
+        }
+
+        @Test(expected=IllegalArgumentException.class)
+        public void getPuttablePlacesにNOTHINGを渡すと例外発生() {
+            new Board().getPuttablePlaces(Cell.NOTHING);
+        }
+    }
+
+    public static class 探索用の着手と取り消しテスト {
+
+        @Test
+        public void putStoneでひっくり返した石を取得できるか() {
+            Board board = new Board();
+            setStoneForUp(board, Cell.WHITE, Cell.BLACK);
+
+            long reversed = board.putStone(Board.toIndex(0, 7), Cell.WHITE);
+
+            long expected = 0L;
+            for(int y = 1; y <= 6; y++) {
+                expected |= 1L << Board.toIndex(0, y);
+            }
+            assertThat(reversed, is(expected));
+            assertThat(board.getStoneCount(Cell.WHITE), is(8));
+        }
+
+        @Test
+        public void putStoneで置けない場所を指定すると盤面が変わらないか() {
+            Board board = createMiddleGameBoard();
+            Board before = new Board(board);
+
+            assertThat(board.putStone(Board.toIndex(0, 0), Cell.BLACK), is(0L));
+            assertThat(board, is(before));
+        }
+
+        @Test
+        public void putStoneで範囲外の位置を指定すると盤面を変えずに例外発生() {
+            // 範囲外の位置と同じビットになる左上と右下に置ける盤面
+            Board board = new Board();
+            board.initStone(1, 0, Cell.WHITE);
+            board.initStone(2, 0, Cell.BLACK);
+            board.initStone(6, 7, Cell.WHITE);
+            board.initStone(5, 7, Cell.BLACK);
+            Board before = new Board(board);
+
+            for(int index : new int[] {64, -1}) {
+                try {
+                    board.putStone(index, Cell.BLACK);
+                    fail();
+                } catch (IllegalArgumentException e) {
+                    assertThat(board, is(before));
+                    assertThat(board.getHash(), is(before.getHash()));
+                }
+            }
+        }
+
+        @Test
+        public void removeStoneで着手前の盤面に戻せるか() {
+            Board board = createMiddleGameBoard();
+            Board before = new Board(board);
+
+            long places = board.getPuttablePlaces(Cell.WHITE);
+            while(places != 0) {
+                int index = Long.numberOfTrailingZeros(places);
+                places &= places - 1;
+
+                long reversed = board.putStone(index, Cell.WHITE);
+                assertThat(reversed, is(not(0L)));
+                assertThat(board, is(not(before)));
+
+                board.removeStone(index, Cell.WHITE, reversed);
+                assertThat(board, is(before));
+            }
+        }
+    }
+
+    public static class ハッシュ値テスト {
+
+        @Test
+        public void 石のない盤面のハッシュ値は0() {
+            assertThat(new Board().getHash(), is(0L));
+        }
+
+        @Test
+        public void 着手後のハッシュ値が同じ配置を直接作った盤面と一致するか() {
+            Board board = createMiddleGameBoard();
+
+            long places = board.getPuttablePlaces(Cell.WHITE);
+            while(places != 0) {
+                int index = Long.numberOfTrailingZeros(places);
+                places &= places - 1;
+
+                long reversed = board.putStone(index, Cell.WHITE);
+                Board rebuilt = rebuild(board);
+                assertThat(board.getHash(), is(rebuilt.getHash()));
+                assertThat(board.hashCode(), is(rebuilt.hashCode()));
+                board.removeStone(index, Cell.WHITE, reversed);
+            }
+        }
+
+        @Test
+        public void 着手を取り消すとハッシュ値が元に戻るか() {
+            Board board = createMiddleGameBoard();
+            long before = board.getHash();
+
+            long places = board.getPuttablePlaces(Cell.BLACK);
+            while(places != 0) {
+                int index = Long.numberOfTrailingZeros(places);
+                places &= places - 1;
+
+                long reversed = board.putStone(index, Cell.BLACK);
+                assertThat(board.getHash(), is(not(before)));
+                board.removeStone(index, Cell.BLACK, reversed);
+                assertThat(board.getHash(), is(before));
+            }
+        }
+
+        @Test
+        public void initStoneで石を置き換えてもハッシュ値が一致するか() {
+            Board board = new Board();
+            board.initStone(2, 3, Cell.WHITE);
+            board.initStone(2, 3, Cell.BLACK);
+
+            Board expected = new Board();
+            expected.initStone(2, 3, Cell.BLACK);
+            assertThat(board.getHash(), is(expected.getHash()));
+
+            board.initStone(2, 3, Cell.NOTHING);
+            assertThat(board.getHash(), is(0L));
+        }
+
+        @Test
+        public void コピーした盤面のハッシュ値が一致するか() {
+            Board board = createMiddleGameBoard();
+            assertThat(new Board(board).getHash(), is(board.getHash()));
+        }
+
+        /**
+         * 石の配置をinitStoneで写した盤面を生成します.
+         */
+        private static Board rebuild(Board board) {
+            Board result = new Board();
+            for(int y = 0; y < board.getHeight(); y++) {
+                for(int x = 0; x < board.getWidth(); x++) {
+                    result.initStone(x, y, board.getStone(x, y));
+                }
+            }
+            return result;
+        }
+    }
+
+    public static class 石の反転処理のメモリ確保テスト {
+
+        /**
+         * 中盤の盤面で、全マス目への着手可否判定がヒープを消費しないことをテストします.
+         */
+        @Test
+        public void 中盤の盤面で着手可能な場所を全て調べてもメモリを確保しないか() {
+
+            java.lang.management.ThreadMXBean bean
+                = java.lang.management.ManagementFactory.getThreadMXBean();
+
+            if(!(bean instanceof com.sun.management.ThreadMXBean)) {
+                // 確保量を計測できないJVMでは確認しない
+                return;
+            }
+
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean)bean;
+            if(!allocation.isThreadAllocatedMemorySupported()) {
+                return;
+            }
+            allocation.setThreadAllocatedMemoryEnabled(true);
+
+            Board board = createMiddleGameBoard();
+            long threadId = Thread.currentThread().getId();
+
+            // JITコンパイルを済ませておく
+            int warmup = scanPuttablePlaces(board, 10000);
+
+            long before = allocation.getThreadAllocatedBytes(threadId);
+            int count = scanPuttablePlaces(board, 10000);
+            long after = allocation.getThreadAllocatedBytes(threadId);
+
+            assertThat(count, is(warmup));
+            assertThat(after - before, is(0L));
+
+        }
+
+        /**
+         * 全てのマス目について、両方の石の着手可否を指定回数判定します.
+         * @param board 盤面
+         * @param times 繰り返し回数
+         * @return 着手可能な場所の合計
+         */
+        private static int scanPuttablePlaces(Board board, int times) {
+
+            int count = 0;
+
+            for(int i = 0; i < times; i++) {
+                for(int y = 0; y < board.getHeight(); y++) {
+                    for(int x = 0; x < board.getWidth(); x++) {
+                        if(board.canPut(x, y, Cell.BLACK)) {
+                            count++;
+                        }
+                        if(board.canPut(x, y, Cell.WHITE)) {
+                            count++;
+                        }
+                    }
+                }
+            }
+
+            return count;
+
+        }
     }
     
     public static class 石の反転テスト {
@@ -1327,6 +1616,87 @@ public class BoardTest {
         }
     }
     
+    public static class 対称変換テスト {
+
+        /** 各変換でのマス目(x, y)の移動先です. */
+        private static int[] transformCoordinates(int x, int y, int symmetry) {
+            switch(symmetry) {
+                case 0: return new int[] {x, y};
+                case 1: return new int[] {7 - y, x};
+                case 2: return new int[] {7 - x, 7 - y};
+                case 3: return new int[] {y, 7 - x};
+                case 4: return new int[] {7 - x, y};
+                case 5: return new int[] {x, 7 - y};
+                case 6: return new int[] {y, x};
+                default: return new int[] {7 - y, 7 - x};
+            }
+        }
+
+        @Test
+        public void 全てのマス目が座標の変換と同じ場所に移るか() {
+            for(int symmetry = 0; symmetry < Board.SYMMETRY_COUNT; symmetry++) {
+                for(int y = 0; y < 8; y++) {
+                    for(int x = 0; x < 8; x++) {
+                        int[] to = transformCoordinates(x, y, symmetry);
+                        assertThat(Board.transformIndex(Board.toIndex(x, y), symmetry), is(Board.toIndex(to[0], to[1])));
+                    }
+                }
+            }
+        }
+
+        @Test
+        public void 逆変換で元のマス目に戻るか() {
+            for(int symmetry = 0; symmetry < Board.SYMMETRY_COUNT; symmetry++) {
+                int inverse = Board.getInverseSymmetry(symmetry);
+                for(int index = 0; index < 64; index++) {
+                    assertThat(Board.transformIndex(Board.transformIndex(index, symmetry), inverse), is(index));
+                }
+            }
+        }
+
+        @Test
+        public void 変換した盤面の石とハッシュ値が一致するか() {
+            Board board = createMiddleGameBoard();
+
+            for(int symmetry = 0; symmetry < Board.SYMMETRY_COUNT; symmetry++) {
+                Board expected = new Board();
+                for(int y = 0; y < 8; y++) {
+                    for(int x = 0; x < 8; x++) {
+                        int[] to = transformCoordinates(x, y, symmetry);
+                        expected.initStone(to[0], to[1], board.getStone(x, y));
+                    }
+                }
+
+                Board transformed = board.getTransformed(symmetry);
+                assertThat(transformed, is(expected));
+                assertThat(transformed.getHash(), is(expected.getHash()));
+            }
+        }
+
+        @Test
+        public void 対称な盤面は同じ盤面に正規化されるか() {
+            Board board = createMiddleGameBoard();
+            Board canonical = board.getTransformed(board.getCanonicalSymmetry());
+
+            for(int symmetry = 0; symmetry < Board.SYMMETRY_COUNT; symmetry++) {
+                Board transformed = board.getTransformed(symmetry);
+                assertThat(transformed.getTransformed(transformed.getCanonicalSymmetry()), is(canonical));
+            }
+        }
+
+        @Test
+        public void 正規形の盤面は無変換で正規化されるか() {
+            Board board = createMiddleGameBoard();
+            Board canonical = board.getTransformed(board.getCanonicalSymmetry());
+            assertThat(canonical.getTransformed(canonical.getCanonicalSymmetry()), is(canonical));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 対応する変換がないと例外発生() {
+            Board.transformBits(1L, Board.SYMMETRY_COUNT);
+        }
+    }
+
     public static class インスタンスの比較テスト {
         
         /**
@@ -1591,6 +1961,48 @@ public class BoardTest {
         board.initStone(5, 5, other);
         board.initStone(6, 6, other);
     }
+
+    /**
+     * 中盤の盤面を生成します.<br>
+     * -が石がないマス、bが黒石、wが白石を表します.<br>
+     * --------<br>
+     * --b-----<br>
+     * --bbw---<br>
+     * -wwbwb--<br>
+     * --wbbw--<br>
+     * --wwbbw-<br>
+     * ---w-b--<br>
+     * --------<br>
+     */
+    public static Board createMiddleGameBoard() {
+        String[] rows = {
+            "--------",
+            "--b-----",
+            "--bbw---",
+            "-wwbwb--",
+            "--wbbw--",
+            "--wwbbw-",
+            "---w-b--",
+            "--------"
+        };
+
+        Board board = new Board();
+        for(int y = 0; y < rows.length; y++) {
+            for(int x = 0; x < rows[y].length(); x++) {
+                switch(rows[y].charAt(x)) {
+                    case 'b':
+                        board.initStone(x, y, Cell.BLACK);
+                        break;
+                    case 'w':
+                        board.initStone(x, y, Cell.WHITE);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return board;
+    }
 }
 
 //CHECKSTYLE:ON
@@ -7,12 +7,23 @@ import mockit.Mocked;
 import static org.junit.Assert.*;
 import static org.hamcrest.CoreMatchers.*;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 
 import output.GameViewer;
+import output.NullViewer;
+import ai.AsyncGamePlayer;
+import ai.AsyncPlayerAdapter;
 import ai.GamePlayer;
+import ai.MoveFuture;
+import ai.RandomSelect;
 
 /**
  * {@link GameManager}の単体テストです.
@@ -75,6 +86,252 @@ public class GameManagerTest {
             assertThat(manager.isFinish(), is(true));
         }
     }
+
+    public static class ゲーム終了待ちテスト {
+
+        @Test
+        public void 開始前のawaitFinishはすぐに戻るか() throws InterruptedException {
+            GameManager manager = createManager();
+            assertThat(manager.awaitFinish(0, TimeUnit.MILLISECONDS), is(true));
+        }
+
+        @Test
+        public void awaitFinishでゲームの終了を待てるか() throws InterruptedException {
+            GameManager manager = createManager();
+            final AtomicInteger count = new AtomicInteger();
+            final boolean[] finished = new boolean[1];
+            manager.addGameFinishListener(new GameFinishListener() {
+                @Override
+                public void gameFinished(GameManager m) {
+                    finished[0] = m.isFinish();
+                    count.incrementAndGet();
+                }
+            });
+
+            manager.gameStart();
+
+            assertThat(manager.awaitFinish(10, TimeUnit.SECONDS), is(true));
+            assertThat(manager.isFinish(), is(true));
+            assertThat(manager.isStopped(), is(false));
+
+            // リスナーはラッチの解放後に呼び出されるので、少し待つ
+            for(int i = 0; (i < 100) && (count.get() == 0); i++) {
+                Thread.sleep(10);
+            }
+            assertThat(count.get(), is(1));
+            assertThat(finished[0], is(true));
+        }
+
+        @Test
+        public void runを直接呼び出しても終了を通知するか() {
+            GameManager manager = createManager();
+            final AtomicInteger count = new AtomicInteger();
+            manager.addGameFinishListener(new GameFinishListener() {
+                @Override
+                public void gameFinished(GameManager m) {
+                    count.incrementAndGet();
+                }
+            });
+
+            manager.run();
+
+            assertThat(manager.isFinish(), is(true));
+            assertThat(count.get(), is(1));
+        }
+
+        @Test
+        public void 削除したリスナーは呼び出されないか() {
+            GameManager manager = createManager();
+            final AtomicInteger count = new AtomicInteger();
+            GameFinishListener listener = new GameFinishListener() {
+                @Override
+                public void gameFinished(GameManager m) {
+                    count.incrementAndGet();
+                }
+            };
+            manager.addGameFinishListener(listener);
+            manager.removeGameFinishListener(listener);
+
+            manager.run();
+
+            assertThat(count.get(), is(0));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void nullのリスナーを登録すると例外発生() {
+            createManager().addGameFinishListener(null);
+        }
+
+        /**
+         * 待ち時間なしでランダムに石を置くプレイヤー同士のゲームを生成します.
+         */
+        private static GameManager createManager() {
+            return new GameManager(new RandomSelect(0), new RandomSelect(0), new Board(), new NullViewer());
+        }
+    }
+
+    public static class 非同期ゲームテスト {
+
+        @Test
+        public void 非同期のプレイヤー同士で最後まで進むか() throws InterruptedException {
+            ExecutorService thinkPool = Executors.newFixedThreadPool(2);
+            ExecutorService gamePool = Executors.newSingleThreadExecutor();
+            try {
+                Board board = new Board();
+                GameManager manager = new GameManager(
+                        new AsyncPlayerAdapter(new RandomSelect(0), thinkPool),
+                        new AsyncPlayerAdapter(new RandomSelect(0), thinkPool),
+                        board, new NullViewer());
+
+                manager.gameStartAsync(gamePool);
+
+                assertThat(manager.awaitFinish(10, TimeUnit.SECONDS), is(true));
+                assertThat(manager.isStopped(), is(false));
+                assertThat(board.getPuttablePlaces(Cell.BLACK), is(0L));
+                assertThat(board.getPuttablePlaces(Cell.WHITE), is(0L));
+            } finally {
+                thinkPool.shutdownNow();
+                gamePool.shutdownNow();
+            }
+        }
+
+        @Test
+        public void 同期的なプレイヤーでも非同期に進められるか() throws InterruptedException {
+            ExecutorService gamePool = Executors.newSingleThreadExecutor();
+            try {
+                GameManager manager = new GameManager(
+                        new RandomSelect(0), new RandomSelect(0), new Board(), new NullViewer());
+
+                manager.gameStartAsync(gamePool);
+
+                assertThat(manager.awaitFinish(10, TimeUnit.SECONDS), is(true));
+                assertThat(manager.isStopped(), is(false));
+            } finally {
+                gamePool.shutdownNow();
+            }
+        }
+
+        @Test
+        public void 制限時間を過ぎると手を取り消して中断するか() throws InterruptedException {
+            ExecutorService gamePool = Executors.newSingleThreadExecutor();
+            try {
+                SilentPlayer player = new SilentPlayer();
+                GameManager manager = new GameManager(player, player, new Board(), new NullViewer());
+                manager.setMoveTimeLimit(50);
+
+                manager.gameStartAsync(gamePool);
+
+                assertThat(manager.awaitFinish(10, TimeUnit.SECONDS), is(true));
+                assertThat(manager.isStopped(), is(true));
+                assertThat(player.last.get().isCancelled(), is(true));
+            } finally {
+                gamePool.shutdownNow();
+            }
+        }
+
+        @Test
+        public void 同期的なゲームループでも制限時間を過ぎると中断するか() {
+            SilentPlayer player = new SilentPlayer();
+            GameManager manager = new GameManager(player, player, new Board(), new NullViewer());
+            manager.setMoveTimeLimit(50);
+
+            manager.run();
+
+            assertThat(manager.isStopped(), is(true));
+            assertThat(player.last.get().isCancelled(), is(true));
+        }
+
+        @Test
+        public void stopで考えている手を取り消して中断するか() throws InterruptedException {
+            ExecutorService gamePool = Executors.newSingleThreadExecutor();
+            try {
+                SilentPlayer player = new SilentPlayer();
+                GameManager manager = new GameManager(player, player, new Board(), new NullViewer());
+
+                manager.gameStartAsync(gamePool);
+                for(int i = 0; (i < 100) && (player.last.get() == null); i++) {
+                    Thread.sleep(10);
+                }
+                manager.stop();
+
+                assertThat(manager.awaitFinish(10, TimeUnit.SECONDS), is(true));
+                assertThat(manager.isStopped(), is(true));
+                assertThat(player.last.get().isCancelled(), is(true));
+            } finally {
+                gamePool.shutdownNow();
+            }
+        }
+
+        @Test
+        public void 同期的なプレイヤーがErrorを投げても終了を通知するか() throws InterruptedException {
+            ExecutorService gamePool = Executors.newSingleThreadExecutor();
+            try {
+                GameManager manager = new GameManager(
+                        new BrokenPlayer(), new BrokenPlayer(), new Board(), new NullViewer());
+
+                manager.gameStartAsync(gamePool);
+
+                assertThat(manager.awaitFinish(10, TimeUnit.SECONDS), is(true));
+                assertThat(manager.isStopped(), is(true));
+            } finally {
+                gamePool.shutdownNow();
+            }
+        }
+
+        @Test
+        public void 非同期のプレイヤーがErrorを投げても終了を通知するか() throws InterruptedException {
+            ExecutorService thinkPool = Executors.newSingleThreadExecutor();
+            ExecutorService gamePool = Executors.newSingleThreadExecutor();
+            try {
+                GameManager manager = new GameManager(
+                        new AsyncPlayerAdapter(new BrokenPlayer(), thinkPool),
+                        new AsyncPlayerAdapter(new BrokenPlayer(), thinkPool),
+                        new Board(), new NullViewer());
+
+                manager.gameStartAsync(gamePool);
+
+                assertThat(manager.awaitFinish(10, TimeUnit.SECONDS), is(true));
+                assertThat(manager.isStopped(), is(true));
+            } finally {
+                thinkPool.shutdownNow();
+                gamePool.shutdownNow();
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void 負の制限時間を指定すると例外発生() {
+            new GameManager(new RandomSelect(0), new RandomSelect(0), new Board(), new NullViewer()).setMoveTimeLimit(-1);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void nullのExecutorを指定すると例外発生() {
+            new GameManager(new RandomSelect(0), new RandomSelect(0), new Board(), new NullViewer()).gameStartAsync(null);
+        }
+
+        /**
+         * 次の手を考えるとErrorを投げるプレイヤーです.
+         */
+        private static class BrokenPlayer implements GamePlayer {
+            @Override
+            public NextMove think(Cell cell, Board board) {
+                throw new AssertionError();
+            }
+        }
+
+        /**
+         * 次の手をいつまでも決めないプレイヤーです.
+         */
+        private static class SilentPlayer implements AsyncGamePlayer {
+            final AtomicReference<MoveFuture> last = new AtomicReference<MoveFuture>();
+
+            @Override
+            public MoveFuture thinkAsync(Cell cell, Board board) {
+                MoveFuture future = new MoveFuture();
+                this.last.set(future);
+                return future;
+            }
+        }
+    }
 }
 
 //CHECKSTYLE:ON
\ No newline at end of file